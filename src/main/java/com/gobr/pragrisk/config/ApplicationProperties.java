@@ -1,5 +1,12 @@
 package com.gobr.pragrisk.config;
 
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.service.risk.RiskWeightingModel;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +16,623 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Risk risk = new Risk();
+
+    private final Ingest ingest = new Ingest();
+
+    private final Datasource datasource = new Datasource();
+
+    private final Search search = new Search();
+
+    public Risk getRisk() {
+        return risk;
+    }
+
+    public Ingest getIngest() {
+        return ingest;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public static class Datasource {
+
+        private final Replica replica = new Replica();
+
+        public Replica getReplica() {
+            return replica;
+        }
+
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private String poolName = "HikariReplica";
+
+            private int maximumPoolSize = 0;
+
+            private String lagQuery =
+                "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0" +
+                " else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+            private long maxLagMs = 2000;
+
+            private long lagCheckIntervalMs = 1000;
+
+            private long readYourWritesMs = 5000;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public String getPoolName() {
+                return poolName;
+            }
+
+            public void setPoolName(String poolName) {
+                this.poolName = poolName;
+            }
+
+            public int getMaximumPoolSize() {
+                return maximumPoolSize;
+            }
+
+            public void setMaximumPoolSize(int maximumPoolSize) {
+                this.maximumPoolSize = maximumPoolSize;
+            }
+
+            public String getLagQuery() {
+                return lagQuery;
+            }
+
+            public void setLagQuery(String lagQuery) {
+                this.lagQuery = lagQuery;
+            }
+
+            public long getMaxLagMs() {
+                return maxLagMs;
+            }
+
+            public void setMaxLagMs(long maxLagMs) {
+                this.maxLagMs = maxLagMs;
+            }
+
+            public long getLagCheckIntervalMs() {
+                return lagCheckIntervalMs;
+            }
+
+            public void setLagCheckIntervalMs(long lagCheckIntervalMs) {
+                this.lagCheckIntervalMs = lagCheckIntervalMs;
+            }
+
+            public long getReadYourWritesMs() {
+                return readYourWritesMs;
+            }
+
+            public void setReadYourWritesMs(long readYourWritesMs) {
+                this.readYourWritesMs = readYourWritesMs;
+            }
+        }
+    }
+
+    public static class Search {
+
+        private int trackTotalHitsUpTo = 10_000;
+
+        private final Indexer indexer = new Indexer();
+
+        private final Reindex reindex = new Reindex();
+
+        private final Facets facets = new Facets();
+
+        private final Suggest suggest = new Suggest();
+
+        public Indexer getIndexer() {
+            return indexer;
+        }
+
+        public Reindex getReindex() {
+            return reindex;
+        }
+
+        public Facets getFacets() {
+            return facets;
+        }
+
+        public Suggest getSuggest() {
+            return suggest;
+        }
+
+        public int getTrackTotalHitsUpTo() {
+            return trackTotalHitsUpTo;
+        }
+
+        public void setTrackTotalHitsUpTo(int trackTotalHitsUpTo) {
+            this.trackTotalHitsUpTo = trackTotalHitsUpTo;
+        }
+
+        public static class Indexer {
+
+            private long pollIntervalMs = 500;
+
+            private int batchSize = 500;
+
+            private int maxAttempts = 10;
+
+            private long retryBackoffMs = 1000;
+
+            private long maxRetryBackoffMs = 60_000;
+
+            public long getPollIntervalMs() {
+                return pollIntervalMs;
+            }
+
+            public void setPollIntervalMs(long pollIntervalMs) {
+                this.pollIntervalMs = pollIntervalMs;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getMaxAttempts() {
+                return maxAttempts;
+            }
+
+            public void setMaxAttempts(int maxAttempts) {
+                this.maxAttempts = maxAttempts;
+            }
+
+            public long getRetryBackoffMs() {
+                return retryBackoffMs;
+            }
+
+            public void setRetryBackoffMs(long retryBackoffMs) {
+                this.retryBackoffMs = retryBackoffMs;
+            }
+
+            public long getMaxRetryBackoffMs() {
+                return maxRetryBackoffMs;
+            }
+
+            public void setMaxRetryBackoffMs(long maxRetryBackoffMs) {
+                this.maxRetryBackoffMs = maxRetryBackoffMs;
+            }
+        }
+
+        public static class Reindex {
+
+            private int parallelism = 0;
+
+            private int batchSize = 1000;
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+        }
+
+        public static class Facets {
+
+            private List<BigDecimal> riskValueThresholds = List.of(
+                new BigDecimal(1000),
+                new BigDecimal(10000),
+                new BigDecimal(100000),
+                new BigDecimal(1000000)
+            );
+
+            public List<BigDecimal> getRiskValueThresholds() {
+                return riskValueThresholds;
+            }
+
+            public void setRiskValueThresholds(List<BigDecimal> riskValueThresholds) {
+                this.riskValueThresholds = riskValueThresholds;
+            }
+        }
+
+        public static class Suggest {
+
+            private int cacheSize = 1000;
+
+            private long cacheTtlMs = 60_000;
+
+            public int getCacheSize() {
+                return cacheSize;
+            }
+
+            public void setCacheSize(int cacheSize) {
+                this.cacheSize = cacheSize;
+            }
+
+            public long getCacheTtlMs() {
+                return cacheTtlMs;
+            }
+
+            public void setCacheTtlMs(long cacheTtlMs) {
+                this.cacheTtlMs = cacheTtlMs;
+            }
+        }
+    }
+
+    public static class Ingest {
+
+        private int batchSize = 500;
+
+        private int referenceCacheSize = 10_000;
+
+        private int maxRecordLength = 65_536;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getReferenceCacheSize() {
+            return referenceCacheSize;
+        }
+
+        public void setReferenceCacheSize(int referenceCacheSize) {
+            this.referenceCacheSize = referenceCacheSize;
+        }
+
+        public int getMaxRecordLength() {
+            return maxRecordLength;
+        }
+
+        public void setMaxRecordLength(int maxRecordLength) {
+            this.maxRecordLength = maxRecordLength;
+        }
+    }
+
+    public static class Risk {
+
+        private RiskWeightingModel model = RiskWeightingModel.PRODUCT;
+
+        private BigDecimal probabilityWeight = BigDecimal.ONE;
+
+        private BigDecimal consequenceWeight = BigDecimal.ONE;
+
+        private int recomputeBatchSize = 1000;
+
+        private final Simulation simulation = new Simulation();
+
+        private final Heatmap heatmap = new Heatmap();
+
+        private final Residual residual = new Residual();
+
+        private final Register register = new Register();
+
+        private final WhatIf whatIf = new WhatIf();
+
+        private final History history = new History();
+
+        public RiskWeightingModel getModel() {
+            return model;
+        }
+
+        public void setModel(RiskWeightingModel model) {
+            this.model = model;
+        }
+
+        public BigDecimal getProbabilityWeight() {
+            return probabilityWeight;
+        }
+
+        public void setProbabilityWeight(BigDecimal probabilityWeight) {
+            this.probabilityWeight = probabilityWeight;
+        }
+
+        public BigDecimal getConsequenceWeight() {
+            return consequenceWeight;
+        }
+
+        public void setConsequenceWeight(BigDecimal consequenceWeight) {
+            this.consequenceWeight = consequenceWeight;
+        }
+
+        public int getRecomputeBatchSize() {
+            return recomputeBatchSize;
+        }
+
+        public void setRecomputeBatchSize(int recomputeBatchSize) {
+            this.recomputeBatchSize = recomputeBatchSize;
+        }
+
+        public Simulation getSimulation() {
+            return simulation;
+        }
+
+        public Heatmap getHeatmap() {
+            return heatmap;
+        }
+
+        public Residual getResidual() {
+            return residual;
+        }
+
+        public Register getRegister() {
+            return register;
+        }
+
+        public WhatIf getWhatIf() {
+            return whatIf;
+        }
+
+        public History getHistory() {
+            return history;
+        }
+
+        public static class Simulation {
+
+            private int parallelism = 0;
+
+            private int maxIterations = 100_000;
+
+            private double probabilityScale = 1;
+
+            private double lossSigma = 0.5;
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public int getMaxIterations() {
+                return maxIterations;
+            }
+
+            public void setMaxIterations(int maxIterations) {
+                this.maxIterations = maxIterations;
+            }
+
+            public double getProbabilityScale() {
+                return probabilityScale;
+            }
+
+            public void setProbabilityScale(double probabilityScale) {
+                this.probabilityScale = probabilityScale;
+            }
+
+            public double getLossSigma() {
+                return lossSigma;
+            }
+
+            public void setLossSigma(double lossSigma) {
+                this.lossSigma = lossSigma;
+            }
+        }
+
+        public static class Heatmap {
+
+            private List<BigDecimal> probabilityThresholds = List.of(
+                new BigDecimal("0.2"),
+                new BigDecimal("0.4"),
+                new BigDecimal("0.6"),
+                new BigDecimal("0.8")
+            );
+
+            private List<BigDecimal> consequenceThresholds = List.of(
+                new BigDecimal(1000),
+                new BigDecimal(10000),
+                new BigDecimal(100000),
+                new BigDecimal(1000000)
+            );
+
+            public List<BigDecimal> getProbabilityThresholds() {
+                return probabilityThresholds;
+            }
+
+            public void setProbabilityThresholds(List<BigDecimal> probabilityThresholds) {
+                this.probabilityThresholds = probabilityThresholds;
+            }
+
+            public List<BigDecimal> getConsequenceThresholds() {
+                return consequenceThresholds;
+            }
+
+            public void setConsequenceThresholds(List<BigDecimal> consequenceThresholds) {
+                this.consequenceThresholds = consequenceThresholds;
+            }
+        }
+
+        public static class Residual {
+
+            private Map<MitigationStatus, BigDecimal> statusEffectiveness = new EnumMap<>(
+                Map.of(
+                    MitigationStatus.NOT_PERFORMED,
+                    BigDecimal.ZERO,
+                    MitigationStatus.AD_HOC,
+                    new BigDecimal("0.2"),
+                    MitigationStatus.PLANNED_AND_TRACKED,
+                    new BigDecimal("0.4"),
+                    MitigationStatus.WELL_DEFINED,
+                    new BigDecimal("0.6"),
+                    MitigationStatus.QUANTITATIVELY_CONTROLLED,
+                    new BigDecimal("0.8"),
+                    MitigationStatus.CONTINUOUSLY_IMPROVED,
+                    new BigDecimal("0.9")
+                )
+            );
+
+            private Map<MitigationType, BigDecimal> typeEffectiveness = new EnumMap<>(
+                Map.of(
+                    MitigationType.PREVENTIVE,
+                    BigDecimal.ONE,
+                    MitigationType.DETECTIVE,
+                    new BigDecimal("0.6"),
+                    MitigationType.CORRECTIVE,
+                    new BigDecimal("0.5"),
+                    MitigationType.DETERRING,
+                    new BigDecimal("0.3")
+                )
+            );
+
+            public Map<MitigationStatus, BigDecimal> getStatusEffectiveness() {
+                return statusEffectiveness;
+            }
+
+            public void setStatusEffectiveness(Map<MitigationStatus, BigDecimal> statusEffectiveness) {
+                this.statusEffectiveness = statusEffectiveness;
+            }
+
+            public Map<MitigationType, BigDecimal> getTypeEffectiveness() {
+                return typeEffectiveness;
+            }
+
+            public void setTypeEffectiveness(Map<MitigationType, BigDecimal> typeEffectiveness) {
+                this.typeEffectiveness = typeEffectiveness;
+            }
+        }
+
+        public static class Register {
+
+            private String rebuildCron = "0 30 3 * * ?";
+
+            public String getRebuildCron() {
+                return rebuildCron;
+            }
+
+            public void setRebuildCron(String rebuildCron) {
+                this.rebuildCron = rebuildCron;
+            }
+        }
+
+        public static class WhatIf {
+
+            private int parallelism = 0;
+
+            private int maxOptions = 1000;
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public int getMaxOptions() {
+                return maxOptions;
+            }
+
+            public void setMaxOptions(int maxOptions) {
+                this.maxOptions = maxOptions;
+            }
+        }
+
+        public static class History {
+
+            private long flushIntervalMs = 10_000;
+
+            private int segmentSize = 4096;
+
+            private int keyBucketSize = 64;
+
+            private int maxPoints = 1000;
+
+            private int maxFlushAttempts = 5;
+
+            private int maxPendingSegments = 10_000;
+
+            public long getFlushIntervalMs() {
+                return flushIntervalMs;
+            }
+
+            public void setFlushIntervalMs(long flushIntervalMs) {
+                this.flushIntervalMs = flushIntervalMs;
+            }
+
+            public int getSegmentSize() {
+                return segmentSize;
+            }
+
+            public void setSegmentSize(int segmentSize) {
+                this.segmentSize = segmentSize;
+            }
+
+            public int getKeyBucketSize() {
+                return keyBucketSize;
+            }
+
+            public void setKeyBucketSize(int keyBucketSize) {
+                this.keyBucketSize = keyBucketSize;
+            }
+
+            public int getMaxPoints() {
+                return maxPoints;
+            }
+
+            public void setMaxPoints(int maxPoints) {
+                this.maxPoints = maxPoints;
+            }
+
+            public int getMaxFlushAttempts() {
+                return maxFlushAttempts;
+            }
+
+            public void setMaxFlushAttempts(int maxFlushAttempts) {
+                this.maxFlushAttempts = maxFlushAttempts;
+            }
+
+            public int getMaxPendingSegments() {
+                return maxPendingSegments;
+            }
+
+            public void setMaxPendingSegments(int maxPendingSegments) {
+                this.maxPendingSegments = maxPendingSegments;
+            }
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.gobr.pragrisk.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.sql.SQLException;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
@@ -56,4 +64,61 @@ public class DatabaseConfiguration {
         }
         return String.valueOf(port);
     }
+
+    /**
+     * Sends read-only transactions to a read replica when {@code application.datasource.replica.url} is set, through a
+     * {@link ReplicaRoutingDataSource}. The primary and replica get their own Hikari pool, both configured by
+     * {@code spring.datasource.hikari}, and Liquibase runs on the primary.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "application.datasource.replica", name = "url")
+    static class ReplicaRoutingConfiguration {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        public HikariDataSource replicaDataSource(HikariDataSource primaryDataSource, ApplicationProperties applicationProperties) {
+            ApplicationProperties.Datasource.Replica properties = applicationProperties.getDatasource().getReplica();
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(properties.getUrl());
+            if (properties.getUsername() != null) {
+                replica.setUsername(properties.getUsername());
+                replica.setPassword(properties.getPassword());
+            }
+            replica.setPoolName(properties.getPoolName());
+            if (properties.getMaximumPoolSize() > 0) {
+                replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            }
+            return replica;
+        }
+
+        @Bean
+        public ReplicaLagMonitor replicaLagMonitor(
+            HikariDataSource replicaDataSource,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry
+        ) {
+            return new ReplicaLagMonitor(replicaDataSource, applicationProperties.getDatasource().getReplica(), meterRegistry);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(
+            HikariDataSource primaryDataSource,
+            HikariDataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry
+        ) {
+            long readYourWritesMs = applicationProperties.getDatasource().getReplica().getReadYourWritesMs();
+            return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor, readYourWritesMs, meterRegistry)
+            );
+        }
+    }
 }
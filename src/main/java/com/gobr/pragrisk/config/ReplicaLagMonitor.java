@@ -0,0 +1,89 @@
+package com.gobr.pragrisk.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Checks how far a read replica lags behind the primary database, every
+ * {@code application.datasource.replica.lag-check-interval-ms}.
+ * <p>
+ * The replica is available while its lag query answers with at most {@code application.datasource.replica.max-lag-ms};
+ * a {@code null} lag, as on a database that is not replaying, counts as none. It is unavailable until the first check
+ * and whenever the query fails. The lag is published as the {@code pragrisk.datasource.replica.lag} gauge, in seconds.
+ */
+public class ReplicaLagMonitor {
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+
+    private final String lagQuery;
+
+    private final long maxLagMs;
+
+    private final int queryTimeoutSeconds;
+
+    private volatile boolean available;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, ApplicationProperties.Datasource.Replica properties, MeterRegistry registry) {
+        this.replica = replica;
+        this.lagQuery = properties.getLagQuery();
+        this.maxLagMs = properties.getMaxLagMs();
+        this.queryTimeoutSeconds = (int) Math.max(1, properties.getLagCheckIntervalMs() / 1000);
+        Gauge
+            .builder("pragrisk.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+            .baseUnit("seconds")
+            .description("Replication lag of the read replica, NaN when it cannot be reached")
+            .register(registry);
+        Gauge
+            .builder("pragrisk.datasource.replica.available", this, monitor -> monitor.available ? 1 : 0)
+            .description("Whether read-only transactions go to the read replica")
+            .register(registry);
+    }
+
+    /**
+     * @return whether read-only transactions may go to the replica.
+     */
+    public boolean isReplicaAvailable() {
+        return available;
+    }
+
+    /**
+     * Query the replica lag and update the availability of the replica.
+     */
+    @Scheduled(fixedDelayString = "${application.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        double lag = queryLag();
+        boolean nowAvailable = !Double.isNaN(lag) && lag * 1000 <= maxLagMs;
+        if (available && !nowAvailable) {
+            log.warn("Read replica lagging by {} s, reading from the primary database", lag);
+        } else if (!available && nowAvailable) {
+            log.info("Read replica lagging by {} s, reading from it", lag);
+        }
+        lagSeconds = lag;
+        available = nowAvailable;
+    }
+
+    private double queryLag() {
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                // getDouble reads null as 0
+                return resultSet.next() ? resultSet.getDouble(1) : 0;
+            }
+        } catch (SQLException e) {
+            log.debug("Could not query the read replica lag: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.gobr.pragrisk.config;
+
+import com.gobr.pragrisk.security.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the connections of read-only transactions to a read replica, and every other connection to
+ * the primary database.
+ * <p>
+ * Reads stay on the primary while the {@link ReplicaLagMonitor} finds the replica lagging or unreachable, and for
+ * {@code application.datasource.replica.read-your-writes-ms} after the current user commits a read-write transaction,
+ * so that users read their own writes. Routed reads are counted by the {@code pragrisk.datasource.reads} counter.
+ * <p>
+ * Reads whose result outlives the request, like the in-memory risk caches, or which must see the latest commit, like
+ * the current state returned with a {@code 412 (Precondition Failed)}, run in read-write transactions to stay on the
+ * primary.
+ * <p>
+ * The transaction is only known once it has begun, so this data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY,
+        REPLICA,
+    }
+
+    private final ReplicaLagMonitor monitor;
+
+    private final long readYourWritesMs;
+
+    private final Map<String, Long> lastCommits = new ConcurrentHashMap<>();
+
+    private final Counter replicaReads;
+
+    private final Counter laggingReads;
+
+    private final Counter readYourWritesReads;
+
+    public ReplicaRoutingDataSource(
+        DataSource primary,
+        DataSource replica,
+        ReplicaLagMonitor monitor,
+        long readYourWritesMs,
+        MeterRegistry registry
+    ) {
+        this.monitor = monitor;
+        this.readYourWritesMs = readYourWritesMs;
+        this.replicaReads = readCounter("replica", registry);
+        this.laggingReads = readCounter("primary-replica-lagging", registry);
+        this.readYourWritesReads = readCounter("primary-read-your-writes", registry);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    private static Counter readCounter(String route, MeterRegistry registry) {
+        return Counter
+            .builder("pragrisk.datasource.reads")
+            .description("Connections of read-only transactions, by route")
+            .tag("route", route)
+            .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackCommit();
+            return Route.PRIMARY;
+        }
+        if (!monitor.isReplicaAvailable()) {
+            laggingReads.increment();
+            return Route.PRIMARY;
+        }
+        if (hasRecentCommit()) {
+            readYourWritesReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    private void trackCommit() {
+        if (readYourWritesMs <= 0 || !TransactionSynchronizationManager.isSynchronizationActive() || !SecurityUtils.isAuthenticated()) {
+            return;
+        }
+        SecurityUtils
+            .getCurrentUserLogin()
+            .ifPresent(login ->
+                TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            lastCommits.put(login, System.currentTimeMillis());
+                        }
+                    }
+                )
+            );
+    }
+
+    private boolean hasRecentCommit() {
+        String login = SecurityUtils.getCurrentUserLogin().orElse(null);
+        Long committedAt = login == null ? null : lastCommits.get(login);
+        if (committedAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - committedAt < readYourWritesMs) {
+            return true;
+        }
+        lastCommits.remove(login, committedAt);
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.gobr.pragrisk.config;
+
+import com.gobr.pragrisk.service.risk.ResidualRiskModel;
+import com.gobr.pragrisk.service.risk.RiskModel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RiskConfiguration {
+
+    @Bean
+    public RiskModel riskModel(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Risk risk = applicationProperties.getRisk();
+        return new RiskModel(risk.getModel(), risk.getProbabilityWeight(), risk.getConsequenceWeight());
+    }
+
+    @Bean
+    public ResidualRiskModel residualRiskModel(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Risk.Residual residual = applicationProperties.getRisk().getResidual();
+        return new ResidualRiskModel(residual.getStatusEffectiveness(), residual.getTypeEffectiveness());
+    }
+}
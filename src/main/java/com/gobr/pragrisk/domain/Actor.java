@@ -8,6 +8,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 /**
  * A Actor.
@@ -15,27 +20,62 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "actor")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@NamedEntityGraph(
+    name = Actor.EAGER_RELATIONSHIPS_GRAPH,
+    attributeNodes = { @NamedAttributeNode("parentActor"), @NamedAttributeNode("group") }
+)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "actor")
 public class Actor implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The fetch graph of the parent and group of an actor, which are lazy.
+     */
+    public static final String EAGER_RELATIONSHIPS_GRAPH = "Actor.eagerRelationships";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actorSequenceGenerator")
+    @SequenceGenerator(name = "actorSequenceGenerator", sequenceName = "actor_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "first_name", nullable = false)
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256),
+            @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type)
+        }
+    )
     private String firstName;
 
     @NotNull
     @Column(name = "last_name", nullable = false)
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256),
+            @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type)
+        }
+    )
     private String lastName;
 
     @NotNull
     @Column(name = "nick_name", nullable = false)
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256),
+            @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type)
+        }
+    )
     private String nickName;
 
     @Size(max = 1024)
@@ -43,7 +83,7 @@ public class Actor implements Serializable {
     private String description;
 
     @JsonIgnoreProperties(value = { "parentActor", "actorIDS", "group" }, allowSetters = true)
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private Actor parentActor;
 
@@ -52,7 +92,7 @@ public class Actor implements Serializable {
     @JsonIgnoreProperties(value = { "actorFK", "technologyFK", "vulnerabilityFK" }, allowSetters = true)
     private Set<Scenario> actorIDS = new HashSet<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Environment group;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -70,6 +110,14 @@ public class Actor implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return this.firstName;
     }
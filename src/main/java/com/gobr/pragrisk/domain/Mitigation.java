@@ -10,6 +10,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 /**
  * A Mitigation.
@@ -17,17 +22,22 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "mitigation")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "mitigation")
 public class Mitigation implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mitigationSequenceGenerator")
+    @SequenceGenerator(name = "mitigationSequenceGenerator", sequenceName = "mitigation_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Pattern(regexp = "^R+\\d$")
     @Column(name = "control_id", nullable = false, unique = true)
@@ -35,6 +45,13 @@ public class Mitigation implements Serializable {
 
     @NotNull
     @Column(name = "title", nullable = false)
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256),
+            @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type)
+        }
+    )
     private String title;
 
     @Column(name = "description")
@@ -73,6 +90,14 @@ public class Mitigation implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getControlID() {
         return this.controlID;
     }
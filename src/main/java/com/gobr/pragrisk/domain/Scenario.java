@@ -7,6 +7,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 /**
  * A Scenario.
@@ -14,19 +19,40 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "scenario")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@NamedEntityGraph(
+    name = Scenario.EAGER_RELATIONSHIPS_GRAPH,
+    attributeNodes = { @NamedAttributeNode("actorFK"), @NamedAttributeNode("technologyFK"), @NamedAttributeNode("vulnerabilityFK") }
+)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "scenario")
 public class Scenario implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The fetch graph of the actor, technology and vulnerability of a scenario, which are lazy.
+     */
+    public static final String EAGER_RELATIONSHIPS_GRAPH = "Scenario.eagerRelationships";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scenarioSequenceGenerator")
+    @SequenceGenerator(name = "scenarioSequenceGenerator", sequenceName = "scenario_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "title", nullable = false, unique = true)
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256),
+            @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type)
+        }
+    )
     private String title;
 
     @Size(max = 1024)
@@ -42,15 +68,15 @@ public class Scenario implements Serializable {
     @Column(name = "risk_value", precision = 21, scale = 2)
     private BigDecimal riskValue;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "parentActor", "actorIDS", "group" }, allowSetters = true)
     private Actor actorFK;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "parentTechnology", "technologyIDS" }, allowSetters = true)
     private Technology technologyFK;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "vulnerabilityIDS", "mitigations" }, allowSetters = true)
     private Vulnerability vulnerabilityFK;
 
@@ -69,6 +95,14 @@ public class Scenario implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return this.title;
     }
@@ -10,6 +10,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 /**
  * A Technology.
@@ -17,19 +22,37 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "technology")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@NamedEntityGraph(name = Technology.EAGER_RELATIONSHIPS_GRAPH, attributeNodes = { @NamedAttributeNode("parentTechnology") })
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "technology")
 public class Technology implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The fetch graph of the parent of a technology, which is lazy.
+     */
+    public static final String EAGER_RELATIONSHIPS_GRAPH = "Technology.eagerRelationships";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "technologySequenceGenerator")
+    @SequenceGenerator(name = "technologySequenceGenerator", sequenceName = "technology_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "name", nullable = false)
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256),
+            @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type)
+        }
+    )
     private String name;
 
     @NotNull
@@ -47,7 +70,7 @@ public class Technology implements Serializable {
     private TechStack techStackType;
 
     @JsonIgnoreProperties(value = { "parentTechnology", "technologyIDS" }, allowSetters = true)
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private Technology parentTechnology;
 
@@ -71,6 +94,14 @@ public class Technology implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return this.name;
     }
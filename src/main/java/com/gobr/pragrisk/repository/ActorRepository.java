@@ -1,7 +1,18 @@
 package com.gobr.pragrisk.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import com.gobr.pragrisk.domain.Actor;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +20,98 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ActorRepository extends JpaRepository<Actor, Long> {}
+public interface ActorRepository extends JpaRepository<Actor, Long> {
+    String SUMMARY_QUERY =
+        "select actor.id as id, actor.nickName as nickName, parent.id as parentActorId, parent.nickName as parentActorNickName," +
+        " actorGroup.id as groupId, actorGroup.name as groupName from Actor actor left join actor.parentActor parent" +
+        " left join actor.group actorGroup";
+
+    @EntityGraph(Actor.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select actor from Actor actor")
+    Page<Actor> findAllWithEagerRelationships(Pageable pageable);
+
+    @EntityGraph(Actor.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select actor from Actor actor")
+    Slice<Actor> findSliceWithEagerRelationships(Pageable pageable);
+
+    @EntityGraph(Actor.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select actor from Actor actor where actor.id = :id")
+    Optional<Actor> findOneWithEagerRelationships(@Param("id") Long id);
+
+    @Query(value = SUMMARY_QUERY, countQuery = "select count(actor) from Actor actor")
+    Page<ActorSummary> findAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_QUERY)
+    Slice<ActorSummary> findSummarySlice(Pageable pageable);
+
+    @Query("select actor.id as id, actorGroup.id as groupId from Actor actor left join actor.group actorGroup")
+    List<ActorGroupId> findAllGroupIds();
+
+    @Query("select actor.id as id, parent.id as parentId from Actor actor left join actor.parentActor parent")
+    List<ActorParentId> findAllParentIds();
+
+    @Query("select actor.id from Actor actor where actor.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The id of an actor and of its group (Environment).
+     */
+    interface ActorGroupId {
+        Long getId();
+
+        Long getGroupId();
+    }
+
+    /**
+     * The id of an actor and of its parent actor.
+     */
+    interface ActorParentId {
+        Long getId();
+
+        Long getParentId();
+    }
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = ExportQueries.FETCH_SIZE))
+    @Query(
+        "select actor.id as id, actor.firstName as firstName, actor.lastName as lastName, actor.nickName as nickName," +
+        " actor.description as description, parent.id as parentActorId, actorGroup.id as groupId" +
+        " from Actor actor left join actor.parentActor parent left join actor.group actorGroup order by actor.id"
+    )
+    Stream<ActorExportRow> streamExportRows();
+
+    /**
+     * The columns of an exported actor, with the ids of its parent and group.
+     */
+    interface ActorExportRow {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        String getNickName();
+
+        String getDescription();
+
+        Long getParentActorId();
+
+        Long getGroupId();
+    }
+
+    /**
+     * The columns of an actor, with the names of its parent and group, as listed in summary views.
+     */
+    interface ActorSummary {
+        Long getId();
+
+        String getNickName();
+
+        Long getParentActorId();
+
+        String getParentActorNickName();
+
+        Long getGroupId();
+
+        String getGroupName();
+    }
+}
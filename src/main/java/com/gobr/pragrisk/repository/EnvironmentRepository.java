@@ -1,6 +1,10 @@
 package com.gobr.pragrisk.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import com.gobr.pragrisk.domain.Environment;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +13,22 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface EnvironmentRepository extends JpaRepository<Environment, Long> {}
+public interface EnvironmentRepository extends JpaRepository<Environment, Long> {
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = ExportQueries.FETCH_SIZE))
+    @Query(
+        "select environment.id as id, environment.name as name, environment.description as description" +
+        " from Environment environment order by environment.id"
+    )
+    Stream<EnvironmentExportRow> streamExportRows();
+
+    /**
+     * The columns of an exported environment.
+     */
+    interface EnvironmentExportRow {
+        Long getId();
+
+        String getName();
+
+        String getDescription();
+    }
+}
@@ -0,0 +1,15 @@
+package com.gobr.pragrisk.repository;
+
+/**
+ * Settings of the repository methods streaming a whole table for an export.
+ * <p>
+ * Those methods return a {@link java.util.stream.Stream} of flat projections, so rows are neither loaded as entities
+ * nor kept in the persistence context, and must be consumed inside a transaction. With auto-commit off and a fetch
+ * size, PostgreSQL reads them through a server-side cursor, {@link #FETCH_SIZE} rows per round trip.
+ */
+public final class ExportQueries {
+
+    public static final String FETCH_SIZE = "500";
+
+    private ExportQueries() {}
+}
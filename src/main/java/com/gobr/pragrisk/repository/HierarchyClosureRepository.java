@@ -0,0 +1,160 @@
+package com.gobr.pragrisk.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the ancestor/descendant closure tables of the self-referencing hierarchies.
+ * <p>
+ * Every node has a row for itself at depth 0 and one for each of its ancestors, so that subtrees and ancestor paths
+ * are read with a single indexed lookup.
+ */
+@Repository
+public class HierarchyClosureRepository {
+
+    /**
+     * A hierarchy and its closure table.
+     */
+    public enum Hierarchy {
+        ACTOR("actor_closure"),
+        TECHNOLOGY("technology_closure");
+
+        private final String table;
+
+        Hierarchy(String table) {
+            this.table = table;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HierarchyClosureRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return whether {@code descendantId} is {@code ancestorId} or one of its descendants.
+     */
+    public boolean isDescendant(Hierarchy hierarchy, long ancestorId, long descendantId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "select count(*) from " + hierarchy.table + " where ancestor_id = ? and descendant_id = ?",
+            Integer.class,
+            ancestorId,
+            descendantId
+        );
+        return count != null && count > 0;
+    }
+
+    /**
+     * @return the id of the node then the id of its parent, the node only if it is a root, or nothing if it is unknown.
+     */
+    public List<Long> findNodeAndParentIds(Hierarchy hierarchy, long id) {
+        return jdbcTemplate.queryForList(
+            "select ancestor_id from " + hierarchy.table + " where descendant_id = ? and depth <= 1 order by depth",
+            Long.class,
+            id
+        );
+    }
+
+    public List<Long> findDescendantIds(Hierarchy hierarchy, long ancestorId) {
+        return jdbcTemplate.queryForList(
+            "select descendant_id from " + hierarchy.table + " where ancestor_id = ? and depth > 0 order by depth, descendant_id",
+            Long.class,
+            ancestorId
+        );
+    }
+
+    /**
+     * Attach a node, with its whole subtree, under a new parent: the links between the subtree and its former
+     * ancestors are dropped and links to the new ancestors are added.
+     *
+     * @param parentId the id of the new parent, or {@code null} to make the node a root.
+     */
+    public void move(Hierarchy hierarchy, long id, Long parentId) {
+        insertSelf(hierarchy, id);
+        String table = hierarchy.table;
+        jdbcTemplate.update(
+            "delete from " + table + " where descendant_id in (select descendant_id from " + table + " where ancestor_id = ?)" +
+            " and ancestor_id not in (select descendant_id from " + table + " where ancestor_id = ?)",
+            id,
+            id
+        );
+        if (parentId != null) {
+            insertSelf(hierarchy, parentId);
+            jdbcTemplate.update(
+                "insert into " + table + " (ancestor_id, descendant_id, depth)" +
+                " select a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 from " + table + " a, " + table + " d" +
+                " where a.descendant_id = ? and d.ancestor_id = ?",
+                parentId,
+                id
+            );
+        }
+    }
+
+    /**
+     * Remove a node; its descendants, if any, keep their links to one another.
+     */
+    public void delete(Hierarchy hierarchy, long id) {
+        jdbcTemplate.update("delete from " + hierarchy.table + " where ancestor_id = ? or descendant_id = ?", id, id);
+    }
+
+    /**
+     * Stream the whole closure, in no particular order.
+     *
+     * @param consumer the consumer of the {@code (ancestor id, descendant id, depth)} rows, which are reused.
+     */
+    public void forEachRow(Hierarchy hierarchy, Consumer<long[]> consumer) {
+        long[] row = new long[3];
+        jdbcTemplate.query(
+            "select ancestor_id, descendant_id, depth from " + hierarchy.table,
+            rs -> {
+                row[0] = rs.getLong(1);
+                row[1] = rs.getLong(2);
+                row[2] = rs.getLong(3);
+                consumer.accept(row);
+            }
+        );
+    }
+
+    /**
+     * Replace the whole closure.
+     *
+     * @param rows the {@code (ancestor id, descendant id, depth)} rows.
+     */
+    public void replaceAll(Hierarchy hierarchy, List<long[]> rows) {
+        jdbcTemplate.update("delete from " + hierarchy.table);
+        jdbcTemplate.batchUpdate(
+            "insert into " + hierarchy.table + " (ancestor_id, descendant_id, depth) values (?, ?, ?)",
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    long[] row = rows.get(i);
+                    ps.setLong(1, row[0]);
+                    ps.setLong(2, row[1]);
+                    ps.setInt(3, (int) row[2]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            }
+        );
+    }
+
+    private void insertSelf(Hierarchy hierarchy, long id) {
+        jdbcTemplate.update(
+            "insert into " + hierarchy.table + " (ancestor_id, descendant_id, depth) select ?, ?, 0 from (values (1)) v" +
+            " where not exists (select 1 from " + hierarchy.table + " where ancestor_id = ? and descendant_id = ?)",
+            id,
+            id,
+            id,
+            id
+        );
+    }
+}
@@ -0,0 +1,73 @@
+package com.gobr.pragrisk.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An inclusive range of entity ids, which can be split into slices to read in parallel.
+ */
+public final class IdRange {
+
+    private final long first;
+
+    private final long last;
+
+    public IdRange(long first, long last) {
+        if (first > last) {
+            throw new IllegalArgumentException("Empty id range " + first + ".." + last);
+        }
+        this.first = first;
+        this.last = last;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public long getLast() {
+        return last;
+    }
+
+    /**
+     * Split the range into contiguous slices of the same width, the last one possibly narrower. Ids are not evenly
+     * spread when rows have been deleted, so more slices than readers balance the load better.
+     *
+     * @param count the number of slices wanted.
+     * @return at most {@code count} slices, in id order, covering the range.
+     */
+    public List<IdRange> split(int count) {
+        long ids = last - first + 1;
+        long width = Math.max(1, (ids + Math.max(1, count) - 1) / Math.max(1, count));
+        List<IdRange> slices = new ArrayList<>();
+        for (long start = first; start <= last; start += width) {
+            slices.add(new IdRange(start, Math.min(last, start + width - 1)));
+            if (start + width - 1 >= last) {
+                break;
+            }
+        }
+        return slices;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdRange)) {
+            return false;
+        }
+        IdRange other = (IdRange) o;
+        return first == other.first && last == other.last;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(first, last);
+    }
+
+    @Override
+    public String toString() {
+        return first + ".." + last;
+    }
+}
@@ -0,0 +1,162 @@
+package com.gobr.pragrisk.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+
+/**
+ * The position of a keyset page: the sort property and direction, and the sort value and id of the last row of the
+ * previous page, if any. Rows are ordered by the property then by id, in the same direction.
+ * <p>
+ * A keyset travels between requests as an opaque URL-safe token.
+ */
+public final class Keyset {
+
+    private static final String ID = "id";
+
+    private static final String NULL_VALUE = "-";
+
+    private static final String VALUE_PREFIX = "=";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Long id;
+
+    private final String value;
+
+    private Keyset(String property, Sort.Direction direction, Long id, String value) {
+        this.property = property;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * @param sort the requested sort, by at most one property besides the id; by increasing id if unsorted.
+     * @return the position of the first page.
+     * @throws IllegalArgumentException if the sort has more than one property besides the id.
+     */
+    public static Keyset first(Sort sort) {
+        Sort.Order order = null;
+        Sort.Direction idDirection = null;
+        for (Sort.Order candidate : sort) {
+            if (ID.equals(candidate.getProperty())) {
+                idDirection = candidate.getDirection();
+            } else if (order == null) {
+                order = candidate;
+            } else {
+                throw new IllegalArgumentException("Keyset pages are sorted by at most one property besides the id");
+            }
+        }
+        if (order == null) {
+            return new Keyset(ID, idDirection == null ? Sort.Direction.ASC : idDirection, null, null);
+        }
+        return new Keyset(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * @param token a token made by {@link #encode()}.
+     * @return the position it encodes.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static Keyset decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        Iterator<String> parts = Arrays.asList(decoded.split("\n", 4)).iterator();
+        try {
+            String property = parts.next();
+            Sort.Direction direction = Sort.Direction.fromString(parts.next());
+            Long id = Long.valueOf(parts.next());
+            String value = parts.next();
+            if (property.isEmpty() || !(value.equals(NULL_VALUE) || value.startsWith(VALUE_PREFIX))) {
+                throw new IllegalArgumentException("Malformed keyset token");
+            }
+            return new Keyset(property, direction, id, value.equals(NULL_VALUE) ? null : value.substring(VALUE_PREFIX.length()));
+        } catch (NoSuchElementException e) {
+            throw new IllegalArgumentException("Malformed keyset token", e);
+        }
+    }
+
+    /**
+     * @return the token of this position.
+     * @throws IllegalStateException if this is the position of a first page.
+     */
+    public String encode() {
+        if (id == null) {
+            throw new IllegalStateException("The first page has no keyset token");
+        }
+        String encoded = property + "\n" + direction + "\n" + id + "\n" + (value == null ? NULL_VALUE : VALUE_PREFIX + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the position after a row, in the same order.
+     */
+    Keyset after(Long id, Object value) {
+        return new Keyset(property, direction, id, isById() || value == null ? null : value.toString());
+    }
+
+    boolean isById() {
+        return ID.equals(property);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return the id of the last row of the previous page, or {@code null} for the first page.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the sort value of the last row of the previous page, as text.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Keyset)) {
+            return false;
+        }
+        Keyset other = (Keyset) o;
+        return (
+            property.equals(other.property) &&
+            direction == other.direction &&
+            Objects.equals(id, other.id) &&
+            Objects.equals(value, other.value)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, id, value);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Keyset{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", id=" + id +
+            ", value='" + value + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,33 @@
+package com.gobr.pragrisk.repository;
+
+import java.util.List;
+
+/**
+ * A page of rows read after a {@link Keyset}, with the position of the next page if there is one.
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> content;
+
+    private final Keyset next;
+
+    KeysetPage(List<T> content, Keyset next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * @return the position of the next page, or {@code null} if this is the last one.
+     */
+    public Keyset getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,251 @@
+package com.gobr.pragrisk.repository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Repository reading pages of any entity by keyset rather than by offset.
+ * <p>
+ * A page is the rows strictly after the last row of the previous page in (property, id) order, found by a range
+ * predicate on the property that an index on (property, id) seeks on, in either direction. So any page costs an index
+ * seek, a skip over the rows tied with the last value and a scan of one page, however deep it is. No count query is
+ * run: there is a next page if one more row than asked for is found. Rows with a {@code null} sort value come last, in
+ * both directions: they are read by id, from their own seek, once the other rows run out. Only basic attributes whose
+ * values convert from and to text can be sorted on.
+ * <p>
+ * Full scans can also be split into id ranges, each read in id order from its own seek.
+ */
+@Repository
+public class KeysetRepository {
+
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    private final EntityManager entityManager;
+
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    public KeysetRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Find a page of entities.
+     *
+     * @param entityClass the class of the entities.
+     * @param position the position of the page.
+     * @param size the number of entities of a page.
+     * @param fetchGraph the name of the entity graph to fetch the entities with, or {@code null}.
+     * @return the page.
+     * @throws InvalidDataAccessApiUsageException if the entities cannot be sorted on the keyset property.
+     */
+    public <T> KeysetPage<T> findPage(Class<T> entityClass, Keyset position, int size, String fetchGraph) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        String entity = entityType.getName();
+        String id = entityType.getId(Long.class).getName();
+        boolean ascending = position.getDirection().isAscending();
+        boolean seek = position.getId() != null;
+
+        SingularAttribute<? super T, ?> attribute = null;
+        List<T> rows;
+        if (position.isById()) {
+            rows = find(entityClass, byIdQuery(entity, id, ascending, seek), position.getId(), null, size + 1, fetchGraph);
+        } else {
+            attribute = sortAttribute(entityType, position.getProperty());
+            String property = attribute.getName();
+            if (seek && position.getValue() == null) {
+                String query = nullTailQuery(entity, id, property, ascending, true);
+                rows = find(entityClass, query, position.getId(), null, size + 1, fetchGraph);
+            } else {
+                Object value = seek ? toValue(attribute, position.getValue()) : null;
+                String query = valuesQuery(entity, id, property, ascending, attribute.isOptional(), seek);
+                rows = new ArrayList<>(find(entityClass, query, position.getId(), value, size + 1, fetchGraph));
+                if (attribute.isOptional() && rows.size() <= size) {
+                    query = nullTailQuery(entity, id, property, ascending, false);
+                    rows.addAll(find(entityClass, query, null, null, size + 1 - rows.size(), fetchGraph));
+                }
+            }
+        }
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        T last = content.get(size - 1);
+        Long lastId = (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(last);
+        return new KeysetPage<>(content, position.after(lastId, attribute == null ? null : read(attribute, last)));
+    }
+
+    /**
+     * The query of a page by id: a range on the primary key.
+     */
+    static String byIdQuery(String entity, String id, boolean ascending, boolean seek) {
+        StringBuilder jpql = new StringBuilder("select e from ").append(entity).append(" e");
+        if (seek) {
+            jpql.append(" where e.").append(id).append(ascending ? " > :id" : " < :id");
+        }
+        return jpql.append(" order by e.").append(id).append(ascending ? " asc" : " desc").toString();
+    }
+
+    /**
+     * The query of a page of the rows with a sort value, after the last row of the previous page.
+     * <p>
+     * The seek is a range on the sort value, {@code p >= :value and (p > :value or id > :id)} when ascending, which an
+     * index on (property, id) can start from whatever the direction: the rows tied on the last value are filtered, not
+     * every row before it. Nulls are read by {@link #nullTailQuery} once these rows run out, rather than ordered with
+     * {@code nulls last}, which the index does not serve when descending.
+     */
+    static String valuesQuery(String entity, String id, String property, boolean ascending, boolean nullable, boolean seek) {
+        String comparison = ascending ? " > " : " < ";
+        String order = ascending ? " asc" : " desc";
+        StringBuilder jpql = new StringBuilder("select e from ").append(entity).append(" e");
+        if (seek) {
+            jpql.append(" where e.").append(property).append(ascending ? " >= :value" : " <= :value");
+            jpql.append(" and (e.").append(property).append(comparison).append(":value or e.").append(id).append(comparison).append(":id)");
+        } else if (nullable) {
+            jpql.append(" where e.").append(property).append(" is not null");
+        }
+        return jpql.append(" order by e.").append(property).append(order).append(", e.").append(id).append(order).toString();
+    }
+
+    /**
+     * The query of a page of the rows without a sort value, which come after all the others in both directions.
+     */
+    static String nullTailQuery(String entity, String id, String property, boolean ascending, boolean seek) {
+        StringBuilder jpql = new StringBuilder("select e from ").append(entity).append(" e where e.").append(property).append(" is null");
+        if (seek) {
+            jpql.append(" and e.").append(id).append(ascending ? " > :id" : " < :id");
+        }
+        return jpql.append(" order by e.").append(id).append(ascending ? " asc" : " desc").toString();
+    }
+
+    private <T> List<T> find(Class<T> entityClass, String jpql, Long id, Object value, int maxResults, String fetchGraph) {
+        TypedQuery<T> query = entityManager.createQuery(jpql, entityClass).setMaxResults(maxResults);
+        if (id != null) {
+            query.setParameter("id", id);
+        }
+        if (value != null) {
+            query.setParameter("value", value);
+        }
+        if (fetchGraph != null) {
+            query.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(fetchGraph));
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Find the range of the ids of the entities.
+     *
+     * @param entityClass the class of the entities.
+     * @return the range from the lowest to the highest id, or empty if there is no entity.
+     */
+    public Optional<IdRange> findIdRange(Class<?> entityClass) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        String id = "e." + entityType.getId(Long.class).getName();
+        Object[] bounds = entityManager
+            .createQuery("select min(" + id + "), max(" + id + ") from " + entityType.getName() + " e", Object[].class)
+            .getSingleResult();
+        if (bounds[0] == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new IdRange((Long) bounds[0], (Long) bounds[1]));
+    }
+
+    /**
+     * Count the entities.
+     *
+     * @param entityClass the class of the entities.
+     * @return the number of entities.
+     */
+    public long count(Class<?> entityClass) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        return entityManager.createQuery("select count(e) from " + entityType.getName() + " e", Long.class).getSingleResult();
+    }
+
+    /**
+     * Find a page of the entities of an id range.
+     *
+     * @param entityClass the class of the entities.
+     * @param range the id range.
+     * @param position the position of the page, by increasing id.
+     * @param size the number of entities of a page.
+     * @param fetchGraph the name of the entity graph to fetch the entities with, or {@code null}.
+     * @return the page, with no next page once the range is exhausted.
+     * @throws InvalidDataAccessApiUsageException if the position is not by increasing id.
+     */
+    public <T> KeysetPage<T> findPageInRange(Class<T> entityClass, IdRange range, Keyset position, int size, String fetchGraph) {
+        if (!position.isById() || !position.getDirection().isAscending()) {
+            throw new InvalidDataAccessApiUsageException("Id ranges are read by increasing id");
+        }
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        String id = "e." + entityType.getId(Long.class).getName();
+        TypedQuery<T> query = entityManager
+            .createQuery(
+                "select e from " + entityType.getName() + " e where " + id + " >= :first and " + id + " <= :last order by " + id,
+                entityClass
+            )
+            .setParameter("first", position.getId() == null ? range.getFirst() : position.getId() + 1)
+            .setParameter("last", range.getLast())
+            .setMaxResults(size + 1);
+        if (fetchGraph != null) {
+            query.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(fetchGraph));
+        }
+        List<T> rows = query.getResultList();
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        Long lastId = (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(content.get(size - 1));
+        return new KeysetPage<>(content, position.after(lastId, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> SingularAttribute<? super T, ?> sortAttribute(EntityType<T> entityType, String property) {
+        Attribute<? super T, ?> attribute = entityType
+            .getAttributes()
+            .stream()
+            .filter(candidate -> candidate.getName().equals(property))
+            .findFirst()
+            .orElseThrow(() -> new InvalidDataAccessApiUsageException("No property " + property + " found for " + entityType.getName()));
+        Class<?> type = attribute.getJavaType();
+        if (
+            attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC ||
+            !Comparable.class.isAssignableFrom(type) ||
+            !conversionService.canConvert(String.class, type)
+        ) {
+            throw new InvalidDataAccessApiUsageException("Cannot sort " + entityType.getName() + " by " + property + " in keyset pages");
+        }
+        return (SingularAttribute<? super T, ?>) attribute;
+    }
+
+    private Object toValue(SingularAttribute<?, ?> attribute, String value) {
+        try {
+            return conversionService.convert(value, attribute.getJavaType());
+        } catch (RuntimeException e) {
+            throw new InvalidDataAccessApiUsageException("Invalid keyset value for " + attribute.getName(), e);
+        }
+    }
+
+    private static Object read(SingularAttribute<?, ?> attribute, Object entity) {
+        Member member = attribute.getJavaMember();
+        if (member instanceof Method) {
+            return ReflectionUtils.invokeMethod((Method) member, entity);
+        }
+        Field field = (Field) member;
+        ReflectionUtils.makeAccessible(field);
+        return ReflectionUtils.getField(field, entity);
+    }
+}
@@ -1,6 +1,14 @@
 package com.gobr.pragrisk.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +17,33 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MitigationRepository extends JpaRepository<Mitigation, Long> {}
+public interface MitigationRepository extends JpaRepository<Mitigation, Long> {
+    Slice<Mitigation> findSliceBy(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = ExportQueries.FETCH_SIZE))
+    @Query(
+        "select mitigation.id as id, mitigation.controlID as controlID, mitigation.title as title, mitigation.description as description," +
+        " mitigation.frameworkReference as frameworkReference, mitigation.type as type, mitigation.status as status" +
+        " from Mitigation mitigation order by mitigation.id"
+    )
+    Stream<MitigationExportRow> streamExportRows();
+
+    /**
+     * The columns of an exported mitigation.
+     */
+    interface MitigationExportRow {
+        Long getId();
+
+        String getControlID();
+
+        String getTitle();
+
+        String getDescription();
+
+        String getFrameworkReference();
+
+        MitigationType getType();
+
+        MitigationStatus getStatus();
+    }
+}
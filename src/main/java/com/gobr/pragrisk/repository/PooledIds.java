@@ -0,0 +1,32 @@
+package com.gobr.pragrisk.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Reserves entity ids from the id sequence of their table for JDBC inserts, without clashing with Hibernate.
+ * <p>
+ * Entities declare an {@code allocationSize} of {@link #ALLOCATION_SIZE} on their {@code @SequenceGenerator}, matching
+ * the sequence increment, so Hibernate's pooled optimizer takes a call returning {@code v} as the ids from
+ * {@code v - ALLOCATION_SIZE + 1} to {@code v}. Reserving ids the same way keeps both ranges apart.
+ */
+final class PooledIds {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    private PooledIds() {}
+
+    /**
+     * @param sequence the id sequence of the entity table.
+     * @param ids the array to fill with the reserved ids, in increasing order.
+     * @param length the number of ids to reserve, with one sequence call per {@link #ALLOCATION_SIZE} ids.
+     */
+    static void reserve(JdbcTemplate jdbcTemplate, String sequence, long[] ids, int length) {
+        String nextValueSql = "select nextval('" + sequence + "')";
+        for (int start = 0; start < length; start += ALLOCATION_SIZE) {
+            long hi = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+            for (int i = start; i < Math.min(length, start + ALLOCATION_SIZE); i++) {
+                ids[i] = hi - ALLOCATION_SIZE + 1 + i - start;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.gobr.pragrisk.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the append-only risk history segments.
+ * <p>
+ * Segments are only ever inserted, in batches, and read back by series, key and time range: they are not entities.
+ */
+@Repository
+public class RiskHistoryRepository {
+
+    private static final String INSERT_SQL =
+        "insert into risk_history_segment (series, min_key, max_key, first_at, last_at, point_count, payload)" +
+        " values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FIND_SQL =
+        "select series, min_key, max_key, first_at, last_at, point_count, payload from risk_history_segment" +
+        " where series = ? and min_key >= ? and min_key <= ? and max_key >= ? and first_at <= ? and last_at >= ?" +
+        " order by first_at, id";
+
+    private static final String ANY_ID_SQL = "select id from risk_history_segment fetch first 1 rows only";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RiskHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return whether no segment was ever appended.
+     */
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList(ANY_ID_SQL, Long.class).isEmpty();
+    }
+
+    public void insertAll(List<RiskHistorySegment> segments) {
+        if (segments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            INSERT_SQL,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    RiskHistorySegment segment = segments.get(i);
+                    ps.setString(1, segment.getSeries());
+                    ps.setLong(2, segment.getMinKey());
+                    ps.setLong(3, segment.getMaxKey());
+                    ps.setTimestamp(4, Timestamp.from(segment.getFirstAt()));
+                    ps.setTimestamp(5, Timestamp.from(segment.getLastAt()));
+                    ps.setInt(6, segment.getPointCount());
+                    ps.setBytes(7, segment.getPayload());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return segments.size();
+                }
+            }
+        );
+    }
+
+    /**
+     * Stream the segments of a series which may hold points of a key between two instants, by increasing first instant.
+     *
+     * @param lowestMinKey the lowest first key of a segment holding the key, which bounds the index range scanned.
+     */
+    public void findSegments(String series, long key, long lowestMinKey, Instant from, Instant to, Consumer<RiskHistorySegment> consumer) {
+        jdbcTemplate.query(
+            FIND_SQL,
+            ps -> {
+                ps.setString(1, series);
+                ps.setLong(2, lowestMinKey);
+                ps.setLong(3, key);
+                ps.setLong(4, key);
+                ps.setTimestamp(5, Timestamp.from(to));
+                ps.setTimestamp(6, Timestamp.from(from));
+            },
+            rs -> {
+                consumer.accept(
+                    new RiskHistorySegment(
+                        rs.getString(1),
+                        rs.getLong(2),
+                        rs.getLong(3),
+                        rs.getTimestamp(4).toInstant(),
+                        rs.getTimestamp(5).toInstant(),
+                        rs.getInt(6),
+                        rs.getBytes(7)
+                    )
+                );
+            }
+        );
+    }
+}
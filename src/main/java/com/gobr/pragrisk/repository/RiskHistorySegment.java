@@ -0,0 +1,56 @@
+package com.gobr.pragrisk.repository;
+
+import java.time.Instant;
+
+/**
+ * A segment of the append-only risk history: the points of one series whose keys and timestamps fall in the given
+ * ranges, encoded in an opaque payload.
+ */
+public final class RiskHistorySegment {
+
+    private final String series;
+    private final long minKey;
+    private final long maxKey;
+    private final Instant firstAt;
+    private final Instant lastAt;
+    private final int pointCount;
+    private final byte[] payload;
+
+    public RiskHistorySegment(String series, long minKey, long maxKey, Instant firstAt, Instant lastAt, int pointCount, byte[] payload) {
+        this.series = series;
+        this.minKey = minKey;
+        this.maxKey = maxKey;
+        this.firstAt = firstAt;
+        this.lastAt = lastAt;
+        this.pointCount = pointCount;
+        this.payload = payload;
+    }
+
+    public String getSeries() {
+        return series;
+    }
+
+    public long getMinKey() {
+        return minKey;
+    }
+
+    public long getMaxKey() {
+        return maxKey;
+    }
+
+    public Instant getFirstAt() {
+        return firstAt;
+    }
+
+    public Instant getLastAt() {
+        return lastAt;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
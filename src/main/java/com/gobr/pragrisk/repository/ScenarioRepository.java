@@ -1,7 +1,21 @@
 package com.gobr.pragrisk.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +23,146 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ScenarioRepository extends JpaRepository<Scenario, Long> {}
+public interface ScenarioRepository extends ScenarioRepositoryWithBulkOperations, JpaRepository<Scenario, Long> {
+    String SUMMARY_QUERY =
+        "select scenario.id as id, scenario.title as title, scenario.riskValue as riskValue, actor.id as actorId," +
+        " actor.nickName as actorNickName, technology.id as technologyId, technology.name as technologyName," +
+        " vulnerability.id as vulnerabilityId, vulnerability.name as vulnerabilityName from Scenario scenario" +
+        " left join scenario.actorFK actor left join scenario.technologyFK technology left join scenario.vulnerabilityFK vulnerability";
+
+    @EntityGraph(Scenario.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select scenario from Scenario scenario")
+    Page<Scenario> findAllWithEagerRelationships(Pageable pageable);
+
+    @EntityGraph(Scenario.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select scenario from Scenario scenario")
+    Slice<Scenario> findSliceWithEagerRelationships(Pageable pageable);
+
+    @EntityGraph(Scenario.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select scenario from Scenario scenario where scenario.id = :id")
+    Optional<Scenario> findOneWithEagerRelationships(@Param("id") Long id);
+
+    @EntityGraph(Scenario.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select scenario from Scenario scenario where scenario.id in :ids")
+    List<Scenario> findAllWithEagerRelationships(@Param("ids") Collection<Long> ids);
+
+    @Query(value = SUMMARY_QUERY, countQuery = "select count(scenario) from Scenario scenario")
+    Page<ScenarioSummary> findAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_QUERY)
+    Slice<ScenarioSummary> findSummarySlice(Pageable pageable);
+
+    @Query("select scenario.title from Scenario scenario where scenario.title in :titles")
+    List<String> findExistingTitles(@Param("titles") Collection<String> titles);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = ExportQueries.FETCH_SIZE))
+    @Query(
+        "select scenario.id as id, scenario.title as title, scenario.description as description, scenario.probability as probability," +
+        " scenario.qonsequence as qonsequence, scenario.riskValue as riskValue, actor.id as actorId, technology.id as technologyId," +
+        " vulnerability.id as vulnerabilityId from Scenario scenario left join scenario.actorFK actor" +
+        " left join scenario.technologyFK technology left join scenario.vulnerabilityFK vulnerability order by scenario.id"
+    )
+    Stream<ScenarioExportRow> streamExportRows();
+
+    /**
+     * Stream the risk register: every scenario with its actor, technology and vulnerability, once per mitigation of the
+     * vulnerability, in scenario id then mitigation control id order.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = ExportQueries.FETCH_SIZE))
+    @Query(
+        "select scenario.id as id, scenario.title as title, scenario.probability as probability, scenario.qonsequence as qonsequence," +
+        " scenario.riskValue as riskValue, actor.id as actorId, actor.nickName as actorNickName, actorGroup.name as environmentName," +
+        " technology.id as technologyId, technology.name as technologyName, technology.techStackType as techStackType," +
+        " vulnerability.id as vulnerabilityId, vulnerability.name as vulnerabilityName, vulnerability.cweReference as cweReference," +
+        " vulnerability.cvss as cvss, mitigation.controlID as mitigationControlID, mitigation.status as mitigationStatus" +
+        " from Scenario scenario left join scenario.actorFK actor left join actor.group actorGroup" +
+        " left join scenario.technologyFK technology left join scenario.vulnerabilityFK vulnerability" +
+        " left join vulnerability.mitigations mitigation order by scenario.id, mitigation.controlID"
+    )
+    Stream<RiskRegisterRow> streamRiskRegisterRows();
+
+    /**
+     * The columns of an exported scenario, with the ids of its actor, technology and vulnerability.
+     */
+    interface ScenarioExportRow {
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+
+        BigDecimal getProbability();
+
+        BigDecimal getQonsequence();
+
+        BigDecimal getRiskValue();
+
+        Long getActorId();
+
+        Long getTechnologyId();
+
+        Long getVulnerabilityId();
+    }
+
+    /**
+     * A scenario of the risk register with one mitigation of its vulnerability, if any.
+     */
+    interface RiskRegisterRow {
+        Long getId();
+
+        String getTitle();
+
+        BigDecimal getProbability();
+
+        BigDecimal getQonsequence();
+
+        BigDecimal getRiskValue();
+
+        Long getActorId();
+
+        String getActorNickName();
+
+        String getEnvironmentName();
+
+        Long getTechnologyId();
+
+        String getTechnologyName();
+
+        TechStack getTechStackType();
+
+        Long getVulnerabilityId();
+
+        String getVulnerabilityName();
+
+        String getCweReference();
+
+        String getCvss();
+
+        String getMitigationControlID();
+
+        MitigationStatus getMitigationStatus();
+    }
+
+    /**
+     * The columns of a scenario, with the names of its actor, technology and vulnerability, as listed in summary views.
+     */
+    interface ScenarioSummary {
+        Long getId();
+
+        String getTitle();
+
+        BigDecimal getRiskValue();
+
+        Long getActorId();
+
+        String getActorNickName();
+
+        Long getTechnologyId();
+
+        String getTechnologyName();
+
+        Long getVulnerabilityId();
+
+        String getVulnerabilityName();
+    }
+}
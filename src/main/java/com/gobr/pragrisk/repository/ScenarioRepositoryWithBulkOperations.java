@@ -0,0 +1,103 @@
+package com.gobr.pragrisk.repository;
+
+import com.gobr.pragrisk.domain.Scenario;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk, JDBC-level operations on the scenario table, used where loading entities would be too costly.
+ * <p>
+ * Decimal columns are exchanged as {@code long} values in hundredths (the column scale), with
+ * {@link #NULL_VALUE} standing for SQL {@code NULL}.
+ */
+public interface ScenarioRepositoryWithBulkOperations {
+    long NULL_VALUE = Long.MIN_VALUE;
+
+    /**
+     * The ids Hibernate takes from {@code scenario_seq} per call.
+     */
+    int ID_ALLOCATION_SIZE = PooledIds.ALLOCATION_SIZE;
+
+    /**
+     * Read the risk inputs of the scenarios following {@code afterId}, in id order.
+     *
+     * @param afterId the exclusive lower id bound.
+     * @param limit the maximum number of rows to read.
+     * @param callback the callback invoked for each row.
+     * @return the number of rows read.
+     */
+    int fetchRiskInputs(long afterId, int limit, RiskInputRowCallback callback);
+
+    /**
+     * Read the scenarios following {@code afterId} with their actor, technology, vulnerability, environment
+     * (the actor group) and tech stack keys, in id order.
+     *
+     * @param afterId the exclusive lower id bound.
+     * @param limit the maximum number of rows to read.
+     * @param consumer the consumer invoked for each row, with a reused {@link ScenarioRiskRow}.
+     * @return the number of rows read.
+     */
+    int fetchRiskRows(long afterId, int limit, Consumer<ScenarioRiskRow> consumer);
+
+    /**
+     * Read every scenario, in batches of {@code batchSize} rows.
+     *
+     * @param batchSize the number of rows read per query.
+     * @param consumer the consumer invoked for each row, with a reused {@link ScenarioRiskRow}.
+     * @return the number of rows read.
+     * @see #fetchRiskRows(long, int, Consumer)
+     */
+    default long fetchAllRiskRows(int batchSize, Consumer<ScenarioRiskRow> consumer) {
+        long[] lastId = { Long.MIN_VALUE };
+        long total = 0;
+        int read;
+        do {
+            read =
+                fetchRiskRows(
+                    lastId[0],
+                    batchSize,
+                    row -> {
+                        lastId[0] = row.getId();
+                        consumer.accept(row);
+                    }
+                );
+            total += read;
+        } while (read == batchSize);
+        return total;
+    }
+
+    /**
+     * Update the risk value of the given scenarios in a single JDBC batch.
+     *
+     * @param ids the scenario ids.
+     * @param riskValues the risk values, in hundredths.
+     * @param length the number of entries to use from both arrays.
+     */
+    void batchUpdateRiskValues(long[] ids, long[] riskValues, int length);
+
+    /**
+     * Reserve scenario ids from {@code scenario_seq}, one sequence call per {@link #ID_ALLOCATION_SIZE} ids.
+     * <p>
+     * Like Hibernate's pooled optimizer, a call returning {@code v} reserves the ids from
+     * {@code v - ID_ALLOCATION_SIZE + 1} to {@code v}, so the reserved ids never clash with those Hibernate assigns.
+     *
+     * @param ids the array to fill with the reserved ids, in increasing order.
+     * @param length the number of ids to reserve.
+     */
+    void reserveIds(long[] ids, int length);
+
+    /**
+     * Insert the given scenarios in a single JDBC batch, bypassing the persistence context and the search index.
+     * <p>
+     * Every scenario must have an id, see {@link #reserveIds(long[], int)}; only the ids of its actor, technology and
+     * vulnerability are used.
+     *
+     * @param scenarios the scenarios to insert.
+     */
+    void batchInsert(List<Scenario> scenarios);
+
+    @FunctionalInterface
+    interface RiskInputRowCallback {
+        void processRow(long id, long probability, long qonsequence, long riskValue);
+    }
+}
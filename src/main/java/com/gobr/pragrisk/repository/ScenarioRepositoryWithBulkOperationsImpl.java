@@ -0,0 +1,165 @@
+package com.gobr.pragrisk.repository;
+
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ScenarioRepositoryWithBulkOperationsImpl implements ScenarioRepositoryWithBulkOperations {
+
+    private static final String FETCH_RISK_INPUTS_SQL =
+        "select id, cast(probability * 100 as bigint), cast(qonsequence * 100 as bigint), cast(risk_value * 100 as bigint)" +
+        " from scenario where id > ? order by id limit ?";
+
+    private static final String FETCH_RISK_ROWS_SQL =
+        "select s.id, cast(s.probability * 100 as bigint), cast(s.qonsequence * 100 as bigint), cast(s.risk_value * 100 as bigint)," +
+        " s.actorfk_id, s.technologyfk_id, s.vulnerabilityfk_id, a.group_id, t.tech_stack_type" +
+        " from scenario s left join actor a on a.id = s.actorfk_id left join technology t on t.id = s.technologyfk_id" +
+        " where s.id > ? order by s.id limit ?";
+
+    private static final String UPDATE_RISK_VALUE_SQL = "update scenario set risk_value = ?, version = version + 1 where id = ?";
+
+    private static final String INSERT_SQL =
+        "insert into scenario (id, title, description, probability, qonsequence, risk_value," +
+        " actorfk_id, technologyfk_id, vulnerabilityfk_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ScenarioRepositoryWithBulkOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int fetchRiskInputs(long afterId, int limit, RiskInputRowCallback callback) {
+        int[] count = new int[1];
+        jdbcTemplate.query(
+            FETCH_RISK_INPUTS_SQL,
+            ps -> {
+                ps.setLong(1, afterId);
+                ps.setInt(2, limit);
+            },
+            rs -> {
+                callback.processRow(rs.getLong(1), getNullableLong(rs, 2), getNullableLong(rs, 3), getNullableLong(rs, 4));
+                count[0]++;
+            }
+        );
+        return count[0];
+    }
+
+    @Override
+    public int fetchRiskRows(long afterId, int limit, Consumer<ScenarioRiskRow> consumer) {
+        ScenarioRiskRow row = new ScenarioRiskRow();
+        int[] count = new int[1];
+        jdbcTemplate.query(
+            FETCH_RISK_ROWS_SQL,
+            ps -> {
+                ps.setLong(1, afterId);
+                ps.setInt(2, limit);
+            },
+            rs -> {
+                row.id = rs.getLong(1);
+                row.probability = getNullableLong(rs, 2);
+                row.qonsequence = getNullableLong(rs, 3);
+                row.riskValue = getNullableLong(rs, 4);
+                row.actorId = getNullableLong(rs, 5);
+                row.technologyId = getNullableLong(rs, 6);
+                row.vulnerabilityId = getNullableLong(rs, 7);
+                row.environmentId = getNullableLong(rs, 8);
+                String techStack = rs.getString(9);
+                row.techStack = techStack == null ? null : TechStack.valueOf(techStack);
+                consumer.accept(row);
+                count[0]++;
+            }
+        );
+        return count[0];
+    }
+
+    @Override
+    public void batchUpdateRiskValues(long[] ids, long[] riskValues, int length) {
+        if (length == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            UPDATE_RISK_VALUE_SQL,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    if (riskValues[i] == NULL_VALUE) {
+                        ps.setNull(1, Types.DECIMAL);
+                    } else {
+                        ps.setBigDecimal(1, BigDecimal.valueOf(riskValues[i], 2));
+                    }
+                    ps.setLong(2, ids[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return length;
+                }
+            }
+        );
+    }
+
+    @Override
+    public void reserveIds(long[] ids, int length) {
+        PooledIds.reserve(jdbcTemplate, "scenario_seq", ids, length);
+    }
+
+    @Override
+    public void batchInsert(List<Scenario> scenarios) {
+        if (scenarios.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            INSERT_SQL,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Scenario scenario = scenarios.get(i);
+                    ps.setLong(1, scenario.getId());
+                    ps.setString(2, scenario.getTitle());
+                    ps.setString(3, scenario.getDescription());
+                    setNullableDecimal(ps, 4, scenario.getProbability());
+                    setNullableDecimal(ps, 5, scenario.getQonsequence());
+                    setNullableDecimal(ps, 6, scenario.getRiskValue());
+                    setNullableId(ps, 7, scenario.getActorFK() == null ? null : scenario.getActorFK().getId());
+                    setNullableId(ps, 8, scenario.getTechnologyFK() == null ? null : scenario.getTechnologyFK().getId());
+                    setNullableId(ps, 9, scenario.getVulnerabilityFK() == null ? null : scenario.getVulnerabilityFK().getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return scenarios.size();
+                }
+            }
+        );
+    }
+
+    private static void setNullableDecimal(PreparedStatement ps, int parameter, BigDecimal value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameter, Types.DECIMAL);
+        } else {
+            ps.setBigDecimal(parameter, value);
+        }
+    }
+
+    private static void setNullableId(PreparedStatement ps, int parameter, Long id) throws SQLException {
+        if (id == null) {
+            ps.setNull(parameter, Types.BIGINT);
+        } else {
+            ps.setLong(parameter, id);
+        }
+    }
+
+    private static long getNullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? NULL_VALUE : value;
+    }
+}
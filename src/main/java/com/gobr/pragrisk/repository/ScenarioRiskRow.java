@@ -0,0 +1,59 @@
+package com.gobr.pragrisk.repository;
+
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+
+/**
+ * A flat, primitive view of a scenario and the keys it is aggregated by, filled by
+ * {@link ScenarioRepositoryWithBulkOperations#fetchRiskRows}.
+ * <p>
+ * Instances are reused from one row to the next: copy what you need, do not keep a reference.
+ * Decimals are in hundredths and missing values are {@link ScenarioRepositoryWithBulkOperations#NULL_VALUE}.
+ */
+public final class ScenarioRiskRow {
+
+    long id;
+    long probability;
+    long qonsequence;
+    long riskValue;
+    long actorId;
+    long technologyId;
+    long vulnerabilityId;
+    long environmentId;
+    TechStack techStack;
+
+    public long getId() {
+        return id;
+    }
+
+    public long getProbability() {
+        return probability;
+    }
+
+    public long getQonsequence() {
+        return qonsequence;
+    }
+
+    public long getRiskValue() {
+        return riskValue;
+    }
+
+    public long getActorId() {
+        return actorId;
+    }
+
+    public long getTechnologyId() {
+        return technologyId;
+    }
+
+    public long getVulnerabilityId() {
+        return vulnerabilityId;
+    }
+
+    public long getEnvironmentId() {
+        return environmentId;
+    }
+
+    public TechStack getTechStack() {
+        return techStack;
+    }
+}
@@ -0,0 +1,46 @@
+package com.gobr.pragrisk.repository;
+
+import java.time.Instant;
+
+/**
+ * An entry of the search outbox: a document whose entity changed since it was last indexed.
+ */
+public final class SearchOutboxEntry {
+
+    private final long id;
+    private final String documentType;
+    private final long documentId;
+    private final Instant createdDate;
+    private final int attempts;
+
+    public SearchOutboxEntry(long id, String documentType, long documentId, Instant createdDate, int attempts) {
+        this.id = id;
+        this.documentType = documentType;
+        this.documentId = documentId;
+        this.createdDate = createdDate;
+        this.attempts = attempts;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public long getDocumentId() {
+        return documentId;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * @return the number of times indexing the document failed.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+}
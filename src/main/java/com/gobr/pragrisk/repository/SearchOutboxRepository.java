@@ -0,0 +1,141 @@
+package com.gobr.pragrisk.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the search outbox.
+ * <p>
+ * Entries are inserted by the transactions changing the indexed entities, read in id order and deleted by id once
+ * shipped to Elasticsearch: they are not entities. Entries given up after too many failed attempts are moved to the
+ * {@code search_outbox_dead_letter} table.
+ */
+@Repository
+public class SearchOutboxRepository {
+
+    private static final String INSERT_SQL =
+        "insert into search_outbox (document_type, document_id, created_date, attempts) values (?, ?, ?, 0)";
+
+    private static final String FIND_PENDING_SQL =
+        "select id, document_type, document_id, created_date, attempts from search_outbox" +
+        " where attempts < ? order by id fetch first ? rows only";
+
+    private static final String COUNT_PENDING_SQL = "select count(*) from search_outbox where attempts < ?";
+
+    private static final String DELETE_SQL = "delete from search_outbox where id = ?";
+
+    private static final String FAIL_SQL = "update search_outbox set attempts = attempts + 1 where id = ?";
+
+    private static final String DEAD_LETTER_SQL =
+        "insert into search_outbox_dead_letter (id, document_type, document_id, created_date, attempts, dead_date)" +
+        " select id, document_type, document_id, created_date, attempts, ? from search_outbox where attempts >= ?";
+
+    private static final String DELETE_DEAD_SQL = "delete from search_outbox where attempts >= ?";
+
+    private static final String COUNT_DEAD_LETTERS_SQL = "select count(*) from search_outbox_dead_letter";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(String documentType, Collection<Long> documentIds) {
+        if (documentIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(documentIds);
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+            INSERT_SQL,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, documentType);
+                    ps.setLong(2, ids.get(i));
+                    ps.setTimestamp(3, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return ids.size();
+                }
+            }
+        );
+    }
+
+    /**
+     * @param limit the most entries to read.
+     * @param maxAttempts the number of failed attempts after which entries are no longer pending.
+     * @return the oldest pending entries, by increasing id.
+     */
+    public List<SearchOutboxEntry> findPending(int limit, int maxAttempts) {
+        return jdbcTemplate.query(
+            FIND_PENDING_SQL,
+            ps -> {
+                ps.setInt(1, maxAttempts);
+                ps.setInt(2, limit);
+            },
+            (rs, rowNum) ->
+                new SearchOutboxEntry(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getTimestamp(4).toInstant(), rs.getInt(5))
+        );
+    }
+
+    public long countPending(int maxAttempts) {
+        return jdbcTemplate.queryForObject(COUNT_PENDING_SQL, Long.class, maxAttempts);
+    }
+
+    public void deleteAll(List<SearchOutboxEntry> entries) {
+        batchUpdateById(DELETE_SQL, entries);
+    }
+
+    /**
+     * Record a failed attempt of each entry.
+     */
+    public void failAll(List<SearchOutboxEntry> entries) {
+        batchUpdateById(FAIL_SQL, entries);
+    }
+
+    /**
+     * Move the entries which are no longer pending to the dead letters. Must run in a transaction.
+     *
+     * @param maxAttempts the number of failed attempts after which entries are no longer pending.
+     * @return the number of entries moved.
+     */
+    public int deadLetterAll(int maxAttempts) {
+        jdbcTemplate.update(DEAD_LETTER_SQL, Timestamp.from(Instant.now()), maxAttempts);
+        return jdbcTemplate.update(DELETE_DEAD_SQL, maxAttempts);
+    }
+
+    public long countDeadLetters() {
+        return jdbcTemplate.queryForObject(COUNT_DEAD_LETTERS_SQL, Long.class);
+    }
+
+    private void batchUpdateById(String sql, List<SearchOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            sql,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, entries.get(i).getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return entries.size();
+                }
+            }
+        );
+    }
+}
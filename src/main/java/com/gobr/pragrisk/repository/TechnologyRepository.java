@@ -1,7 +1,20 @@
 package com.gobr.pragrisk.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.enumeration.TechCategory;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +22,98 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TechnologyRepository extends JpaRepository<Technology, Long> {}
+public interface TechnologyRepository extends JpaRepository<Technology, Long> {
+    String SUMMARY_QUERY =
+        "select technology.id as id, technology.name as name, technology.category as category," +
+        " technology.techStackType as techStackType, parent.id as parentTechnologyId, parent.name as parentTechnologyName" +
+        " from Technology technology left join technology.parentTechnology parent";
+
+    @EntityGraph(Technology.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select technology from Technology technology")
+    Page<Technology> findAllWithEagerRelationships(Pageable pageable);
+
+    @EntityGraph(Technology.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select technology from Technology technology")
+    Slice<Technology> findSliceWithEagerRelationships(Pageable pageable);
+
+    @EntityGraph(Technology.EAGER_RELATIONSHIPS_GRAPH)
+    @Query("select technology from Technology technology where technology.id = :id")
+    Optional<Technology> findOneWithEagerRelationships(@Param("id") Long id);
+
+    @Query(value = SUMMARY_QUERY, countQuery = "select count(technology) from Technology technology")
+    Page<TechnologySummary> findAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_QUERY)
+    Slice<TechnologySummary> findSummarySlice(Pageable pageable);
+
+    @Query("select technology.id as id, technology.techStackType as techStackType from Technology technology")
+    List<TechnologyTechStack> findAllTechStacks();
+
+    @Query(
+        "select technology.id as id, parent.id as parentId from Technology technology left join technology.parentTechnology parent"
+    )
+    List<TechnologyParentId> findAllParentIds();
+
+    @Query("select technology.id from Technology technology where technology.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The id and tech stack of a technology.
+     */
+    interface TechnologyTechStack {
+        Long getId();
+
+        TechStack getTechStackType();
+    }
+
+    /**
+     * The id of a technology and of its parent technology.
+     */
+    interface TechnologyParentId {
+        Long getId();
+
+        Long getParentId();
+    }
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = ExportQueries.FETCH_SIZE))
+    @Query(
+        "select technology.id as id, technology.name as name, technology.category as category, technology.description as description," +
+        " technology.techStackType as techStackType, parent.id as parentTechnologyId" +
+        " from Technology technology left join technology.parentTechnology parent order by technology.id"
+    )
+    Stream<TechnologyExportRow> streamExportRows();
+
+    /**
+     * The columns of an exported technology, with the id of its parent.
+     */
+    interface TechnologyExportRow {
+        Long getId();
+
+        String getName();
+
+        TechCategory getCategory();
+
+        String getDescription();
+
+        TechStack getTechStackType();
+
+        Long getParentTechnologyId();
+    }
+
+    /**
+     * The columns of a technology, with the name of its parent, as listed in summary views.
+     */
+    interface TechnologySummary {
+        Long getId();
+
+        String getName();
+
+        TechCategory getCategory();
+
+        TechStack getTechStackType();
+
+        Long getParentTechnologyId();
+
+        String getParentTechnologyName();
+    }
+}
@@ -0,0 +1,73 @@
+package com.gobr.pragrisk.repository;
+
+import java.util.Objects;
+
+/**
+ * A vulnerability loaded from a catalogue, keyed by its catalogue key.
+ *
+ * @see VulnerabilityRepositoryWithBulkOperations
+ */
+public final class VulnerabilityCatalogueRow {
+
+    private final String sourceKey;
+
+    private final String name;
+
+    private final String cweReference;
+
+    private final String cvss;
+
+    private long id;
+
+    public VulnerabilityCatalogueRow(String sourceKey, String name, String cweReference, String cvss) {
+        this.sourceKey = sourceKey;
+        this.name = name;
+        this.cweReference = cweReference;
+        this.cvss = cvss;
+    }
+
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCweReference() {
+        return cweReference;
+    }
+
+    public String getCvss() {
+        return cvss;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return whether both rows have the same name, CWE reference and CVSS.
+     */
+    public boolean hasSameValues(VulnerabilityCatalogueRow other) {
+        return (
+            Objects.equals(name, other.name) && Objects.equals(cweReference, other.cweReference) && Objects.equals(cvss, other.cvss)
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VulnerabilityCatalogueRow{" +
+            "sourceKey='" + sourceKey + "'" +
+            ", id=" + id +
+            ", name='" + name + "'" +
+            ", cweReference='" + cweReference + "'" +
+            ", cvss='" + cvss + "'" +
+            "}";
+    }
+}
@@ -1,10 +1,18 @@
 package com.gobr.pragrisk.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +21,9 @@ import org.springframework.stereotype.Repository;
  * Spring Data SQL repository for the Vulnerability entity.
  */
 @Repository
-public interface VulnerabilityRepository extends JpaRepository<Vulnerability, Long> {
+public interface VulnerabilityRepository extends VulnerabilityRepositoryWithBulkOperations, JpaRepository<Vulnerability, Long> {
+    Slice<Vulnerability> findSliceBy(Pageable pageable);
+
     @Query(
         value = "select distinct vulnerability from Vulnerability vulnerability left join fetch vulnerability.mitigations",
         countQuery = "select count(distinct vulnerability) from Vulnerability vulnerability"
@@ -25,4 +35,50 @@ public interface VulnerabilityRepository extends JpaRepository<Vulnerability, Lo
 
     @Query("select vulnerability from Vulnerability vulnerability left join fetch vulnerability.mitigations where vulnerability.id =:id")
     Optional<Vulnerability> findOneWithEagerRelationships(@Param("id") Long id);
+
+    @Query("select vulnerability.id from Vulnerability vulnerability order by vulnerability.id")
+    List<Long> findAllIds();
+
+    @Query("select vulnerability.id from Vulnerability vulnerability where vulnerability.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select vulnerability.id as vulnerabilityId, mitigation.id as mitigationId, mitigation.status as status," +
+        " mitigation.type as type from Vulnerability vulnerability join vulnerability.mitigations mitigation" +
+        " order by vulnerability.id, mitigation.id"
+    )
+    List<VulnerabilityMitigation> findAllMitigationLinks();
+
+    /**
+     * A link between a vulnerability and one of its mitigations.
+     */
+    interface VulnerabilityMitigation {
+        Long getVulnerabilityId();
+
+        Long getMitigationId();
+
+        MitigationStatus getStatus();
+
+        MitigationType getType();
+    }
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = ExportQueries.FETCH_SIZE))
+    @Query(
+        "select vulnerability.id as id, vulnerability.name as name, vulnerability.cweReference as cweReference," +
+        " vulnerability.cvss as cvss from Vulnerability vulnerability order by vulnerability.id"
+    )
+    Stream<VulnerabilityExportRow> streamExportRows();
+
+    /**
+     * The columns of an exported vulnerability.
+     */
+    interface VulnerabilityExportRow {
+        Long getId();
+
+        String getName();
+
+        String getCweReference();
+
+        String getCvss();
+    }
 }
@@ -0,0 +1,41 @@
+package com.gobr.pragrisk.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk, JDBC-level operations on the vulnerability table, used to load the CWE and CVE catalogues.
+ * <p>
+ * Catalogue vulnerabilities are keyed by their {@code source_key} column, which the Vulnerability entity does not map.
+ */
+public interface VulnerabilityRepositoryWithBulkOperations {
+    /**
+     * Read the catalogue vulnerabilities with the given keys.
+     *
+     * @param sourceKeys the catalogue keys.
+     * @return the vulnerabilities found, with their id.
+     */
+    List<VulnerabilityCatalogueRow> findCatalogueRows(Collection<String> sourceKeys);
+
+    /**
+     * Reserve vulnerability ids from {@code vulnerability_seq}, the way Hibernate does.
+     *
+     * @param ids the array to fill with the reserved ids, in increasing order.
+     * @param length the number of ids to reserve.
+     * @see ScenarioRepositoryWithBulkOperations#reserveIds(long[], int)
+     */
+    void reserveIds(long[] ids, int length);
+
+    /**
+     * Insert or update catalogue vulnerabilities by catalogue key in a single JDBC batch, bypassing the persistence
+     * context and the search index.
+     * <p>
+     * On PostgreSQL this is one {@code insert ... on conflict (source_key) do update} statement per row, which leaves
+     * rows whose values are unchanged untouched. Elsewhere rows with an existing key are updated by id and the others
+     * inserted, so the rows must have been diffed against {@link #findCatalogueRows(Collection)} first.
+     *
+     * @param inserts the new rows, with a reserved id.
+     * @param updates the changed rows, with the id of the existing vulnerability.
+     */
+    void mergeCatalogueRows(List<VulnerabilityCatalogueRow> inserts, List<VulnerabilityCatalogueRow> updates);
+}
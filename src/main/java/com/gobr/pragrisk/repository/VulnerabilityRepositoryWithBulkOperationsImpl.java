@@ -0,0 +1,119 @@
+package com.gobr.pragrisk.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class VulnerabilityRepositoryWithBulkOperationsImpl implements VulnerabilityRepositoryWithBulkOperations {
+
+    private static final String FIND_CATALOGUE_ROWS_SQL =
+        "select id, source_key, name, cwe_reference, cvss from vulnerability where source_key in (%s)";
+
+    private static final String INSERT_SQL = "insert into vulnerability (id, source_key, name, cwe_reference, cvss) values (?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_SQL =
+        INSERT_SQL +
+        " on conflict (source_key) do update set name = excluded.name, cwe_reference = excluded.cwe_reference, cvss = excluded.cvss," +
+        " version = vulnerability.version + 1" +
+        " where (vulnerability.name, vulnerability.cwe_reference, vulnerability.cvss)" +
+        " is distinct from (excluded.name, excluded.cwe_reference, excluded.cvss)";
+
+    private static final String UPDATE_SQL =
+        "update vulnerability set name = ?, cwe_reference = ?, cvss = ?, version = version + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    VulnerabilityRepositoryWithBulkOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<VulnerabilityCatalogueRow> findCatalogueRows(Collection<String> sourceKeys) {
+        if (sourceKeys.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+            String.format(FIND_CATALOGUE_ROWS_SQL, String.join(", ", Collections.nCopies(sourceKeys.size(), "?"))),
+            (rs, rowNum) -> {
+                VulnerabilityCatalogueRow row = new VulnerabilityCatalogueRow(
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getString(4),
+                    rs.getString(5)
+                );
+                row.setId(rs.getLong(1));
+                return row;
+            },
+            sourceKeys.toArray()
+        );
+    }
+
+    @Override
+    public void reserveIds(long[] ids, int length) {
+        PooledIds.reserve(jdbcTemplate, "vulnerability_seq", ids, length);
+    }
+
+    @Override
+    public void mergeCatalogueRows(List<VulnerabilityCatalogueRow> inserts, List<VulnerabilityCatalogueRow> updates) {
+        if (isPostgres()) {
+            List<VulnerabilityCatalogueRow> rows = new ArrayList<>(inserts.size() + updates.size());
+            rows.addAll(inserts);
+            rows.addAll(updates);
+            batchUpdate(UPSERT_SQL, rows, false);
+        } else {
+            batchUpdate(INSERT_SQL, inserts, false);
+            batchUpdate(UPDATE_SQL, updates, true);
+        }
+    }
+
+    private void batchUpdate(String sql, List<VulnerabilityCatalogueRow> rows, boolean idLast) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            sql,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    VulnerabilityCatalogueRow row = rows.get(i);
+                    int parameter = 1;
+                    if (!idLast) {
+                        ps.setLong(parameter++, row.getId());
+                        ps.setString(parameter++, row.getSourceKey());
+                    }
+                    ps.setString(parameter++, row.getName());
+                    ps.setString(parameter++, row.getCweReference());
+                    ps.setString(parameter++, row.getCvss());
+                    if (idLast) {
+                        ps.setLong(parameter, row.getId());
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            }
+        );
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result =
+                jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+                );
+            postgres = result;
+        }
+        return result;
+    }
+}
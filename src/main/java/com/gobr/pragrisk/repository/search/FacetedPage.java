@@ -0,0 +1,93 @@
+package com.gobr.pragrisk.repository.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+
+/**
+ * A page of the hits of a {@link FacetedSearch}, with the counts of every facet.
+ */
+public class FacetedPage<T> {
+
+    private final Page<T> page;
+
+    private final Map<String, List<Bucket>> facets;
+
+    public FacetedPage(Page<T> page, Map<String, List<Bucket>> facets) {
+        this.page = page;
+        this.facets = facets;
+    }
+
+    @JsonIgnore
+    public Page<T> getPage() {
+        return page;
+    }
+
+    public List<T> getContent() {
+        return page.getContent();
+    }
+
+    /**
+     * @return the buckets of every facet by name, in the order the facets were added.
+     */
+    public Map<String, List<Bucket>> getFacets() {
+        return facets;
+    }
+
+    /**
+     * The number of hits having a value, or a value in a range, of a facet.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Bucket {
+
+        private final String key;
+
+        private final Double from;
+
+        private final Double to;
+
+        private final long count;
+
+        public Bucket(String key, Double from, Double to, long count) {
+            this.key = key;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return the inclusive lower bound of a range, or {@code null} for a value or an unbounded range.
+         */
+        public Double getFrom() {
+            return from;
+        }
+
+        /**
+         * @return the exclusive upper bound of a range, or {@code null} for a value or an unbounded range.
+         */
+        public Double getTo() {
+            return to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Bucket{" +
+                "key='" + key + "'" +
+                ", from=" + from +
+                ", to=" + to +
+                ", count=" + count +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.gobr.pragrisk.repository.search;
+
+import static org.elasticsearch.index.query.QueryBuilders.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.search.aggregations.AbstractAggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregator;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+
+/**
+ * A structured search: an optional free text, and facets, each restricting one field by a criteria filter and
+ * counting the hits by value, or by range, of that field.
+ * <p>
+ * The free text is the scored query. The filters are compiled to {@code bool} filter clauses, which Elasticsearch
+ * caches, and applied as a {@code post_filter}, so that the counts of a facet are restricted by the filters of the
+ * other facets but not by its own: choosing a value of a facet leaves its other values to choose from.
+ */
+public final class FacetedSearch {
+
+    private final QueryBuilder text;
+
+    private final Map<String, QueryBuilder> filters = new LinkedHashMap<>();
+
+    private final Map<String, AbstractAggregationBuilder<?>> facets = new LinkedHashMap<>();
+
+    private FacetedSearch(QueryBuilder text) {
+        this.text = text;
+    }
+
+    /**
+     * @param text the free text of the search, in the simple query string syntax, or blank to match every document.
+     * @return a search without facets.
+     */
+    public static FacetedSearch of(String text) {
+        return new FacetedSearch(text == null || text.isBlank() ? matchAllQuery() : simpleQueryStringQuery(text));
+    }
+
+    /**
+     * Add a facet counting the hits by value of a field.
+     *
+     * @param facet the name of the facet.
+     * @param field the keyword or numeric field.
+     * @param filter the filter of the field, or {@code null}.
+     * @param size the most values counted.
+     * @return this search.
+     */
+    public FacetedSearch terms(String facet, String field, Filter<?> filter, int size) {
+        return facet(facet, field, filter, AggregationBuilders.terms(facet).field(field).size(size));
+    }
+
+    /**
+     * Add a facet counting the hits by range of a numeric field: {@code n} thresholds give {@code n + 1} ranges, each
+     * from a threshold, inclusive, to the next one, exclusive.
+     *
+     * @param facet the name of the facet.
+     * @param field the numeric field.
+     * @param filter the filter of the field, or {@code null}.
+     * @param thresholds the increasing bounds of the ranges.
+     * @return this search.
+     */
+    public FacetedSearch range(String facet, String field, RangeFilter<?> filter, List<BigDecimal> thresholds) {
+        RangeAggregationBuilder aggregation = AggregationBuilders.range(facet).field(field);
+        Double from = null;
+        for (BigDecimal threshold : thresholds) {
+            aggregation.addRange(new RangeAggregator.Range(null, from, threshold.doubleValue()));
+            from = threshold.doubleValue();
+        }
+        aggregation.addRange(new RangeAggregator.Range(null, from, null));
+        return facet(facet, field, filter, aggregation);
+    }
+
+    private FacetedSearch facet(String facet, String field, Filter<?> filter, AbstractAggregationBuilder<?> aggregation) {
+        QueryBuilder clause = filter == null ? null : toQuery(field, filter);
+        if (clause != null) {
+            filters.put(facet, clause);
+        }
+        facets.put(facet, aggregation);
+        return this;
+    }
+
+    /**
+     * @return the free text query.
+     */
+    QueryBuilder getText() {
+        return text;
+    }
+
+    /**
+     * @return the filter of every facet, or {@code null} if no facet is filtered.
+     */
+    QueryBuilder getFilter() {
+        return filters.isEmpty() ? null : filterOf(new ArrayList<>(filters.values()));
+    }
+
+    /**
+     * @return the aggregation of every facet, each under a filter aggregation of the same name applying the filters of
+     * the other facets.
+     */
+    List<AbstractAggregationBuilder<?>> getAggregations() {
+        return facets
+            .entrySet()
+            .stream()
+            .map(facet -> {
+                List<QueryBuilder> others = filters
+                    .entrySet()
+                    .stream()
+                    .filter(filter -> !filter.getKey().equals(facet.getKey()))
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList());
+                QueryBuilder filter = others.isEmpty() ? matchAllQuery() : filterOf(others);
+                return (AbstractAggregationBuilder<?>) AggregationBuilders
+                    .filter(facet.getKey(), filter)
+                    .subAggregation(facet.getValue());
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the names of the facets, in the order they were added.
+     */
+    List<String> getFacetNames() {
+        return new ArrayList<>(facets.keySet());
+    }
+
+    private static BoolQueryBuilder filterOf(List<QueryBuilder> clauses) {
+        BoolQueryBuilder bool = boolQuery();
+        clauses.forEach(bool::filter);
+        return bool;
+    }
+
+    /**
+     * Compile a criteria filter to filter clauses on a field.
+     *
+     * @return the clauses, or {@code null} if the filter is empty.
+     */
+    static QueryBuilder toQuery(String field, Filter<?> filter) {
+        BoolQueryBuilder bool = boolQuery();
+        if (filter.getEquals() != null) {
+            bool.filter(termQuery(field, toValue(filter.getEquals())));
+        }
+        if (filter.getNotEquals() != null) {
+            bool.mustNot(termQuery(field, toValue(filter.getNotEquals())));
+        }
+        if (filter.getIn() != null) {
+            bool.filter(termsQuery(field, filter.getIn().stream().map(FacetedSearch::toValue).collect(Collectors.toList())));
+        }
+        if (filter.getNotIn() != null) {
+            bool.mustNot(termsQuery(field, filter.getNotIn().stream().map(FacetedSearch::toValue).collect(Collectors.toList())));
+        }
+        if (Boolean.TRUE.equals(filter.getSpecified())) {
+            bool.filter(existsQuery(field));
+        } else if (Boolean.FALSE.equals(filter.getSpecified())) {
+            bool.mustNot(existsQuery(field));
+        }
+        if (filter instanceof RangeFilter) {
+            RangeFilter<?> range = (RangeFilter<?>) filter;
+            if (range.getGreaterThan() != null || range.getGreaterThanOrEqual() != null) {
+                RangeQueryBuilder lower = rangeQuery(field);
+                if (range.getGreaterThan() != null) {
+                    lower.gt(toValue(range.getGreaterThan()));
+                } else {
+                    lower.gte(toValue(range.getGreaterThanOrEqual()));
+                }
+                bool.filter(lower);
+            }
+            if (range.getLessThan() != null || range.getLessThanOrEqual() != null) {
+                RangeQueryBuilder upper = rangeQuery(field);
+                if (range.getLessThan() != null) {
+                    upper.lt(toValue(range.getLessThan()));
+                } else {
+                    upper.lte(toValue(range.getLessThanOrEqual()));
+                }
+                bool.filter(upper);
+            }
+        }
+        return bool.hasClauses() ? bool : null;
+    }
+
+    private static Object toValue(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).doubleValue();
+        }
+        return value;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FacetedSearch{" +
+            "text=" + text +
+            ", filters=" + filters.keySet() +
+            ", facets=" + facets.keySet() +
+            "}";
+    }
+}
@@ -2,20 +2,11 @@ package com.gobr.pragrisk.repository.search;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
+import com.gobr.pragrisk.config.ApplicationProperties;
 import com.gobr.pragrisk.domain.Mitigation;
-import java.util.List;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
@@ -25,26 +16,38 @@ public interface MitigationSearchRepository extends ElasticsearchRepository<Miti
 
 interface MitigationSearchRepositoryInternal {
     Page<Mitigation> search(String query, Pageable pageable);
+
+    SearchCursorPage<Mitigation> search(String query, SearchCursor position, int size);
+
+    FacetedPage<Mitigation> search(FacetedSearch search, Pageable pageable);
 }
 
 class MitigationSearchRepositoryInternalImpl implements MitigationSearchRepositoryInternal {
 
     private final ElasticsearchRestTemplate elasticsearchTemplate;
 
-    MitigationSearchRepositoryInternalImpl(ElasticsearchRestTemplate elasticsearchTemplate) {
+    private final int trackTotalHitsUpTo;
+
+    MitigationSearchRepositoryInternalImpl(
+        ElasticsearchRestTemplate elasticsearchTemplate,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
+        this.trackTotalHitsUpTo = applicationProperties.getSearch().getTrackTotalHitsUpTo();
     }
 
     @Override
     public Page<Mitigation> search(String query, Pageable pageable) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        nativeSearchQuery.setPageable(pageable);
-        List<Mitigation> hits = elasticsearchTemplate
-            .search(nativeSearchQuery, Mitigation.class)
-            .map(SearchHit::getContent)
-            .stream()
-            .collect(Collectors.toList());
-
-        return new PageImpl<>(hits, pageable, hits.size());
+        return SearchPages.search(elasticsearchTemplate, queryStringQuery(query), pageable, trackTotalHitsUpTo, Mitigation.class);
+    }
+
+    @Override
+    public SearchCursorPage<Mitigation> search(String query, SearchCursor position, int size) {
+        return SearchPages.search(elasticsearchTemplate, queryStringQuery(query), position, size, trackTotalHitsUpTo, Mitigation.class);
+    }
+
+    @Override
+    public FacetedPage<Mitigation> search(FacetedSearch search, Pageable pageable) {
+        return SearchPages.search(elasticsearchTemplate, search, pageable, trackTotalHitsUpTo, Mitigation.class);
     }
 }
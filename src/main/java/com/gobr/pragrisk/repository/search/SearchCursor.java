@@ -0,0 +1,159 @@
+package com.gobr.pragrisk.repository.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+
+/**
+ * The position of a search page read with {@code search_after}: the sort of the search, ending with the id so that
+ * hits are totally ordered, and the sort values of the last hit of the previous page, if any.
+ * <p>
+ * Unlike {@code from} and {@code size}, whose cost grows with the depth of the page and which are limited to the
+ * {@link #MAX_RESULT_WINDOW} first hits, a page after a cursor costs the same however deep it is. A cursor travels
+ * between requests as an opaque URL-safe token.
+ */
+public final class SearchCursor {
+
+    /**
+     * The default {@code index.max_result_window}: offset pages cannot reach past it.
+     */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final String ID = "id";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Sort sort;
+
+    private final List<Object> values;
+
+    private SearchCursor(Sort sort, List<Object> values) {
+        this.sort = sort;
+        this.values = values;
+    }
+
+    /**
+     * @param sort the requested sort, by increasing id if unsorted.
+     * @return the position of the first page, the id being added to the sort if missing.
+     */
+    public static SearchCursor first(Sort sort) {
+        return new SearchCursor(sort.getOrderFor(ID) == null ? sort.and(Sort.by(ID)) : sort, null);
+    }
+
+    /**
+     * @param token a token made by {@link #encode()}.
+     * @return the position it encodes.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            JsonNode node = MAPPER.readTree(Base64.getUrlDecoder().decode(token));
+            JsonNode orders = node.path("sort");
+            JsonNode after = node.path("after");
+            if (!orders.isArray() || !after.isArray() || orders.size() == 0 || orders.size() != after.size()) {
+                throw new IllegalArgumentException("Malformed search cursor token");
+            }
+            List<Sort.Order> sort = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++) {
+                JsonNode order = orders.get(i);
+                if (!order.path("property").isTextual()) {
+                    throw new IllegalArgumentException("Malformed search cursor token");
+                }
+                sort.add(new Sort.Order(Sort.Direction.fromString(order.path("direction").asText()), order.get("property").asText()));
+                values.add(toValue(after.get(i)));
+            }
+            return new SearchCursor(Sort.by(sort), Collections.unmodifiableList(values));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed search cursor token", e);
+        }
+    }
+
+    private static Object toValue(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (value.isIntegralNumber()) {
+            return value.longValue();
+        }
+        if (value.isNumber()) {
+            return value.doubleValue();
+        }
+        if (value.isTextual()) {
+            return value.textValue();
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        throw new IllegalArgumentException("Malformed search cursor token");
+    }
+
+    /**
+     * @return the token of this position.
+     * @throws IllegalStateException if this is the position of a first page.
+     */
+    public String encode() {
+        if (values == null) {
+            throw new IllegalStateException("The first page has no search cursor token");
+        }
+        ObjectNode node = MAPPER.createObjectNode();
+        ArrayNode orders = node.putArray("sort");
+        sort.forEach(order -> orders.addObject().put("property", order.getProperty()).put("direction", order.getDirection().name()));
+        ArrayNode after = node.putArray("after");
+        values.forEach(value -> after.add(MAPPER.valueToTree(value)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(node.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the position after a hit, in the same order.
+     */
+    public SearchCursor after(List<Object> sortValues) {
+        return new SearchCursor(sort, Collections.unmodifiableList(new ArrayList<>(sortValues)));
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * @return the sort values of the last hit of the previous page, or {@code null} for the first page.
+     */
+    public List<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchCursor)) {
+            return false;
+        }
+        SearchCursor other = (SearchCursor) o;
+        return sort.equals(other.sort) && Objects.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sort, values);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchCursor{" +
+            "sort=" + sort +
+            ", values=" + values +
+            "}";
+    }
+}
@@ -0,0 +1,43 @@
+package com.gobr.pragrisk.repository.search;
+
+import java.util.List;
+
+/**
+ * A page of search hits read after a {@link SearchCursor}, with the position of the next page if there is one.
+ */
+public final class SearchCursorPage<T> {
+
+    private final List<T> content;
+
+    private final SearchCursor next;
+
+    private final long totalHits;
+
+    public SearchCursorPage(List<T> content, SearchCursor next, long totalHits) {
+        this.content = content;
+        this.next = next;
+        this.totalHits = totalHits;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * @return the position of the next page, or {@code null} if this is the last one.
+     */
+    public SearchCursor getNext() {
+        return next;
+    }
+
+    /**
+     * @return the number of hits of the search, a lower bound past {@code application.search.track-total-hits-up-to}.
+     */
+    public long getTotalHits() {
+        return totalHits;
+    }
+}
@@ -0,0 +1,120 @@
+package com.gobr.pragrisk.repository.search;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.elasticsearch.search.aggregations.bucket.filter.Filter;
+import org.elasticsearch.search.aggregations.bucket.range.Range;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+
+/**
+ * Utility class reading the pages of the searches of the search repositories.
+ * <p>
+ * Hits are counted up to {@code application.search.track-total-hits-up-to}, past which the total is a lower bound:
+ * counting every hit of a broad query costs as much as visiting them all.
+ */
+final class SearchPages {
+
+    private SearchPages() {}
+
+    /**
+     * Search for a page of hits by offset.
+     */
+    static <T> Page<T> search(
+        ElasticsearchOperations operations,
+        QueryBuilder query,
+        Pageable pageable,
+        int trackTotalHitsUpTo,
+        Class<T> clazz
+    ) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(query);
+        nativeSearchQuery.setPageable(pageable);
+        nativeSearchQuery.setTrackTotalHitsUpTo(trackTotalHitsUpTo);
+        SearchHits<T> hits = operations.search(nativeSearchQuery, clazz);
+        return new PageImpl<>(contentOf(hits.getSearchHits()), pageable, hits.getTotalHits());
+    }
+
+    /**
+     * Search for a page of hits after a cursor, one more hit being read to know if there is a next page.
+     */
+    static <T> SearchCursorPage<T> search(
+        ElasticsearchOperations operations,
+        QueryBuilder query,
+        SearchCursor position,
+        int size,
+        int trackTotalHitsUpTo,
+        Class<T> clazz
+    ) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(query);
+        nativeSearchQuery.setPageable(PageRequest.of(0, size + 1, position.getSort()));
+        nativeSearchQuery.setTrackTotalHitsUpTo(trackTotalHitsUpTo);
+        if (position.getValues() != null) {
+            nativeSearchQuery.setSearchAfter(position.getValues());
+        }
+        SearchHits<T> hits = operations.search(nativeSearchQuery, clazz);
+        List<SearchHit<T>> searchHits = hits.getSearchHits();
+        if (searchHits.size() <= size) {
+            return new SearchCursorPage<>(contentOf(searchHits), null, hits.getTotalHits());
+        }
+        List<SearchHit<T>> page = searchHits.subList(0, size);
+        return new SearchCursorPage<>(contentOf(page), position.after(page.get(size - 1).getSortValues()), hits.getTotalHits());
+    }
+
+    /**
+     * Search for a page of the hits of a faceted search by offset, with the counts of its facets.
+     */
+    static <T> FacetedPage<T> search(
+        ElasticsearchOperations operations,
+        FacetedSearch search,
+        Pageable pageable,
+        int trackTotalHitsUpTo,
+        Class<T> clazz
+    ) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(search.getText(), search.getFilter());
+        nativeSearchQuery.setPageable(pageable);
+        nativeSearchQuery.setTrackTotalHitsUpTo(trackTotalHitsUpTo);
+        nativeSearchQuery.setAggregations(search.getAggregations());
+        SearchHits<T> hits = operations.search(nativeSearchQuery, clazz);
+        Page<T> page = new PageImpl<>(contentOf(hits.getSearchHits()), pageable, hits.getTotalHits());
+        Map<String, List<FacetedPage.Bucket>> facets = new LinkedHashMap<>();
+        if (hits.hasAggregations()) {
+            Aggregations aggregations = (Aggregations) hits.getAggregations().aggregations();
+            for (String facet : search.getFacetNames()) {
+                Filter filter = aggregations.get(facet);
+                MultiBucketsAggregation buckets = filter.getAggregations().get(facet);
+                facets.put(facet, buckets.getBuckets().stream().map(SearchPages::toBucket).collect(Collectors.toList()));
+            }
+        }
+        return new FacetedPage<>(page, facets);
+    }
+
+    private static FacetedPage.Bucket toBucket(MultiBucketsAggregation.Bucket bucket) {
+        if (bucket instanceof Range.Bucket) {
+            Range.Bucket range = (Range.Bucket) bucket;
+            return new FacetedPage.Bucket(bucket.getKeyAsString(), toBound(range.getFrom()), toBound(range.getTo()), bucket.getDocCount());
+        }
+        return new FacetedPage.Bucket(bucket.getKeyAsString(), null, null, bucket.getDocCount());
+    }
+
+    private static Double toBound(Object bound) {
+        if (!(bound instanceof Number) || Double.isInfinite(((Number) bound).doubleValue())) {
+            return null;
+        }
+        return ((Number) bound).doubleValue();
+    }
+
+    private static <T> List<T> contentOf(List<SearchHit<T>> hits) {
+        return hits.stream().map(SearchHit::getContent).collect(Collectors.toList());
+    }
+}
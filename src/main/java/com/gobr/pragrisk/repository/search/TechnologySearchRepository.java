@@ -2,20 +2,11 @@ package com.gobr.pragrisk.repository.search;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
+import com.gobr.pragrisk.config.ApplicationProperties;
 import com.gobr.pragrisk.domain.Technology;
-import java.util.List;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
@@ -25,26 +16,38 @@ public interface TechnologySearchRepository extends ElasticsearchRepository<Tech
 
 interface TechnologySearchRepositoryInternal {
     Page<Technology> search(String query, Pageable pageable);
+
+    SearchCursorPage<Technology> search(String query, SearchCursor position, int size);
+
+    FacetedPage<Technology> search(FacetedSearch search, Pageable pageable);
 }
 
 class TechnologySearchRepositoryInternalImpl implements TechnologySearchRepositoryInternal {
 
     private final ElasticsearchRestTemplate elasticsearchTemplate;
 
-    TechnologySearchRepositoryInternalImpl(ElasticsearchRestTemplate elasticsearchTemplate) {
+    private final int trackTotalHitsUpTo;
+
+    TechnologySearchRepositoryInternalImpl(
+        ElasticsearchRestTemplate elasticsearchTemplate,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
+        this.trackTotalHitsUpTo = applicationProperties.getSearch().getTrackTotalHitsUpTo();
     }
 
     @Override
     public Page<Technology> search(String query, Pageable pageable) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        nativeSearchQuery.setPageable(pageable);
-        List<Technology> hits = elasticsearchTemplate
-            .search(nativeSearchQuery, Technology.class)
-            .map(SearchHit::getContent)
-            .stream()
-            .collect(Collectors.toList());
-
-        return new PageImpl<>(hits, pageable, hits.size());
+        return SearchPages.search(elasticsearchTemplate, queryStringQuery(query), pageable, trackTotalHitsUpTo, Technology.class);
+    }
+
+    @Override
+    public SearchCursorPage<Technology> search(String query, SearchCursor position, int size) {
+        return SearchPages.search(elasticsearchTemplate, queryStringQuery(query), position, size, trackTotalHitsUpTo, Technology.class);
+    }
+
+    @Override
+    public FacetedPage<Technology> search(FacetedSearch search, Pageable pageable) {
+        return SearchPages.search(elasticsearchTemplate, search, pageable, trackTotalHitsUpTo, Technology.class);
     }
 }
@@ -2,20 +2,11 @@ package com.gobr.pragrisk.repository.search;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
+import com.gobr.pragrisk.config.ApplicationProperties;
 import com.gobr.pragrisk.domain.Vulnerability;
-import java.util.List;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
@@ -26,26 +17,31 @@ public interface VulnerabilitySearchRepository
 
 interface VulnerabilitySearchRepositoryInternal {
     Page<Vulnerability> search(String query, Pageable pageable);
+
+    SearchCursorPage<Vulnerability> search(String query, SearchCursor position, int size);
 }
 
 class VulnerabilitySearchRepositoryInternalImpl implements VulnerabilitySearchRepositoryInternal {
 
     private final ElasticsearchRestTemplate elasticsearchTemplate;
 
-    VulnerabilitySearchRepositoryInternalImpl(ElasticsearchRestTemplate elasticsearchTemplate) {
+    private final int trackTotalHitsUpTo;
+
+    VulnerabilitySearchRepositoryInternalImpl(
+        ElasticsearchRestTemplate elasticsearchTemplate,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
+        this.trackTotalHitsUpTo = applicationProperties.getSearch().getTrackTotalHitsUpTo();
     }
 
     @Override
     public Page<Vulnerability> search(String query, Pageable pageable) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        nativeSearchQuery.setPageable(pageable);
-        List<Vulnerability> hits = elasticsearchTemplate
-            .search(nativeSearchQuery, Vulnerability.class)
-            .map(SearchHit::getContent)
-            .stream()
-            .collect(Collectors.toList());
-
-        return new PageImpl<>(hits, pageable, hits.size());
+        return SearchPages.search(elasticsearchTemplate, queryStringQuery(query), pageable, trackTotalHitsUpTo, Vulnerability.class);
+    }
+
+    @Override
+    public SearchCursorPage<Vulnerability> search(String query, SearchCursor position, int size) {
+        return SearchPages.search(elasticsearchTemplate, queryStringQuery(query), position, size, trackTotalHitsUpTo, Vulnerability.class);
     }
 }
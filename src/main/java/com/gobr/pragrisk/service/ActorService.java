@@ -4,12 +4,28 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Actor;
 import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.ActorRepository.ActorSummary;
+import com.gobr.pragrisk.repository.Keyset;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.KeysetRepository;
 import com.gobr.pragrisk.repository.search.ActorSearchRepository;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.FacetedSearch;
+import com.gobr.pragrisk.repository.search.SearchCursor;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
+import com.gobr.pragrisk.service.criteria.ActorCriteria;
+import com.gobr.pragrisk.service.dto.ActorSummaryDTO;
+import com.gobr.pragrisk.service.risk.ActorChangedEvent;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,15 +36,35 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class ActorService {
 
+    /**
+     * The most environments counted by the environment facet of a search.
+     */
+    private static final int ENVIRONMENT_FACET_SIZE = 100;
+
     private final Logger log = LoggerFactory.getLogger(ActorService.class);
 
     private final ActorRepository actorRepository;
 
     private final ActorSearchRepository actorSearchRepository;
 
-    public ActorService(ActorRepository actorRepository, ActorSearchRepository actorSearchRepository) {
+    private final SearchIndexer searchIndexer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final KeysetRepository keysetRepository;
+
+    public ActorService(
+        ActorRepository actorRepository,
+        ActorSearchRepository actorSearchRepository,
+        SearchIndexer searchIndexer,
+        ApplicationEventPublisher eventPublisher,
+        KeysetRepository keysetRepository
+    ) {
         this.actorRepository = actorRepository;
         this.actorSearchRepository = actorSearchRepository;
+        this.searchIndexer = searchIndexer;
+        this.eventPublisher = eventPublisher;
+        this.keysetRepository = keysetRepository;
     }
 
     /**
@@ -39,23 +75,45 @@ public class ActorService {
      */
     public Actor save(Actor actor) {
         log.debug("Request to save Actor : {}", actor);
-        Actor result = actorRepository.save(actor);
-        actorSearchRepository.save(result);
+        Actor result = actorRepository.saveAndFlush(actor);
+        searchIndexer.enqueue(SearchDocumentType.ACTOR, result.getId());
+        Long environmentId = result.getGroup() == null ? null : result.getGroup().getId();
+        Long parentId = result.getParentActor() == null ? null : result.getParentActor().getId();
+        eventPublisher.publishEvent(ActorChangedEvent.saved(result.getId(), environmentId, parentId));
         return result;
     }
 
+    /**
+     * Update an actor, only if it has not changed since the version it was read at.
+     *
+     * @param actor the entity to update, with the version it was read at, or without a version to overwrite any.
+     * @return the persisted entity, with its new version.
+     * @throws ObjectOptimisticLockingFailureException if the actor has changed since that version.
+     */
+    public Actor update(Actor actor) {
+        log.debug("Request to update Actor : {}", actor);
+        if (actor.getVersion() == null) {
+            actorRepository.findById(actor.getId()).map(Actor::getVersion).ifPresent(actor::setVersion);
+        }
+        return save(actor);
+    }
+
     /**
      * Partially update a actor.
      *
      * @param actor the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the entity has a version and the actor has changed since.
      */
     public Optional<Actor> partialUpdate(Actor actor) {
         log.debug("Request to partially update Actor : {}", actor);
 
         return actorRepository
-            .findById(actor.getId())
+            .findOneWithEagerRelationships(actor.getId())
             .map(existingActor -> {
+                if (actor.getVersion() != null && !actor.getVersion().equals(existingActor.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Actor.class, actor.getId());
+                }
                 if (actor.getFirstName() != null) {
                     existingActor.setFirstName(actor.getFirstName());
                 }
@@ -71,9 +129,9 @@ public class ActorService {
 
                 return existingActor;
             })
-            .map(actorRepository::save)
+            .map(actorRepository::saveAndFlush)
             .map(savedActor -> {
-                actorSearchRepository.save(savedActor);
+                searchIndexer.enqueue(SearchDocumentType.ACTOR, savedActor.getId());
 
                 return savedActor;
             });
@@ -88,7 +146,56 @@ public class ActorService {
     @Transactional(readOnly = true)
     public Page<Actor> findAll(Pageable pageable) {
         log.debug("Request to get all Actors");
-        return actorRepository.findAll(pageable);
+        return actorRepository.findAllWithEagerRelationships(pageable);
+    }
+
+    /**
+     * Get a keyset page of the actors.
+     *
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Actor> findPage(Keyset position, int size) {
+        log.debug("Request to get a keyset page of Actors : {}", position);
+        return keysetRepository.findPage(Actor.class, position, size, Actor.EAGER_RELATIONSHIPS_GRAPH);
+    }
+
+    /**
+     * Get a slice of the actors, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Actor> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of Actors");
+        return actorRepository.findSliceWithEagerRelationships(pageable);
+    }
+
+    /**
+     * Get the summaries of all the actors, read with one query per page.
+     *
+     * @param pageable the pagination information.
+     * @return the list of summaries.
+     */
+    @Transactional(readOnly = true)
+    public Page<ActorSummaryDTO> findAllSummaries(Pageable pageable) {
+        log.debug("Request to get the summaries of all Actors");
+        return actorRepository.findAllSummaries(pageable).map(ActorService::toSummaryDTO);
+    }
+
+    /**
+     * Get a slice of the summaries of the actors, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of summaries.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ActorSummaryDTO> findSummarySlice(Pageable pageable) {
+        log.debug("Request to get a slice of the summaries of Actors");
+        return actorRepository.findSummarySlice(pageable).map(ActorService::toSummaryDTO);
     }
 
     /**
@@ -100,7 +207,19 @@ public class ActorService {
     @Transactional(readOnly = true)
     public Optional<Actor> findOne(Long id) {
         log.debug("Request to get Actor : {}", id);
-        return actorRepository.findById(id);
+        return actorRepository.findOneWithEagerRelationships(id);
+    }
+
+    /**
+     * Get the current state of one actor by id, read from the primary database rather than from a lagging replica.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional
+    public Optional<Actor> findCurrent(Long id) {
+        log.debug("Request to get current Actor : {}", id);
+        return actorRepository.findOneWithEagerRelationships(id);
     }
 
     /**
@@ -111,7 +230,8 @@ public class ActorService {
     public void delete(Long id) {
         log.debug("Request to delete Actor : {}", id);
         actorRepository.deleteById(id);
-        actorSearchRepository.deleteById(id);
+        searchIndexer.enqueue(SearchDocumentType.ACTOR, id);
+        eventPublisher.publishEvent(ActorChangedEvent.deleted(id));
     }
 
     /**
@@ -126,4 +246,44 @@ public class ActorService {
         log.debug("Request to search for a page of Actors for query {}", query);
         return actorSearchRepository.search(query, pageable);
     }
+
+    /**
+     * Search for a page of the actors corresponding to the query, after a cursor.
+     *
+     * @param query the query of the search.
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public SearchCursorPage<Actor> search(String query, SearchCursor position, int size) {
+        log.debug("Request to search for a cursor page of Actors for query {} : {}", query, position);
+        return actorSearchRepository.search(query, position, size);
+    }
+
+    /**
+     * Search for a page of the actors corresponding to the query and the criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, or blank.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the page of entities, with the counts of the facets.
+     */
+    @Transactional(readOnly = true)
+    public FacetedPage<Actor> search(String query, ActorCriteria criteria, Pageable pageable) {
+        log.debug("Request to search for a faceted page of Actors for query {} : {}", query, criteria);
+        FacetedSearch search = FacetedSearch.of(query).terms("groupId", "group.id", criteria.getGroupId(), ENVIRONMENT_FACET_SIZE);
+        return actorSearchRepository.search(search, pageable);
+    }
+
+    private static ActorSummaryDTO toSummaryDTO(ActorSummary summary) {
+        return new ActorSummaryDTO(
+            summary.getId(),
+            summary.getNickName(),
+            summary.getParentActorId(),
+            summary.getParentActorNickName(),
+            summary.getGroupId(),
+            summary.getGroupName()
+        );
+    }
 }
@@ -5,12 +5,15 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.gobr.pragrisk.domain.Environment;
 import com.gobr.pragrisk.repository.EnvironmentRepository;
 import com.gobr.pragrisk.repository.search.EnvironmentSearchRepository;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,9 +30,16 @@ public class EnvironmentService {
 
     private final EnvironmentSearchRepository environmentSearchRepository;
 
-    public EnvironmentService(EnvironmentRepository environmentRepository, EnvironmentSearchRepository environmentSearchRepository) {
+    private final SearchIndexer searchIndexer;
+
+    public EnvironmentService(
+        EnvironmentRepository environmentRepository,
+        EnvironmentSearchRepository environmentSearchRepository,
+        SearchIndexer searchIndexer
+    ) {
         this.environmentRepository = environmentRepository;
         this.environmentSearchRepository = environmentSearchRepository;
+        this.searchIndexer = searchIndexer;
     }
 
     /**
@@ -40,16 +50,32 @@ public class EnvironmentService {
      */
     public Environment save(Environment environment) {
         log.debug("Request to save Environment : {}", environment);
-        Environment result = environmentRepository.save(environment);
-        environmentSearchRepository.save(result);
+        Environment result = environmentRepository.saveAndFlush(environment);
+        searchIndexer.enqueue(SearchDocumentType.ENVIRONMENT, result.getId());
         return result;
     }
 
+    /**
+     * Update an environment, only if it has not changed since the version it was read at.
+     *
+     * @param environment the entity to update, with the version it was read at, or without a version to overwrite any.
+     * @return the persisted entity, with its new version.
+     * @throws ObjectOptimisticLockingFailureException if the environment has changed since that version.
+     */
+    public Environment update(Environment environment) {
+        log.debug("Request to update Environment : {}", environment);
+        if (environment.getVersion() == null) {
+            environmentRepository.findById(environment.getId()).map(Environment::getVersion).ifPresent(environment::setVersion);
+        }
+        return save(environment);
+    }
+
     /**
      * Partially update a environment.
      *
      * @param environment the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the entity has a version and the environment has changed since.
      */
     public Optional<Environment> partialUpdate(Environment environment) {
         log.debug("Request to partially update Environment : {}", environment);
@@ -57,6 +83,9 @@ public class EnvironmentService {
         return environmentRepository
             .findById(environment.getId())
             .map(existingEnvironment -> {
+                if (environment.getVersion() != null && !environment.getVersion().equals(existingEnvironment.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Environment.class, environment.getId());
+                }
                 if (environment.getName() != null) {
                     existingEnvironment.setName(environment.getName());
                 }
@@ -66,9 +95,9 @@ public class EnvironmentService {
 
                 return existingEnvironment;
             })
-            .map(environmentRepository::save)
+            .map(environmentRepository::saveAndFlush)
             .map(savedEnvironment -> {
-                environmentSearchRepository.save(savedEnvironment);
+                searchIndexer.enqueue(SearchDocumentType.ENVIRONMENT, savedEnvironment.getId());
 
                 return savedEnvironment;
             });
@@ -97,6 +126,18 @@ public class EnvironmentService {
         return environmentRepository.findById(id);
     }
 
+    /**
+     * Get the current state of one environment by id, read from the primary database rather than from a lagging replica.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional
+    public Optional<Environment> findCurrent(Long id) {
+        log.debug("Request to get current Environment : {}", id);
+        return environmentRepository.findById(id);
+    }
+
     /**
      * Delete the environment by id.
      *
@@ -105,7 +146,7 @@ public class EnvironmentService {
     public void delete(Long id) {
         log.debug("Request to delete Environment : {}", id);
         environmentRepository.deleteById(id);
-        environmentSearchRepository.deleteById(id);
+        searchIndexer.enqueue(SearchDocumentType.ENVIRONMENT, id);
     }
 
     /**
@@ -3,13 +3,29 @@ package com.gobr.pragrisk.service;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.Keyset;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.KeysetRepository;
 import com.gobr.pragrisk.repository.MitigationRepository;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.FacetedSearch;
 import com.gobr.pragrisk.repository.search.MitigationSearchRepository;
+import com.gobr.pragrisk.repository.search.SearchCursor;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
+import com.gobr.pragrisk.service.criteria.MitigationCriteria;
+import com.gobr.pragrisk.service.risk.MitigationCoverageChangedEvent;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +42,24 @@ public class MitigationService {
 
     private final MitigationSearchRepository mitigationSearchRepository;
 
-    public MitigationService(MitigationRepository mitigationRepository, MitigationSearchRepository mitigationSearchRepository) {
+    private final SearchIndexer searchIndexer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final KeysetRepository keysetRepository;
+
+    public MitigationService(
+        MitigationRepository mitigationRepository,
+        MitigationSearchRepository mitigationSearchRepository,
+        SearchIndexer searchIndexer,
+        ApplicationEventPublisher eventPublisher,
+        KeysetRepository keysetRepository
+    ) {
         this.mitigationRepository = mitigationRepository;
         this.mitigationSearchRepository = mitigationSearchRepository;
+        this.searchIndexer = searchIndexer;
+        this.eventPublisher = eventPublisher;
+        this.keysetRepository = keysetRepository;
     }
 
     /**
@@ -39,16 +70,33 @@ public class MitigationService {
      */
     public Mitigation save(Mitigation mitigation) {
         log.debug("Request to save Mitigation : {}", mitigation);
-        Mitigation result = mitigationRepository.save(mitigation);
-        mitigationSearchRepository.save(result);
+        Mitigation result = mitigationRepository.saveAndFlush(mitigation);
+        searchIndexer.enqueue(SearchDocumentType.MITIGATION, result.getId());
+        eventPublisher.publishEvent(new MitigationCoverageChangedEvent("Mitigation " + result.getId()));
         return result;
     }
 
+    /**
+     * Update a mitigation, only if it has not changed since the version it was read at.
+     *
+     * @param mitigation the entity to update, with the version it was read at, or without a version to overwrite any.
+     * @return the persisted entity, with its new version.
+     * @throws ObjectOptimisticLockingFailureException if the mitigation has changed since that version.
+     */
+    public Mitigation update(Mitigation mitigation) {
+        log.debug("Request to update Mitigation : {}", mitigation);
+        if (mitigation.getVersion() == null) {
+            mitigationRepository.findById(mitigation.getId()).map(Mitigation::getVersion).ifPresent(mitigation::setVersion);
+        }
+        return save(mitigation);
+    }
+
     /**
      * Partially update a mitigation.
      *
      * @param mitigation the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the entity has a version and the mitigation has changed since.
      */
     public Optional<Mitigation> partialUpdate(Mitigation mitigation) {
         log.debug("Request to partially update Mitigation : {}", mitigation);
@@ -56,6 +104,9 @@ public class MitigationService {
         return mitigationRepository
             .findById(mitigation.getId())
             .map(existingMitigation -> {
+                if (mitigation.getVersion() != null && !mitigation.getVersion().equals(existingMitigation.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Mitigation.class, mitigation.getId());
+                }
                 if (mitigation.getControlID() != null) {
                     existingMitigation.setControlID(mitigation.getControlID());
                 }
@@ -77,9 +128,10 @@ public class MitigationService {
 
                 return existingMitigation;
             })
-            .map(mitigationRepository::save)
+            .map(mitigationRepository::saveAndFlush)
             .map(savedMitigation -> {
-                mitigationSearchRepository.save(savedMitigation);
+                searchIndexer.enqueue(SearchDocumentType.MITIGATION, savedMitigation.getId());
+                eventPublisher.publishEvent(new MitigationCoverageChangedEvent("Mitigation " + savedMitigation.getId()));
 
                 return savedMitigation;
             });
@@ -97,6 +149,31 @@ public class MitigationService {
         return mitigationRepository.findAll(pageable);
     }
 
+    /**
+     * Get a keyset page of the mitigations.
+     *
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Mitigation> findPage(Keyset position, int size) {
+        log.debug("Request to get a keyset page of Mitigations : {}", position);
+        return keysetRepository.findPage(Mitigation.class, position, size, null);
+    }
+
+    /**
+     * Get a slice of the mitigations, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Mitigation> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of Mitigations");
+        return mitigationRepository.findSliceBy(pageable);
+    }
+
     /**
      * Get one mitigation by id.
      *
@@ -109,6 +186,18 @@ public class MitigationService {
         return mitigationRepository.findById(id);
     }
 
+    /**
+     * Get the current state of one mitigation by id, read from the primary database rather than from a lagging replica.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional
+    public Optional<Mitigation> findCurrent(Long id) {
+        log.debug("Request to get current Mitigation : {}", id);
+        return mitigationRepository.findById(id);
+    }
+
     /**
      * Delete the mitigation by id.
      *
@@ -117,7 +206,8 @@ public class MitigationService {
     public void delete(Long id) {
         log.debug("Request to delete Mitigation : {}", id);
         mitigationRepository.deleteById(id);
-        mitigationSearchRepository.deleteById(id);
+        searchIndexer.enqueue(SearchDocumentType.MITIGATION, id);
+        eventPublisher.publishEvent(new MitigationCoverageChangedEvent("Mitigation " + id));
     }
 
     /**
@@ -132,4 +222,36 @@ public class MitigationService {
         log.debug("Request to search for a page of Mitigations for query {}", query);
         return mitigationSearchRepository.search(query, pageable);
     }
+
+    /**
+     * Search for a page of the mitigations corresponding to the query, after a cursor.
+     *
+     * @param query the query of the search.
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public SearchCursorPage<Mitigation> search(String query, SearchCursor position, int size) {
+        log.debug("Request to search for a cursor page of Mitigations for query {} : {}", query, position);
+        return mitigationSearchRepository.search(query, position, size);
+    }
+
+    /**
+     * Search for a page of the mitigations corresponding to the query and the criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, or blank.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the page of entities, with the counts of the facets.
+     */
+    @Transactional(readOnly = true)
+    public FacetedPage<Mitigation> search(String query, MitigationCriteria criteria, Pageable pageable) {
+        log.debug("Request to search for a faceted page of Mitigations for query {} : {}", query, criteria);
+        FacetedSearch search = FacetedSearch
+            .of(query)
+            .terms("type", "type.keyword", criteria.getType(), MitigationType.values().length)
+            .terms("status", "status.keyword", criteria.getStatus(), MitigationStatus.values().length);
+        return mitigationSearchRepository.search(search, pageable);
+    }
 }
@@ -2,14 +2,38 @@ package com.gobr.pragrisk.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.gobr.pragrisk.config.ApplicationProperties;
 import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.enumeration.TechCategory;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.repository.Keyset;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.KeysetRepository;
 import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.ScenarioRepository.ScenarioSummary;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.FacetedSearch;
 import com.gobr.pragrisk.repository.search.ScenarioSearchRepository;
+import com.gobr.pragrisk.repository.search.SearchCursor;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
+import com.gobr.pragrisk.service.criteria.ScenarioCriteria;
+import com.gobr.pragrisk.service.dto.ScenarioSummaryDTO;
+import com.gobr.pragrisk.service.risk.RiskComputationEngine;
+import com.gobr.pragrisk.service.risk.ScenarioChangedEvent;
+import com.gobr.pragrisk.service.risk.ScenarioRiskSnapshot;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,36 +50,81 @@ public class ScenarioService {
 
     private final ScenarioSearchRepository scenarioSearchRepository;
 
-    public ScenarioService(ScenarioRepository scenarioRepository, ScenarioSearchRepository scenarioSearchRepository) {
+    private final SearchIndexer searchIndexer;
+
+    private final RiskComputationEngine riskComputationEngine;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final KeysetRepository keysetRepository;
+
+    private final List<BigDecimal> riskValueThresholds;
+
+    public ScenarioService(
+        ScenarioRepository scenarioRepository,
+        ScenarioSearchRepository scenarioSearchRepository,
+        SearchIndexer searchIndexer,
+        RiskComputationEngine riskComputationEngine,
+        ApplicationEventPublisher eventPublisher,
+        KeysetRepository keysetRepository,
+        ApplicationProperties applicationProperties
+    ) {
         this.scenarioRepository = scenarioRepository;
         this.scenarioSearchRepository = scenarioSearchRepository;
+        this.searchIndexer = searchIndexer;
+        this.riskComputationEngine = riskComputationEngine;
+        this.eventPublisher = eventPublisher;
+        this.keysetRepository = keysetRepository;
+        this.riskValueThresholds =
+            applicationProperties.getSearch().getFacets().getRiskValueThresholds().stream().sorted().collect(Collectors.toList());
     }
 
     /**
-     * Save a scenario.
+     * Save a scenario, deriving its risk value from its probability and qonsequence.
      *
      * @param scenario the entity to save.
      * @return the persisted entity.
      */
     public Scenario save(Scenario scenario) {
         log.debug("Request to save Scenario : {}", scenario);
-        Scenario result = scenarioRepository.save(scenario);
-        scenarioSearchRepository.save(result);
+        riskComputationEngine.applyRiskValue(scenario);
+        Scenario result = scenarioRepository.saveAndFlush(scenario);
+        searchIndexer.enqueue(SearchDocumentType.SCENARIO, result.getId());
+        eventPublisher.publishEvent(ScenarioChangedEvent.saved(ScenarioRiskSnapshot.of(result)));
         return result;
     }
 
     /**
-     * Partially update a scenario.
+     * Update a scenario, only if it has not changed since the version it was read at.
+     *
+     * @param scenario the entity to update, with the version it was read at, or without a version to overwrite any.
+     * @return the persisted entity, with its new version.
+     * @throws ObjectOptimisticLockingFailureException if the scenario has changed since that version.
+     */
+    public Scenario update(Scenario scenario) {
+        log.debug("Request to update Scenario : {}", scenario);
+        if (scenario.getVersion() == null) {
+            scenarioRepository.findById(scenario.getId()).map(Scenario::getVersion).ifPresent(scenario::setVersion);
+        }
+        return save(scenario);
+    }
+
+    /**
+     * Partially update a scenario. The risk value is always derived from the resulting probability and qonsequence.
      *
      * @param scenario the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the entity has a version and the scenario has changed since.
      */
     public Optional<Scenario> partialUpdate(Scenario scenario) {
         log.debug("Request to partially update Scenario : {}", scenario);
 
         return scenarioRepository
-            .findById(scenario.getId())
+            .findOneWithEagerRelationships(scenario.getId())
             .map(existingScenario -> {
+                if (scenario.getVersion() != null && !scenario.getVersion().equals(existingScenario.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Scenario.class, scenario.getId());
+                }
                 if (scenario.getTitle() != null) {
                     existingScenario.setTitle(scenario.getTitle());
                 }
@@ -68,15 +137,13 @@ public class ScenarioService {
                 if (scenario.getQonsequence() != null) {
                     existingScenario.setQonsequence(scenario.getQonsequence());
                 }
-                if (scenario.getRiskValue() != null) {
-                    existingScenario.setRiskValue(scenario.getRiskValue());
-                }
 
-                return existingScenario;
+                return riskComputationEngine.applyRiskValue(existingScenario);
             })
-            .map(scenarioRepository::save)
+            .map(scenarioRepository::saveAndFlush)
             .map(savedScenario -> {
-                scenarioSearchRepository.save(savedScenario);
+                searchIndexer.enqueue(SearchDocumentType.SCENARIO, savedScenario.getId());
+                eventPublisher.publishEvent(ScenarioChangedEvent.saved(ScenarioRiskSnapshot.of(savedScenario)));
 
                 return savedScenario;
             });
@@ -91,7 +158,56 @@ public class ScenarioService {
     @Transactional(readOnly = true)
     public Page<Scenario> findAll(Pageable pageable) {
         log.debug("Request to get all Scenarios");
-        return scenarioRepository.findAll(pageable);
+        return scenarioRepository.findAllWithEagerRelationships(pageable);
+    }
+
+    /**
+     * Get a keyset page of the scenarios.
+     *
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Scenario> findPage(Keyset position, int size) {
+        log.debug("Request to get a keyset page of Scenarios : {}", position);
+        return keysetRepository.findPage(Scenario.class, position, size, Scenario.EAGER_RELATIONSHIPS_GRAPH);
+    }
+
+    /**
+     * Get a slice of the scenarios, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Scenario> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of Scenarios");
+        return scenarioRepository.findSliceWithEagerRelationships(pageable);
+    }
+
+    /**
+     * Get the summaries of all the scenarios, read with one query per page.
+     *
+     * @param pageable the pagination information.
+     * @return the list of summaries.
+     */
+    @Transactional(readOnly = true)
+    public Page<ScenarioSummaryDTO> findAllSummaries(Pageable pageable) {
+        log.debug("Request to get the summaries of all Scenarios");
+        return scenarioRepository.findAllSummaries(pageable).map(ScenarioService::toSummaryDTO);
+    }
+
+    /**
+     * Get a slice of the summaries of the scenarios, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of summaries.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ScenarioSummaryDTO> findSummarySlice(Pageable pageable) {
+        log.debug("Request to get a slice of the summaries of Scenarios");
+        return scenarioRepository.findSummarySlice(pageable).map(ScenarioService::toSummaryDTO);
     }
 
     /**
@@ -103,7 +219,19 @@ public class ScenarioService {
     @Transactional(readOnly = true)
     public Optional<Scenario> findOne(Long id) {
         log.debug("Request to get Scenario : {}", id);
-        return scenarioRepository.findById(id);
+        return scenarioRepository.findOneWithEagerRelationships(id);
+    }
+
+    /**
+     * Get the current state of one scenario by id, read from the primary database rather than from a lagging replica.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional
+    public Optional<Scenario> findCurrent(Long id) {
+        log.debug("Request to get current Scenario : {}", id);
+        return scenarioRepository.findOneWithEagerRelationships(id);
     }
 
     /**
@@ -114,7 +242,8 @@ public class ScenarioService {
     public void delete(Long id) {
         log.debug("Request to delete Scenario : {}", id);
         scenarioRepository.deleteById(id);
-        scenarioSearchRepository.deleteById(id);
+        searchIndexer.enqueue(SearchDocumentType.SCENARIO, id);
+        eventPublisher.publishEvent(ScenarioChangedEvent.deleted(id));
     }
 
     /**
@@ -129,4 +258,51 @@ public class ScenarioService {
         log.debug("Request to search for a page of Scenarios for query {}", query);
         return scenarioSearchRepository.search(query, pageable);
     }
+
+    /**
+     * Search for a page of the scenarios corresponding to the query, after a cursor.
+     *
+     * @param query the query of the search.
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public SearchCursorPage<Scenario> search(String query, SearchCursor position, int size) {
+        log.debug("Request to search for a cursor page of Scenarios for query {} : {}", query, position);
+        return scenarioSearchRepository.search(query, position, size);
+    }
+
+    /**
+     * Search for a page of the scenarios corresponding to the query and the criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, or blank.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the page of entities, with the counts of the facets.
+     */
+    @Transactional(readOnly = true)
+    public FacetedPage<Scenario> search(String query, ScenarioCriteria criteria, Pageable pageable) {
+        log.debug("Request to search for a faceted page of Scenarios for query {} : {}", query, criteria);
+        FacetedSearch search = FacetedSearch
+            .of(query)
+            .range("riskValue", "riskValue", criteria.getRiskValue(), riskValueThresholds)
+            .terms("technologyCategory", "technologyFK.category.keyword", criteria.getTechnologyCategory(), TechCategory.values().length)
+            .terms("technologyStack", "technologyFK.techStackType.keyword", criteria.getTechnologyStack(), TechStack.values().length);
+        return scenarioSearchRepository.search(search, pageable);
+    }
+
+    private static ScenarioSummaryDTO toSummaryDTO(ScenarioSummary summary) {
+        return new ScenarioSummaryDTO(
+            summary.getId(),
+            summary.getTitle(),
+            summary.getRiskValue(),
+            summary.getActorId(),
+            summary.getActorNickName(),
+            summary.getTechnologyId(),
+            summary.getTechnologyName(),
+            summary.getVulnerabilityId(),
+            summary.getVulnerabilityName()
+        );
+    }
 }
@@ -3,13 +3,31 @@ package com.gobr.pragrisk.service;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.enumeration.TechCategory;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.repository.Keyset;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.KeysetRepository;
 import com.gobr.pragrisk.repository.TechnologyRepository;
+import com.gobr.pragrisk.repository.TechnologyRepository.TechnologySummary;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.FacetedSearch;
+import com.gobr.pragrisk.repository.search.SearchCursor;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
 import com.gobr.pragrisk.repository.search.TechnologySearchRepository;
+import com.gobr.pragrisk.service.criteria.TechnologyCriteria;
+import com.gobr.pragrisk.service.dto.TechnologySummaryDTO;
+import com.gobr.pragrisk.service.risk.TechnologyChangedEvent;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +44,24 @@ public class TechnologyService {
 
     private final TechnologySearchRepository technologySearchRepository;
 
-    public TechnologyService(TechnologyRepository technologyRepository, TechnologySearchRepository technologySearchRepository) {
+    private final SearchIndexer searchIndexer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final KeysetRepository keysetRepository;
+
+    public TechnologyService(
+        TechnologyRepository technologyRepository,
+        TechnologySearchRepository technologySearchRepository,
+        SearchIndexer searchIndexer,
+        ApplicationEventPublisher eventPublisher,
+        KeysetRepository keysetRepository
+    ) {
         this.technologyRepository = technologyRepository;
         this.technologySearchRepository = technologySearchRepository;
+        this.searchIndexer = searchIndexer;
+        this.eventPublisher = eventPublisher;
+        this.keysetRepository = keysetRepository;
     }
 
     /**
@@ -39,23 +72,44 @@ public class TechnologyService {
      */
     public Technology save(Technology technology) {
         log.debug("Request to save Technology : {}", technology);
-        Technology result = technologyRepository.save(technology);
-        technologySearchRepository.save(result);
+        Technology result = technologyRepository.saveAndFlush(technology);
+        searchIndexer.enqueue(SearchDocumentType.TECHNOLOGY, result.getId());
+        Long parentId = result.getParentTechnology() == null ? null : result.getParentTechnology().getId();
+        eventPublisher.publishEvent(TechnologyChangedEvent.saved(result.getId(), result.getTechStackType(), parentId));
         return result;
     }
 
+    /**
+     * Update a technology, only if it has not changed since the version it was read at.
+     *
+     * @param technology the entity to update, with the version it was read at, or without a version to overwrite any.
+     * @return the persisted entity, with its new version.
+     * @throws ObjectOptimisticLockingFailureException if the technology has changed since that version.
+     */
+    public Technology update(Technology technology) {
+        log.debug("Request to update Technology : {}", technology);
+        if (technology.getVersion() == null) {
+            technologyRepository.findById(technology.getId()).map(Technology::getVersion).ifPresent(technology::setVersion);
+        }
+        return save(technology);
+    }
+
     /**
      * Partially update a technology.
      *
      * @param technology the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the entity has a version and the technology has changed since.
      */
     public Optional<Technology> partialUpdate(Technology technology) {
         log.debug("Request to partially update Technology : {}", technology);
 
         return technologyRepository
-            .findById(technology.getId())
+            .findOneWithEagerRelationships(technology.getId())
             .map(existingTechnology -> {
+                if (technology.getVersion() != null && !technology.getVersion().equals(existingTechnology.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Technology.class, technology.getId());
+                }
                 if (technology.getName() != null) {
                     existingTechnology.setName(technology.getName());
                 }
@@ -71,9 +125,14 @@ public class TechnologyService {
 
                 return existingTechnology;
             })
-            .map(technologyRepository::save)
+            .map(technologyRepository::saveAndFlush)
             .map(savedTechnology -> {
-                technologySearchRepository.save(savedTechnology);
+                searchIndexer.enqueue(SearchDocumentType.TECHNOLOGY, savedTechnology.getId());
+                Technology parent = savedTechnology.getParentTechnology();
+                Long parentId = parent == null ? null : parent.getId();
+                eventPublisher.publishEvent(
+                    TechnologyChangedEvent.saved(savedTechnology.getId(), savedTechnology.getTechStackType(), parentId)
+                );
 
                 return savedTechnology;
             });
@@ -88,7 +147,56 @@ public class TechnologyService {
     @Transactional(readOnly = true)
     public Page<Technology> findAll(Pageable pageable) {
         log.debug("Request to get all Technologies");
-        return technologyRepository.findAll(pageable);
+        return technologyRepository.findAllWithEagerRelationships(pageable);
+    }
+
+    /**
+     * Get a keyset page of the technologies.
+     *
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Technology> findPage(Keyset position, int size) {
+        log.debug("Request to get a keyset page of Technologies : {}", position);
+        return keysetRepository.findPage(Technology.class, position, size, Technology.EAGER_RELATIONSHIPS_GRAPH);
+    }
+
+    /**
+     * Get a slice of the technologies, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Technology> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of Technologies");
+        return technologyRepository.findSliceWithEagerRelationships(pageable);
+    }
+
+    /**
+     * Get the summaries of all the technologies, read with one query per page.
+     *
+     * @param pageable the pagination information.
+     * @return the list of summaries.
+     */
+    @Transactional(readOnly = true)
+    public Page<TechnologySummaryDTO> findAllSummaries(Pageable pageable) {
+        log.debug("Request to get the summaries of all Technologies");
+        return technologyRepository.findAllSummaries(pageable).map(TechnologyService::toSummaryDTO);
+    }
+
+    /**
+     * Get a slice of the summaries of the technologies, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of summaries.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TechnologySummaryDTO> findSummarySlice(Pageable pageable) {
+        log.debug("Request to get a slice of the summaries of Technologies");
+        return technologyRepository.findSummarySlice(pageable).map(TechnologyService::toSummaryDTO);
     }
 
     /**
@@ -100,7 +208,19 @@ public class TechnologyService {
     @Transactional(readOnly = true)
     public Optional<Technology> findOne(Long id) {
         log.debug("Request to get Technology : {}", id);
-        return technologyRepository.findById(id);
+        return technologyRepository.findOneWithEagerRelationships(id);
+    }
+
+    /**
+     * Get the current state of one technology by id, read from the primary database rather than from a lagging replica.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional
+    public Optional<Technology> findCurrent(Long id) {
+        log.debug("Request to get current Technology : {}", id);
+        return technologyRepository.findOneWithEagerRelationships(id);
     }
 
     /**
@@ -111,7 +231,8 @@ public class TechnologyService {
     public void delete(Long id) {
         log.debug("Request to delete Technology : {}", id);
         technologyRepository.deleteById(id);
-        technologySearchRepository.deleteById(id);
+        searchIndexer.enqueue(SearchDocumentType.TECHNOLOGY, id);
+        eventPublisher.publishEvent(TechnologyChangedEvent.deleted(id));
     }
 
     /**
@@ -126,4 +247,47 @@ public class TechnologyService {
         log.debug("Request to search for a page of Technologies for query {}", query);
         return technologySearchRepository.search(query, pageable);
     }
+
+    /**
+     * Search for a page of the technologies corresponding to the query, after a cursor.
+     *
+     * @param query the query of the search.
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public SearchCursorPage<Technology> search(String query, SearchCursor position, int size) {
+        log.debug("Request to search for a cursor page of Technologies for query {} : {}", query, position);
+        return technologySearchRepository.search(query, position, size);
+    }
+
+    /**
+     * Search for a page of the technologies corresponding to the query and the criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, or blank.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the page of entities, with the counts of the facets.
+     */
+    @Transactional(readOnly = true)
+    public FacetedPage<Technology> search(String query, TechnologyCriteria criteria, Pageable pageable) {
+        log.debug("Request to search for a faceted page of Technologies for query {} : {}", query, criteria);
+        FacetedSearch search = FacetedSearch
+            .of(query)
+            .terms("category", "category.keyword", criteria.getCategory(), TechCategory.values().length)
+            .terms("techStackType", "techStackType.keyword", criteria.getTechStackType(), TechStack.values().length);
+        return technologySearchRepository.search(search, pageable);
+    }
+
+    private static TechnologySummaryDTO toSummaryDTO(TechnologySummary summary) {
+        return new TechnologySummaryDTO(
+            summary.getId(),
+            summary.getName(),
+            summary.getCategory(),
+            summary.getTechStackType(),
+            summary.getParentTechnologyId(),
+            summary.getParentTechnologyName()
+        );
+    }
 }
@@ -5,11 +5,12 @@ import com.gobr.pragrisk.domain.Authority;
 import com.gobr.pragrisk.domain.User;
 import com.gobr.pragrisk.repository.AuthorityRepository;
 import com.gobr.pragrisk.repository.UserRepository;
-import com.gobr.pragrisk.repository.search.UserSearchRepository;
 import com.gobr.pragrisk.security.AuthoritiesConstants;
 import com.gobr.pragrisk.security.SecurityUtils;
 import com.gobr.pragrisk.service.dto.AdminUserDTO;
 import com.gobr.pragrisk.service.dto.UserDTO;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -38,7 +39,7 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final UserSearchRepository userSearchRepository;
+    private final SearchIndexer searchIndexer;
 
     private final AuthorityRepository authorityRepository;
 
@@ -47,13 +48,13 @@ public class UserService {
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
-        UserSearchRepository userSearchRepository,
+        SearchIndexer searchIndexer,
         AuthorityRepository authorityRepository,
         CacheManager cacheManager
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.userSearchRepository = userSearchRepository;
+        this.searchIndexer = searchIndexer;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
     }
@@ -66,7 +67,7 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
-                userSearchRepository.save(user);
+                searchIndexer.enqueue(SearchDocumentType.USER, user.getId());
                 this.clearUserCaches(user);
                 log.debug("Activated user: {}", user);
                 return user;
@@ -136,7 +137,7 @@ public class UserService {
         authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
-        userSearchRepository.save(newUser);
+        searchIndexer.enqueue(SearchDocumentType.USER, newUser.getId());
         this.clearUserCaches(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
@@ -182,7 +183,7 @@ public class UserService {
             user.setAuthorities(authorities);
         }
         userRepository.save(user);
-        userSearchRepository.save(user);
+        searchIndexer.enqueue(SearchDocumentType.USER, user.getId());
         this.clearUserCaches(user);
         log.debug("Created Information for User: {}", user);
         return user;
@@ -219,7 +220,7 @@ public class UserService {
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .forEach(managedAuthorities::add);
-                userSearchRepository.save(user);
+                searchIndexer.enqueue(SearchDocumentType.USER, user.getId());
                 this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
                 return user;
@@ -232,7 +233,7 @@ public class UserService {
             .findOneByLogin(login)
             .ifPresent(user -> {
                 userRepository.delete(user);
-                userSearchRepository.delete(user);
+                searchIndexer.enqueue(SearchDocumentType.USER, user.getId());
                 this.clearUserCaches(user);
                 log.debug("Deleted User: {}", user);
             });
@@ -259,7 +260,7 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
-                userSearchRepository.save(user);
+                searchIndexer.enqueue(SearchDocumentType.USER, user.getId());
                 this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
             });
@@ -314,7 +315,7 @@ public class UserService {
             .forEach(user -> {
                 log.debug("Deleting not activated user {}", user.getLogin());
                 userRepository.delete(user);
-                userSearchRepository.delete(user);
+                searchIndexer.enqueue(SearchDocumentType.USER, user.getId());
                 this.clearUserCaches(user);
             });
     }
@@ -3,13 +3,25 @@ package com.gobr.pragrisk.service;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.repository.Keyset;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.KeysetRepository;
 import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.repository.search.SearchCursor;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
 import com.gobr.pragrisk.repository.search.VulnerabilitySearchRepository;
+import com.gobr.pragrisk.service.risk.MitigationCoverageChangedEvent;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
 import java.util.Optional;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,12 +38,24 @@ public class VulnerabilityService {
 
     private final VulnerabilitySearchRepository vulnerabilitySearchRepository;
 
+    private final SearchIndexer searchIndexer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final KeysetRepository keysetRepository;
+
     public VulnerabilityService(
         VulnerabilityRepository vulnerabilityRepository,
-        VulnerabilitySearchRepository vulnerabilitySearchRepository
+        VulnerabilitySearchRepository vulnerabilitySearchRepository,
+        SearchIndexer searchIndexer,
+        ApplicationEventPublisher eventPublisher,
+        KeysetRepository keysetRepository
     ) {
         this.vulnerabilityRepository = vulnerabilityRepository;
         this.vulnerabilitySearchRepository = vulnerabilitySearchRepository;
+        this.searchIndexer = searchIndexer;
+        this.eventPublisher = eventPublisher;
+        this.keysetRepository = keysetRepository;
     }
 
     /**
@@ -42,16 +66,33 @@ public class VulnerabilityService {
      */
     public Vulnerability save(Vulnerability vulnerability) {
         log.debug("Request to save Vulnerability : {}", vulnerability);
-        Vulnerability result = vulnerabilityRepository.save(vulnerability);
-        vulnerabilitySearchRepository.save(result);
+        Vulnerability result = vulnerabilityRepository.saveAndFlush(vulnerability);
+        searchIndexer.enqueue(SearchDocumentType.VULNERABILITY, result.getId());
+        eventPublisher.publishEvent(new MitigationCoverageChangedEvent("Vulnerability " + result.getId()));
         return result;
     }
 
+    /**
+     * Update a vulnerability, only if it has not changed since the version it was read at.
+     *
+     * @param vulnerability the entity to update, with the version it was read at, or without a version to overwrite any.
+     * @return the persisted entity, with its new version.
+     * @throws ObjectOptimisticLockingFailureException if the vulnerability has changed since that version.
+     */
+    public Vulnerability update(Vulnerability vulnerability) {
+        log.debug("Request to update Vulnerability : {}", vulnerability);
+        if (vulnerability.getVersion() == null) {
+            vulnerabilityRepository.findById(vulnerability.getId()).map(Vulnerability::getVersion).ifPresent(vulnerability::setVersion);
+        }
+        return save(vulnerability);
+    }
+
     /**
      * Partially update a vulnerability.
      *
      * @param vulnerability the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the entity has a version and the vulnerability has changed since.
      */
     public Optional<Vulnerability> partialUpdate(Vulnerability vulnerability) {
         log.debug("Request to partially update Vulnerability : {}", vulnerability);
@@ -59,6 +100,9 @@ public class VulnerabilityService {
         return vulnerabilityRepository
             .findById(vulnerability.getId())
             .map(existingVulnerability -> {
+                if (vulnerability.getVersion() != null && !vulnerability.getVersion().equals(existingVulnerability.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Vulnerability.class, vulnerability.getId());
+                }
                 if (vulnerability.getName() != null) {
                     existingVulnerability.setName(vulnerability.getName());
                 }
@@ -71,9 +115,9 @@ public class VulnerabilityService {
 
                 return existingVulnerability;
             })
-            .map(vulnerabilityRepository::save)
+            .map(vulnerabilityRepository::saveAndFlush)
             .map(savedVulnerability -> {
-                vulnerabilitySearchRepository.save(savedVulnerability);
+                searchIndexer.enqueue(SearchDocumentType.VULNERABILITY, savedVulnerability.getId());
 
                 return savedVulnerability;
             });
@@ -91,6 +135,41 @@ public class VulnerabilityService {
         return vulnerabilityRepository.findAll(pageable);
     }
 
+    /**
+     * Get a keyset page of the vulnerabilities.
+     *
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @param eagerload whether to load the mitigations of the vulnerabilities.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Vulnerability> findPage(Keyset position, int size, boolean eagerload) {
+        log.debug("Request to get a keyset page of Vulnerabilities : {}", position);
+        KeysetPage<Vulnerability> page = keysetRepository.findPage(Vulnerability.class, position, size, null);
+        if (eagerload) {
+            page.getContent().forEach(vulnerability -> Hibernate.initialize(vulnerability.getMitigations()));
+        }
+        return page;
+    }
+
+    /**
+     * Get a slice of the vulnerabilities, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @param eagerload whether to load the mitigations of the vulnerabilities.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Vulnerability> findSlice(Pageable pageable, boolean eagerload) {
+        log.debug("Request to get a slice of Vulnerabilities");
+        Slice<Vulnerability> slice = vulnerabilityRepository.findSliceBy(pageable);
+        if (eagerload) {
+            slice.getContent().forEach(vulnerability -> Hibernate.initialize(vulnerability.getMitigations()));
+        }
+        return slice;
+    }
+
     /**
      * Get all the vulnerabilities with eager load of many-to-many relationships.
      *
@@ -112,6 +191,18 @@ public class VulnerabilityService {
         return vulnerabilityRepository.findOneWithEagerRelationships(id);
     }
 
+    /**
+     * Get the current state of one vulnerability by id, read from the primary database rather than from a lagging replica.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional
+    public Optional<Vulnerability> findCurrent(Long id) {
+        log.debug("Request to get current Vulnerability : {}", id);
+        return vulnerabilityRepository.findOneWithEagerRelationships(id);
+    }
+
     /**
      * Delete the vulnerability by id.
      *
@@ -120,7 +211,8 @@ public class VulnerabilityService {
     public void delete(Long id) {
         log.debug("Request to delete Vulnerability : {}", id);
         vulnerabilityRepository.deleteById(id);
-        vulnerabilitySearchRepository.deleteById(id);
+        searchIndexer.enqueue(SearchDocumentType.VULNERABILITY, id);
+        eventPublisher.publishEvent(new MitigationCoverageChangedEvent("Vulnerability " + id));
     }
 
     /**
@@ -135,4 +227,18 @@ public class VulnerabilityService {
         log.debug("Request to search for a page of Vulnerabilities for query {}", query);
         return vulnerabilitySearchRepository.search(query, pageable);
     }
+
+    /**
+     * Search for a page of the vulnerabilities corresponding to the query, after a cursor.
+     *
+     * @param query the query of the search.
+     * @param position the position of the page.
+     * @param size the number of entities of the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public SearchCursorPage<Vulnerability> search(String query, SearchCursor position, int size) {
+        log.debug("Request to search for a cursor page of Vulnerabilities for query {} : {}", query, position);
+        return vulnerabilitySearchRepository.search(query, position, size);
+    }
 }
@@ -0,0 +1,79 @@
+package com.gobr.pragrisk.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Criteria class for the {@link com.gobr.pragrisk.domain.Actor} entity. This class is used
+ * in {@link com.gobr.pragrisk.web.rest.ActorResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /_search/actors/faceted?groupId.in=1001,1002}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+public class ActorCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter groupId;
+
+    public ActorCriteria() {}
+
+    public ActorCriteria(ActorCriteria other) {
+        this.groupId = other.groupId == null ? null : other.groupId.copy();
+    }
+
+    @Override
+    public ActorCriteria copy() {
+        return new ActorCriteria(this);
+    }
+
+    /**
+     * @return the filter of the id of the environment of an actor.
+     */
+    public LongFilter getGroupId() {
+        return groupId;
+    }
+
+    public LongFilter groupId() {
+        if (groupId == null) {
+            groupId = new LongFilter();
+        }
+        return groupId;
+    }
+
+    public void setGroupId(LongFilter groupId) {
+        this.groupId = groupId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ActorCriteria that = (ActorCriteria) o;
+        return Objects.equals(groupId, that.groupId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ActorCriteria{" +
+            (groupId != null ? "groupId=" + groupId + ", " : "") +
+            "}";
+    }
+}
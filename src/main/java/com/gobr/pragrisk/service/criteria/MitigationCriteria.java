@@ -0,0 +1,130 @@
+package com.gobr.pragrisk.service.criteria;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.Filter;
+
+/**
+ * Criteria class for the {@link com.gobr.pragrisk.domain.Mitigation} entity. This class is used
+ * in {@link com.gobr.pragrisk.web.rest.MitigationResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /_search/mitigations/faceted?type.equals=PREVENTIVE&status.notIn=NOT_PERFORMED,AD_HOC}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+public class MitigationCriteria implements Serializable, Criteria {
+
+    /**
+     * Class for filtering MitigationType
+     */
+    public static class MitigationTypeFilter extends Filter<MitigationType> {
+
+        public MitigationTypeFilter() {}
+
+        public MitigationTypeFilter(MitigationTypeFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public MitigationTypeFilter copy() {
+            return new MitigationTypeFilter(this);
+        }
+    }
+
+    /**
+     * Class for filtering MitigationStatus
+     */
+    public static class MitigationStatusFilter extends Filter<MitigationStatus> {
+
+        public MitigationStatusFilter() {}
+
+        public MitigationStatusFilter(MitigationStatusFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public MitigationStatusFilter copy() {
+            return new MitigationStatusFilter(this);
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private MitigationTypeFilter type;
+
+    private MitigationStatusFilter status;
+
+    public MitigationCriteria() {}
+
+    public MitigationCriteria(MitigationCriteria other) {
+        this.type = other.type == null ? null : other.type.copy();
+        this.status = other.status == null ? null : other.status.copy();
+    }
+
+    @Override
+    public MitigationCriteria copy() {
+        return new MitigationCriteria(this);
+    }
+
+    public MitigationTypeFilter getType() {
+        return type;
+    }
+
+    public MitigationTypeFilter type() {
+        if (type == null) {
+            type = new MitigationTypeFilter();
+        }
+        return type;
+    }
+
+    public void setType(MitigationTypeFilter type) {
+        this.type = type;
+    }
+
+    public MitigationStatusFilter getStatus() {
+        return status;
+    }
+
+    public MitigationStatusFilter status() {
+        if (status == null) {
+            status = new MitigationStatusFilter();
+        }
+        return status;
+    }
+
+    public void setStatus(MitigationStatusFilter status) {
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MitigationCriteria that = (MitigationCriteria) o;
+        return Objects.equals(type, that.type) && Objects.equals(status, that.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, status);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MitigationCriteria{" +
+            (type != null ? "type=" + type + ", " : "") +
+            (status != null ? "status=" + status + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,126 @@
+package com.gobr.pragrisk.service.criteria;
+
+import com.gobr.pragrisk.service.criteria.TechnologyCriteria.TechCategoryFilter;
+import com.gobr.pragrisk.service.criteria.TechnologyCriteria.TechStackFilter;
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.BigDecimalFilter;
+import tech.jhipster.service.filter.Filter;
+
+/**
+ * Criteria class for the {@link com.gobr.pragrisk.domain.Scenario} entity. This class is used
+ * in {@link com.gobr.pragrisk.web.rest.ScenarioResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /_search/scenarios/faceted?riskValue.greaterThanOrEqual=10000&technologyCategory.equals=SERVICE}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+public class ScenarioCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private BigDecimalFilter riskValue;
+
+    private TechCategoryFilter technologyCategory;
+
+    private TechStackFilter technologyStack;
+
+    public ScenarioCriteria() {}
+
+    public ScenarioCriteria(ScenarioCriteria other) {
+        this.riskValue = other.riskValue == null ? null : other.riskValue.copy();
+        this.technologyCategory = other.technologyCategory == null ? null : other.technologyCategory.copy();
+        this.technologyStack = other.technologyStack == null ? null : other.technologyStack.copy();
+    }
+
+    @Override
+    public ScenarioCriteria copy() {
+        return new ScenarioCriteria(this);
+    }
+
+    public BigDecimalFilter getRiskValue() {
+        return riskValue;
+    }
+
+    public BigDecimalFilter riskValue() {
+        if (riskValue == null) {
+            riskValue = new BigDecimalFilter();
+        }
+        return riskValue;
+    }
+
+    public void setRiskValue(BigDecimalFilter riskValue) {
+        this.riskValue = riskValue;
+    }
+
+    /**
+     * @return the filter of the category of the technology of a scenario.
+     */
+    public TechCategoryFilter getTechnologyCategory() {
+        return technologyCategory;
+    }
+
+    public TechCategoryFilter technologyCategory() {
+        if (technologyCategory == null) {
+            technologyCategory = new TechCategoryFilter();
+        }
+        return technologyCategory;
+    }
+
+    public void setTechnologyCategory(TechCategoryFilter technologyCategory) {
+        this.technologyCategory = technologyCategory;
+    }
+
+    /**
+     * @return the filter of the stack of the technology of a scenario.
+     */
+    public TechStackFilter getTechnologyStack() {
+        return technologyStack;
+    }
+
+    public TechStackFilter technologyStack() {
+        if (technologyStack == null) {
+            technologyStack = new TechStackFilter();
+        }
+        return technologyStack;
+    }
+
+    public void setTechnologyStack(TechStackFilter technologyStack) {
+        this.technologyStack = technologyStack;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ScenarioCriteria that = (ScenarioCriteria) o;
+        return (
+            Objects.equals(riskValue, that.riskValue) &&
+            Objects.equals(technologyCategory, that.technologyCategory) &&
+            Objects.equals(technologyStack, that.technologyStack)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(riskValue, technologyCategory, technologyStack);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ScenarioCriteria{" +
+            (riskValue != null ? "riskValue=" + riskValue + ", " : "") +
+            (technologyCategory != null ? "technologyCategory=" + technologyCategory + ", " : "") +
+            (technologyStack != null ? "technologyStack=" + technologyStack + ", " : "") +
+            "}";
+    }
+}
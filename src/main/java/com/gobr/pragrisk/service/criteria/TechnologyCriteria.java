@@ -0,0 +1,130 @@
+package com.gobr.pragrisk.service.criteria;
+
+import com.gobr.pragrisk.domain.enumeration.TechCategory;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.Filter;
+
+/**
+ * Criteria class for the {@link com.gobr.pragrisk.domain.Technology} entity. This class is used
+ * in {@link com.gobr.pragrisk.web.rest.TechnologyResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /_search/technologies/faceted?category.in=APPLICATION,SERVICE&techStackType.notEquals=PHP}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+public class TechnologyCriteria implements Serializable, Criteria {
+
+    /**
+     * Class for filtering TechCategory
+     */
+    public static class TechCategoryFilter extends Filter<TechCategory> {
+
+        public TechCategoryFilter() {}
+
+        public TechCategoryFilter(TechCategoryFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public TechCategoryFilter copy() {
+            return new TechCategoryFilter(this);
+        }
+    }
+
+    /**
+     * Class for filtering TechStack
+     */
+    public static class TechStackFilter extends Filter<TechStack> {
+
+        public TechStackFilter() {}
+
+        public TechStackFilter(TechStackFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public TechStackFilter copy() {
+            return new TechStackFilter(this);
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private TechCategoryFilter category;
+
+    private TechStackFilter techStackType;
+
+    public TechnologyCriteria() {}
+
+    public TechnologyCriteria(TechnologyCriteria other) {
+        this.category = other.category == null ? null : other.category.copy();
+        this.techStackType = other.techStackType == null ? null : other.techStackType.copy();
+    }
+
+    @Override
+    public TechnologyCriteria copy() {
+        return new TechnologyCriteria(this);
+    }
+
+    public TechCategoryFilter getCategory() {
+        return category;
+    }
+
+    public TechCategoryFilter category() {
+        if (category == null) {
+            category = new TechCategoryFilter();
+        }
+        return category;
+    }
+
+    public void setCategory(TechCategoryFilter category) {
+        this.category = category;
+    }
+
+    public TechStackFilter getTechStackType() {
+        return techStackType;
+    }
+
+    public TechStackFilter techStackType() {
+        if (techStackType == null) {
+            techStackType = new TechStackFilter();
+        }
+        return techStackType;
+    }
+
+    public void setTechStackType(TechStackFilter techStackType) {
+        this.techStackType = techStackType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final TechnologyCriteria that = (TechnologyCriteria) o;
+        return Objects.equals(category, that.category) && Objects.equals(techStackType, that.techStackType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(category, techStackType);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TechnologyCriteria{" +
+            (category != null ? "category=" + category + ", " : "") +
+            (techStackType != null ? "techStackType=" + techStackType + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Criteria of the faceted entity searches, bound from request parameters.
+ */
+package com.gobr.pragrisk.service.criteria;
@@ -0,0 +1,93 @@
+package com.gobr.pragrisk.service.dto;
+
+/**
+ * A DTO summarizing an actor in lists, with the names of its parent and group rather than the entities.
+ */
+public class ActorSummaryDTO {
+
+    private Long id;
+
+    private String nickName;
+
+    private Long parentActorId;
+
+    private String parentActorNickName;
+
+    private Long groupId;
+
+    private String groupName;
+
+    public ActorSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ActorSummaryDTO(Long id, String nickName, Long parentActorId, String parentActorNickName, Long groupId, String groupName) {
+        this.id = id;
+        this.nickName = nickName;
+        this.parentActorId = parentActorId;
+        this.parentActorNickName = parentActorNickName;
+        this.groupId = groupId;
+        this.groupName = groupName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNickName() {
+        return nickName;
+    }
+
+    public void setNickName(String nickName) {
+        this.nickName = nickName;
+    }
+
+    public Long getParentActorId() {
+        return parentActorId;
+    }
+
+    public void setParentActorId(Long parentActorId) {
+        this.parentActorId = parentActorId;
+    }
+
+    public String getParentActorNickName() {
+        return parentActorNickName;
+    }
+
+    public void setParentActorNickName(String parentActorNickName) {
+        this.parentActorNickName = parentActorNickName;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ActorSummaryDTO{" +
+            "id=" + id +
+            ", nickName='" + nickName + "'" +
+            ", parentActorId=" + parentActorId +
+            ", parentActorNickName='" + parentActorNickName + "'" +
+            ", groupId=" + groupId +
+            ", groupName='" + groupName + "'" +
+            "}";
+    }
+}
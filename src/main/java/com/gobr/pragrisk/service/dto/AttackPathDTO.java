@@ -0,0 +1,118 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing an attack path from an actor through technologies and vulnerabilities.
+ */
+public class AttackPathDTO {
+
+    private List<Step> steps = new ArrayList<>();
+
+    private BigDecimal riskValue;
+
+    private boolean mitigated;
+
+    private List<Long> mitigationIds = new ArrayList<>();
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * @return the lowest risk value of the scenarios the path goes through, {@code null} for a path without step.
+     */
+    public BigDecimal getRiskValue() {
+        return riskValue;
+    }
+
+    public void setRiskValue(BigDecimal riskValue) {
+        this.riskValue = riskValue;
+    }
+
+    /**
+     * @return whether the vulnerability of the path has mitigations reducing its risk.
+     */
+    public boolean isMitigated() {
+        return mitigated;
+    }
+
+    public void setMitigated(boolean mitigated) {
+        this.mitigated = mitigated;
+    }
+
+    /**
+     * @return the ids of the mitigations linked to the vulnerability of the path.
+     */
+    public List<Long> getMitigationIds() {
+        return mitigationIds;
+    }
+
+    public void setMitigationIds(List<Long> mitigationIds) {
+        this.mitigationIds = mitigationIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AttackPathDTO{" +
+            "steps=" + steps +
+            ", riskValue=" + riskValue +
+            ", mitigated=" + mitigated +
+            ", mitigationIds=" + mitigationIds +
+            "}";
+    }
+
+    /**
+     * An entity along an attack path.
+     */
+    public static class Step {
+
+        private String type;
+
+        private Long id;
+
+        public Step() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public Step(String type, Long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        /**
+         * @return one of {@code actors}, {@code technologies}, {@code vulnerabilities} or {@code mitigations}.
+         */
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Step{" +
+                "type='" + type + "'" +
+                ", id=" + id +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.gobr.pragrisk.service.dto;
+
+/**
+ * A DTO summarizing a vulnerability catalogue import.
+ */
+public class CatalogueImportSummaryDTO {
+
+    private long read;
+
+    private long inserted;
+
+    private long updated;
+
+    private long unchanged;
+
+    private long durationMillis;
+
+    public CatalogueImportSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CatalogueImportSummaryDTO(long read, long inserted, long updated, long unchanged, long durationMillis) {
+        this.read = read;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        this.durationMillis = durationMillis;
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public void setRead(long read) {
+        this.read = read;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(long unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CatalogueImportSummaryDTO{" +
+            "read=" + read +
+            ", inserted=" + inserted +
+            ", updated=" + updated +
+            ", unchanged=" + unchanged +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+}
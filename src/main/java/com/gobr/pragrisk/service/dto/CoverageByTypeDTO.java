@@ -0,0 +1,77 @@
+package com.gobr.pragrisk.service.dto;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+
+/**
+ * A DTO representing how many vulnerabilities the mitigations of one type cover.
+ */
+public class CoverageByTypeDTO {
+
+    private MitigationType type;
+
+    private int mitigations;
+
+    private int coveredVulnerabilities;
+
+    private int vulnerabilities;
+
+    private double coverage;
+
+    public MitigationType getType() {
+        return type;
+    }
+
+    public void setType(MitigationType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the number of mitigations of this type covering at least one vulnerability.
+     */
+    public int getMitigations() {
+        return mitigations;
+    }
+
+    public void setMitigations(int mitigations) {
+        this.mitigations = mitigations;
+    }
+
+    public int getCoveredVulnerabilities() {
+        return coveredVulnerabilities;
+    }
+
+    public void setCoveredVulnerabilities(int coveredVulnerabilities) {
+        this.coveredVulnerabilities = coveredVulnerabilities;
+    }
+
+    public int getVulnerabilities() {
+        return vulnerabilities;
+    }
+
+    public void setVulnerabilities(int vulnerabilities) {
+        this.vulnerabilities = vulnerabilities;
+    }
+
+    /**
+     * @return the fraction of vulnerabilities covered, between 0 and 1.
+     */
+    public double getCoverage() {
+        return coverage;
+    }
+
+    public void setCoverage(double coverage) {
+        this.coverage = coverage;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CoverageByTypeDTO{" +
+            "type=" + type +
+            ", mitigations=" + mitigations +
+            ", coveredVulnerabilities=" + coveredVulnerabilities +
+            ", vulnerabilities=" + vulnerabilities +
+            ", coverage=" + coverage +
+            "}";
+    }
+}
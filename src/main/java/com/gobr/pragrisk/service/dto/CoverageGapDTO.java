@@ -0,0 +1,57 @@
+package com.gobr.pragrisk.service.dto;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the vulnerabilities left without a mitigation of a minimum status.
+ */
+public class CoverageGapDTO {
+
+    private MitigationStatus minimumStatus;
+
+    private int vulnerabilities;
+
+    private List<Long> uncoveredVulnerabilityIds = new ArrayList<>();
+
+    public MitigationStatus getMinimumStatus() {
+        return minimumStatus;
+    }
+
+    public void setMinimumStatus(MitigationStatus minimumStatus) {
+        this.minimumStatus = minimumStatus;
+    }
+
+    /**
+     * @return the number of vulnerabilities.
+     */
+    public int getVulnerabilities() {
+        return vulnerabilities;
+    }
+
+    public void setVulnerabilities(int vulnerabilities) {
+        this.vulnerabilities = vulnerabilities;
+    }
+
+    /**
+     * @return the ids of the vulnerabilities without any mitigation at or above the minimum status, in increasing order.
+     */
+    public List<Long> getUncoveredVulnerabilityIds() {
+        return uncoveredVulnerabilityIds;
+    }
+
+    public void setUncoveredVulnerabilityIds(List<Long> uncoveredVulnerabilityIds) {
+        this.uncoveredVulnerabilityIds = uncoveredVulnerabilityIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CoverageGapDTO{" +
+            "minimumStatus=" + minimumStatus +
+            ", vulnerabilities=" + vulnerabilities +
+            ", uncoveredVulnerabilityIds=" + uncoveredVulnerabilityIds.size() +
+            "}";
+    }
+}
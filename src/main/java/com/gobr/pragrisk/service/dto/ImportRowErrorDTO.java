@@ -0,0 +1,60 @@
+package com.gobr.pragrisk.service.dto;
+
+/**
+ * A DTO for a row rejected by a bulk import.
+ */
+public class ImportRowErrorDTO {
+
+    private long line;
+
+    private String title;
+
+    private String message;
+
+    public ImportRowErrorDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ImportRowErrorDTO(long line, String title, String message) {
+        this.line = line;
+        this.title = title;
+        this.message = message;
+    }
+
+    /**
+     * @return the line of the input the row starts on, from 1.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportRowErrorDTO{" +
+            "line=" + line +
+            ", title='" + title + "'" +
+            ", message='" + message + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,69 @@
+package com.gobr.pragrisk.service.dto;
+
+/**
+ * A DTO summarizing a bulk import.
+ */
+public class ImportSummaryDTO {
+
+    private long read;
+
+    private long imported;
+
+    private long rejected;
+
+    private long durationMillis;
+
+    public ImportSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ImportSummaryDTO(long read, long imported, long rejected, long durationMillis) {
+        this.read = read;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.durationMillis = durationMillis;
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public void setRead(long read) {
+        this.read = read;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportSummaryDTO{" +
+            "read=" + read +
+            ", imported=" + imported +
+            ", rejected=" + rejected +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+}
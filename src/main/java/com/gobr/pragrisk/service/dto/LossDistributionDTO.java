@@ -0,0 +1,117 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing a simulated loss distribution, for the whole register or for one Actor, Technology or Environment.
+ */
+public class LossDistributionDTO {
+
+    private Long id;
+
+    private double mean;
+
+    private double p50;
+
+    private double p90;
+
+    private double p99;
+
+    private List<Point> lossExceedanceCurve = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public List<Point> getLossExceedanceCurve() {
+        return lossExceedanceCurve;
+    }
+
+    public void setLossExceedanceCurve(List<Point> lossExceedanceCurve) {
+        this.lossExceedanceCurve = lossExceedanceCurve;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LossDistributionDTO{" +
+            "id=" + id +
+            ", mean=" + mean +
+            ", p50=" + p50 +
+            ", p90=" + p90 +
+            ", p99=" + p99 +
+            "}";
+    }
+
+    /**
+     * A point of a loss-exceedance curve: the probability that the loss is at least {@code loss}.
+     */
+    public static class Point {
+
+        private double loss;
+
+        private double probability;
+
+        public Point() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public Point(double loss, double probability) {
+            this.loss = loss;
+            this.probability = probability;
+        }
+
+        public double getLoss() {
+            return loss;
+        }
+
+        public void setLoss(double loss) {
+            this.loss = loss;
+        }
+
+        public double getProbability() {
+            return probability;
+        }
+
+        public void setProbability(double probability) {
+            this.probability = probability;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.gobr.pragrisk.service.dto;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing a small set of mitigations covering the vulnerabilities of an environment.
+ */
+public class MitigationSetCoverDTO {
+
+    private Long environmentId;
+
+    private MitigationStatus minimumStatus;
+
+    private int vulnerabilities;
+
+    private List<Long> mitigationIds = new ArrayList<>();
+
+    private List<Long> uncoverableVulnerabilityIds = new ArrayList<>();
+
+    /**
+     * @return the id of the environment, {@code null} for every vulnerability.
+     */
+    public Long getEnvironmentId() {
+        return environmentId;
+    }
+
+    public void setEnvironmentId(Long environmentId) {
+        this.environmentId = environmentId;
+    }
+
+    public MitigationStatus getMinimumStatus() {
+        return minimumStatus;
+    }
+
+    public void setMinimumStatus(MitigationStatus minimumStatus) {
+        this.minimumStatus = minimumStatus;
+    }
+
+    /**
+     * @return the number of vulnerabilities to cover.
+     */
+    public int getVulnerabilities() {
+        return vulnerabilities;
+    }
+
+    public void setVulnerabilities(int vulnerabilities) {
+        this.vulnerabilities = vulnerabilities;
+    }
+
+    /**
+     * @return the ids of the picked mitigations, the one covering the most vulnerabilities first.
+     */
+    public List<Long> getMitigationIds() {
+        return mitigationIds;
+    }
+
+    public void setMitigationIds(List<Long> mitigationIds) {
+        this.mitigationIds = mitigationIds;
+    }
+
+    /**
+     * @return the ids of the vulnerabilities no eligible mitigation covers, in increasing order.
+     */
+    public List<Long> getUncoverableVulnerabilityIds() {
+        return uncoverableVulnerabilityIds;
+    }
+
+    public void setUncoverableVulnerabilityIds(List<Long> uncoverableVulnerabilityIds) {
+        this.uncoverableVulnerabilityIds = uncoverableVulnerabilityIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MitigationSetCoverDTO{" +
+            "environmentId=" + environmentId +
+            ", minimumStatus=" + minimumStatus +
+            ", vulnerabilities=" + vulnerabilities +
+            ", mitigationIds=" + mitigationIds +
+            ", uncoverableVulnerabilityIds=" + uncoverableVulnerabilityIds.size() +
+            "}";
+    }
+}
@@ -0,0 +1,89 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A DTO representing the position of a scenario in a risk ranking.
+ */
+public class RankedScenarioDTO {
+
+    private Long scenarioId;
+
+    private BigDecimal riskValue;
+
+    private int rank;
+
+    private int rankedScenarios;
+
+    private double percentile;
+
+    public RankedScenarioDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public RankedScenarioDTO(Long scenarioId, BigDecimal riskValue, int rank, int rankedScenarios) {
+        this.scenarioId = scenarioId;
+        this.riskValue = riskValue;
+        this.rank = rank;
+        this.rankedScenarios = rankedScenarios;
+        this.percentile = 100.0 * (rankedScenarios - rank + 1) / rankedScenarios;
+    }
+
+    public Long getScenarioId() {
+        return scenarioId;
+    }
+
+    public void setScenarioId(Long scenarioId) {
+        this.scenarioId = scenarioId;
+    }
+
+    public BigDecimal getRiskValue() {
+        return riskValue;
+    }
+
+    public void setRiskValue(BigDecimal riskValue) {
+        this.riskValue = riskValue;
+    }
+
+    /**
+     * @return the 1-based rank, 1 being the riskiest scenario.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public int getRankedScenarios() {
+        return rankedScenarios;
+    }
+
+    public void setRankedScenarios(int rankedScenarios) {
+        this.rankedScenarios = rankedScenarios;
+    }
+
+    /**
+     * @return the percentage of ranked scenarios whose risk is lower than or equal to this one's.
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RankedScenarioDTO{" +
+            "scenarioId=" + scenarioId +
+            ", riskValue=" + riskValue +
+            ", rank=" + rank +
+            ", rankedScenarios=" + rankedScenarios +
+            ", percentile=" + percentile +
+            "}";
+    }
+}
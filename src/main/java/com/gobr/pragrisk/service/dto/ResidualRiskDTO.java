@@ -0,0 +1,74 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A DTO representing the residual risk of a scenario once the mitigations of its vulnerability are applied.
+ */
+public class ResidualRiskDTO {
+
+    private Long scenarioId;
+
+    private Long vulnerabilityId;
+
+    private BigDecimal inherentRisk;
+
+    private BigDecimal mitigationEffectiveness;
+
+    private BigDecimal residualRisk;
+
+    public Long getScenarioId() {
+        return scenarioId;
+    }
+
+    public void setScenarioId(Long scenarioId) {
+        this.scenarioId = scenarioId;
+    }
+
+    public Long getVulnerabilityId() {
+        return vulnerabilityId;
+    }
+
+    public void setVulnerabilityId(Long vulnerabilityId) {
+        this.vulnerabilityId = vulnerabilityId;
+    }
+
+    public BigDecimal getInherentRisk() {
+        return inherentRisk;
+    }
+
+    public void setInherentRisk(BigDecimal inherentRisk) {
+        this.inherentRisk = inherentRisk;
+    }
+
+    /**
+     * @return the share of the inherent risk removed by the mitigations, between 0 and 1.
+     */
+    public BigDecimal getMitigationEffectiveness() {
+        return mitigationEffectiveness;
+    }
+
+    public void setMitigationEffectiveness(BigDecimal mitigationEffectiveness) {
+        this.mitigationEffectiveness = mitigationEffectiveness;
+    }
+
+    public BigDecimal getResidualRisk() {
+        return residualRisk;
+    }
+
+    public void setResidualRisk(BigDecimal residualRisk) {
+        this.residualRisk = residualRisk;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ResidualRiskDTO{" +
+            "scenarioId=" + scenarioId +
+            ", vulnerabilityId=" + vulnerabilityId +
+            ", inherentRisk=" + inherentRisk +
+            ", mitigationEffectiveness=" + mitigationEffectiveness +
+            ", residualRisk=" + residualRisk +
+            "}";
+    }
+}
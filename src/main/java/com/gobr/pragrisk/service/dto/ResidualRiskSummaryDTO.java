@@ -0,0 +1,82 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A DTO summarizing the residual risk of the whole scenario register.
+ */
+public class ResidualRiskSummaryDTO {
+
+    private long scenarios;
+
+    private long mitigatedScenarios;
+
+    private long mitigatedVulnerabilities;
+
+    private BigDecimal inherentRisk;
+
+    private BigDecimal residualRisk;
+
+    private long durationMillis;
+
+    public long getScenarios() {
+        return scenarios;
+    }
+
+    public void setScenarios(long scenarios) {
+        this.scenarios = scenarios;
+    }
+
+    public long getMitigatedScenarios() {
+        return mitigatedScenarios;
+    }
+
+    public void setMitigatedScenarios(long mitigatedScenarios) {
+        this.mitigatedScenarios = mitigatedScenarios;
+    }
+
+    public long getMitigatedVulnerabilities() {
+        return mitigatedVulnerabilities;
+    }
+
+    public void setMitigatedVulnerabilities(long mitigatedVulnerabilities) {
+        this.mitigatedVulnerabilities = mitigatedVulnerabilities;
+    }
+
+    public BigDecimal getInherentRisk() {
+        return inherentRisk;
+    }
+
+    public void setInherentRisk(BigDecimal inherentRisk) {
+        this.inherentRisk = inherentRisk;
+    }
+
+    public BigDecimal getResidualRisk() {
+        return residualRisk;
+    }
+
+    public void setResidualRisk(BigDecimal residualRisk) {
+        this.residualRisk = residualRisk;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ResidualRiskSummaryDTO{" +
+            "scenarios=" + scenarios +
+            ", mitigatedScenarios=" + mitigatedScenarios +
+            ", mitigatedVulnerabilities=" + mitigatedVulnerabilities +
+            ", inherentRisk=" + inherentRisk +
+            ", residualRisk=" + residualRisk +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+}
@@ -0,0 +1,85 @@
+package com.gobr.pragrisk.service.dto;
+
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A DTO representing a probability &times; qonsequence heat-map of scenarios.
+ * <p>
+ * Row {@code i} holds the scenarios whose probability is at least {@code probabilityThresholds[i - 1]} and below
+ * {@code probabilityThresholds[i]}, and columns split qonsequences the same way.
+ */
+public class RiskHeatmapDTO {
+
+    private Long environmentId;
+
+    private TechStack techStack;
+
+    private BigDecimal[] probabilityThresholds;
+
+    private BigDecimal[] consequenceThresholds;
+
+    private long[][] counts;
+
+    private BigDecimal[][] riskSums;
+
+    public Long getEnvironmentId() {
+        return environmentId;
+    }
+
+    public void setEnvironmentId(Long environmentId) {
+        this.environmentId = environmentId;
+    }
+
+    public TechStack getTechStack() {
+        return techStack;
+    }
+
+    public void setTechStack(TechStack techStack) {
+        this.techStack = techStack;
+    }
+
+    public BigDecimal[] getProbabilityThresholds() {
+        return probabilityThresholds;
+    }
+
+    public void setProbabilityThresholds(BigDecimal[] probabilityThresholds) {
+        this.probabilityThresholds = probabilityThresholds;
+    }
+
+    public BigDecimal[] getConsequenceThresholds() {
+        return consequenceThresholds;
+    }
+
+    public void setConsequenceThresholds(BigDecimal[] consequenceThresholds) {
+        this.consequenceThresholds = consequenceThresholds;
+    }
+
+    public long[][] getCounts() {
+        return counts;
+    }
+
+    public void setCounts(long[][] counts) {
+        this.counts = counts;
+    }
+
+    public BigDecimal[][] getRiskSums() {
+        return riskSums;
+    }
+
+    public void setRiskSums(BigDecimal[][] riskSums) {
+        this.riskSums = riskSums;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskHeatmapDTO{" +
+            "environmentId=" + environmentId +
+            ", techStack='" + techStack + "'" +
+            ", probabilityThresholds=" + Arrays.toString(probabilityThresholds) +
+            ", consequenceThresholds=" + Arrays.toString(consequenceThresholds) +
+            "}";
+    }
+}
@@ -0,0 +1,67 @@
+package com.gobr.pragrisk.service.dto;
+
+import com.gobr.pragrisk.service.risk.RiskModel;
+import com.gobr.pragrisk.service.risk.RiskWeightingModel;
+import java.math.BigDecimal;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO representing the risk weighting model applied to scenarios.
+ */
+public class RiskModelDTO {
+
+    @NotNull
+    private RiskWeightingModel model;
+
+    private BigDecimal probabilityWeight;
+
+    private BigDecimal consequenceWeight;
+
+    public RiskModelDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public RiskModelDTO(RiskModel riskModel) {
+        this.model = riskModel.getType();
+        this.probabilityWeight = riskModel.getProbabilityWeight();
+        this.consequenceWeight = riskModel.getConsequenceWeight();
+    }
+
+    public RiskWeightingModel getModel() {
+        return model;
+    }
+
+    public void setModel(RiskWeightingModel model) {
+        this.model = model;
+    }
+
+    public BigDecimal getProbabilityWeight() {
+        return probabilityWeight;
+    }
+
+    public void setProbabilityWeight(BigDecimal probabilityWeight) {
+        this.probabilityWeight = probabilityWeight;
+    }
+
+    public BigDecimal getConsequenceWeight() {
+        return consequenceWeight;
+    }
+
+    public void setConsequenceWeight(BigDecimal consequenceWeight) {
+        this.consequenceWeight = consequenceWeight;
+    }
+
+    public RiskModel toRiskModel() {
+        return new RiskModel(model, probabilityWeight, consequenceWeight);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskModelDTO{" +
+            "model=" + model +
+            ", probabilityWeight=" + probabilityWeight +
+            ", consequenceWeight=" + consequenceWeight +
+            "}";
+    }
+}
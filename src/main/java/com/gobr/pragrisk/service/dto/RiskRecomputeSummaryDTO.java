@@ -0,0 +1,69 @@
+package com.gobr.pragrisk.service.dto;
+
+/**
+ * A DTO summarizing a bulk risk value recompute.
+ */
+public class RiskRecomputeSummaryDTO {
+
+    private long scanned;
+
+    private long updated;
+
+    private long failed;
+
+    private long durationMillis;
+
+    public RiskRecomputeSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public RiskRecomputeSummaryDTO(long scanned, long updated, long failed, long durationMillis) {
+        this.scanned = scanned;
+        this.updated = updated;
+        this.failed = failed;
+        this.durationMillis = durationMillis;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public void setScanned(long scanned) {
+        this.scanned = scanned;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskRecomputeSummaryDTO{" +
+            "scanned=" + scanned +
+            ", updated=" + updated +
+            ", failed=" + failed +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+}
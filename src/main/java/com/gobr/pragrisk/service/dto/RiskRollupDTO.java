@@ -0,0 +1,130 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the risk values of the scenarios of one Actor, Technology, Vulnerability or Environment.
+ */
+public class RiskRollupDTO {
+
+    private Long id;
+
+    private long count;
+
+    private BigDecimal sum;
+
+    private BigDecimal max;
+
+    private BigDecimal mean;
+
+    private List<Bucket> histogram = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getSum() {
+        return sum;
+    }
+
+    public void setSum(BigDecimal sum) {
+        this.sum = sum;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+
+    public BigDecimal getMean() {
+        return mean;
+    }
+
+    public void setMean(BigDecimal mean) {
+        this.mean = mean;
+    }
+
+    public List<Bucket> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(List<Bucket> histogram) {
+        this.histogram = histogram;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskRollupDTO{" +
+            "id=" + id +
+            ", count=" + count +
+            ", sum=" + sum +
+            ", max=" + max +
+            ", mean=" + mean +
+            "}";
+    }
+
+    /**
+     * A histogram bucket: the number of risk values at least {@code lowerBound} and below {@code upperBound}.
+     * A {@code null} lower bound means no lower bound.
+     */
+    public static class Bucket {
+
+        private BigDecimal lowerBound;
+
+        private BigDecimal upperBound;
+
+        private long count;
+
+        public Bucket() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public Bucket(BigDecimal lowerBound, BigDecimal upperBound, long count) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.count = count;
+        }
+
+        public BigDecimal getLowerBound() {
+            return lowerBound;
+        }
+
+        public void setLowerBound(BigDecimal lowerBound) {
+            this.lowerBound = lowerBound;
+        }
+
+        public BigDecimal getUpperBound() {
+            return upperBound;
+        }
+
+        public void setUpperBound(BigDecimal upperBound) {
+            this.upperBound = upperBound;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
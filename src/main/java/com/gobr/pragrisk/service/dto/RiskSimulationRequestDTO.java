@@ -0,0 +1,51 @@
+package com.gobr.pragrisk.service.dto;
+
+import javax.validation.constraints.Min;
+
+/**
+ * A DTO representing a Monte Carlo risk simulation request.
+ */
+public class RiskSimulationRequestDTO {
+
+    @Min(1)
+    private int iterations = 10_000;
+
+    private Long seed;
+
+    @Min(2)
+    private int curvePoints = 50;
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public int getCurvePoints() {
+        return curvePoints;
+    }
+
+    public void setCurvePoints(int curvePoints) {
+        this.curvePoints = curvePoints;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskSimulationRequestDTO{" +
+            "iterations=" + iterations +
+            ", seed=" + seed +
+            ", curvePoints=" + curvePoints +
+            "}";
+    }
+}
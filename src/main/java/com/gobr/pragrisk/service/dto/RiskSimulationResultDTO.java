@@ -0,0 +1,101 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the result of a Monte Carlo risk simulation.
+ */
+public class RiskSimulationResultDTO {
+
+    private int iterations;
+
+    private long seed;
+
+    private int scenarios;
+
+    private long durationMillis;
+
+    private LossDistributionDTO register;
+
+    private List<LossDistributionDTO> actors = new ArrayList<>();
+
+    private List<LossDistributionDTO> technologies = new ArrayList<>();
+
+    private List<LossDistributionDTO> environments = new ArrayList<>();
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getScenarios() {
+        return scenarios;
+    }
+
+    public void setScenarios(int scenarios) {
+        this.scenarios = scenarios;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public LossDistributionDTO getRegister() {
+        return register;
+    }
+
+    public void setRegister(LossDistributionDTO register) {
+        this.register = register;
+    }
+
+    public List<LossDistributionDTO> getActors() {
+        return actors;
+    }
+
+    public void setActors(List<LossDistributionDTO> actors) {
+        this.actors = actors;
+    }
+
+    public List<LossDistributionDTO> getTechnologies() {
+        return technologies;
+    }
+
+    public void setTechnologies(List<LossDistributionDTO> technologies) {
+        this.technologies = technologies;
+    }
+
+    public List<LossDistributionDTO> getEnvironments() {
+        return environments;
+    }
+
+    public void setEnvironments(List<LossDistributionDTO> environments) {
+        this.environments = environments;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskSimulationResultDTO{" +
+            "iterations=" + iterations +
+            ", seed=" + seed +
+            ", scenarios=" + scenarios +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+}
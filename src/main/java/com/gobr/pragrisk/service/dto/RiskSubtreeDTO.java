@@ -0,0 +1,74 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing a node of the actor or technology hierarchy, its ancestors and descendants, and the risk of the
+ * scenarios of its whole subtree.
+ */
+public class RiskSubtreeDTO {
+
+    private Long id;
+
+    private List<Long> ancestorIds = new ArrayList<>();
+
+    private List<Long> descendantIds = new ArrayList<>();
+
+    private long scenarios;
+
+    private BigDecimal riskSum;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public List<Long> getAncestorIds() {
+        return ancestorIds;
+    }
+
+    public void setAncestorIds(List<Long> ancestorIds) {
+        this.ancestorIds = ancestorIds;
+    }
+
+    public List<Long> getDescendantIds() {
+        return descendantIds;
+    }
+
+    public void setDescendantIds(List<Long> descendantIds) {
+        this.descendantIds = descendantIds;
+    }
+
+    public long getScenarios() {
+        return scenarios;
+    }
+
+    public void setScenarios(long scenarios) {
+        this.scenarios = scenarios;
+    }
+
+    public BigDecimal getRiskSum() {
+        return riskSum;
+    }
+
+    public void setRiskSum(BigDecimal riskSum) {
+        this.riskSum = riskSum;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskSubtreeDTO{" +
+            "id=" + id +
+            ", ancestorIds=" + ancestorIds +
+            ", descendantIds=" + descendantIds.size() +
+            ", scenarios=" + scenarios +
+            ", riskSum=" + riskSum +
+            "}";
+    }
+}
@@ -0,0 +1,72 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A DTO representing a point of a risk trend: one recorded value, or the values recorded in a time bucket.
+ */
+public class RiskTrendPointDTO {
+
+    private Instant timestamp;
+
+    private long samples;
+
+    private BigDecimal min;
+
+    private BigDecimal max;
+
+    private BigDecimal last;
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+
+    public BigDecimal getLast() {
+        return last;
+    }
+
+    public void setLast(BigDecimal last) {
+        this.last = last;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskTrendPointDTO{" +
+            "timestamp='" + timestamp + "'" +
+            ", samples=" + samples +
+            ", min=" + min +
+            ", max=" + max +
+            ", last=" + last +
+            "}";
+    }
+}
@@ -0,0 +1,141 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A DTO summarizing a scenario in lists, with the names of the entities it references rather than the entities.
+ */
+public class ScenarioSummaryDTO {
+
+    private Long id;
+
+    private String title;
+
+    private BigDecimal riskValue;
+
+    private Long actorId;
+
+    private String actorNickName;
+
+    private Long technologyId;
+
+    private String technologyName;
+
+    private Long vulnerabilityId;
+
+    private String vulnerabilityName;
+
+    public ScenarioSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ScenarioSummaryDTO(
+        Long id,
+        String title,
+        BigDecimal riskValue,
+        Long actorId,
+        String actorNickName,
+        Long technologyId,
+        String technologyName,
+        Long vulnerabilityId,
+        String vulnerabilityName
+    ) {
+        this.id = id;
+        this.title = title;
+        this.riskValue = riskValue;
+        this.actorId = actorId;
+        this.actorNickName = actorNickName;
+        this.technologyId = technologyId;
+        this.technologyName = technologyName;
+        this.vulnerabilityId = vulnerabilityId;
+        this.vulnerabilityName = vulnerabilityName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public BigDecimal getRiskValue() {
+        return riskValue;
+    }
+
+    public void setRiskValue(BigDecimal riskValue) {
+        this.riskValue = riskValue;
+    }
+
+    public Long getActorId() {
+        return actorId;
+    }
+
+    public void setActorId(Long actorId) {
+        this.actorId = actorId;
+    }
+
+    public String getActorNickName() {
+        return actorNickName;
+    }
+
+    public void setActorNickName(String actorNickName) {
+        this.actorNickName = actorNickName;
+    }
+
+    public Long getTechnologyId() {
+        return technologyId;
+    }
+
+    public void setTechnologyId(Long technologyId) {
+        this.technologyId = technologyId;
+    }
+
+    public String getTechnologyName() {
+        return technologyName;
+    }
+
+    public void setTechnologyName(String technologyName) {
+        this.technologyName = technologyName;
+    }
+
+    public Long getVulnerabilityId() {
+        return vulnerabilityId;
+    }
+
+    public void setVulnerabilityId(Long vulnerabilityId) {
+        this.vulnerabilityId = vulnerabilityId;
+    }
+
+    public String getVulnerabilityName() {
+        return vulnerabilityName;
+    }
+
+    public void setVulnerabilityName(String vulnerabilityName) {
+        this.vulnerabilityName = vulnerabilityName;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ScenarioSummaryDTO{" +
+            "id=" + id +
+            ", title='" + title + "'" +
+            ", riskValue=" + riskValue +
+            ", actorId=" + actorId +
+            ", actorNickName='" + actorNickName + "'" +
+            ", technologyId=" + technologyId +
+            ", technologyName='" + technologyName + "'" +
+            ", vulnerabilityId=" + vulnerabilityId +
+            ", vulnerabilityName='" + vulnerabilityName + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,45 @@
+package com.gobr.pragrisk.service.dto;
+
+/**
+ * A DTO for a typeahead suggestion: the id of an entity and the label to show it with.
+ */
+public class SuggestionDTO {
+
+    private Long id;
+
+    private String label;
+
+    public SuggestionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SuggestionDTO(Long id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SuggestionDTO{" +
+            "id=" + id +
+            ", label='" + label + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,103 @@
+package com.gobr.pragrisk.service.dto;
+
+import com.gobr.pragrisk.domain.enumeration.TechCategory;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+
+/**
+ * A DTO summarizing a technology in lists, with the name of its parent rather than the entity.
+ */
+public class TechnologySummaryDTO {
+
+    private Long id;
+
+    private String name;
+
+    private TechCategory category;
+
+    private TechStack techStackType;
+
+    private Long parentTechnologyId;
+
+    private String parentTechnologyName;
+
+    public TechnologySummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TechnologySummaryDTO(
+        Long id,
+        String name,
+        TechCategory category,
+        TechStack techStackType,
+        Long parentTechnologyId,
+        String parentTechnologyName
+    ) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.techStackType = techStackType;
+        this.parentTechnologyId = parentTechnologyId;
+        this.parentTechnologyName = parentTechnologyName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public TechCategory getCategory() {
+        return category;
+    }
+
+    public void setCategory(TechCategory category) {
+        this.category = category;
+    }
+
+    public TechStack getTechStackType() {
+        return techStackType;
+    }
+
+    public void setTechStackType(TechStack techStackType) {
+        this.techStackType = techStackType;
+    }
+
+    public Long getParentTechnologyId() {
+        return parentTechnologyId;
+    }
+
+    public void setParentTechnologyId(Long parentTechnologyId) {
+        this.parentTechnologyId = parentTechnologyId;
+    }
+
+    public String getParentTechnologyName() {
+        return parentTechnologyName;
+    }
+
+    public void setParentTechnologyName(String parentTechnologyName) {
+        this.parentTechnologyName = parentTechnologyName;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TechnologySummaryDTO{" +
+            "id=" + id +
+            ", name='" + name + "'" +
+            ", category=" + category +
+            ", techStackType=" + techStackType +
+            ", parentTechnologyId=" + parentTechnologyId +
+            ", parentTechnologyName='" + parentTechnologyName + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,130 @@
+package com.gobr.pragrisk.service.dto;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO representing a what-if sweep: hypothetical mitigation changes, grouped in options evaluated independently.
+ */
+public class WhatIfRequestDTO {
+
+    @NotEmpty
+    @Valid
+    private List<Option> options = new ArrayList<>();
+
+    public List<Option> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<Option> options) {
+        this.options = options;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "WhatIfRequestDTO{" +
+            "options=" + options.size() +
+            "}";
+    }
+
+    /**
+     * A set of mitigation changes applied together.
+     */
+    public static class Option {
+
+        private String label;
+
+        @NotEmpty
+        @Valid
+        private List<Change> changes = new ArrayList<>();
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        public void setChanges(List<Change> changes) {
+            this.changes = changes;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Option{" +
+                "label='" + label + "'" +
+                ", changes=" + changes +
+                "}";
+        }
+    }
+
+    /**
+     * A hypothetical change of one mitigation: a new status and/or type, or its removal.
+     */
+    public static class Change {
+
+        @NotNull
+        private Long mitigationId;
+
+        private MitigationStatus status;
+
+        private MitigationType type;
+
+        private boolean removed;
+
+        public Long getMitigationId() {
+            return mitigationId;
+        }
+
+        public void setMitigationId(Long mitigationId) {
+            this.mitigationId = mitigationId;
+        }
+
+        public MitigationStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(MitigationStatus status) {
+            this.status = status;
+        }
+
+        public MitigationType getType() {
+            return type;
+        }
+
+        public void setType(MitigationType type) {
+            this.type = type;
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+
+        public void setRemoved(boolean removed) {
+            this.removed = removed;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Change{" +
+                "mitigationId=" + mitigationId +
+                ", status='" + status + "'" +
+                ", type='" + type + "'" +
+                ", removed=" + removed +
+                "}";
+        }
+    }
+}
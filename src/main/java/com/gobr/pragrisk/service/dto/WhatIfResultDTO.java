@@ -0,0 +1,197 @@
+package com.gobr.pragrisk.service.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a what-if sweep: the current residual risk and, for each option, the residual
+ * risk it would leave, in total and per environment.
+ */
+public class WhatIfResultDTO {
+
+    private BigDecimal inherentRisk;
+
+    private BigDecimal residualRisk;
+
+    private List<OptionResult> options = new ArrayList<>();
+
+    private long durationMillis;
+
+    public BigDecimal getInherentRisk() {
+        return inherentRisk;
+    }
+
+    public void setInherentRisk(BigDecimal inherentRisk) {
+        this.inherentRisk = inherentRisk;
+    }
+
+    public BigDecimal getResidualRisk() {
+        return residualRisk;
+    }
+
+    public void setResidualRisk(BigDecimal residualRisk) {
+        this.residualRisk = residualRisk;
+    }
+
+    public List<OptionResult> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<OptionResult> options) {
+        this.options = options;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "WhatIfResultDTO{" +
+            "inherentRisk=" + inherentRisk +
+            ", residualRisk=" + residualRisk +
+            ", options=" + options.size() +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+
+    /**
+     * The residual risk left by one option, in request order.
+     */
+    public static class OptionResult {
+
+        private String label;
+
+        private long affectedVulnerabilities;
+
+        private long affectedScenarios;
+
+        private BigDecimal residualRisk;
+
+        private BigDecimal residualRiskDelta;
+
+        private List<EnvironmentResult> environments = new ArrayList<>();
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public long getAffectedVulnerabilities() {
+            return affectedVulnerabilities;
+        }
+
+        public void setAffectedVulnerabilities(long affectedVulnerabilities) {
+            this.affectedVulnerabilities = affectedVulnerabilities;
+        }
+
+        public long getAffectedScenarios() {
+            return affectedScenarios;
+        }
+
+        public void setAffectedScenarios(long affectedScenarios) {
+            this.affectedScenarios = affectedScenarios;
+        }
+
+        public BigDecimal getResidualRisk() {
+            return residualRisk;
+        }
+
+        public void setResidualRisk(BigDecimal residualRisk) {
+            this.residualRisk = residualRisk;
+        }
+
+        public BigDecimal getResidualRiskDelta() {
+            return residualRiskDelta;
+        }
+
+        public void setResidualRiskDelta(BigDecimal residualRiskDelta) {
+            this.residualRiskDelta = residualRiskDelta;
+        }
+
+        public List<EnvironmentResult> getEnvironments() {
+            return environments;
+        }
+
+        public void setEnvironments(List<EnvironmentResult> environments) {
+            this.environments = environments;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "OptionResult{" +
+                "label='" + label + "'" +
+                ", affectedVulnerabilities=" + affectedVulnerabilities +
+                ", affectedScenarios=" + affectedScenarios +
+                ", residualRisk=" + residualRisk +
+                ", residualRiskDelta=" + residualRiskDelta +
+                "}";
+        }
+    }
+
+    /**
+     * The residual risk an option would leave in one environment; only environments it changes are listed.
+     */
+    public static class EnvironmentResult {
+
+        private Long environmentId;
+
+        private BigDecimal residualRisk;
+
+        private BigDecimal residualRiskDelta;
+
+        public EnvironmentResult() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public EnvironmentResult(Long environmentId, BigDecimal residualRisk, BigDecimal residualRiskDelta) {
+            this.environmentId = environmentId;
+            this.residualRisk = residualRisk;
+            this.residualRiskDelta = residualRiskDelta;
+        }
+
+        public Long getEnvironmentId() {
+            return environmentId;
+        }
+
+        public void setEnvironmentId(Long environmentId) {
+            this.environmentId = environmentId;
+        }
+
+        public BigDecimal getResidualRisk() {
+            return residualRisk;
+        }
+
+        public void setResidualRisk(BigDecimal residualRisk) {
+            this.residualRisk = residualRisk;
+        }
+
+        public BigDecimal getResidualRiskDelta() {
+            return residualRiskDelta;
+        }
+
+        public void setResidualRiskDelta(BigDecimal residualRiskDelta) {
+            this.residualRiskDelta = residualRiskDelta;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "EnvironmentResult{" +
+                "environmentId=" + environmentId +
+                ", residualRisk=" + residualRisk +
+                ", residualRiskDelta=" + residualRiskDelta +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.gobr.pragrisk.service.export;
+
+import java.util.function.Function;
+
+/**
+ * A named column of an export, read from its rows.
+ */
+final class ExportColumn<T> {
+
+    private final String name;
+
+    private final Function<T, Object> value;
+
+    private ExportColumn(String name, Function<T, Object> value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    static <T> ExportColumn<T> of(String name, Function<T, Object> value) {
+        return new ExportColumn<>(name, value);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Object valueOf(T row) {
+        return value.apply(row);
+    }
+}
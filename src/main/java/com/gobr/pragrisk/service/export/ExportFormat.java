@@ -0,0 +1,39 @@
+package com.gobr.pragrisk.service.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The formats an export writes.
+ */
+public enum ExportFormat {
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Comma-separated values as in RFC 4180, with a header row naming the columns; list values are joined with
+     * {@code ;}.
+     */
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.valueOf(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return the extension of exported file names.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
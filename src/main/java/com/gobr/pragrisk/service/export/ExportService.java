@@ -0,0 +1,213 @@
+package com.gobr.pragrisk.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.ActorRepository.ActorExportRow;
+import com.gobr.pragrisk.repository.EnvironmentRepository;
+import com.gobr.pragrisk.repository.EnvironmentRepository.EnvironmentExportRow;
+import com.gobr.pragrisk.repository.MitigationRepository;
+import com.gobr.pragrisk.repository.MitigationRepository.MitigationExportRow;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.ScenarioRepository.ScenarioExportRow;
+import com.gobr.pragrisk.repository.TechnologyRepository;
+import com.gobr.pragrisk.repository.TechnologyRepository.TechnologyExportRow;
+import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.repository.VulnerabilityRepository.VulnerabilityExportRow;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service streaming whole tables and the risk register out as NDJSON or CSV.
+ * <p>
+ * Rows are read as flat projections from one query per export, through a cursor of
+ * {@link com.gobr.pragrisk.repository.ExportQueries#FETCH_SIZE} rows, and written as they are read: no entity is
+ * loaded into the persistence context and memory use does not grow with the table. Scenario exports have the columns
+ * of a scenario import, so they can be imported back.
+ */
+@Service
+public class ExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private static final List<ExportColumn<ActorExportRow>> ACTOR_COLUMNS = List.of(
+        ExportColumn.of("id", ActorExportRow::getId),
+        ExportColumn.of("firstName", ActorExportRow::getFirstName),
+        ExportColumn.of("lastName", ActorExportRow::getLastName),
+        ExportColumn.of("nickName", ActorExportRow::getNickName),
+        ExportColumn.of("description", ActorExportRow::getDescription),
+        ExportColumn.of("parentActorId", ActorExportRow::getParentActorId),
+        ExportColumn.of("groupId", ActorExportRow::getGroupId)
+    );
+
+    private static final List<ExportColumn<EnvironmentExportRow>> ENVIRONMENT_COLUMNS = List.of(
+        ExportColumn.of("id", EnvironmentExportRow::getId),
+        ExportColumn.of("name", EnvironmentExportRow::getName),
+        ExportColumn.of("description", EnvironmentExportRow::getDescription)
+    );
+
+    private static final List<ExportColumn<MitigationExportRow>> MITIGATION_COLUMNS = List.of(
+        ExportColumn.of("id", MitigationExportRow::getId),
+        ExportColumn.of("controlID", MitigationExportRow::getControlID),
+        ExportColumn.of("title", MitigationExportRow::getTitle),
+        ExportColumn.of("description", MitigationExportRow::getDescription),
+        ExportColumn.of("frameworkReference", MitigationExportRow::getFrameworkReference),
+        ExportColumn.of("type", MitigationExportRow::getType),
+        ExportColumn.of("status", MitigationExportRow::getStatus)
+    );
+
+    private static final List<ExportColumn<ScenarioExportRow>> SCENARIO_COLUMNS = List.of(
+        ExportColumn.of("id", ScenarioExportRow::getId),
+        ExportColumn.of("title", ScenarioExportRow::getTitle),
+        ExportColumn.of("description", ScenarioExportRow::getDescription),
+        ExportColumn.of("probability", ScenarioExportRow::getProbability),
+        ExportColumn.of("qonsequence", ScenarioExportRow::getQonsequence),
+        ExportColumn.of("riskValue", ScenarioExportRow::getRiskValue),
+        ExportColumn.of("actorId", ScenarioExportRow::getActorId),
+        ExportColumn.of("technologyId", ScenarioExportRow::getTechnologyId),
+        ExportColumn.of("vulnerabilityId", ScenarioExportRow::getVulnerabilityId)
+    );
+
+    private static final List<ExportColumn<TechnologyExportRow>> TECHNOLOGY_COLUMNS = List.of(
+        ExportColumn.of("id", TechnologyExportRow::getId),
+        ExportColumn.of("name", TechnologyExportRow::getName),
+        ExportColumn.of("category", TechnologyExportRow::getCategory),
+        ExportColumn.of("description", TechnologyExportRow::getDescription),
+        ExportColumn.of("techStackType", TechnologyExportRow::getTechStackType),
+        ExportColumn.of("parentTechnologyId", TechnologyExportRow::getParentTechnologyId)
+    );
+
+    private static final List<ExportColumn<VulnerabilityExportRow>> VULNERABILITY_COLUMNS = List.of(
+        ExportColumn.of("id", VulnerabilityExportRow::getId),
+        ExportColumn.of("name", VulnerabilityExportRow::getName),
+        ExportColumn.of("cweReference", VulnerabilityExportRow::getCweReference),
+        ExportColumn.of("cvss", VulnerabilityExportRow::getCvss)
+    );
+
+    private static final List<ExportColumn<RiskRegisterEntry>> RISK_REGISTER_COLUMNS = List.of(
+        ExportColumn.of("id", entry -> entry.getScenario().getId()),
+        ExportColumn.of("title", entry -> entry.getScenario().getTitle()),
+        ExportColumn.of("probability", entry -> entry.getScenario().getProbability()),
+        ExportColumn.of("qonsequence", entry -> entry.getScenario().getQonsequence()),
+        ExportColumn.of("riskValue", entry -> entry.getScenario().getRiskValue()),
+        ExportColumn.of("actorId", entry -> entry.getScenario().getActorId()),
+        ExportColumn.of("actorNickName", entry -> entry.getScenario().getActorNickName()),
+        ExportColumn.of("environmentName", entry -> entry.getScenario().getEnvironmentName()),
+        ExportColumn.of("technologyId", entry -> entry.getScenario().getTechnologyId()),
+        ExportColumn.of("technologyName", entry -> entry.getScenario().getTechnologyName()),
+        ExportColumn.of("techStackType", entry -> entry.getScenario().getTechStackType()),
+        ExportColumn.of("vulnerabilityId", entry -> entry.getScenario().getVulnerabilityId()),
+        ExportColumn.of("vulnerabilityName", entry -> entry.getScenario().getVulnerabilityName()),
+        ExportColumn.of("cweReference", entry -> entry.getScenario().getCweReference()),
+        ExportColumn.of("cvss", entry -> entry.getScenario().getCvss()),
+        ExportColumn.of("mitigationControlIDs", RiskRegisterEntry::getMitigationControlIDs),
+        ExportColumn.of("mitigationStatuses", RiskRegisterEntry::getMitigationStatuses)
+    );
+
+    private final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private final ActorRepository actorRepository;
+
+    private final EnvironmentRepository environmentRepository;
+
+    private final MitigationRepository mitigationRepository;
+
+    private final ScenarioRepository scenarioRepository;
+
+    private final TechnologyRepository technologyRepository;
+
+    private final VulnerabilityRepository vulnerabilityRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public ExportService(
+        ActorRepository actorRepository,
+        EnvironmentRepository environmentRepository,
+        MitigationRepository mitigationRepository,
+        ScenarioRepository scenarioRepository,
+        TechnologyRepository technologyRepository,
+        VulnerabilityRepository vulnerabilityRepository,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.actorRepository = actorRepository;
+        this.environmentRepository = environmentRepository;
+        this.mitigationRepository = mitigationRepository;
+        this.scenarioRepository = scenarioRepository;
+        this.technologyRepository = technologyRepository;
+        this.vulnerabilityRepository = vulnerabilityRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Export a view, in one read-only transaction.
+     *
+     * @param view the view to export.
+     * @param format the format to write.
+     * @param output the output, flushed but left open.
+     * @return the number of rows written.
+     * @throws IOException if the output cannot be written.
+     */
+    public long export(ExportView view, ExportFormat format, OutputStream output) throws IOException {
+        log.debug("Exporting {} as {}", view, format);
+        long start = System.currentTimeMillis();
+        Long count;
+        try {
+            count = readOnlyTransactionTemplate.execute(status -> write(view, format, output));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} {} rows as {} in {} ms", count, view, format, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private long write(ExportView view, ExportFormat format, OutputStream output) {
+        switch (view) {
+            case ACTORS:
+                return write(actorRepository.streamExportRows(), ACTOR_COLUMNS, format, output);
+            case ENVIRONMENTS:
+                return write(environmentRepository.streamExportRows(), ENVIRONMENT_COLUMNS, format, output);
+            case MITIGATIONS:
+                return write(mitigationRepository.streamExportRows(), MITIGATION_COLUMNS, format, output);
+            case SCENARIOS:
+                return write(scenarioRepository.streamExportRows(), SCENARIO_COLUMNS, format, output);
+            case TECHNOLOGIES:
+                return write(technologyRepository.streamExportRows(), TECHNOLOGY_COLUMNS, format, output);
+            case VULNERABILITIES:
+                return write(vulnerabilityRepository.streamExportRows(), VULNERABILITY_COLUMNS, format, output);
+            case RISK_REGISTER:
+                return write(RiskRegisterEntry.group(scenarioRepository.streamRiskRegisterRows()), RISK_REGISTER_COLUMNS, format, output);
+            default:
+                throw new IllegalArgumentException("Unknown export " + view);
+        }
+    }
+
+    private <T> long write(Stream<T> rows, List<ExportColumn<T>> columns, ExportFormat format, OutputStream output) {
+        long count = 0;
+        try (rows) {
+            RowWriter<T> writer = RowWriter.open(format, output, objectMapper, columns);
+            for (Iterator<T> iterator = rows.iterator(); iterator.hasNext();) {
+                writer.write(iterator.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,38 @@
+package com.gobr.pragrisk.service.export;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The tables an export can stream.
+ */
+public enum ExportView {
+    ACTORS("actors"),
+    ENVIRONMENTS("environments"),
+    MITIGATIONS("mitigations"),
+    SCENARIOS("scenarios"),
+    TECHNOLOGIES("technologies"),
+    VULNERABILITIES("vulnerabilities"),
+
+    /**
+     * The scenarios with their actor, environment, technology, vulnerability and mitigations.
+     */
+    RISK_REGISTER("risk-register");
+
+    private final String path;
+
+    ExportView(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return the name of this view in REST paths and exported file names.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public static Optional<ExportView> fromPath(String path) {
+        return Arrays.stream(values()).filter(view -> view.path.equals(path)).findFirst();
+    }
+}
@@ -0,0 +1,77 @@
+package com.gobr.pragrisk.service.export;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.repository.ScenarioRepository.RiskRegisterRow;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A scenario of the risk register with every mitigation of its vulnerability, made of its consecutive
+ * {@link RiskRegisterRow}s.
+ */
+final class RiskRegisterEntry {
+
+    private final RiskRegisterRow scenario;
+
+    private final List<String> mitigationControlIDs = new ArrayList<>();
+
+    private final List<MitigationStatus> mitigationStatuses = new ArrayList<>();
+
+    private RiskRegisterEntry(RiskRegisterRow scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * @param rows the rows, ordered by scenario id.
+     * @return the entries, read from the rows as they are consumed; closing it closes the rows.
+     */
+    static Stream<RiskRegisterEntry> group(Stream<RiskRegisterRow> rows) {
+        Iterator<RiskRegisterRow> iterator = rows.iterator();
+        Spliterator<RiskRegisterEntry> entries = new Spliterators.AbstractSpliterator<>(
+            Long.MAX_VALUE,
+            Spliterator.ORDERED | Spliterator.NONNULL
+        ) {
+            private RiskRegisterRow next = iterator.hasNext() ? iterator.next() : null;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super RiskRegisterEntry> action) {
+                if (next == null) {
+                    return false;
+                }
+                RiskRegisterEntry entry = new RiskRegisterEntry(next);
+                while (next != null && next.getId().equals(entry.scenario.getId())) {
+                    entry.add(next);
+                    next = iterator.hasNext() ? iterator.next() : null;
+                }
+                action.accept(entry);
+                return true;
+            }
+        };
+        return StreamSupport.stream(entries, false).onClose(rows::close);
+    }
+
+    private void add(RiskRegisterRow row) {
+        if (row.getMitigationControlID() != null) {
+            mitigationControlIDs.add(row.getMitigationControlID());
+            mitigationStatuses.add(row.getMitigationStatus());
+        }
+    }
+
+    RiskRegisterRow getScenario() {
+        return scenario;
+    }
+
+    List<String> getMitigationControlIDs() {
+        return mitigationControlIDs;
+    }
+
+    List<MitigationStatus> getMitigationStatuses() {
+        return mitigationStatuses;
+    }
+}
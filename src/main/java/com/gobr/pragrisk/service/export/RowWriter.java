@@ -0,0 +1,138 @@
+package com.gobr.pragrisk.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the rows of an export as they are read, buffering nothing but the output.
+ */
+abstract class RowWriter<T> {
+
+    protected final List<ExportColumn<T>> columns;
+
+    private RowWriter(List<ExportColumn<T>> columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * @param format the format to write.
+     * @param output the output, left open.
+     * @param objectMapper the mapper writing NDJSON values.
+     * @param columns the columns of every row.
+     */
+    static <T> RowWriter<T> open(ExportFormat format, OutputStream output, ObjectMapper objectMapper, List<ExportColumn<T>> columns)
+        throws IOException {
+        if (format == ExportFormat.CSV) {
+            return new CsvRowWriter<>(output, columns);
+        }
+        return new NdjsonRowWriter<>(output, objectMapper, columns);
+    }
+
+    abstract void write(T row) throws IOException;
+
+    /**
+     * Flush the rows written so far, without closing the output.
+     */
+    abstract void flush() throws IOException;
+
+    private static final class NdjsonRowWriter<T> extends RowWriter<T> {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream output, ObjectMapper objectMapper, List<ExportColumn<T>> columns) throws IOException {
+            super(columns);
+            this.generator = objectMapper.createGenerator(output);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(T row) throws IOException {
+            generator.writeStartObject();
+            for (ExportColumn<T> column : columns) {
+                generator.writeFieldName(column.getName());
+                generator.writeObject(column.valueOf(row));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter<T> extends RowWriter<T> {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream output, List<ExportColumn<T>> columns) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(columns.get(i).getName());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(T row) throws IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(format(columns.get(i).valueOf(row)));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        private static String format(Object value) {
+            if (value == null) {
+                return "";
+            }
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).toPlainString();
+            }
+            if (value instanceof Collection) {
+                StringBuilder joined = new StringBuilder();
+                for (Object element : (Collection<?>) value) {
+                    if (joined.length() > 0) {
+                        joined.append(';');
+                    }
+                    joined.append(format(element));
+                }
+                return joined.toString();
+            }
+            return value.toString();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Streaming bulk export services.
+ */
+package com.gobr.pragrisk.service.export;
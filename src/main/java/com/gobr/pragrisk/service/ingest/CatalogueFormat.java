@@ -0,0 +1,17 @@
+package com.gobr.pragrisk.service.ingest;
+
+/**
+ * The vulnerability catalogues a catalogue import reads.
+ */
+public enum CatalogueFormat {
+    /**
+     * The CWE list as MITRE publishes it in XML ({@code cwec_v4.x.xml}): one vulnerability per weakness.
+     */
+    CWE_XML,
+
+    /**
+     * An NVD CVE feed in JSON, either a 1.1 data feed ({@code CVE_Items}) or a 2.0 API response
+     * ({@code vulnerabilities}): one vulnerability per CVE.
+     */
+    NVD_JSON,
+}
@@ -0,0 +1,39 @@
+package com.gobr.pragrisk.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gobr.pragrisk.repository.VulnerabilityCatalogueRow;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the entries of a vulnerability catalogue one at a time with a streaming parser, holding at most one entry in
+ * memory.
+ */
+abstract class CatalogueReader {
+
+    /**
+     * The length of the vulnerability name, CWE reference and CVSS columns.
+     */
+    static final int MAX_LENGTH = 255;
+
+    static CatalogueReader open(CatalogueFormat format, InputStream input, ObjectMapper objectMapper) throws IOException {
+        switch (format) {
+            case CWE_XML:
+                return new CweCatalogueReader(input);
+            case NVD_JSON:
+                return new NvdCatalogueReader(input, objectMapper);
+            default:
+                throw new IllegalArgumentException("Unsupported catalogue format " + format);
+        }
+    }
+
+    /**
+     * @return the next entry, or {@code null} at the end of the catalogue.
+     * @throws IOException if the catalogue cannot be read or parsed.
+     */
+    abstract VulnerabilityCatalogueRow next() throws IOException;
+
+    static String truncate(String value) {
+        return value == null || value.length() <= MAX_LENGTH ? value : value.substring(0, MAX_LENGTH);
+    }
+}
@@ -0,0 +1,139 @@
+package com.gobr.pragrisk.service.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads comma-separated values as in RFC 4180: fields may be quoted with {@code "}, a quoted field may hold commas,
+ * line breaks and doubled quotes. The first non-blank row names the fields; blank rows are skipped.
+ */
+final class CsvRecordReader extends RecordReader {
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final List<String> row = new ArrayList<>();
+
+    private final StringBuilder field = new StringBuilder();
+
+    private List<String> header;
+
+    private long lineNumber;
+
+    private long rowLine;
+
+    private int rowLength;
+
+    private boolean unterminated;
+
+    CsvRecordReader(Reader input, int maxRecordLength) {
+        super(input, maxRecordLength);
+    }
+
+    @Override
+    ImportRecord next() throws IOException {
+        while (header == null) {
+            if (!readRow()) {
+                return null;
+            }
+            if (!isBlankRow()) {
+                header = new ArrayList<>();
+                for (String name : row) {
+                    if (header.isEmpty() && !name.isEmpty() && name.charAt(0) == BYTE_ORDER_MARK) {
+                        name = name.substring(1);
+                    }
+                    header.add(name.trim());
+                }
+            }
+        }
+        do {
+            if (!readRow()) {
+                return null;
+            }
+        } while (isBlankRow());
+        if (rowLength > maxRecordLength) {
+            return ImportRecord.malformed(rowLine, tooLong());
+        }
+        if (unterminated) {
+            return ImportRecord.malformed(rowLine, "unterminated quoted field");
+        }
+        if (row.size() != header.size()) {
+            return ImportRecord.malformed(rowLine, "expected " + header.size() + " fields, found " + row.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < row.size(); i++) {
+            fields.put(header.get(i), row.get(i));
+        }
+        return ImportRecord.of(rowLine, fields);
+    }
+
+    /**
+     * Read the fields of the next row, keeping at most {@code maxRecordLength} characters of it.
+     *
+     * @return {@code false} at the end of the input.
+     */
+    private boolean readRow() throws IOException {
+        row.clear();
+        field.setLength(0);
+        rowLength = 0;
+        rowLine = lineNumber + 1;
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = input.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    input.mark(1);
+                    int next = input.read();
+                    if (next == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            input.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                endField();
+            } else if (c == '\n') {
+                lineNumber++;
+                break;
+            } else if (c != '\r') {
+                append((char) c);
+            }
+        }
+        if (!read) {
+            return false;
+        }
+        endField();
+        unterminated = quoted;
+        return true;
+    }
+
+    private void append(char c) {
+        if (rowLength++ < maxRecordLength) {
+            field.append(c);
+        }
+    }
+
+    private void endField() {
+        row.add(field.toString());
+        field.setLength(0);
+    }
+
+    private boolean isBlankRow() {
+        return row.size() == 1 && row.get(0).isBlank();
+    }
+}
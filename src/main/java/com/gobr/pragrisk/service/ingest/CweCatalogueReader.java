@@ -0,0 +1,50 @@
+package com.gobr.pragrisk.service.ingest;
+
+import com.gobr.pragrisk.repository.VulnerabilityCatalogueRow;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the {@code Weakness} elements of the CWE list with StAX, as vulnerabilities named after the weakness with the
+ * {@code CWE-<ID>} reference and catalogue key. DTDs and external entities are not processed.
+ */
+final class CweCatalogueReader extends CatalogueReader {
+
+    private static final String WEAKNESS = "Weakness";
+
+    private final XMLStreamReader reader;
+
+    CweCatalogueReader(InputStream input) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            this.reader = factory.createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed CWE catalogue: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    VulnerabilityCatalogueRow next() throws IOException {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && WEAKNESS.equals(reader.getLocalName())) {
+                    String id = reader.getAttributeValue(null, "ID");
+                    String name = reader.getAttributeValue(null, "Name");
+                    if (id != null && name != null) {
+                        String reference = "CWE-" + id.trim();
+                        return new VulnerabilityCatalogueRow(reference, truncate(name.trim()), reference, null);
+                    }
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed CWE catalogue: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.gobr.pragrisk.service.ingest;
+
+import java.util.Arrays;
+import java.util.Optional;
+import org.springframework.util.MimeType;
+
+/**
+ * The formats a bulk import reads.
+ */
+public enum ImportFormat {
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson"),
+
+    /**
+     * Comma-separated values as in RFC 4180, with a header row naming the fields.
+     */
+    CSV("text/csv");
+
+    private final MimeType mimeType;
+
+    ImportFormat(String mimeType) {
+        this.mimeType = MimeType.valueOf(mimeType);
+    }
+
+    public MimeType getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * @param contentType the content type of the input, parameters such as the charset are ignored.
+     * @return the matching format, if any.
+     */
+    public static Optional<ImportFormat> of(MimeType contentType) {
+        return Arrays.stream(values()).filter(format -> format.mimeType.equalsTypeAndSubtype(contentType)).findFirst();
+    }
+}
@@ -0,0 +1,51 @@
+package com.gobr.pragrisk.service.ingest;
+
+import java.util.Map;
+
+/**
+ * A record read from an import input: its fields by name, or why it could not be read.
+ */
+final class ImportRecord {
+
+    private final long line;
+
+    private final Map<String, String> fields;
+
+    private final String error;
+
+    private ImportRecord(long line, Map<String, String> fields, String error) {
+        this.line = line;
+        this.fields = fields;
+        this.error = error;
+    }
+
+    static ImportRecord of(long line, Map<String, String> fields) {
+        return new ImportRecord(line, fields, null);
+    }
+
+    static ImportRecord malformed(long line, String error) {
+        return new ImportRecord(line, Map.of(), error);
+    }
+
+    /**
+     * @return the line of the input the record starts on, from 1.
+     */
+    long getLine() {
+        return line;
+    }
+
+    /**
+     * @return the value of a field, or {@code null} if it is absent or empty.
+     */
+    String get(String field) {
+        String value = fields.get(field);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * @return why the record could not be read, or {@code null} if it was.
+     */
+    String getError() {
+        return error;
+    }
+}
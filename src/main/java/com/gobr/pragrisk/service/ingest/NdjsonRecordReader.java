@@ -0,0 +1,75 @@
+package com.gobr.pragrisk.service.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads one JSON object per line; blank lines are skipped. Field values must be scalars.
+ */
+final class NdjsonRecordReader extends RecordReader {
+
+    private final ObjectMapper objectMapper;
+
+    private final StringBuilder line = new StringBuilder();
+
+    private long lineNumber;
+
+    NdjsonRecordReader(Reader input, ObjectMapper objectMapper, int maxRecordLength) {
+        super(input, maxRecordLength);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    ImportRecord next() throws IOException {
+        while (true) {
+            line.setLength(0);
+            boolean truncated = false;
+            int c;
+            while ((c = input.read()) != -1 && c != '\n') {
+                if (line.length() < maxRecordLength) {
+                    line.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (c == -1 && line.length() == 0) {
+                return null;
+            }
+            lineNumber++;
+            if (truncated) {
+                return ImportRecord.malformed(lineNumber, tooLong());
+            }
+            if (!line.toString().isBlank()) {
+                return parse();
+            }
+        }
+    }
+
+    private ImportRecord parse() {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line.toString());
+        } catch (JsonProcessingException e) {
+            return ImportRecord.malformed(lineNumber, "malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return ImportRecord.malformed(lineNumber, "not a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+            Map.Entry<String, JsonNode> field = it.next();
+            JsonNode value = field.getValue();
+            if (value.isContainerNode()) {
+                return ImportRecord.malformed(lineNumber, field.getKey() + " is not a scalar");
+            }
+            fields.put(field.getKey(), value.isNull() ? null : value.asText());
+        }
+        return ImportRecord.of(lineNumber, fields);
+    }
+}
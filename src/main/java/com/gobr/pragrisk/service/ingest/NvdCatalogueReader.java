@@ -0,0 +1,120 @@
+package com.gobr.pragrisk.service.ingest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gobr.pragrisk.repository.VulnerabilityCatalogueRow;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the CVEs of an NVD feed with a streaming JSON parser, materializing one CVE at a time. A CVE becomes a
+ * vulnerability named and keyed after its id, with its first CWE and its most recent CVSS base score and vector,
+ * e.g. {@code 9.8 CVSS:3.1/AV:N/AC:L/PR:N/UI:N/S:U/C:H/I:H/A:H}.
+ */
+final class NvdCatalogueReader extends CatalogueReader {
+
+    private static final String FEED_ITEMS = "CVE_Items";
+
+    private static final String API_ITEMS = "vulnerabilities";
+
+    private final JsonParser parser;
+
+    private boolean inItems;
+
+    NvdCatalogueReader(InputStream input, ObjectMapper objectMapper) throws IOException {
+        this.parser = objectMapper.createParser(input);
+    }
+
+    @Override
+    VulnerabilityCatalogueRow next() throws IOException {
+        while (true) {
+            if (!inItems && !seekItems()) {
+                return null;
+            }
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_OBJECT) {
+                inItems = token != JsonToken.END_ARRAY && token != null;
+                parser.skipChildren();
+                continue;
+            }
+            JsonNode item = parser.readValueAsTree();
+            VulnerabilityCatalogueRow row = item.path("cve").has("CVE_data_meta") ? fromFeedItem(item) : fromApiItem(item);
+            if (row != null) {
+                return row;
+            }
+        }
+    }
+
+    /**
+     * Move to the start of the next array of CVEs, skipping every other top-level field.
+     *
+     * @return {@code false} at the end of the feed.
+     */
+    private boolean seekItems() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY && (FEED_ITEMS.equals(name) || API_ITEMS.equals(name))) {
+                    inItems = true;
+                    return true;
+                }
+                parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    private static VulnerabilityCatalogueRow fromFeedItem(JsonNode item) {
+        String id = text(item.at("/cve/CVE_data_meta/ID"));
+        if (id == null) {
+            return null;
+        }
+        String cwe = text(item.at("/cve/problemtype/problemtype_data/0/description/0/value"));
+        JsonNode cvss = item.at("/impact/baseMetricV3/cvssV3");
+        if (cvss.isMissingNode()) {
+            cvss = item.at("/impact/baseMetricV2/cvssV2");
+        }
+        return new VulnerabilityCatalogueRow(id, id, truncate(cwe), truncate(cvss(cvss)));
+    }
+
+    private static VulnerabilityCatalogueRow fromApiItem(JsonNode item) {
+        JsonNode cve = item.path("cve");
+        String id = text(cve.path("id"));
+        if (id == null) {
+            return null;
+        }
+        String cwe = text(cve.at("/weaknesses/0/description/0/value"));
+        JsonNode metrics = cve.path("metrics");
+        JsonNode cvss = metrics.at("/cvssMetricV31/0/cvssData");
+        if (cvss.isMissingNode()) {
+            cvss = metrics.at("/cvssMetricV30/0/cvssData");
+        }
+        if (cvss.isMissingNode()) {
+            cvss = metrics.at("/cvssMetricV2/0/cvssData");
+        }
+        return new VulnerabilityCatalogueRow(id, id, truncate(cwe), truncate(cvss(cvss)));
+    }
+
+    /**
+     * @return the base score and vector of CVSS data, version 2 vectors being prefixed like later ones.
+     */
+    private static String cvss(JsonNode cvss) {
+        String vector = text(cvss.path("vectorString"));
+        if (vector == null) {
+            return null;
+        }
+        if (!vector.startsWith("CVSS:")) {
+            vector = "CVSS:" + cvss.path("version").asText("2.0") + "/" + vector;
+        }
+        JsonNode score = cvss.path("baseScore");
+        return score.isNumber() ? score.asText() + " " + vector : vector;
+    }
+
+    private static String text(JsonNode node) {
+        return node.isValueNode() && !node.isNull() ? node.asText() : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.gobr.pragrisk.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the records of an import input one at a time, holding at most one record in memory.
+ * <p>
+ * A record that cannot be read, because it is malformed or longer than the maximum record length, comes back as an
+ * {@link ImportRecord#malformed(long, String) malformed} record and reading goes on with the next one.
+ */
+abstract class RecordReader {
+
+    protected final Reader input;
+
+    protected final int maxRecordLength;
+
+    protected RecordReader(Reader input, int maxRecordLength) {
+        this.input = input instanceof BufferedReader ? input : new BufferedReader(input);
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    static RecordReader open(ImportFormat format, Reader input, ObjectMapper objectMapper, int maxRecordLength) {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonRecordReader(input, objectMapper, maxRecordLength);
+            case CSV:
+                return new CsvRecordReader(input, maxRecordLength);
+            default:
+                throw new IllegalArgumentException("Unsupported import format " + format);
+        }
+    }
+
+    /**
+     * @return the next record, or {@code null} at the end of the input.
+     */
+    abstract ImportRecord next() throws IOException;
+
+    protected String tooLong() {
+        return "record is longer than " + maxRecordLength + " characters";
+    }
+}
@@ -0,0 +1,80 @@
+package com.gobr.pragrisk.service.ingest;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A bounded memory of which ids of an entity exist, least recently used first out.
+ * <p>
+ * The ids a batch refers to are {@link #request(Long) requested} first, then the unknown ones are looked up by a
+ * single query in {@link #resolve()}. Every id of a batch stays known until the next batch as long as a batch refers
+ * to at most {@code maxSize} distinct ids. Not thread-safe.
+ */
+final class ReferenceCache {
+
+    private final Function<Collection<Long>, Collection<Long>> finder;
+
+    private final Map<Long, Boolean> known;
+
+    private final Set<Long> pending = new HashSet<>();
+
+    private long lookups;
+
+    /**
+     * @param maxSize the most ids to remember.
+     * @param finder the query returning those of the given ids that exist.
+     */
+    ReferenceCache(int maxSize, Function<Collection<Long>, Collection<Long>> finder) {
+        this.finder = finder;
+        this.known =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                    return size() > maxSize;
+                }
+            };
+    }
+
+    void request(Long id) {
+        if (known.get(id) == null) {
+            pending.add(id);
+        }
+    }
+
+    /**
+     * Look up every requested id not known yet.
+     */
+    void resolve() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<Long> found = new HashSet<>(finder.apply(pending));
+        for (Long id : pending) {
+            known.put(id, found.contains(id));
+        }
+        lookups += pending.size();
+        pending.clear();
+    }
+
+    /**
+     * @return whether a requested and resolved id exists.
+     */
+    boolean exists(Long id) {
+        Boolean exists = known.get(id);
+        if (exists == null) {
+            throw new IllegalStateException("Reference " + id + " was not resolved");
+        }
+        return exists;
+    }
+
+    /**
+     * @return the number of ids looked up in the database so far.
+     */
+    long getLookups() {
+        return lookups;
+    }
+}
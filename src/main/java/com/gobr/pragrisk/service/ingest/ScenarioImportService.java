@@ -0,0 +1,361 @@
+package com.gobr.pragrisk.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.TechnologyRepository;
+import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.service.dto.ImportRowErrorDTO;
+import com.gobr.pragrisk.service.dto.ImportSummaryDTO;
+import com.gobr.pragrisk.service.risk.FixedPoint;
+import com.gobr.pragrisk.service.risk.RiskComputationEngine;
+import com.gobr.pragrisk.service.risk.ScenarioChangedEvent;
+import com.gobr.pragrisk.service.risk.ScenarioRiskSnapshot;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing scenarios in bulk from an NDJSON or CSV stream.
+ * <p>
+ * Rows carry the fields {@code title}, {@code description}, {@code probability}, {@code qonsequence},
+ * {@code actorId}, {@code technologyId} and {@code vulnerabilityId}; other fields are ignored. Rows are read and
+ * validated one at a time and written in batches of {@code application.ingest.batch-size}, each in its own
+ * transaction: one existence query per referenced entity for the ids not in its {@link ReferenceCache}, one title
+ * query, one sequence call per {@link ScenarioRepository#ID_ALLOCATION_SIZE} ids, one JDBC insert batch and one
+ * search outbox batch. Memory use is bounded by the batch size, whatever the input size.
+ * <p>
+ * A rejected row does not stop the import; if a batch fails as a whole, all its rows are rejected. Rows are validated
+ * before their batch is written, down to a risk value out of the {@link FixedPoint} range, so that a batch only fails
+ * on database errors.
+ */
+@Service
+public class ScenarioImportService {
+
+    static final String TITLE = "title";
+    static final String DESCRIPTION = "description";
+    static final String PROBABILITY = "probability";
+    static final String QONSEQUENCE = "qonsequence";
+    static final String ACTOR_ID = "actorId";
+    static final String TECHNOLOGY_ID = "technologyId";
+    static final String VULNERABILITY_ID = "vulnerabilityId";
+
+    private static final int TITLE_MAX_LENGTH = 255;
+
+    private static final int DESCRIPTION_MAX_LENGTH = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(ScenarioImportService.class);
+
+    private final ScenarioRepository scenarioRepository;
+
+    private final SearchIndexer searchIndexer;
+
+    private final ActorRepository actorRepository;
+
+    private final TechnologyRepository technologyRepository;
+
+    private final VulnerabilityRepository vulnerabilityRepository;
+
+    private final RiskComputationEngine riskComputationEngine;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int referenceCacheSize;
+
+    private final int maxRecordLength;
+
+    public ScenarioImportService(
+        ScenarioRepository scenarioRepository,
+        SearchIndexer searchIndexer,
+        ActorRepository actorRepository,
+        TechnologyRepository technologyRepository,
+        VulnerabilityRepository vulnerabilityRepository,
+        RiskComputationEngine riskComputationEngine,
+        ApplicationEventPublisher eventPublisher,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Ingest properties = applicationProperties.getIngest();
+        this.scenarioRepository = scenarioRepository;
+        this.searchIndexer = searchIndexer;
+        this.actorRepository = actorRepository;
+        this.technologyRepository = technologyRepository;
+        this.vulnerabilityRepository = vulnerabilityRepository;
+        this.riskComputationEngine = riskComputationEngine;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = properties.getBatchSize();
+        // every id of a batch must stay cached until the batch is written
+        this.referenceCacheSize = Math.max(properties.getReferenceCacheSize(), batchSize);
+        this.maxRecordLength = properties.getMaxRecordLength();
+    }
+
+    /**
+     * Import scenarios, deriving their risk value from their probability and qonsequence.
+     *
+     * @param input the rows to import.
+     * @param format the format of the rows.
+     * @param rejections the consumer of the rejected rows, called once their batch is written.
+     * @return the import summary.
+     * @throws IOException if the input cannot be read.
+     */
+    public ImportSummaryDTO importScenarios(Reader input, ImportFormat format, Consumer<ImportRowErrorDTO> rejections)
+        throws IOException {
+        log.info("Importing scenarios from {}", format);
+        long start = System.currentTimeMillis();
+        RecordReader reader = RecordReader.open(format, input, objectMapper, maxRecordLength);
+        Batch batch = new Batch(
+            batchSize,
+            new ReferenceCache(referenceCacheSize, actorRepository::findExistingIds),
+            new ReferenceCache(referenceCacheSize, technologyRepository::findExistingIds),
+            new ReferenceCache(referenceCacheSize, vulnerabilityRepository::findExistingIds)
+        );
+        ImportRecord record;
+        while ((record = reader.next()) != null) {
+            batch.rows.add(toRow(record));
+            if (batch.rows.size() == batchSize) {
+                write(batch, rejections);
+            }
+        }
+        write(batch, rejections);
+        long duration = System.currentTimeMillis() - start;
+        log.info(
+            "Imported {} of {} scenarios ({} rejected, {} references looked up) in {} ms",
+            batch.imported,
+            batch.read,
+            batch.rejected,
+            batch.actors.getLookups() + batch.technologies.getLookups() + batch.vulnerabilities.getLookups(),
+            duration
+        );
+        return new ImportSummaryDTO(batch.read, batch.imported, batch.rejected, duration);
+    }
+
+    private Row toRow(ImportRecord record) {
+        Row row = new Row(record.getLine(), record.get(TITLE));
+        if (record.getError() != null) {
+            return row.reject(record.getError());
+        }
+        try {
+            String title = row.title;
+            if (title == null || title.isBlank()) {
+                return row.reject(TITLE + " is required");
+            }
+            requireMaxLength(TITLE, title, TITLE_MAX_LENGTH);
+            String description = record.get(DESCRIPTION);
+            requireMaxLength(DESCRIPTION, description, DESCRIPTION_MAX_LENGTH);
+            Scenario scenario = new Scenario()
+                .title(title)
+                .description(description)
+                .probability(toDecimal(PROBABILITY, record.get(PROBABILITY)))
+                .qonsequence(toDecimal(QONSEQUENCE, record.get(QONSEQUENCE)));
+            Long actorId = toId(ACTOR_ID, record.get(ACTOR_ID));
+            if (actorId != null) {
+                scenario.setActorFK(new Actor().id(actorId));
+            }
+            Long technologyId = toId(TECHNOLOGY_ID, record.get(TECHNOLOGY_ID));
+            if (technologyId != null) {
+                scenario.setTechnologyFK(new Technology().id(technologyId));
+            }
+            Long vulnerabilityId = toId(VULNERABILITY_ID, record.get(VULNERABILITY_ID));
+            if (vulnerabilityId != null) {
+                scenario.setVulnerabilityFK(new Vulnerability().id(vulnerabilityId));
+            }
+            row.scenario = riskComputationEngine.applyRiskValue(scenario);
+            return row;
+        } catch (IllegalArgumentException e) {
+            return row.reject(e.getMessage());
+        }
+    }
+
+    private void write(Batch batch, Consumer<ImportRowErrorDTO> rejections) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+        } catch (DataAccessException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import of the batch starting on line {} failed: {}", batch.rows.get(0).line, cause);
+            for (Row row : batch.rows) {
+                if (row.error == null) {
+                    row.reject("batch not imported: " + cause);
+                }
+            }
+        }
+        for (Row row : batch.rows) {
+            batch.read++;
+            if (row.error == null) {
+                batch.imported++;
+            } else {
+                batch.rejected++;
+                rejections.accept(new ImportRowErrorDTO(row.line, row.title, row.error));
+            }
+        }
+        batch.rows.clear();
+    }
+
+    private void insert(Batch batch) {
+        for (Row row : batch.rows) {
+            if (row.error == null) {
+                Scenario scenario = row.scenario;
+                if (scenario.getActorFK() != null) {
+                    batch.actors.request(scenario.getActorFK().getId());
+                }
+                if (scenario.getTechnologyFK() != null) {
+                    batch.technologies.request(scenario.getTechnologyFK().getId());
+                }
+                if (scenario.getVulnerabilityFK() != null) {
+                    batch.vulnerabilities.request(scenario.getVulnerabilityFK().getId());
+                }
+            }
+        }
+        batch.actors.resolve();
+        batch.technologies.resolve();
+        batch.vulnerabilities.resolve();
+
+        Set<String> titles = new HashSet<>();
+        for (Row row : batch.rows) {
+            if (row.error == null) {
+                Scenario scenario = row.scenario;
+                if (scenario.getActorFK() != null && !batch.actors.exists(scenario.getActorFK().getId())) {
+                    row.reject(ACTOR_ID + " " + scenario.getActorFK().getId() + " does not exist");
+                } else if (scenario.getTechnologyFK() != null && !batch.technologies.exists(scenario.getTechnologyFK().getId())) {
+                    row.reject(TECHNOLOGY_ID + " " + scenario.getTechnologyFK().getId() + " does not exist");
+                } else if (scenario.getVulnerabilityFK() != null && !batch.vulnerabilities.exists(scenario.getVulnerabilityFK().getId())) {
+                    row.reject(VULNERABILITY_ID + " " + scenario.getVulnerabilityFK().getId() + " does not exist");
+                } else if (!titles.add(row.title)) {
+                    row.reject(TITLE + " is used by an earlier row");
+                }
+            }
+        }
+        Set<String> existingTitles = titles.isEmpty() ? Set.of() : new HashSet<>(scenarioRepository.findExistingTitles(titles));
+
+        List<Scenario> scenarios = new ArrayList<>(batch.rows.size());
+        for (Row row : batch.rows) {
+            if (row.error == null) {
+                if (existingTitles.contains(row.title)) {
+                    row.reject(TITLE + " is already used");
+                } else {
+                    scenarios.add(row.scenario);
+                }
+            }
+        }
+        if (scenarios.isEmpty()) {
+            return;
+        }
+        scenarioRepository.reserveIds(batch.ids, scenarios.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            scenarios.get(i).setId(batch.ids[i]);
+        }
+        scenarioRepository.batchInsert(scenarios);
+        List<Long> ids = new ArrayList<>(scenarios.size());
+        for (Scenario scenario : scenarios) {
+            ids.add(scenario.getId());
+            eventPublisher.publishEvent(ScenarioChangedEvent.saved(ScenarioRiskSnapshot.of(scenario)));
+        }
+        searchIndexer.enqueueAll(SearchDocumentType.SCENARIO, ids);
+    }
+
+    private static void requireMaxLength(String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+    }
+
+    private static BigDecimal toDecimal(String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        BigDecimal decimal;
+        try {
+            decimal = new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+        // tighter than the decimal(21, 2) columns, like the risk values the scenario risk register keeps
+        if (!FixedPoint.fits(decimal)) {
+            throw new IllegalArgumentException(field + " is out of range: " + value);
+        }
+        return decimal;
+    }
+
+    private static Long toId(String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not an id: " + value);
+        }
+    }
+
+    /**
+     * A row of the input, with the scenario to insert or why it is rejected.
+     */
+    private static final class Row {
+
+        final long line;
+        final String title;
+        Scenario scenario;
+        String error;
+
+        Row(long line, String title) {
+            this.line = line;
+            this.title = title;
+        }
+
+        Row reject(String error) {
+            this.error = error;
+            return this;
+        }
+    }
+
+    private static final class Batch {
+
+        final List<Row> rows;
+        final long[] ids;
+        final ReferenceCache actors;
+        final ReferenceCache technologies;
+        final ReferenceCache vulnerabilities;
+        long read;
+        long imported;
+        long rejected;
+
+        Batch(int size, ReferenceCache actors, ReferenceCache technologies, ReferenceCache vulnerabilities) {
+            this.rows = new ArrayList<>(size);
+            this.ids = new long[size];
+            this.actors = actors;
+            this.technologies = technologies;
+            this.vulnerabilities = vulnerabilities;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.gobr.pragrisk.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.repository.VulnerabilityCatalogueRow;
+import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.service.dto.CatalogueImportSummaryDTO;
+import com.gobr.pragrisk.service.risk.MitigationCoverageChangedEvent;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service loading the CWE list and NVD CVE feeds into {@link Vulnerability}, keyed by their catalogue key.
+ * <p>
+ * The catalogue is parsed as it streams in and upserted in batches of {@code application.ingest.batch-size} entries,
+ * each in its own transaction: the batch is diffed against the stored rows with one query, then only new and
+ * changed rows are written, in one JDBC batch, and queued for reindexing. Re-importing an unchanged catalogue writes nothing.
+ * Memory use is bounded by the batch size, whatever the catalogue size.
+ */
+@Service
+public class VulnerabilityCatalogueService {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private final Logger log = LoggerFactory.getLogger(VulnerabilityCatalogueService.class);
+
+    private final VulnerabilityRepository vulnerabilityRepository;
+
+    private final SearchIndexer searchIndexer;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public VulnerabilityCatalogueService(
+        VulnerabilityRepository vulnerabilityRepository,
+        SearchIndexer searchIndexer,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationEventPublisher eventPublisher,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.vulnerabilityRepository = vulnerabilityRepository;
+        this.searchIndexer = searchIndexer;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getIngest().getBatchSize();
+    }
+
+    /**
+     * Import a vulnerability catalogue.
+     *
+     * @param input the catalogue, possibly gzipped as NVD feeds are distributed.
+     * @param format the format of the catalogue.
+     * @return the import summary.
+     * @throws IOException if the catalogue cannot be read or parsed; the batches before the error are kept.
+     */
+    public CatalogueImportSummaryDTO importCatalogue(InputStream input, CatalogueFormat format) throws IOException {
+        log.info("Importing a {} vulnerability catalogue", format);
+        long start = System.currentTimeMillis();
+        Batch batch = new Batch(batchSize);
+        try {
+            CatalogueReader reader = CatalogueReader.open(format, decompress(input), objectMapper);
+            VulnerabilityCatalogueRow row;
+            while ((row = reader.next()) != null) {
+                batch.read++;
+                // a later entry of the same key wins
+                batch.rows.put(row.getSourceKey(), row);
+                if (batch.rows.size() == batchSize) {
+                    write(batch);
+                }
+            }
+            write(batch);
+        } finally {
+            if (batch.inserted + batch.updated > 0) {
+                eventPublisher.publishEvent(new MitigationCoverageChangedEvent(format + " catalogue import"));
+            }
+        }
+        long duration = System.currentTimeMillis() - start;
+        log.info(
+            "Imported {} {} catalogue entries ({} inserted, {} updated, {} unchanged) in {} ms",
+            batch.read,
+            format,
+            batch.inserted,
+            batch.updated,
+            batch.unchanged,
+            duration
+        );
+        return new CatalogueImportSummaryDTO(batch.read, batch.inserted, batch.updated, batch.unchanged, duration);
+    }
+
+    private void write(Batch batch) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> merge(batch));
+        batch.rows.clear();
+    }
+
+    private void merge(Batch batch) {
+        Map<String, VulnerabilityCatalogueRow> existing = new HashMap<>();
+        for (VulnerabilityCatalogueRow row : vulnerabilityRepository.findCatalogueRows(batch.rows.keySet())) {
+            existing.put(row.getSourceKey(), row);
+        }
+        List<VulnerabilityCatalogueRow> inserts = new ArrayList<>();
+        List<VulnerabilityCatalogueRow> updates = new ArrayList<>();
+        for (VulnerabilityCatalogueRow row : batch.rows.values()) {
+            VulnerabilityCatalogueRow stored = existing.get(row.getSourceKey());
+            if (stored == null) {
+                inserts.add(row);
+            } else if (row.hasSameValues(stored)) {
+                batch.unchanged++;
+            } else {
+                row.setId(stored.getId());
+                updates.add(row);
+            }
+        }
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+        vulnerabilityRepository.reserveIds(batch.ids, inserts.size());
+        for (int i = 0; i < inserts.size(); i++) {
+            inserts.get(i).setId(batch.ids[i]);
+        }
+        vulnerabilityRepository.mergeCatalogueRows(inserts, updates);
+
+        List<Long> ids = new ArrayList<>(inserts.size() + updates.size());
+        inserts.forEach(row -> ids.add(row.getId()));
+        for (VulnerabilityCatalogueRow row : updates) {
+            ids.add(row.getId());
+            entityManagerFactory.getCache().evict(Vulnerability.class, row.getId());
+        }
+        searchIndexer.enqueueAll(SearchDocumentType.VULNERABILITY, ids);
+        batch.inserted += inserts.size();
+        batch.updated += updates.size();
+    }
+
+    private static InputStream decompress(InputStream input) throws IOException {
+        InputStream buffered = new BufferedInputStream(input);
+        buffered.mark(2);
+        int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+        return magic == GZIP_MAGIC ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    private static final class Batch {
+
+        final Map<String, VulnerabilityCatalogueRow> rows;
+        final long[] ids;
+        long read;
+        long inserted;
+        long updated;
+        long unchanged;
+
+        Batch(int size) {
+            this.rows = new LinkedHashMap<>();
+            this.ids = new long[size];
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Streaming bulk import services.
+ */
+package com.gobr.pragrisk.service.ingest;
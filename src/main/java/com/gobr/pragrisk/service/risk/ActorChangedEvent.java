@@ -0,0 +1,53 @@
+package com.gobr.pragrisk.service.risk;
+
+/**
+ * Published when an actor is saved or deleted. The hierarchy closure table is updated within the surrounding
+ * transaction, in-memory state once it commits.
+ */
+public final class ActorChangedEvent {
+
+    private final long actorId;
+
+    private final Long environmentId;
+
+    private final Long parentId;
+
+    private final boolean deleted;
+
+    private ActorChangedEvent(long actorId, Long environmentId, Long parentId, boolean deleted) {
+        this.actorId = actorId;
+        this.environmentId = environmentId;
+        this.parentId = parentId;
+        this.deleted = deleted;
+    }
+
+    public static ActorChangedEvent saved(long actorId, Long environmentId, Long parentId) {
+        return new ActorChangedEvent(actorId, environmentId, parentId, false);
+    }
+
+    public static ActorChangedEvent deleted(long actorId) {
+        return new ActorChangedEvent(actorId, null, null, true);
+    }
+
+    public long getActorId() {
+        return actorId;
+    }
+
+    /**
+     * @return the id of the actor group, or {@code null} if it has none.
+     */
+    public Long getEnvironmentId() {
+        return environmentId;
+    }
+
+    /**
+     * @return the id of the parent actor, or {@code null} if it has none.
+     */
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,497 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * A mutable directed graph of actors, technologies, vulnerabilities and mitigations, whose nodes and edges are
+ * numbered by ints and whose adjacency is held in int arrays, so that traversals do not allocate per node or edge.
+ * <p>
+ * Scenarios contribute the edges actor &rarr; technology, technology &rarr; vulnerability and, for scenarios without a
+ * technology, actor &rarr; vulnerability. An edge keeps the risk value and vulnerability of every scenario it stands
+ * for, its weight being their highest risk value. Mitigation links contribute vulnerability &rarr; mitigation edges of
+ * unbounded weight. Edges only go forward in {@link AttackNodeType} order, so the graph has no cycle and paths have
+ * at most three edges. Nodes are kept once created, isolated after their last edge goes, until {@link #clear()}.
+ * Not thread-safe.
+ */
+final class AttackGraph {
+
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<AttackNodeType, Map<Long, Integer>> nodesById = new EnumMap<>(AttackNodeType.class);
+
+    private int nodeCount;
+
+    private long[] nodeIds;
+
+    private AttackNodeType[] nodeTypes;
+
+    // edge ids, by node
+    private int[][] out;
+
+    private int[] outDegree;
+
+    private int[][] in;
+
+    private int[] inDegree;
+
+    private final Map<Long, Integer> edgesByNodes = new HashMap<>();
+
+    private int edgeCapacityUsed;
+
+    private int[] edgeFrom;
+
+    private int[] edgeTo;
+
+    private long[] edgeWeight;
+
+    // risk value and vulnerability id of each scenario, by edge
+    private long[][] edgeRiskValues;
+
+    private long[][] edgeVulnerabilityIds;
+
+    private int[] edgeScenarios;
+
+    private int[] freeEdges;
+
+    private int freeEdgeCount;
+
+    AttackGraph() {
+        clear();
+    }
+
+    void clear() {
+        for (AttackNodeType type : AttackNodeType.values()) {
+            nodesById.put(type, new HashMap<>());
+        }
+        nodeCount = 0;
+        nodeIds = new long[INITIAL_CAPACITY];
+        nodeTypes = new AttackNodeType[INITIAL_CAPACITY];
+        out = new int[INITIAL_CAPACITY][];
+        outDegree = new int[INITIAL_CAPACITY];
+        in = new int[INITIAL_CAPACITY][];
+        inDegree = new int[INITIAL_CAPACITY];
+        edgesByNodes.clear();
+        edgeCapacityUsed = 0;
+        edgeFrom = new int[INITIAL_CAPACITY];
+        edgeTo = new int[INITIAL_CAPACITY];
+        edgeWeight = new long[INITIAL_CAPACITY];
+        edgeRiskValues = new long[INITIAL_CAPACITY][];
+        edgeVulnerabilityIds = new long[INITIAL_CAPACITY][];
+        edgeScenarios = new int[INITIAL_CAPACITY];
+        freeEdges = new int[INITIAL_CAPACITY];
+        freeEdgeCount = 0;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int edgeCount() {
+        return edgesByNodes.size();
+    }
+
+    /**
+     * @return the node of an entity, or {@link #NONE} if it is not in the graph.
+     */
+    int find(AttackNodeType type, long id) {
+        Integer node = nodesById.get(type).get(id);
+        return node == null ? NONE : node;
+    }
+
+    AttackNodeType typeOf(int node) {
+        return nodeTypes[node];
+    }
+
+    long idOf(int node) {
+        return nodeIds[node];
+    }
+
+    void addScenario(ScenarioRiskSnapshot snapshot) {
+        forEachScenarioEdge(snapshot, (from, to, riskValue, vulnerabilityId) -> link(node(from), node(to), riskValue, vulnerabilityId));
+    }
+
+    void removeScenario(ScenarioRiskSnapshot snapshot) {
+        forEachScenarioEdge(snapshot, this::unlink);
+    }
+
+    /**
+     * Replace every vulnerability &rarr; mitigation edge by the given links.
+     */
+    void replaceMitigationLinks(MitigationLinks links) {
+        for (int mitigation : nodesById.get(AttackNodeType.MITIGATION).values()) {
+            while (inDegree[mitigation] > 0) {
+                removeEdge(in[mitigation][0]);
+            }
+        }
+        for (int link = 0; link < links.size(); link++) {
+            int vulnerability = node(new Key(AttackNodeType.VULNERABILITY, links.vulnerabilityId(link)));
+            int mitigation = node(new Key(AttackNodeType.MITIGATION, links.mitigationId(link)));
+            int edge = edge(vulnerability, mitigation);
+            edgeWeight[edge] = Long.MAX_VALUE;
+            addEntry(edge, Long.MAX_VALUE, links.vulnerabilityId(link));
+        }
+    }
+
+    /**
+     * @return the ids of the nodes of a type that a node has an edge to, in increasing order.
+     */
+    long[] successorIds(int node, AttackNodeType type) {
+        long[] result = new long[outDegree[node]];
+        int size = 0;
+        for (int i = 0; i < outDegree[node]; i++) {
+            int to = edgeTo[out[node][i]];
+            if (nodeTypes[to] == type) {
+                result[size++] = nodeIds[to];
+            }
+        }
+        result = Arrays.copyOf(result, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Find the ids of the actors with an edge to a node through a scenario whose vulnerability matches a predicate,
+     * {@link ScenarioRiskSnapshot#NO_ID} standing for scenarios without vulnerability.
+     *
+     * @return the actor ids, in increasing order.
+     */
+    long[] actorsExposing(int node, LongPredicate vulnerabilityFilter) {
+        long[] result = new long[inDegree[node]];
+        int size = 0;
+        for (int i = 0; i < inDegree[node]; i++) {
+            int edge = in[node][i];
+            int from = edgeFrom[edge];
+            if (nodeTypes[from] != AttackNodeType.ACTOR) {
+                continue;
+            }
+            for (int entry = 0; entry < edgeScenarios[edge]; entry++) {
+                if (vulnerabilityFilter.test(edgeVulnerabilityIds[edge][entry])) {
+                    result[size++] = nodeIds[from];
+                    break;
+                }
+            }
+        }
+        result = Arrays.copyOf(result, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * @return a path with the fewest edges from {@code source} to {@code target}, or {@code null} if there is none.
+     */
+    Path shortestPath(int source, int target) {
+        int[] previous = new int[nodeCount];
+        Arrays.fill(previous, NONE);
+        int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        previous[source] = source;
+        while (head < tail && previous[target] == NONE) {
+            int node = queue[head++];
+            for (int i = 0; i < outDegree[node]; i++) {
+                int to = edgeTo[out[node][i]];
+                if (previous[to] == NONE) {
+                    previous[to] = node;
+                    queue[tail++] = to;
+                }
+            }
+        }
+        return previous[target] == NONE ? null : toPath(previous, source, target);
+    }
+
+    /**
+     * Find the path whose lowest edge weight is the highest: a chain of scenarios is as likely to be followed
+     * through as its least risky step.
+     *
+     * @return the path, or {@code null} if there is none.
+     */
+    Path riskiestPath(int source, int target) {
+        long[] bottleneck = new long[nodeCount];
+        Arrays.fill(bottleneck, Long.MIN_VALUE);
+        int[] previous = new int[nodeCount];
+        Arrays.fill(previous, NONE);
+        boolean[] settled = new boolean[nodeCount];
+        bottleneck[source] = Long.MAX_VALUE;
+        previous[source] = source;
+        // highest bottleneck first; stale entries are skipped once their node is settled
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(b[0], a[0]));
+        queue.add(new long[] { Long.MAX_VALUE, source });
+        while (!queue.isEmpty()) {
+            int node = (int) queue.poll()[1];
+            if (settled[node]) {
+                continue;
+            }
+            settled[node] = true;
+            if (node == target) {
+                break;
+            }
+            for (int i = 0; i < outDegree[node]; i++) {
+                int edge = out[node][i];
+                int to = edgeTo[edge];
+                long width = Math.min(bottleneck[node], edgeWeight[edge]);
+                if (!settled[to] && width > bottleneck[to]) {
+                    bottleneck[to] = width;
+                    previous[to] = node;
+                    queue.add(new long[] { width, to });
+                }
+            }
+        }
+        return previous[target] == NONE ? null : toPath(previous, source, target);
+    }
+
+    /**
+     * Enumerate the attack paths from a node, each ending at a node without any edge other than to mitigations, and
+     * keep the riskiest ones, by decreasing lowest edge weight.
+     */
+    List<Path> riskiestPaths(int source, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Path> kept = new PriorityQueue<>((a, b) -> Long.compare(a.riskValue, b.riskValue));
+        int[] stack = new int[AttackNodeType.values().length];
+        stack[0] = source;
+        collectPaths(stack, 1, Long.MAX_VALUE, limit, kept);
+        List<Path> result = new ArrayList<>(kept);
+        result.sort((a, b) -> Long.compare(b.riskValue, a.riskValue));
+        return result;
+    }
+
+    private void collectPaths(int[] stack, int depth, long bottleneck, int limit, PriorityQueue<Path> kept) {
+        int node = stack[depth - 1];
+        boolean extended = false;
+        for (int i = 0; i < outDegree[node]; i++) {
+            int edge = out[node][i];
+            int to = edgeTo[edge];
+            if (nodeTypes[to] == AttackNodeType.MITIGATION) {
+                continue;
+            }
+            extended = true;
+            long width = Math.min(bottleneck, edgeWeight[edge]);
+            if (kept.size() == limit && width <= kept.peek().riskValue) {
+                continue;
+            }
+            stack[depth] = to;
+            collectPaths(stack, depth + 1, width, limit, kept);
+        }
+        if (!extended && depth > 1 && (kept.size() < limit || bottleneck > kept.peek().riskValue)) {
+            if (kept.size() == limit) {
+                kept.poll();
+            }
+            kept.add(new Path(Arrays.copyOf(stack, depth), bottleneck));
+        }
+    }
+
+    private Path toPath(int[] previous, int source, int target) {
+        ArrayDeque<Integer> nodes = new ArrayDeque<>();
+        long bottleneck = Long.MAX_VALUE;
+        int node = target;
+        while (node != source) {
+            nodes.addFirst(node);
+            bottleneck = Math.min(bottleneck, edgeWeight[edgesByNodes.get(edgeKey(previous[node], node))]);
+            node = previous[node];
+        }
+        nodes.addFirst(source);
+        return new Path(nodes.stream().mapToInt(Integer::intValue).toArray(), bottleneck);
+    }
+
+    private void link(int from, int to, long riskValue, long vulnerabilityId) {
+        int edge = edge(from, to);
+        if (edgeScenarios[edge] == 0 || riskValue > edgeWeight[edge]) {
+            edgeWeight[edge] = riskValue;
+        }
+        addEntry(edge, riskValue, vulnerabilityId);
+    }
+
+    private void unlink(Key from, Key to, long riskValue, long vulnerabilityId) {
+        int fromNode = find(from.type, from.id);
+        int toNode = find(to.type, to.id);
+        Integer edge = fromNode == NONE || toNode == NONE ? null : edgesByNodes.get(edgeKey(fromNode, toNode));
+        if (edge == null) {
+            return;
+        }
+        int size = edgeScenarios[edge];
+        for (int entry = 0; entry < size; entry++) {
+            if (edgeRiskValues[edge][entry] == riskValue && edgeVulnerabilityIds[edge][entry] == vulnerabilityId) {
+                edgeRiskValues[edge][entry] = edgeRiskValues[edge][size - 1];
+                edgeVulnerabilityIds[edge][entry] = edgeVulnerabilityIds[edge][size - 1];
+                edgeScenarios[edge] = --size;
+                break;
+            }
+        }
+        if (size == 0) {
+            removeEdge(edge);
+        } else if (riskValue == edgeWeight[edge]) {
+            long weight = Long.MIN_VALUE;
+            for (int entry = 0; entry < size; entry++) {
+                weight = Math.max(weight, edgeRiskValues[edge][entry]);
+            }
+            edgeWeight[edge] = weight;
+        }
+    }
+
+    private void addEntry(int edge, long riskValue, long vulnerabilityId) {
+        int size = edgeScenarios[edge];
+        if (edgeRiskValues[edge] == null) {
+            edgeRiskValues[edge] = new long[2];
+            edgeVulnerabilityIds[edge] = new long[2];
+        } else if (size == edgeRiskValues[edge].length) {
+            edgeRiskValues[edge] = Arrays.copyOf(edgeRiskValues[edge], size * 2);
+            edgeVulnerabilityIds[edge] = Arrays.copyOf(edgeVulnerabilityIds[edge], size * 2);
+        }
+        edgeRiskValues[edge][size] = riskValue;
+        edgeVulnerabilityIds[edge][size] = vulnerabilityId;
+        edgeScenarios[edge] = size + 1;
+    }
+
+    private int node(Key key) {
+        Map<Long, Integer> byId = nodesById.get(key.type);
+        Integer existing = byId.get(key.id);
+        if (existing != null) {
+            return existing;
+        }
+        if (nodeCount == nodeIds.length) {
+            int capacity = nodeCount * 2;
+            nodeIds = Arrays.copyOf(nodeIds, capacity);
+            nodeTypes = Arrays.copyOf(nodeTypes, capacity);
+            out = Arrays.copyOf(out, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+            in = Arrays.copyOf(in, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+        }
+        int node = nodeCount++;
+        nodeIds[node] = key.id;
+        nodeTypes[node] = key.type;
+        out[node] = new int[2];
+        in[node] = new int[2];
+        byId.put(key.id, node);
+        return node;
+    }
+
+    private int edge(int from, int to) {
+        long key = edgeKey(from, to);
+        Integer existing = edgesByNodes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int edge;
+        if (freeEdgeCount > 0) {
+            edge = freeEdges[--freeEdgeCount];
+        } else {
+            if (edgeCapacityUsed == edgeFrom.length) {
+                int capacity = edgeCapacityUsed * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+                edgeRiskValues = Arrays.copyOf(edgeRiskValues, capacity);
+                edgeVulnerabilityIds = Arrays.copyOf(edgeVulnerabilityIds, capacity);
+                edgeScenarios = Arrays.copyOf(edgeScenarios, capacity);
+                freeEdges = Arrays.copyOf(freeEdges, capacity);
+            }
+            edge = edgeCapacityUsed++;
+        }
+        edgeFrom[edge] = from;
+        edgeTo[edge] = to;
+        edgeScenarios[edge] = 0;
+        edgesByNodes.put(key, edge);
+        out[from] = append(out[from], outDegree[from]++, edge);
+        in[to] = append(in[to], inDegree[to]++, edge);
+        return edge;
+    }
+
+    private void removeEdge(int edge) {
+        int from = edgeFrom[edge];
+        int to = edgeTo[edge];
+        edgesByNodes.remove(edgeKey(from, to));
+        outDegree[from] = removeFrom(out[from], outDegree[from], edge);
+        inDegree[to] = removeFrom(in[to], inDegree[to], edge);
+        edgeScenarios[edge] = 0;
+        edgeRiskValues[edge] = null;
+        edgeVulnerabilityIds[edge] = null;
+        freeEdges[freeEdgeCount++] = edge;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        int[] result = size == array.length ? Arrays.copyOf(array, size * 2) : array;
+        result[size] = value;
+        return result;
+    }
+
+    /**
+     * @return the new size, the last element taking the place of the removed one.
+     */
+    private static int removeFrom(int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                array[i] = array[size - 1];
+                return size - 1;
+            }
+        }
+        return size;
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static void forEachScenarioEdge(ScenarioRiskSnapshot snapshot, EdgeVisitor visitor) {
+        long riskValue = snapshot.getRiskValue() == FixedPoint.NULL ? 0 : snapshot.getRiskValue();
+        long vulnerabilityId = snapshot.getVulnerabilityId();
+        boolean hasActor = snapshot.getActorId() != ScenarioRiskSnapshot.NO_ID;
+        boolean hasTechnology = snapshot.getTechnologyId() != ScenarioRiskSnapshot.NO_ID;
+        boolean hasVulnerability = vulnerabilityId != ScenarioRiskSnapshot.NO_ID;
+        Key actor = hasActor ? new Key(AttackNodeType.ACTOR, snapshot.getActorId()) : null;
+        Key technology = hasTechnology ? new Key(AttackNodeType.TECHNOLOGY, snapshot.getTechnologyId()) : null;
+        Key vulnerability = hasVulnerability ? new Key(AttackNodeType.VULNERABILITY, vulnerabilityId) : null;
+        if (hasActor && hasTechnology) {
+            visitor.visit(actor, technology, riskValue, vulnerabilityId);
+        }
+        if (hasTechnology && hasVulnerability) {
+            visitor.visit(technology, vulnerability, riskValue, vulnerabilityId);
+        }
+        if (hasActor && !hasTechnology && hasVulnerability) {
+            visitor.visit(actor, vulnerability, riskValue, vulnerabilityId);
+        }
+    }
+
+    @FunctionalInterface
+    private interface EdgeVisitor {
+        void visit(Key from, Key to, long riskValue, long vulnerabilityId);
+    }
+
+    private static final class Key {
+
+        final AttackNodeType type;
+        final long id;
+
+        Key(AttackNodeType type, long id) {
+            this.type = type;
+            this.id = id;
+        }
+    }
+
+    /**
+     * A path of nodes, with its lowest edge weight.
+     */
+    static final class Path {
+
+        final int[] nodes;
+        final long riskValue;
+
+        Path(int[] nodes, long riskValue) {
+            this.nodes = nodes;
+            this.riskValue = riskValue;
+        }
+    }
+}
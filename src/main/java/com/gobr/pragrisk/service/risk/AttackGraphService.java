@@ -0,0 +1,172 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.service.dto.AttackPathDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service answering attack-path queries on an {@link AttackGraph} of the whole domain model.
+ * <p>
+ * Scenario edges are loaded with the {@link ScenarioRiskRegister} and updated with each of its scenario deltas.
+ * Mitigation edges follow the {@link MitigationLinks} of the {@link ResidualRiskService}: when those are reloaded
+ * after a mitigation change, the next query swaps them in. Every query runs under the register lock on int arrays.
+ * A vulnerability counts as mitigated when its mitigations leave less than its whole risk under the
+ * {@link ResidualRiskModel}.
+ */
+@Service
+public class AttackGraphService implements ScenarioRiskListener {
+
+    public static final int MAX_PATHS = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(AttackGraphService.class);
+
+    private final ScenarioRiskRegister register;
+
+    private final ResidualRiskService residualRiskService;
+
+    // guarded by the register lock, like the listener callbacks
+    private final AttackGraph graph = new AttackGraph();
+
+    private MitigationLinks appliedLinks;
+
+    public AttackGraphService(ScenarioRiskRegister register, ResidualRiskService residualRiskService) {
+        this.register = register;
+        this.residualRiskService = residualRiskService;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        register.addListener(this);
+    }
+
+    @Override
+    public void scenarioRiskChanged(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current) {
+        if (previous != null) {
+            graph.removeScenario(previous);
+        }
+        if (current != null) {
+            graph.addScenario(current);
+        }
+    }
+
+    @Override
+    public void registerRebuilt(Collection<ScenarioRiskSnapshot> snapshots) {
+        graph.clear();
+        appliedLinks = null;
+        snapshots.forEach(graph::addScenario);
+    }
+
+    /**
+     * Get the riskiest attack paths of an actor, each ending at a vulnerability or at a technology without any.
+     *
+     * @param actorId the id of the actor.
+     * @param limit the number of paths, capped to {@link #MAX_PATHS}.
+     * @return the paths, riskiest first.
+     */
+    public List<AttackPathDTO> findPaths(long actorId, int limit) {
+        MitigationLinks links = residualRiskService.getMitigationLinks();
+        return register.read(() -> {
+            applyLinks(links);
+            int actor = graph.find(AttackNodeType.ACTOR, actorId);
+            List<AttackPathDTO> result = new ArrayList<>();
+            if (actor != AttackGraph.NONE) {
+                graph.riskiestPaths(actor, Math.min(limit, MAX_PATHS)).forEach(path -> result.add(toDto(path, links)));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get a path with the fewest steps from an actor to a technology, vulnerability or mitigation.
+     *
+     * @return the path, empty if the target cannot be reached.
+     */
+    public Optional<AttackPathDTO> findShortestPath(long actorId, AttackNodeType targetType, long targetId) {
+        return findPath(actorId, targetType, targetId, false);
+    }
+
+    /**
+     * Get the path from an actor to a technology, vulnerability or mitigation whose least risky step is the riskiest.
+     *
+     * @return the path, empty if the target cannot be reached.
+     */
+    public Optional<AttackPathDTO> findRiskiestPath(long actorId, AttackNodeType targetType, long targetId) {
+        return findPath(actorId, targetType, targetId, true);
+    }
+
+    /**
+     * Get the actors that have a scenario on a technology.
+     *
+     * @param technologyId the id of the technology.
+     * @param unmitigated whether to only keep the actors with a scenario whose vulnerability is not mitigated, or
+     * that has no vulnerability.
+     * @return the actor ids, in increasing order.
+     */
+    public List<Long> findActorsReaching(long technologyId, boolean unmitigated) {
+        MitigationCoverage coverage = residualRiskService.getCoverage();
+        long[] actorIds = register.read(() -> {
+            int technology = graph.find(AttackNodeType.TECHNOLOGY, technologyId);
+            if (technology == AttackGraph.NONE) {
+                return new long[0];
+            }
+            return graph.actorsExposing(
+                technology,
+                vulnerabilityId ->
+                    !unmitigated ||
+                    vulnerabilityId == ScenarioRiskSnapshot.NO_ID ||
+                    coverage.remaining(vulnerabilityId) == ResidualRiskModel.FULL
+            );
+        });
+        List<Long> result = new ArrayList<>(actorIds.length);
+        for (long actorId : actorIds) {
+            result.add(actorId);
+        }
+        return result;
+    }
+
+    private Optional<AttackPathDTO> findPath(long actorId, AttackNodeType targetType, long targetId, boolean riskiest) {
+        MitigationLinks links = residualRiskService.getMitigationLinks();
+        return register.read(() -> {
+            applyLinks(links);
+            int actor = graph.find(AttackNodeType.ACTOR, actorId);
+            int target = graph.find(targetType, targetId);
+            if (actor == AttackGraph.NONE || target == AttackGraph.NONE) {
+                return Optional.empty();
+            }
+            AttackGraph.Path path = riskiest ? graph.riskiestPath(actor, target) : graph.shortestPath(actor, target);
+            return Optional.ofNullable(path).map(found -> toDto(found, links));
+        });
+    }
+
+    private void applyLinks(MitigationLinks links) {
+        if (links != appliedLinks) {
+            graph.replaceMitigationLinks(links);
+            appliedLinks = links;
+            log.debug("Attack graph of {} nodes and {} edges", graph.nodeCount(), graph.edgeCount());
+        }
+    }
+
+    private AttackPathDTO toDto(AttackGraph.Path path, MitigationLinks links) {
+        AttackPathDTO dto = new AttackPathDTO();
+        for (int node : path.nodes) {
+            AttackNodeType type = graph.typeOf(node);
+            dto.getSteps().add(new AttackPathDTO.Step(type.getPath(), graph.idOf(node)));
+            if (type == AttackNodeType.VULNERABILITY) {
+                for (long mitigationId : graph.successorIds(node, AttackNodeType.MITIGATION)) {
+                    dto.getMitigationIds().add(mitigationId);
+                }
+                dto.setMitigated(links.coverage().remaining(graph.idOf(node)) < ResidualRiskModel.FULL);
+            }
+        }
+        if (path.riskValue != Long.MAX_VALUE) {
+            dto.setRiskValue(FixedPoint.toBigDecimal(path.riskValue));
+        }
+        return dto;
+    }
+}
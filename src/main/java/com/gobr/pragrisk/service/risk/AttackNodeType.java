@@ -0,0 +1,31 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The entities an {@link AttackGraph} is made of, in attack order.
+ */
+public enum AttackNodeType {
+    ACTOR("actors"),
+    TECHNOLOGY("technologies"),
+    VULNERABILITY("vulnerabilities"),
+    MITIGATION("mitigations");
+
+    private final String path;
+
+    AttackNodeType(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return the name of this type in REST paths.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public static Optional<AttackNodeType> fromPath(String path) {
+        return Arrays.stream(values()).filter(type -> type.path.equals(path)).findFirst();
+    }
+}
@@ -0,0 +1,316 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative ints, split like a roaring bitmap into chunks of 2<sup>16</sup> values sharing their
+ * high 16 bits.
+ * <p>
+ * A chunk holds its low 16 bits as a sorted {@code char} array while it has at most {@link #ARRAY_MAX} values, and
+ * as a 1024-word bitmap beyond, so that sparse and dense sets both take about 2 bytes per value or less. Set
+ * operations work chunk by chunk, word by word between bitmaps. Not thread-safe.
+ */
+final class CompressedBitmap {
+
+    static final int ARRAY_MAX = 4096;
+
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+
+    private Chunk[] chunks = new Chunk[4];
+
+    private int size;
+
+    void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new Chunk());
+        }
+        chunks[index].add((char) value);
+    }
+
+    boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && chunks[index].contains((char) value);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.keys = Arrays.copyOf(keys, keys.length);
+        copy.chunks = new Chunk[chunks.length];
+        for (int i = 0; i < size; i++) {
+            copy.chunks[i] = chunks[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Add every value of {@code other} to this set.
+     */
+    void or(CompressedBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            int index = indexOf(other.keys[j]);
+            if (index < 0) {
+                insertChunk(-index - 1, other.keys[j], other.chunks[j].copy());
+            } else {
+                chunks[index].or(other.chunks[j]);
+            }
+        }
+    }
+
+    /**
+     * Remove every value of {@code other} from this set.
+     */
+    void andNot(CompressedBitmap other) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int index = other.indexOf(keys[i]);
+            if (index >= 0) {
+                chunks[i].andNot(other.chunks[index]);
+            }
+            if (chunks[i].cardinality > 0) {
+                keys[kept] = keys[i];
+                chunks[kept++] = chunks[i];
+            }
+        }
+        Arrays.fill(chunks, kept, size, null);
+        size = kept;
+    }
+
+    /**
+     * @return the number of values in both sets.
+     */
+    int andCardinality(CompressedBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += chunks[i++].andCardinality(other.chunks[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Visit every value, in increasing order.
+     */
+    void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            chunks[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertChunk(int index, char key, Chunk chunk) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(chunks, index, chunks, index + 1, size - index);
+        keys[index] = key;
+        chunks[index] = chunk;
+        size++;
+    }
+
+    /**
+     * The low 16 bits of the values of a chunk, as a sorted array ({@code words == null}) or as a bitmap.
+     */
+    private static final class Chunk {
+
+        char[] values = new char[4];
+        long[] words;
+        int cardinality;
+
+        Chunk copy() {
+            Chunk copy = new Chunk();
+            copy.values = values == null ? null : Arrays.copyOf(values, values.length);
+            copy.words = words == null ? null : Arrays.copyOf(words, WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        void add(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) == 0) {
+                    words[value >>> 6] |= bit;
+                    cardinality++;
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toWords();
+                add(value);
+                return;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        void or(Chunk other) {
+            if (words == null && other.words == null && cardinality + other.cardinality <= ARRAY_MAX) {
+                char[] merged = new char[Math.max(4, cardinality + other.cardinality)];
+                int i = 0;
+                int j = 0;
+                int n = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                        merged[n++] = values[i++];
+                    } else if (i == cardinality || other.values[j] < values[i]) {
+                        merged[n++] = other.values[j++];
+                    } else {
+                        merged[n++] = values[i++];
+                        j++;
+                    }
+                }
+                values = merged;
+                cardinality = n;
+                return;
+            }
+            if (words == null) {
+                toWords();
+            }
+            if (other.words != null) {
+                cardinality = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] |= other.words[w];
+                    cardinality += Long.bitCount(words[w]);
+                }
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    add(other.values[i]);
+                }
+            }
+        }
+
+        void andNot(Chunk other) {
+            if (words == null) {
+                int n = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    if (!other.contains(values[i])) {
+                        values[n++] = values[i];
+                    }
+                }
+                cardinality = n;
+                return;
+            }
+            if (other.words != null) {
+                cardinality = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= ~other.words[w];
+                    cardinality += Long.bitCount(words[w]);
+                }
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    char value = other.values[i];
+                    if ((words[value >>> 6] & (1L << value)) != 0) {
+                        words[value >>> 6] &= ~(1L << value);
+                        cardinality--;
+                    }
+                }
+            }
+            if (cardinality <= ARRAY_MAX) {
+                toValues();
+            }
+        }
+
+        int andCardinality(Chunk other) {
+            if (words != null && other.words != null) {
+                int result = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    result += Long.bitCount(words[w] & other.words[w]);
+                }
+                return result;
+            }
+            Chunk array = words == null ? this : other;
+            Chunk tested = array == this ? other : this;
+            int result = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (tested.contains(array.values[i])) {
+                    result++;
+                }
+            }
+            return result;
+        }
+
+        void forEach(int high, IntConsumer consumer) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    consumer.accept(high | values[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    consumer.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private void toWords() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            char[] array = new char[Math.max(4, cardinality)];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            values = array;
+            words = null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.service.dto.CoverageByTypeDTO;
+import com.gobr.pragrisk.service.dto.CoverageGapDTO;
+import com.gobr.pragrisk.service.dto.MitigationSetCoverDTO;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service analysing mitigation coverage gaps on a {@link CoverageMatrix}, without loading vulnerabilities and their
+ * mitigations as entities.
+ * <p>
+ * The matrix is built from the {@link MitigationLinks} of the {@link ResidualRiskService} and the vulnerability ids,
+ * and rebuilt whenever those links are reloaded after a mitigation or vulnerability change. The vulnerabilities of an
+ * environment are those of the scenarios of its actors, as held by the {@link ScenarioRiskRegister}.
+ */
+@Service
+public class ControlGapService {
+
+    private final Logger log = LoggerFactory.getLogger(ControlGapService.class);
+
+    private final ScenarioRiskRegister register;
+
+    private final ResidualRiskService residualRiskService;
+
+    private final VulnerabilityRepository vulnerabilityRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile BuiltMatrix matrix;
+
+    public ControlGapService(
+        ScenarioRiskRegister register,
+        ResidualRiskService residualRiskService,
+        VulnerabilityRepository vulnerabilityRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.register = register;
+        this.residualRiskService = residualRiskService;
+        this.vulnerabilityRepository = vulnerabilityRepository;
+        // read-write, so that the cached state is loaded from the primary database rather than from a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Find the vulnerabilities without any mitigation at or above a status.
+     *
+     * @param minimumStatus the lowest mitigation status to count.
+     * @return the uncovered vulnerabilities.
+     */
+    public CoverageGapDTO findGaps(MitigationStatus minimumStatus) {
+        CoverageMatrix current = getMatrix();
+        CompressedBitmap uncovered = current.all();
+        uncovered.andNot(current.covered(minimumStatus));
+        CoverageGapDTO dto = new CoverageGapDTO();
+        dto.setMinimumStatus(minimumStatus);
+        dto.setVulnerabilities(current.vulnerabilityCount());
+        dto.setUncoveredVulnerabilityIds(toIds(current, uncovered));
+        return dto;
+    }
+
+    /**
+     * Get the share of vulnerabilities covered by the mitigations of each type.
+     *
+     * @param minimumStatus the lowest mitigation status to count, or {@code null} for every mitigation.
+     * @return the coverage of every mitigation type.
+     */
+    public List<CoverageByTypeDTO> findCoverageByType(MitigationStatus minimumStatus) {
+        CoverageMatrix current = getMatrix();
+        List<CoverageByTypeDTO> result = new ArrayList<>();
+        for (MitigationType type : MitigationType.values()) {
+            CoverageByTypeDTO dto = new CoverageByTypeDTO();
+            dto.setType(type);
+            dto.setMitigations(current.mitigationCount(type, minimumStatus));
+            dto.setCoveredVulnerabilities(current.covered(type, minimumStatus).cardinality());
+            dto.setVulnerabilities(current.vulnerabilityCount());
+            dto.setCoverage(dto.getVulnerabilities() == 0 ? 0 : (double) dto.getCoveredVulnerabilities() / dto.getVulnerabilities());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * Pick a small set of mitigations covering every coverable vulnerability of an environment, greedily: the result
+     * is at most ln(n) + 1 times larger than the smallest one.
+     *
+     * @param environmentId the id of the environment, or {@code null} to cover every vulnerability.
+     * @param minimumStatus the lowest status of the mitigations to pick, or {@code null} for every mitigation.
+     * @return the picked mitigations and the vulnerabilities left uncovered.
+     */
+    public MitigationSetCoverDTO findMinimalCover(Long environmentId, MitigationStatus minimumStatus) {
+        CoverageMatrix current = getMatrix();
+        CompressedBitmap target = environmentId == null ? current.all() : vulnerabilitiesOf(current, environmentId);
+        MitigationSetCoverDTO dto = new MitigationSetCoverDTO();
+        dto.setEnvironmentId(environmentId);
+        dto.setMinimumStatus(minimumStatus);
+        dto.setVulnerabilities(target.cardinality());
+        dto.setMitigationIds(current.greedyCover(target, minimumStatus));
+        dto.setUncoverableVulnerabilityIds(toIds(current, target));
+        return dto;
+    }
+
+    CoverageMatrix getMatrix() {
+        MitigationLinks links = residualRiskService.getMitigationLinks();
+        BuiltMatrix built = matrix;
+        if (built != null && built.links == links) {
+            return built.matrix;
+        }
+        long[] vulnerabilityIds = transactionTemplate.execute(
+            status -> vulnerabilityRepository.findAllIds().stream().mapToLong(Long::longValue).toArray()
+        );
+        built = new BuiltMatrix(links, CoverageMatrix.of(vulnerabilityIds, links));
+        log.debug("Built the coverage matrix of {} vulnerabilities and {} mitigation links", vulnerabilityIds.length, links.size());
+        matrix = built;
+        return built.matrix;
+    }
+
+    private CompressedBitmap vulnerabilitiesOf(CoverageMatrix current, long environmentId) {
+        CompressedBitmap vulnerabilities = new CompressedBitmap();
+        register.read(() -> {
+            for (ScenarioRiskSnapshot snapshot : register.snapshots()) {
+                if (snapshot.getEnvironmentId() == environmentId && snapshot.getVulnerabilityId() != ScenarioRiskSnapshot.NO_ID) {
+                    int position = current.positionOf(snapshot.getVulnerabilityId());
+                    if (position >= 0) {
+                        vulnerabilities.add(position);
+                    }
+                }
+            }
+            return null;
+        });
+        return vulnerabilities;
+    }
+
+    private static List<Long> toIds(CoverageMatrix current, CompressedBitmap positions) {
+        List<Long> ids = new ArrayList<>();
+        positions.forEach(position -> ids.add(current.vulnerabilityIdAt(position)));
+        return ids;
+    }
+
+    private static final class BuiltMatrix {
+
+        final MitigationLinks links;
+        final CoverageMatrix matrix;
+
+        BuiltMatrix(MitigationLinks links, CoverageMatrix matrix) {
+            this.links = links;
+            this.matrix = matrix;
+        }
+    }
+}
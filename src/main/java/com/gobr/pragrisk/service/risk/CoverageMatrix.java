@@ -0,0 +1,201 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An immutable vulnerability &times; mitigation coverage relation, as one {@link CompressedBitmap} of vulnerability
+ * positions per mitigation.
+ * <p>
+ * Vulnerabilities are numbered by their position in increasing id order, mitigations likewise; mitigations without
+ * any vulnerability are left out. The vulnerabilities covered by each mitigation status and type are precomputed.
+ * Mitigations without a status only count when no minimum status is asked for.
+ */
+final class CoverageMatrix {
+
+    private final long[] vulnerabilityIds;
+
+    private final long[] mitigationIds;
+
+    private final MitigationStatus[] statuses;
+
+    private final MitigationType[] types;
+
+    private final CompressedBitmap[] covers;
+
+    private final CompressedBitmap[] coveredByStatus;
+
+    private CoverageMatrix(
+        long[] vulnerabilityIds,
+        long[] mitigationIds,
+        MitigationStatus[] statuses,
+        MitigationType[] types,
+        CompressedBitmap[] covers
+    ) {
+        this.vulnerabilityIds = vulnerabilityIds;
+        this.mitigationIds = mitigationIds;
+        this.statuses = statuses;
+        this.types = types;
+        this.covers = covers;
+        this.coveredByStatus = new CompressedBitmap[MitigationStatus.values().length];
+        for (int status = 0; status < coveredByStatus.length; status++) {
+            coveredByStatus[status] = new CompressedBitmap();
+        }
+        for (int mitigation = 0; mitigation < mitigationIds.length; mitigation++) {
+            if (statuses[mitigation] != null) {
+                coveredByStatus[statuses[mitigation].ordinal()].or(covers[mitigation]);
+            }
+        }
+    }
+
+    /**
+     * @param vulnerabilityIds the ids of every vulnerability, in increasing order.
+     * @param links the mitigation links.
+     */
+    static CoverageMatrix of(long[] vulnerabilityIds, MitigationLinks links) {
+        long[] mitigationIds = new long[links.size()];
+        for (int link = 0; link < links.size(); link++) {
+            mitigationIds[link] = links.mitigationId(link);
+        }
+        mitigationIds = Arrays.stream(mitigationIds).sorted().distinct().toArray();
+        MitigationStatus[] statuses = new MitigationStatus[mitigationIds.length];
+        MitigationType[] types = new MitigationType[mitigationIds.length];
+        CompressedBitmap[] covers = new CompressedBitmap[mitigationIds.length];
+        for (int mitigation = 0; mitigation < mitigationIds.length; mitigation++) {
+            covers[mitigation] = new CompressedBitmap();
+        }
+        // links come by vulnerability id, so every cover is filled in increasing position order
+        for (int link = 0; link < links.size(); link++) {
+            int vulnerability = Arrays.binarySearch(vulnerabilityIds, links.vulnerabilityId(link));
+            if (vulnerability < 0) {
+                continue;
+            }
+            int mitigation = Arrays.binarySearch(mitigationIds, links.mitigationId(link));
+            statuses[mitigation] = links.status(link);
+            types[mitigation] = links.type(link);
+            covers[mitigation].add(vulnerability);
+        }
+        return new CoverageMatrix(vulnerabilityIds, mitigationIds, statuses, types, covers);
+    }
+
+    int vulnerabilityCount() {
+        return vulnerabilityIds.length;
+    }
+
+    /**
+     * @return the position of a vulnerability, or {@code -1} if it is unknown.
+     */
+    int positionOf(long vulnerabilityId) {
+        int position = Arrays.binarySearch(vulnerabilityIds, vulnerabilityId);
+        return position < 0 ? -1 : position;
+    }
+
+    long vulnerabilityIdAt(int position) {
+        return vulnerabilityIds[position];
+    }
+
+    /**
+     * @return every vulnerability.
+     */
+    CompressedBitmap all() {
+        CompressedBitmap all = new CompressedBitmap();
+        for (int position = 0; position < vulnerabilityIds.length; position++) {
+            all.add(position);
+        }
+        return all;
+    }
+
+    /**
+     * @param minimumStatus the lowest status of the mitigations to count, or {@code null} for every mitigation.
+     * @return the vulnerabilities covered by at least one mitigation at or above the status.
+     */
+    CompressedBitmap covered(MitigationStatus minimumStatus) {
+        CompressedBitmap covered = new CompressedBitmap();
+        if (minimumStatus == null) {
+            Arrays.stream(covers).forEach(covered::or);
+            return covered;
+        }
+        for (int status = minimumStatus.ordinal(); status < coveredByStatus.length; status++) {
+            covered.or(coveredByStatus[status]);
+        }
+        return covered;
+    }
+
+    /**
+     * @return the vulnerabilities covered by at least one mitigation of a type and at or above a status.
+     */
+    CompressedBitmap covered(MitigationType type, MitigationStatus minimumStatus) {
+        CompressedBitmap covered = new CompressedBitmap();
+        for (int mitigation = 0; mitigation < mitigationIds.length; mitigation++) {
+            if (types[mitigation] == type && counts(mitigation, minimumStatus)) {
+                covered.or(covers[mitigation]);
+            }
+        }
+        return covered;
+    }
+
+    /**
+     * @return the number of mitigations of a type and at or above a status covering at least one vulnerability.
+     */
+    int mitigationCount(MitigationType type, MitigationStatus minimumStatus) {
+        int count = 0;
+        for (int mitigation = 0; mitigation < mitigationIds.length; mitigation++) {
+            if (types[mitigation] == type && counts(mitigation, minimumStatus)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Greedily pick the mitigation covering the most vulnerabilities still uncovered, until none covers any more.
+     * Gains only shrink as vulnerabilities get covered, so stale gains are upper bounds and a mitigation is only
+     * re-evaluated when it reaches the head of the queue.
+     *
+     * @param target the vulnerabilities to cover; left with those no mitigation covers.
+     * @param minimumStatus the lowest status of the mitigations to pick, or {@code null} for every mitigation.
+     * @return the ids of the picked mitigations, in pick order; ties go to the lowest id.
+     */
+    List<Long> greedyCover(CompressedBitmap target, MitigationStatus minimumStatus) {
+        // entries are {gain, mitigation}
+        PriorityQueue<int[]> queue = new PriorityQueue<>(
+            (a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0]) : Integer.compare(a[1], b[1])
+        );
+        for (int mitigation = 0; mitigation < mitigationIds.length; mitigation++) {
+            if (counts(mitigation, minimumStatus)) {
+                int gain = covers[mitigation].andCardinality(target);
+                if (gain > 0) {
+                    queue.add(new int[] { gain, mitigation });
+                }
+            }
+        }
+        List<Long> picked = new ArrayList<>();
+        while (!queue.isEmpty() && !target.isEmpty()) {
+            int[] head = queue.poll();
+            int gain = covers[head[1]].andCardinality(target);
+            if (gain == 0) {
+                continue;
+            }
+            if (gain < head[0] && !queue.isEmpty() && isBefore(queue.peek(), gain, head[1])) {
+                head[0] = gain;
+                queue.add(head);
+                continue;
+            }
+            picked.add(mitigationIds[head[1]]);
+            target.andNot(covers[head[1]]);
+        }
+        return picked;
+    }
+
+    private boolean counts(int mitigation, MitigationStatus minimumStatus) {
+        return minimumStatus == null || (statuses[mitigation] != null && statuses[mitigation].compareTo(minimumStatus) >= 0);
+    }
+
+    private static boolean isBefore(int[] entry, int gain, int mitigation) {
+        return entry[0] > gain || (entry[0] == gain && entry[1] < mitigation);
+    }
+}
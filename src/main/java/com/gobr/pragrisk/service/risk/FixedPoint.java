@@ -0,0 +1,70 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on {@code long} values with two decimal places, matching the
+ * {@code decimal(21,2)} columns used by {@link com.gobr.pragrisk.domain.Scenario}.
+ * <p>
+ * {@link #NULL} stands for a missing value; callers are expected to check for it before doing arithmetic.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 2;
+
+    public static final long ONE = 100L;
+
+    public static final long NULL = Long.MIN_VALUE;
+
+    private FixedPoint() {}
+
+    public static long of(BigDecimal value) {
+        if (value == null) {
+            return NULL;
+        }
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @return whether a decimal rounds to a fixed-point value other than {@link #NULL}; {@code null} does.
+     */
+    public static boolean fits(BigDecimal value) {
+        if (value == null) {
+            return true;
+        }
+        BigInteger unscaled = value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue();
+        return unscaled.bitLength() < Long.SIZE && unscaled.longValue() != NULL;
+    }
+
+    public static BigDecimal toBigDecimal(long value) {
+        if (value == NULL) {
+            return null;
+        }
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    public static double toDouble(long value) {
+        return value / (double) ONE;
+    }
+
+    public static long ofDouble(double value) {
+        return Math.round(value * ONE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Multiply two fixed-point values, rounding half away from zero.
+     *
+     * @throws ArithmeticException if the result overflows a {@code long}.
+     */
+    public static long multiply(long a, long b) {
+        long product = Math.multiplyExact(a, b);
+        long half = product >= 0 ? ONE / 2 : -ONE / 2;
+        return Math.addExact(product, half) / ONE;
+    }
+}
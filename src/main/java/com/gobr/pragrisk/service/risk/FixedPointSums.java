@@ -0,0 +1,42 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-size array of exact sums of {@link FixedPoint} values.
+ * <p>
+ * Each sum is kept in a {@code long} and, like {@link RiskRollup}, spills into a {@link BigDecimal} when it overflows;
+ * the spills are only allocated on the first overflow.
+ */
+final class FixedPointSums {
+
+    private final long[] sums;
+
+    private BigDecimal[] spilled;
+
+    FixedPointSums(int size) {
+        sums = new long[size];
+    }
+
+    int size() {
+        return sums.length;
+    }
+
+    void add(int index, long value) {
+        try {
+            sums[index] = Math.addExact(sums[index], value);
+        } catch (ArithmeticException e) {
+            if (spilled == null) {
+                spilled = new BigDecimal[sums.length];
+            }
+            BigDecimal sum = BigDecimal.valueOf(sums[index], FixedPoint.SCALE);
+            spilled[index] = spilled[index] == null ? sum : spilled[index].add(sum);
+            sums[index] = value;
+        }
+    }
+
+    BigDecimal get(int index) {
+        BigDecimal sum = BigDecimal.valueOf(sums[index], FixedPoint.SCALE);
+        return spilled == null || spilled[index] == null ? sum : spilled[index].add(sum);
+    }
+}
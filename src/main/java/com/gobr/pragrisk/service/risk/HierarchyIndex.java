@@ -0,0 +1,183 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An immutable in-memory index of a self-referencing hierarchy, numbering its nodes in preorder so that every subtree
+ * is a contiguous range of positions.
+ * <p>
+ * Children are held in adjacency arrays (offsets into one array of child nodes) to walk the hierarchy once at build
+ * time. Nodes whose parent is unknown are roots; nodes left unreachable by parent cycles, which the REST layer
+ * rejects, become roots too, lowest id first.
+ */
+final class HierarchyIndex {
+
+    static final HierarchyIndex EMPTY = of(Map.of());
+
+    private final long[] ids;
+
+    private final int[] parents;
+
+    private final int[] enter;
+
+    private final int[] exit;
+
+    private final int[] preorder;
+
+    private HierarchyIndex(long[] ids, int[] parents, int[] enter, int[] exit, int[] preorder) {
+        this.ids = ids;
+        this.parents = parents;
+        this.enter = enter;
+        this.exit = exit;
+        this.preorder = preorder;
+    }
+
+    /**
+     * @param parentIds the parent id of every node, {@code null} for roots.
+     */
+    static HierarchyIndex of(Map<Long, Long> parentIds) {
+        int size = parentIds.size();
+        long[] ids = new long[size];
+        int node = 0;
+        for (long id : parentIds.keySet()) {
+            ids[node++] = id;
+        }
+        Arrays.sort(ids);
+        int[] parents = new int[size];
+        int[] childStart = new int[size + 1];
+        for (node = 0; node < size; node++) {
+            Long parentId = parentIds.get(ids[node]);
+            parents[node] = parentId == null ? -1 : Arrays.binarySearch(ids, parentId);
+            if (parents[node] < 0) {
+                parents[node] = -1;
+            } else {
+                childStart[parents[node] + 1]++;
+            }
+        }
+        for (node = 0; node < size; node++) {
+            childStart[node + 1] += childStart[node];
+        }
+        int[] children = new int[size];
+        int[] filled = Arrays.copyOf(childStart, size);
+        for (node = 0; node < size; node++) {
+            if (parents[node] >= 0) {
+                children[filled[parents[node]]++] = node;
+            }
+        }
+
+        int[] enter = new int[size];
+        int[] exit = new int[size];
+        int[] preorder = new int[size];
+        Arrays.fill(enter, -1);
+        int[] stack = new int[size];
+        int[] nextChild = new int[size];
+        int position = 0;
+        // roots first, then the lowest node of each remaining cycle
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < size; root++) {
+                if (enter[root] >= 0 || (pass == 0 && parents[root] >= 0)) {
+                    continue;
+                }
+                parents[root] = -1;
+                int depth = 0;
+                stack[0] = root;
+                nextChild[root] = childStart[root];
+                enter[root] = position;
+                preorder[position++] = root;
+                while (depth >= 0) {
+                    int current = stack[depth];
+                    if (nextChild[current] < childStart[current + 1]) {
+                        int child = children[nextChild[current]++];
+                        if (enter[child] < 0) {
+                            enter[child] = position;
+                            preorder[position++] = child;
+                            nextChild[child] = childStart[child];
+                            stack[++depth] = child;
+                        }
+                    } else {
+                        exit[current] = position;
+                        depth--;
+                    }
+                }
+            }
+        }
+        return new HierarchyIndex(ids, parents, enter, exit, preorder);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return the node of an id, or {@code -1} if it is not in the hierarchy.
+     */
+    int nodeOf(long id) {
+        int node = Arrays.binarySearch(ids, id);
+        return node < 0 ? -1 : node;
+    }
+
+    long idOf(int node) {
+        return ids[node];
+    }
+
+    /**
+     * @return the preorder position of a node; its descendants follow it up to {@link #subtreeEnd(int)}.
+     */
+    int position(int node) {
+        return enter[node];
+    }
+
+    /**
+     * @return the position following the last descendant of a node.
+     */
+    int subtreeEnd(int node) {
+        return exit[node];
+    }
+
+    /**
+     * @return whether {@code descendant} is {@code ancestor} or one of its descendants.
+     */
+    boolean contains(int ancestor, int descendant) {
+        return enter[ancestor] <= enter[descendant] && enter[descendant] < exit[ancestor];
+    }
+
+    /**
+     * @return the ids of the descendants of a node, in preorder.
+     */
+    long[] descendantIds(int node) {
+        long[] result = new long[exit[node] - enter[node] - 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids[preorder[enter[node] + 1 + i]];
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids of the ancestors of a node, root first.
+     */
+    long[] ancestorIds(int node) {
+        int depth = 0;
+        for (int ancestor = parents[node]; ancestor >= 0; ancestor = parents[ancestor]) {
+            depth++;
+        }
+        long[] result = new long[depth];
+        for (int ancestor = parents[node]; ancestor >= 0; ancestor = parents[ancestor]) {
+            result[--depth] = ids[ancestor];
+        }
+        return result;
+    }
+
+    /**
+     * Visit every closure row: {@code (ancestor id, descendant id, depth)}, each node being its own ancestor at depth 0.
+     */
+    void forEachClosureRow(Consumer<long[]> consumer) {
+        for (int node = 0; node < ids.length; node++) {
+            int depth = 0;
+            for (int ancestor = node; ancestor >= 0; ancestor = parents[ancestor]) {
+                consumer.accept(new long[] { ids[ancestor], ids[node], depth++ });
+            }
+        }
+    }
+}
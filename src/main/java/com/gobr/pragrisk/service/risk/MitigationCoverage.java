@@ -0,0 +1,67 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.Arrays;
+
+/**
+ * An immutable vulnerability &rarr; remaining risk fraction vector, as parallel arrays sorted by vulnerability id.
+ * <p>
+ * Vulnerabilities without mitigation are left out and keep their whole risk.
+ */
+final class MitigationCoverage {
+
+    static final MitigationCoverage NONE = new MitigationCoverage(new long[0], new int[0]);
+
+    private final long[] vulnerabilityIds;
+
+    private final int[] remaining;
+
+    private MitigationCoverage(long[] vulnerabilityIds, int[] remaining) {
+        this.vulnerabilityIds = vulnerabilityIds;
+        this.remaining = remaining;
+    }
+
+    /**
+     * @return the remaining risk fraction of a vulnerability, in basis points.
+     */
+    int remaining(long vulnerabilityId) {
+        int index = Arrays.binarySearch(vulnerabilityIds, vulnerabilityId);
+        return index >= 0 ? remaining[index] : ResidualRiskModel.FULL;
+    }
+
+    int size() {
+        return vulnerabilityIds.length;
+    }
+
+    /**
+     * Builds a coverage from mitigation links added in increasing vulnerability id order.
+     */
+    static final class Builder {
+
+        private long[] vulnerabilityIds = new long[64];
+
+        private int[] remaining = new int[64];
+
+        private int size;
+
+        void add(long vulnerabilityId, int effectiveness) {
+            if (size > 0 && vulnerabilityIds[size - 1] == vulnerabilityId) {
+                remaining[size - 1] = ResidualRiskModel.remainingAfter(remaining[size - 1], effectiveness);
+                return;
+            }
+            if (size > 0 && vulnerabilityIds[size - 1] > vulnerabilityId) {
+                throw new IllegalStateException("Mitigation links must be added by increasing vulnerability id");
+            }
+            if (size == vulnerabilityIds.length) {
+                vulnerabilityIds = Arrays.copyOf(vulnerabilityIds, size * 2);
+                remaining = Arrays.copyOf(remaining, size * 2);
+            }
+            vulnerabilityIds[size] = vulnerabilityId;
+            remaining[size] = ResidualRiskModel.remainingAfter(ResidualRiskModel.FULL, effectiveness);
+            size++;
+        }
+
+        MitigationCoverage build() {
+            return new MitigationCoverage(Arrays.copyOf(vulnerabilityIds, size), Arrays.copyOf(remaining, size));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.gobr.pragrisk.service.risk;
+
+/**
+ * Published when a mitigation, or the mitigations linked to a vulnerability, change.
+ */
+public final class MitigationCoverageChangedEvent {
+
+    private final String source;
+
+    public MitigationCoverageChangedEvent(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @return a description of the change, for logging.
+     */
+    public String getSource() {
+        return source;
+    }
+}
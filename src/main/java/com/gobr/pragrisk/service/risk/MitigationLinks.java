@@ -0,0 +1,119 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.VulnerabilityRepository.VulnerabilityMitigation;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of every vulnerability &harr; mitigation link, sorted by vulnerability id, together with the
+ * {@link MitigationCoverage} it yields under a {@link ResidualRiskModel}.
+ */
+final class MitigationLinks {
+
+    private final long[] vulnerabilityIds;
+
+    private final long[] mitigationIds;
+
+    private final MitigationStatus[] statuses;
+
+    private final MitigationType[] types;
+
+    private final Map<Long, int[]> linksByMitigation;
+
+    private final MitigationCoverage coverage;
+
+    private MitigationLinks(
+        long[] vulnerabilityIds,
+        long[] mitigationIds,
+        MitigationStatus[] statuses,
+        MitigationType[] types,
+        Map<Long, int[]> linksByMitigation,
+        MitigationCoverage coverage
+    ) {
+        this.vulnerabilityIds = vulnerabilityIds;
+        this.mitigationIds = mitigationIds;
+        this.statuses = statuses;
+        this.types = types;
+        this.linksByMitigation = linksByMitigation;
+        this.coverage = coverage;
+    }
+
+    /**
+     * @param rows the links, ordered by vulnerability id.
+     * @param model the model to compute the coverage with.
+     */
+    static MitigationLinks of(List<VulnerabilityMitigation> rows, ResidualRiskModel model) {
+        int size = rows.size();
+        long[] vulnerabilityIds = new long[size];
+        long[] mitigationIds = new long[size];
+        MitigationStatus[] statuses = new MitigationStatus[size];
+        MitigationType[] types = new MitigationType[size];
+        Map<Long, int[]> linksByMitigation = new HashMap<>();
+        MitigationCoverage.Builder coverage = new MitigationCoverage.Builder();
+        for (int link = 0; link < size; link++) {
+            VulnerabilityMitigation row = rows.get(link);
+            vulnerabilityIds[link] = row.getVulnerabilityId();
+            mitigationIds[link] = row.getMitigationId();
+            statuses[link] = row.getStatus();
+            types[link] = row.getType();
+            linksByMitigation.merge(row.getMitigationId(), new int[] { link }, MitigationLinks::concat);
+            coverage.add(row.getVulnerabilityId(), model.effectiveness(row.getStatus(), row.getType()));
+        }
+        return new MitigationLinks(vulnerabilityIds, mitigationIds, statuses, types, linksByMitigation, coverage.build());
+    }
+
+    MitigationCoverage coverage() {
+        return coverage;
+    }
+
+    int size() {
+        return vulnerabilityIds.length;
+    }
+
+    /**
+     * @return the positions of the links of a mitigation, empty if it covers no vulnerability.
+     */
+    int[] linksOf(long mitigationId) {
+        return linksByMitigation.getOrDefault(mitigationId, new int[0]);
+    }
+
+    long vulnerabilityId(int link) {
+        return vulnerabilityIds[link];
+    }
+
+    long mitigationId(int link) {
+        return mitigationIds[link];
+    }
+
+    MitigationStatus status(int link) {
+        return statuses[link];
+    }
+
+    MitigationType type(int link) {
+        return types[link];
+    }
+
+    /**
+     * @return the position of the first link of a vulnerability; its links follow while the vulnerability id matches.
+     */
+    int firstLink(long vulnerabilityId) {
+        int index = Arrays.binarySearch(vulnerabilityIds, vulnerabilityId);
+        if (index < 0) {
+            return -1;
+        }
+        while (index > 0 && vulnerabilityIds[index - 1] == vulnerabilityId) {
+            index--;
+        }
+        return index;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
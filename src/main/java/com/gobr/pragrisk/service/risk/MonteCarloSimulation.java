@@ -0,0 +1,235 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A Monte Carlo loss simulation over a fixed set of scenarios.
+ * <p>
+ * In each iteration every scenario occurs with its own probability and, when it does, draws a log-normal loss
+ * whose median is its qonsequence. Losses are summed for the whole register, kept exactly per iteration, and per
+ * group of each grouping dimension (actor, technology...), recorded in log-scaled histograms so that memory does
+ * not grow with the number of iterations.
+ * <p>
+ * Iterations are grouped in fixed-size blocks, each drawing from its own {@link SplittableRandom} split off the root
+ * generator, and blocks are spread across a {@link ForkJoinPool}: results are reproducible for a given seed whatever
+ * the parallelism.
+ */
+final class MonteCarloSimulation {
+
+    static final int BLOCK_SIZE = 64;
+
+    static final int BINS_PER_DECADE = 20;
+
+    static final int MIN_EXPONENT = -2;
+
+    static final int MAX_EXPONENT = 15;
+
+    /**
+     * Bin 0 holds zero losses, the last bin holds losses above {@code 10^MAX_EXPONENT}.
+     */
+    static final int BINS = 2 + (MAX_EXPONENT - MIN_EXPONENT) * BINS_PER_DECADE;
+
+    private final double[] occurrence;
+
+    private final double[] logMedian;
+
+    private final double sigma;
+
+    private final int[][] groupOf;
+
+    private final int[] groupCounts;
+
+    /**
+     * @param occurrence the occurrence probability of each scenario, in {@code [0, 1]}.
+     * @param logMedian the natural logarithm of the median loss of each scenario.
+     * @param sigma the log-normal shape parameter shared by all scenarios.
+     * @param groupOf for each dimension, the group index of each scenario or {@code -1}.
+     * @param groupCounts for each dimension, the number of groups.
+     */
+    MonteCarloSimulation(double[] occurrence, double[] logMedian, double sigma, int[][] groupOf, int[] groupCounts) {
+        this.occurrence = occurrence;
+        this.logMedian = logMedian;
+        this.sigma = sigma;
+        this.groupOf = groupOf;
+        this.groupCounts = groupCounts;
+    }
+
+    Result run(int iterations, long seed, ForkJoinPool pool) {
+        double[] registerLosses = new double[iterations];
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[(iterations + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        for (int block = 0; block < randoms.length; block++) {
+            randoms[block] = root.split();
+        }
+        int grain = Math.max(1, randoms.length / (pool.getParallelism() * 4));
+        Accumulator accumulator = pool.invoke(new BlockTask(0, randoms.length, grain, randoms, registerLosses));
+        return new Result(iterations, registerLosses, accumulator);
+    }
+
+    static int bin(double loss) {
+        if (loss <= 0) {
+            return 0;
+        }
+        int bin = (int) Math.floor((Math.log10(loss) - MIN_EXPONENT) * BINS_PER_DECADE) + 1;
+        return Math.max(1, Math.min(BINS - 1, bin));
+    }
+
+    static double binLowerBound(int bin) {
+        if (bin == 0) {
+            return 0;
+        }
+        return Math.pow(10, MIN_EXPONENT + (bin - 1) / (double) BINS_PER_DECADE);
+    }
+
+    static double binUpperBound(int bin) {
+        if (bin == 0) {
+            return 0;
+        }
+        if (bin == BINS - 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.pow(10, MIN_EXPONENT + bin / (double) BINS_PER_DECADE);
+    }
+
+    private final class BlockTask extends RecursiveTask<Accumulator> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int fromBlock;
+        private final int toBlock;
+        private final int grain;
+        private final SplittableRandom[] randoms;
+        private final double[] registerLosses;
+
+        BlockTask(int fromBlock, int toBlock, int grain, SplittableRandom[] randoms, double[] registerLosses) {
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.grain = grain;
+            this.randoms = randoms;
+            this.registerLosses = registerLosses;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (toBlock - fromBlock <= grain) {
+                return simulate();
+            }
+            int middle = (fromBlock + toBlock) >>> 1;
+            BlockTask left = new BlockTask(fromBlock, middle, grain, randoms, registerLosses);
+            left.fork();
+            Accumulator right = new BlockTask(middle, toBlock, grain, randoms, registerLosses).compute();
+            return right.merge(left.join());
+        }
+
+        private Accumulator simulate() {
+            int dimensions = groupCounts.length;
+            Accumulator accumulator = new Accumulator(groupCounts);
+            double[][] losses = new double[dimensions][];
+            int[][] touched = new int[dimensions][];
+            int[] touchedCount = new int[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                losses[d] = new double[groupCounts[d]];
+                touched[d] = new int[groupCounts[d]];
+            }
+            int to = Math.min(registerLosses.length, toBlock * BLOCK_SIZE);
+            for (int iteration = fromBlock * BLOCK_SIZE; iteration < to; iteration++) {
+                SplittableRandom random = randoms[iteration / BLOCK_SIZE];
+                double total = 0;
+                for (int s = 0; s < occurrence.length; s++) {
+                    if (random.nextDouble() >= occurrence[s]) {
+                        continue;
+                    }
+                    double loss = Math.exp(logMedian[s] + sigma * random.nextGaussian());
+                    total += loss;
+                    for (int d = 0; d < dimensions; d++) {
+                        int group = groupOf[d][s];
+                        if (group >= 0) {
+                            if (losses[d][group] == 0) {
+                                touched[d][touchedCount[d]++] = group;
+                            }
+                            losses[d][group] += loss;
+                        }
+                    }
+                }
+                registerLosses[iteration] = total;
+                for (int d = 0; d < dimensions; d++) {
+                    for (int k = 0; k < touchedCount[d]; k++) {
+                        int group = touched[d][k];
+                        accumulator.record(d, group, losses[d][group]);
+                        losses[d][group] = 0;
+                    }
+                    touchedCount[d] = 0;
+                }
+            }
+            return accumulator;
+        }
+    }
+
+    /**
+     * Per-group loss histograms and sums, one array pair per dimension. Zero-loss iterations are not recorded.
+     */
+    static final class Accumulator {
+
+        final int[][] histograms;
+        final double[][] sums;
+
+        Accumulator(int[] groupCounts) {
+            histograms = new int[groupCounts.length][];
+            sums = new double[groupCounts.length][];
+            for (int d = 0; d < groupCounts.length; d++) {
+                histograms[d] = new int[groupCounts[d] * BINS];
+                sums[d] = new double[groupCounts[d]];
+            }
+        }
+
+        void record(int dimension, int group, double loss) {
+            histograms[dimension][group * BINS + bin(loss)]++;
+            sums[dimension][group] += loss;
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int d = 0; d < histograms.length; d++) {
+                for (int i = 0; i < histograms[d].length; i++) {
+                    histograms[d][i] += other.histograms[d][i];
+                }
+                for (int i = 0; i < sums[d].length; i++) {
+                    sums[d][i] += other.sums[d][i];
+                }
+            }
+            return this;
+        }
+    }
+
+    static final class Result {
+
+        final int iterations;
+        final double[] registerLosses;
+        final Accumulator accumulator;
+
+        Result(int iterations, double[] registerLosses, Accumulator accumulator) {
+            this.iterations = iterations;
+            this.registerLosses = registerLosses;
+            this.accumulator = accumulator;
+        }
+
+        /**
+         * @return the loss histogram of a group, with the zero-loss bin filled in.
+         */
+        int[] histogram(int dimension, int group) {
+            int[] histogram = new int[BINS];
+            System.arraycopy(accumulator.histograms[dimension], group * BINS, histogram, 0, BINS);
+            int recorded = 0;
+            for (int count : histogram) {
+                recorded += count;
+            }
+            histogram[0] = iterations - recorded;
+            return histogram;
+        }
+
+        double mean(int dimension, int group) {
+            return accumulator.sums[dimension][group] / iterations;
+        }
+    }
+}
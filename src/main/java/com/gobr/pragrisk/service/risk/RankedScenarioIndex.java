@@ -0,0 +1,214 @@
+package com.gobr.pragrisk.service.risk;
+
+/**
+ * An order-statistic treap of scenarios, ranked by decreasing risk value then increasing id.
+ * <p>
+ * Insertion, removal, rank and select are O(log n) expected; listing the top {@code k} is O(log n + k). Ranks are
+ * 1-based, rank 1 being the riskiest scenario. Not thread-safe.
+ */
+final class RankedScenarioIndex {
+
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    void insert(long id, long riskValue) {
+        root = insert(root, new Node(id, riskValue));
+    }
+
+    /**
+     * @return whether the scenario was in the index.
+     */
+    boolean remove(long id, long riskValue) {
+        int before = size(root);
+        root = remove(root, id, riskValue);
+        return size(root) < before;
+    }
+
+    /**
+     * @return the rank of the scenario, or {@code 0} if it is not in the index.
+     */
+    int rankOf(long id, long riskValue) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int comparison = compare(id, riskValue, node);
+            if (comparison < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                if (comparison == 0) {
+                    return rank;
+                }
+                node = node.right;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param rank a rank between 1 and {@link #size()}.
+     * @return the risk value of the scenario at this rank.
+     */
+    long riskValueAt(int rank) {
+        return select(rank).riskValue;
+    }
+
+    /**
+     * @param rank a rank between 1 and {@link #size()}.
+     * @return the id of the scenario at this rank.
+     */
+    long idAt(int rank) {
+        return select(rank).id;
+    }
+
+    /**
+     * Visit the {@code limit} riskiest scenarios, in rank order.
+     */
+    void forEachTop(int limit, Visitor visitor) {
+        forEachTop(root, new int[] { limit }, visitor);
+    }
+
+    private static void forEachTop(Node node, int[] remaining, Visitor visitor) {
+        if (node == null || remaining[0] <= 0) {
+            return;
+        }
+        forEachTop(node.left, remaining, visitor);
+        if (remaining[0] > 0) {
+            visitor.visit(node.id, node.riskValue);
+            remaining[0]--;
+            forEachTop(node.right, remaining, visitor);
+        }
+    }
+
+    private Node select(int rank) {
+        if (rank < 1 || rank > size()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of 1.." + size());
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank <= leftSize) {
+                node = node.left;
+            } else if (rank == leftSize + 1) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.id, inserted.riskValue, node) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return node.update();
+    }
+
+    private static Node remove(Node node, long id, long riskValue) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(id, riskValue, node);
+        if (comparison < 0) {
+            node.left = remove(node.left, id, riskValue);
+        } else if (comparison > 0) {
+            node.right = remove(node.right, id, riskValue);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return node.update();
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node.update();
+        return right;
+    }
+
+    private static int compare(long id, long riskValue, Node node) {
+        int comparison = Long.compare(node.riskValue, riskValue);
+        return comparison != 0 ? comparison : Long.compare(id, node.id);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long id, long riskValue);
+    }
+
+    private static final class Node {
+
+        final long id;
+        final long riskValue;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long id, long riskValue) {
+            this.id = id;
+            this.riskValue = riskValue;
+            this.priority = mix(id);
+        }
+
+        Node update() {
+            size = 1 + RankedScenarioIndex.size(left) + RankedScenarioIndex.size(right);
+            return this;
+        }
+
+        /**
+         * A well-spread priority derived from the id, so that the tree shape does not depend on insertion order.
+         */
+        private static int mix(long id) {
+            long z = id * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return (int) (z ^ (z >>> 31));
+        }
+    }
+}
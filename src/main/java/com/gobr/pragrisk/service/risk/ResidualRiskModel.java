@@ -0,0 +1,89 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * An immutable model of mitigation effectiveness, with factors held in basis points.
+ * <p>
+ * A mitigation removes {@code status effectiveness * type effectiveness} of the risk it covers, and the mitigations
+ * of a vulnerability act independently: the remaining risk fraction is the product of their remaining fractions.
+ */
+public final class ResidualRiskModel {
+
+    /**
+     * One, in basis points.
+     */
+    static final int FULL = 10_000;
+
+    private final int[] statusEffectiveness = new int[MitigationStatus.values().length];
+
+    private final int[] typeEffectiveness = new int[MitigationType.values().length];
+
+    /**
+     * @param statusEffectiveness the effectiveness of each status, between 0 and 1; missing statuses are ineffective.
+     * @param typeEffectiveness the effectiveness of each type, between 0 and 1; missing types are ineffective.
+     */
+    public ResidualRiskModel(Map<MitigationStatus, BigDecimal> statusEffectiveness, Map<MitigationType, BigDecimal> typeEffectiveness) {
+        statusEffectiveness.forEach((status, value) -> this.statusEffectiveness[status.ordinal()] = toBasisPoints(value));
+        typeEffectiveness.forEach((type, value) -> this.typeEffectiveness[type.ordinal()] = toBasisPoints(value));
+    }
+
+    /**
+     * @return the share of risk removed by a mitigation, in basis points.
+     */
+    int effectiveness(MitigationStatus status, MitigationType type) {
+        if (status == null || type == null) {
+            return 0;
+        }
+        return (int) divideRounded((long) statusEffectiveness[status.ordinal()] * typeEffectiveness[type.ordinal()], FULL);
+    }
+
+    public BigDecimal getStatusEffectiveness(MitigationStatus status) {
+        return BigDecimal.valueOf(statusEffectiveness[status.ordinal()], 4);
+    }
+
+    public BigDecimal getTypeEffectiveness(MitigationType type) {
+        return BigDecimal.valueOf(typeEffectiveness[type.ordinal()], 4);
+    }
+
+    /**
+     * @param remaining the remaining risk fraction before the mitigation, in basis points.
+     * @param effectiveness the effectiveness of the mitigation, in basis points.
+     * @return the remaining risk fraction after the mitigation, in basis points.
+     */
+    static int remainingAfter(int remaining, int effectiveness) {
+        return (int) divideRounded((long) remaining * (FULL - effectiveness), FULL);
+    }
+
+    /**
+     * @param riskValue a {@link FixedPoint} risk value.
+     * @param remaining the remaining risk fraction, in basis points.
+     * @return the residual {@link FixedPoint} risk value, or {@link FixedPoint#NULL} if the risk value is missing.
+     * @throws ArithmeticException if the intermediate product overflows a {@code long}.
+     */
+    static long residual(long riskValue, int remaining) {
+        if (riskValue == FixedPoint.NULL || remaining == FULL) {
+            return riskValue;
+        }
+        return divideRounded(Math.multiplyExact(riskValue, (long) remaining), FULL);
+    }
+
+    /**
+     * Divide, rounding half away from zero.
+     */
+    private static long divideRounded(long dividend, long divisor) {
+        long half = divisor / 2;
+        return dividend >= 0 ? (dividend + half) / divisor : -((-dividend + half) / divisor);
+    }
+
+    private static int toBasisPoints(BigDecimal value) {
+        if (value == null || value.signum() < 0 || value.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException("Mitigation effectiveness must be between 0 and 1, got " + value);
+        }
+        return value.movePointRight(4).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+}
@@ -0,0 +1,170 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.service.dto.ResidualRiskDTO;
+import com.gobr.pragrisk.service.dto.ResidualRiskSummaryDTO;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service computing the residual risk of scenarios: their risk value discounted by the mitigations of their
+ * vulnerability, as weighted by the {@link ResidualRiskModel}.
+ * <p>
+ * The mitigation links and the remaining risk fraction of every mitigated vulnerability are precomputed in
+ * {@link MitigationLinks}, dropped whenever a {@link MitigationCoverageChangedEvent} is committed and reloaded on next
+ * use, so that residual risk is computed for the whole {@link ScenarioRiskRegister} in one pass without touching the
+ * database.
+ */
+@Service
+public class ResidualRiskService {
+
+    private final Logger log = LoggerFactory.getLogger(ResidualRiskService.class);
+
+    private final ScenarioRiskRegister register;
+
+    private final VulnerabilityRepository vulnerabilityRepository;
+
+    private final ResidualRiskModel model;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile MitigationLinks links;
+
+    private long generation;
+
+    public ResidualRiskService(
+        ScenarioRiskRegister register,
+        VulnerabilityRepository vulnerabilityRepository,
+        ResidualRiskModel model,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.register = register;
+        this.vulnerabilityRepository = vulnerabilityRepository;
+        this.model = model;
+        // read-write, so that the cached state is loaded from the primary database rather than from a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMitigationCoverageChanged(MitigationCoverageChangedEvent event) {
+        log.debug("Mitigation coverage invalidated by {}", event.getSource());
+        generation++;
+        links = null;
+    }
+
+    /**
+     * Compute the residual risk of every scenario.
+     *
+     * @return the inherent and residual risk totals.
+     */
+    public ResidualRiskSummaryDTO computeAll() {
+        long start = System.currentTimeMillis();
+        MitigationCoverage current = getCoverage();
+        ResidualRiskSummaryDTO summary = register.read(() -> {
+            long scenarios = 0;
+            long mitigated = 0;
+            BigDecimal inherentTotal = BigDecimal.ZERO;
+            BigDecimal residualTotal = BigDecimal.ZERO;
+            long inherentSum = 0;
+            long residualSum = 0;
+            for (ScenarioRiskSnapshot snapshot : register.snapshots()) {
+                if (snapshot.getRiskValue() == FixedPoint.NULL) {
+                    continue;
+                }
+                scenarios++;
+                int remaining = current.remaining(snapshot.getVulnerabilityId());
+                if (remaining < ResidualRiskModel.FULL) {
+                    mitigated++;
+                }
+                long residual = residual(snapshot.getRiskValue(), remaining);
+                try {
+                    long nextInherentSum = Math.addExact(inherentSum, snapshot.getRiskValue());
+                    residualSum = Math.addExact(residualSum, residual);
+                    inherentSum = nextInherentSum;
+                } catch (ArithmeticException e) {
+                    // spill the partial sums and start over from this scenario
+                    inherentTotal = inherentTotal.add(FixedPoint.toBigDecimal(inherentSum));
+                    residualTotal = residualTotal.add(FixedPoint.toBigDecimal(residualSum));
+                    inherentSum = snapshot.getRiskValue();
+                    residualSum = residual;
+                }
+            }
+            ResidualRiskSummaryDTO dto = new ResidualRiskSummaryDTO();
+            dto.setScenarios(scenarios);
+            dto.setMitigatedScenarios(mitigated);
+            dto.setInherentRisk(inherentTotal.add(FixedPoint.toBigDecimal(inherentSum)));
+            dto.setResidualRisk(residualTotal.add(FixedPoint.toBigDecimal(residualSum)));
+            return dto;
+        });
+        summary.setMitigatedVulnerabilities(current.size());
+        summary.setDurationMillis(System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    /**
+     * Compute the residual risk of one scenario.
+     *
+     * @param scenarioId the id of the scenario.
+     * @return the residual risk, empty if the scenario is unknown.
+     */
+    public Optional<ResidualRiskDTO> findOne(long scenarioId) {
+        MitigationCoverage current = getCoverage();
+        ScenarioRiskSnapshot snapshot = register.get(scenarioId);
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        int remaining = current.remaining(snapshot.getVulnerabilityId());
+        ResidualRiskDTO dto = new ResidualRiskDTO();
+        dto.setScenarioId(scenarioId);
+        dto.setVulnerabilityId(snapshot.getVulnerabilityId() == ScenarioRiskSnapshot.NO_ID ? null : snapshot.getVulnerabilityId());
+        dto.setInherentRisk(FixedPoint.toBigDecimal(snapshot.getRiskValue()));
+        dto.setMitigationEffectiveness(BigDecimal.valueOf(ResidualRiskModel.FULL - remaining, 4));
+        dto.setResidualRisk(FixedPoint.toBigDecimal(residual(snapshot.getRiskValue(), remaining)));
+        return Optional.of(dto);
+    }
+
+    MitigationCoverage getCoverage() {
+        return getMitigationLinks().coverage();
+    }
+
+    MitigationLinks getMitigationLinks() {
+        MitigationLinks current = links;
+        if (current != null) {
+            return current;
+        }
+        long loadedGeneration;
+        synchronized (this) {
+            loadedGeneration = generation;
+        }
+        MitigationLinks loaded = transactionTemplate.execute(status -> loadMitigationLinks());
+        synchronized (this) {
+            if (generation == loadedGeneration) {
+                links = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private MitigationLinks loadMitigationLinks() {
+        MitigationLinks loaded = MitigationLinks.of(vulnerabilityRepository.findAllMitigationLinks(), model);
+        log.debug("Loaded {} mitigation links covering {} vulnerabilities", loaded.size(), loaded.coverage().size());
+        return loaded;
+    }
+
+    /**
+     * @return the residual {@link FixedPoint} risk value, computed with {@link BigDecimal} on overflow.
+     */
+    static long residual(long riskValue, int remaining) {
+        try {
+            return ResidualRiskModel.residual(riskValue, remaining);
+        } catch (ArithmeticException e) {
+            return FixedPoint.of(FixedPoint.toBigDecimal(riskValue).multiply(BigDecimal.valueOf(remaining, 4)));
+        }
+    }
+}
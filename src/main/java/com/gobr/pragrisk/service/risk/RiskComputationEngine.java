@@ -0,0 +1,204 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.service.dto.RiskRecomputeSummaryDTO;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchIndexer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service deriving {@link Scenario#getRiskValue()} from the scenario probability and qonsequence.
+ * <p>
+ * All arithmetic runs on {@link FixedPoint} {@code long} values, so a bulk recompute does not allocate
+ * per row apart from the values it actually writes back. Scenarios whose values do not fit that range, which the
+ * {@link ScenarioRiskRegister} keeps them in, are not given a risk value.
+ */
+@Service
+public class RiskComputationEngine {
+
+    private final Logger log = LoggerFactory.getLogger(RiskComputationEngine.class);
+
+    private final ScenarioRepository scenarioRepository;
+
+    private final SearchIndexer searchIndexer;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ScenarioRiskRegister scenarioRiskRegister;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private volatile RiskModel model;
+
+    public RiskComputationEngine(
+        RiskModel riskModel,
+        ScenarioRepository scenarioRepository,
+        SearchIndexer searchIndexer,
+        EntityManagerFactory entityManagerFactory,
+        ScenarioRiskRegister scenarioRiskRegister,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.model = riskModel;
+        this.scenarioRepository = scenarioRepository;
+        this.searchIndexer = searchIndexer;
+        this.entityManagerFactory = entityManagerFactory;
+        this.scenarioRiskRegister = scenarioRiskRegister;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getRisk().getRecomputeBatchSize();
+    }
+
+    public RiskModel getModel() {
+        return model;
+    }
+
+    /**
+     * Replace the weighting model used for subsequent computations.
+     * <p>
+     * Stored risk values are left untouched, call {@link #recomputeAll()} to bring them in line.
+     *
+     * @param model the new model.
+     */
+    public void setModel(RiskModel model) {
+        log.info("Risk weighting model changed to {}", model);
+        this.model = model;
+    }
+
+    /**
+     * Compute the risk value for the given inputs with the current model.
+     *
+     * @param probability the probability.
+     * @param qonsequence the qonsequence.
+     * @return the risk value, or {@code null} if an input is missing.
+     */
+    public BigDecimal computeRiskValue(BigDecimal probability, BigDecimal qonsequence) {
+        RiskModel current = this.model;
+        try {
+            return FixedPoint.toBigDecimal(current.compute(FixedPoint.of(probability), FixedPoint.of(qonsequence)));
+        } catch (ArithmeticException e) {
+            return current.compute(probability, qonsequence);
+        }
+    }
+
+    /**
+     * Set the risk value of a scenario from its probability and qonsequence.
+     *
+     * @param scenario the scenario to update.
+     * @return the same scenario.
+     * @throws RiskValueOutOfRangeException if the probability, the qonsequence or the risk value does not fit the
+     * {@link FixedPoint} range, leaving the scenario unchanged.
+     */
+    public Scenario applyRiskValue(Scenario scenario) {
+        requireFixedPoint("probability", scenario.getProbability());
+        requireFixedPoint("qonsequence", scenario.getQonsequence());
+        BigDecimal riskValue = computeRiskValue(scenario.getProbability(), scenario.getQonsequence());
+        requireFixedPoint("riskValue", riskValue);
+        scenario.setRiskValue(riskValue);
+        return scenario;
+    }
+
+    private static void requireFixedPoint(String field, BigDecimal value) {
+        if (!FixedPoint.fits(value)) {
+            throw new RiskValueOutOfRangeException(field);
+        }
+    }
+
+    /**
+     * Recompute the risk value of every scenario with the current model.
+     * <p>
+     * Scenarios are read in id-ordered batches of {@code application.risk.recompute-batch-size} rows, each batch
+     * in its own transaction; only rows whose value changed are written back and reindexed. The
+     * {@link ScenarioRiskRegister} is rebuilt afterwards.
+     *
+     * @return the recompute summary.
+     */
+    public RiskRecomputeSummaryDTO recomputeAll() {
+        RiskModel current = this.model;
+        log.info("Recomputing all scenario risk values with {}", current);
+        long start = System.currentTimeMillis();
+        Batch batch = new Batch(batchSize);
+        long scanned = 0;
+        long updated = 0;
+        long failed = 0;
+        do {
+            batch.reset();
+            transactionTemplate.executeWithoutResult(status -> recomputeBatch(current, batch));
+            scanned += batch.read;
+            updated += batch.changed;
+            failed += batch.failed;
+        } while (batch.read == batchSize);
+        if (updated > 0) {
+            scenarioRiskRegister.rebuild();
+        }
+        long duration = System.currentTimeMillis() - start;
+        log.info("Recomputed {} scenario risk values ({} updated, {} failed) in {} ms", scanned, updated, failed, duration);
+        return new RiskRecomputeSummaryDTO(scanned, updated, failed, duration);
+    }
+
+    private void recomputeBatch(RiskModel current, Batch batch) {
+        batch.read =
+            scenarioRepository.fetchRiskInputs(
+                batch.afterId,
+                batchSize,
+                (id, probability, qonsequence, riskValue) -> {
+                    batch.afterId = id;
+                    long computed;
+                    try {
+                        computed = current.compute(probability, qonsequence);
+                    } catch (ArithmeticException e) {
+                        log.warn("Risk value of Scenario {} overflows the fixed-point range, left unchanged", id);
+                        batch.failed++;
+                        return;
+                    }
+                    if (computed != riskValue) {
+                        batch.ids[batch.changed] = id;
+                        batch.values[batch.changed] = computed;
+                        batch.changed++;
+                    }
+                }
+            );
+        if (batch.changed == 0) {
+            return;
+        }
+        scenarioRepository.batchUpdateRiskValues(batch.ids, batch.values, batch.changed);
+        List<Long> changedIds = new ArrayList<>(batch.changed);
+        for (int i = 0; i < batch.changed; i++) {
+            changedIds.add(batch.ids[i]);
+        }
+        entityManagerFactory.getCache().evict(Scenario.class);
+        searchIndexer.enqueueAll(SearchDocumentType.SCENARIO, changedIds);
+    }
+
+    private static final class Batch {
+
+        final long[] ids;
+        final long[] values;
+        long afterId = Long.MIN_VALUE;
+        int read;
+        int changed;
+        int failed;
+
+        Batch(int size) {
+            this.ids = new long[size];
+            this.values = new long[size];
+        }
+
+        void reset() {
+            read = 0;
+            changed = 0;
+            failed = 0;
+        }
+    }
+}
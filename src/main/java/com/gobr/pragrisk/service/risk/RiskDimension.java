@@ -0,0 +1,42 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * The entities scenario risk is rolled up by.
+ */
+public enum RiskDimension {
+    ACTOR("actors", ScenarioRiskSnapshot::getActorId),
+    TECHNOLOGY("technologies", ScenarioRiskSnapshot::getTechnologyId),
+    VULNERABILITY("vulnerabilities", ScenarioRiskSnapshot::getVulnerabilityId),
+    ENVIRONMENT("environments", ScenarioRiskSnapshot::getEnvironmentId);
+
+    private final String path;
+
+    private final ToLongFunction<ScenarioRiskSnapshot> key;
+
+    RiskDimension(String path, ToLongFunction<ScenarioRiskSnapshot> key) {
+        this.path = path;
+        this.key = key;
+    }
+
+    /**
+     * @return the name of this dimension in REST paths.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the id the scenario is rolled up under, or {@link ScenarioRiskSnapshot#NO_ID}.
+     */
+    public long keyOf(ScenarioRiskSnapshot snapshot) {
+        return key.applyAsLong(snapshot);
+    }
+
+    public static Optional<RiskDimension> fromPath(String path) {
+        return Arrays.stream(values()).filter(dimension -> dimension.path.equals(path)).findFirst();
+    }
+}
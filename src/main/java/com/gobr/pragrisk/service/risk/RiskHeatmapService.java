@@ -0,0 +1,191 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.service.dto.RiskHeatmapDTO;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service maintaining probability &times; qonsequence heat-maps of the scenario register, updated with each scenario
+ * delta of the {@link ScenarioRiskRegister}.
+ * <p>
+ * A scenario falls in probability bin {@code i} when {@code i} probability thresholds are lower than or equal to its
+ * probability, and likewise for qonsequence: {@code n} thresholds give {@code n + 1} bins. Cell counts and risk sums
+ * are kept for every combination of environment and tech stack filter, so that reads only copy one matrix, and risk
+ * sums are exact, see {@link FixedPointSums}. Scenarios without a probability or a qonsequence are left out.
+ */
+@Service
+public class RiskHeatmapService implements ScenarioRiskListener {
+
+    private final ScenarioRiskRegister register;
+
+    private final long[] probabilityThresholds;
+
+    private final long[] consequenceThresholds;
+
+    private final Map<Filter, Cells> heatmaps = new HashMap<>();
+
+    public RiskHeatmapService(
+        ScenarioRiskRegister register,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Risk.Heatmap properties = applicationProperties.getRisk().getHeatmap();
+        this.register = register;
+        this.probabilityThresholds = toSortedFixedPoint(properties.getProbabilityThresholds());
+        this.consequenceThresholds = toSortedFixedPoint(properties.getConsequenceThresholds());
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        register.addListener(this);
+    }
+
+    @Override
+    public void scenarioRiskChanged(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current) {
+        if (previous != null) {
+            update(previous, -1);
+        }
+        if (current != null) {
+            update(current, 1);
+        }
+    }
+
+    @Override
+    public void registerRebuilt(Collection<ScenarioRiskSnapshot> snapshots) {
+        heatmaps.clear();
+        snapshots.forEach(snapshot -> update(snapshot, 1));
+    }
+
+    /**
+     * Get the heat-map of the scenarios matching the given filters.
+     *
+     * @param environmentId the id of the environment of the scenario actors, or {@code null} for any.
+     * @param techStack the tech stack of the scenario technologies, or {@code null} for any.
+     * @return the heat-map.
+     */
+    public RiskHeatmapDTO getHeatmap(Long environmentId, TechStack techStack) {
+        int rows = probabilityThresholds.length + 1;
+        int columns = consequenceThresholds.length + 1;
+        long[][] counts = new long[rows][columns];
+        BigDecimal[][] riskSums = new BigDecimal[rows][columns];
+        register.read(() -> {
+            Cells cells = heatmaps.get(new Filter(environmentId, techStack));
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    int cell = row * columns + column;
+                    counts[row][column] = cells == null ? 0 : cells.counts[cell];
+                    riskSums[row][column] = cells == null ? FixedPoint.toBigDecimal(0) : cells.riskSums.get(cell);
+                }
+            }
+            return null;
+        });
+        RiskHeatmapDTO dto = new RiskHeatmapDTO();
+        dto.setEnvironmentId(environmentId);
+        dto.setTechStack(techStack);
+        dto.setProbabilityThresholds(toBigDecimals(probabilityThresholds));
+        dto.setConsequenceThresholds(toBigDecimals(consequenceThresholds));
+        dto.setCounts(counts);
+        dto.setRiskSums(riskSums);
+        return dto;
+    }
+
+    private void update(ScenarioRiskSnapshot snapshot, int sign) {
+        if (snapshot.getProbability() == FixedPoint.NULL || snapshot.getQonsequence() == FixedPoint.NULL) {
+            return;
+        }
+        int cell = bin(probabilityThresholds, snapshot.getProbability()) * (consequenceThresholds.length + 1);
+        cell += bin(consequenceThresholds, snapshot.getQonsequence());
+        long riskValue = snapshot.getRiskValue() == FixedPoint.NULL ? 0 : snapshot.getRiskValue();
+        Long environmentId = snapshot.getEnvironmentId() == ScenarioRiskSnapshot.NO_ID ? null : snapshot.getEnvironmentId();
+        TechStack techStack = snapshot.getTechStack();
+        cells(new Filter(null, null)).add(cell, sign, riskValue);
+        if (environmentId != null) {
+            cells(new Filter(environmentId, null)).add(cell, sign, riskValue);
+        }
+        if (techStack != null) {
+            cells(new Filter(null, techStack)).add(cell, sign, riskValue);
+        }
+        if (environmentId != null && techStack != null) {
+            cells(new Filter(environmentId, techStack)).add(cell, sign, riskValue);
+        }
+    }
+
+    private Cells cells(Filter filter) {
+        int size = (probabilityThresholds.length + 1) * (consequenceThresholds.length + 1);
+        return heatmaps.computeIfAbsent(filter, key -> new Cells(size));
+    }
+
+    static int bin(long[] thresholds, long value) {
+        int bin = 0;
+        while (bin < thresholds.length && thresholds[bin] <= value) {
+            bin++;
+        }
+        return bin;
+    }
+
+    private static long[] toSortedFixedPoint(List<BigDecimal> thresholds) {
+        return thresholds.stream().mapToLong(FixedPoint::of).sorted().toArray();
+    }
+
+    private static BigDecimal[] toBigDecimals(long[] thresholds) {
+        BigDecimal[] result = new BigDecimal[thresholds.length];
+        for (int i = 0; i < thresholds.length; i++) {
+            result[i] = FixedPoint.toBigDecimal(thresholds[i]);
+        }
+        return result;
+    }
+
+    private static final class Cells {
+
+        final long[] counts;
+        final FixedPointSums riskSums;
+
+        Cells(int size) {
+            counts = new long[size];
+            riskSums = new FixedPointSums(size);
+        }
+
+        void add(int cell, int sign, long riskValue) {
+            counts[cell] += sign;
+            riskSums.add(cell, sign * riskValue);
+        }
+    }
+
+    /**
+     * An environment and tech stack filter, {@code null} meaning any.
+     */
+    private static final class Filter {
+
+        final Long environmentId;
+        final TechStack techStack;
+
+        Filter(Long environmentId, TechStack techStack) {
+            this.environmentId = environmentId;
+            this.techStack = techStack;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Filter)) {
+                return false;
+            }
+            Filter other = (Filter) o;
+            return Objects.equals(environmentId, other.environmentId) && techStack == other.techStack;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(environmentId, techStack);
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.HierarchyClosureRepository;
+import com.gobr.pragrisk.repository.HierarchyClosureRepository.Hierarchy;
+import com.gobr.pragrisk.repository.TechnologyRepository;
+import com.gobr.pragrisk.service.dto.RiskSubtreeDTO;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service maintaining the {@code Actor.parentActor} and {@code Technology.parentTechnology} hierarchies, as closure
+ * tables for SQL and as in-memory {@link HierarchyIndex}es for subtree queries.
+ * <p>
+ * The closure tables are updated within the transaction saving the actor or technology. Once it commits the in-memory
+ * parent links are updated and the index marked stale, to be rebuilt on next read, so that bulk imports pay for one
+ * rebuild only. The rebuild runs outside the register lock, from a copy of the snapshots, while the scenario deltas
+ * are recorded to be replayed on the rebuilt index when it is swapped in. Each index carries Fenwick trees of the
+ * scenario count and risk sum of every node, in preorder, which make the risk of a subtree two prefix sums; they are
+ * updated with each scenario delta of the {@link ScenarioRiskRegister}. Scenarios without a risk value are left out.
+ */
+@Service
+public class RiskHierarchyService implements ScenarioRiskListener {
+
+    private final Logger log = LoggerFactory.getLogger(RiskHierarchyService.class);
+
+    private final ScenarioRiskRegister register;
+
+    private final ActorRepository actorRepository;
+
+    private final TechnologyRepository technologyRepository;
+
+    private final HierarchyClosureRepository closureRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // guarded by the register lock, like the listener callbacks
+    private final Map<RiskDimension, Tree> trees = new EnumMap<>(RiskDimension.class);
+
+    private boolean reloading;
+
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    public RiskHierarchyService(
+        ScenarioRiskRegister register,
+        ActorRepository actorRepository,
+        TechnologyRepository technologyRepository,
+        HierarchyClosureRepository closureRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.register = register;
+        this.actorRepository = actorRepository;
+        this.technologyRepository = technologyRepository;
+        this.closureRepository = closureRepository;
+        // read-write, so that the hierarchies are loaded from the primary database rather than from a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        trees.put(RiskDimension.ACTOR, new Tree(RiskDimension.ACTOR));
+        trees.put(RiskDimension.TECHNOLOGY, new Tree(RiskDimension.TECHNOLOGY));
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        register.addListener(this);
+    }
+
+    /**
+     * @return whether the entities of a dimension form a hierarchy.
+     */
+    public static boolean isHierarchical(RiskDimension dimension) {
+        return dimension == RiskDimension.ACTOR || dimension == RiskDimension.TECHNOLOGY;
+    }
+
+    @EventListener
+    public void updateActorClosure(ActorChangedEvent event) {
+        updateClosure(Hierarchy.ACTOR, event.getActorId(), event.getParentId(), event.isDeleted());
+    }
+
+    @EventListener
+    public void updateTechnologyClosure(TechnologyChangedEvent event) {
+        updateClosure(Hierarchy.TECHNOLOGY, event.getTechnologyId(), event.getParentId(), event.isDeleted());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActorChanged(ActorChangedEvent event) {
+        reparent(RiskDimension.ACTOR, event.getActorId(), event.getParentId(), event.isDeleted());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTechnologyChanged(TechnologyChangedEvent event) {
+        reparent(RiskDimension.TECHNOLOGY, event.getTechnologyId(), event.getParentId(), event.isDeleted());
+    }
+
+    @Override
+    public void scenarioRiskChanged(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current) {
+        for (Tree tree : trees.values()) {
+            if (previous != null) {
+                tree.add(previous, -1);
+            }
+            if (current != null) {
+                tree.add(current, 1);
+            }
+        }
+    }
+
+    @Override
+    public void registerRebuilt(Collection<ScenarioRiskSnapshot> snapshots) {
+        trees.values().forEach(Tree::invalidate);
+    }
+
+    /**
+     * Check a parent change against the committed and current-transaction closure.
+     *
+     * @param dimension {@link RiskDimension#ACTOR} or {@link RiskDimension#TECHNOLOGY}.
+     * @return whether making {@code parentId} the parent of {@code id} would make {@code id} its own ancestor.
+     */
+    public boolean wouldCreateCycle(RiskDimension dimension, long id, long parentId) {
+        return transactionTemplate.execute(status -> closureRepository.isDescendant(toHierarchy(dimension), id, parentId));
+    }
+
+    /**
+     * Get the ancestors, descendants and subtree risk of an actor or technology.
+     *
+     * @param dimension {@link RiskDimension#ACTOR} or {@link RiskDimension#TECHNOLOGY}.
+     * @param id the id of the actor or technology.
+     * @return the subtree, empty if the entity is unknown.
+     */
+    public Optional<RiskSubtreeDTO> findSubtree(RiskDimension dimension, long id) {
+        Hierarchy hierarchy = toHierarchy(dimension);
+        Tree tree = trees.get(dimension);
+        while (true) {
+            refresh(tree, hierarchy);
+            // null if the hierarchy changed again since the refresh
+            Optional<RiskSubtreeDTO> subtree = register.read(() -> tree.stale ? null : toSubtree(tree.fenwick, id));
+            if (subtree != null) {
+                return subtree;
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index of a stale tree outside the register lock, and swap it in unless the hierarchy changed since.
+     */
+    private void refresh(Tree tree, Hierarchy hierarchy) {
+        synchronized (tree.rebuildLock) {
+            while (true) {
+                Tree.Rebuild rebuild = register.read(() -> tree.startRebuild(register.snapshots()));
+                if (rebuild == null) {
+                    return;
+                }
+                Fenwick fenwick = new Fenwick(HierarchyIndex.of(rebuild.parentIds));
+                rebuild.snapshots.forEach(snapshot -> fenwick.add(tree.dimension, snapshot, 1));
+                if (register.read(() -> tree.finishRebuild(rebuild, fenwick))) {
+                    log.debug("Rebuilt the {} hierarchy index of {} nodes", hierarchy, fenwick.index.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private static Optional<RiskSubtreeDTO> toSubtree(Fenwick fenwick, long id) {
+        HierarchyIndex index = fenwick.index;
+        int node = index.nodeOf(id);
+        if (node < 0) {
+            return Optional.empty();
+        }
+        RiskSubtreeDTO dto = new RiskSubtreeDTO();
+        dto.setId(id);
+        for (long ancestorId : index.ancestorIds(node)) {
+            dto.getAncestorIds().add(ancestorId);
+        }
+        for (long descendantId : index.descendantIds(node)) {
+            dto.getDescendantIds().add(descendantId);
+        }
+        int from = index.position(node);
+        int to = index.subtreeEnd(node);
+        dto.setScenarios(prefixSum(fenwick.counts, to) - prefixSum(fenwick.counts, from));
+        dto.setRiskSum(prefixSum(fenwick.sums, to).subtract(prefixSum(fenwick.sums, from)));
+        return Optional.of(dto);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Reload the hierarchies from the entities, rewriting a closure table whose rows do not match them.
+     */
+    @Scheduled(cron = "${application.risk.register.rebuild-cron:0 30 3 * * ?}")
+    public void reload() {
+        register.read(() -> {
+            reloading = true;
+            pendingChanges.clear();
+            return null;
+        });
+        try {
+            Map<RiskDimension, Map<Long, Long>> loaded = transactionTemplate.execute(status -> loadParentIds());
+            loaded.forEach(this::resyncClosure);
+            register.read(() -> {
+                loaded.forEach((dimension, parentIds) -> {
+                    Tree tree = trees.get(dimension);
+                    tree.parentIds.clear();
+                    tree.parentIds.putAll(parentIds);
+                    tree.invalidate();
+                });
+                pendingChanges.forEach(Runnable::run);
+                return null;
+            });
+        } finally {
+            register.read(() -> {
+                reloading = false;
+                pendingChanges.clear();
+                return null;
+            });
+        }
+    }
+
+    private Map<RiskDimension, Map<Long, Long>> loadParentIds() {
+        Map<RiskDimension, Map<Long, Long>> loaded = new EnumMap<>(RiskDimension.class);
+        Map<Long, Long> actors = new HashMap<>();
+        actorRepository.findAllParentIds().forEach(actor -> actors.put(actor.getId(), actor.getParentId()));
+        loaded.put(RiskDimension.ACTOR, actors);
+        Map<Long, Long> technologies = new HashMap<>();
+        technologyRepository.findAllParentIds().forEach(technology -> technologies.put(technology.getId(), technology.getParentId()));
+        loaded.put(RiskDimension.TECHNOLOGY, technologies);
+        return loaded;
+    }
+
+    private void resyncClosure(RiskDimension dimension, Map<Long, Long> parentIds) {
+        Hierarchy hierarchy = toHierarchy(dimension);
+        List<long[]> rows = new ArrayList<>();
+        ClosureChecksum expected = new ClosureChecksum();
+        HierarchyIndex
+            .of(parentIds)
+            .forEachClosureRow(row -> {
+                rows.add(row);
+                expected.add(row);
+            });
+        ClosureChecksum actual = new ClosureChecksum();
+        transactionTemplate.executeWithoutResult(status -> closureRepository.forEachRow(hierarchy, actual::add));
+        if (!actual.equals(expected)) {
+            transactionTemplate.executeWithoutResult(status -> closureRepository.replaceAll(hierarchy, rows));
+            log.info("Rewrote the {} closure with {} rows", hierarchy, rows.size());
+        }
+    }
+
+    private void updateClosure(Hierarchy hierarchy, long id, Long parentId, boolean deleted) {
+        if (deleted) {
+            closureRepository.delete(hierarchy, id);
+            return;
+        }
+        List<Long> current = closureRepository.findNodeAndParentIds(hierarchy, id);
+        if (!current.isEmpty() && Objects.equals(current.size() > 1 ? current.get(1) : null, parentId)) {
+            return;
+        }
+        if (parentId != null && closureRepository.isDescendant(hierarchy, id, parentId)) {
+            throw new IllegalArgumentException(hierarchy + " " + id + " cannot descend from itself");
+        }
+        closureRepository.move(hierarchy, id, parentId);
+    }
+
+    private void reparent(RiskDimension dimension, long id, Long parentId, boolean deleted) {
+        register.read(() -> {
+            Runnable change = () -> trees.get(dimension).reparent(id, parentId, deleted);
+            change.run();
+            if (reloading) {
+                pendingChanges.add(change);
+            }
+            return null;
+        });
+    }
+
+    private static Hierarchy toHierarchy(RiskDimension dimension) {
+        if (dimension == RiskDimension.ACTOR) {
+            return Hierarchy.ACTOR;
+        }
+        if (dimension == RiskDimension.TECHNOLOGY) {
+            return Hierarchy.TECHNOLOGY;
+        }
+        throw new IllegalArgumentException("The " + dimension.getPath() + " do not form a hierarchy");
+    }
+
+    private static long prefixSum(long[] fenwick, int length) {
+        long sum = 0;
+        for (int i = length; i > 0; i -= i & -i) {
+            sum += fenwick[i];
+        }
+        return sum;
+    }
+
+    private static BigDecimal prefixSum(FixedPointSums fenwick, int length) {
+        BigDecimal sum = FixedPoint.toBigDecimal(0);
+        for (int i = length; i > 0; i -= i & -i) {
+            sum = sum.add(fenwick.get(i));
+        }
+        return sum;
+    }
+
+    /**
+     * An order-independent digest of closure rows: their count and the sum of a 64-bit mix of each row, so that two
+     * closures with the same number of rows but different links, or depths, differ.
+     */
+    private static final class ClosureChecksum {
+
+        long count;
+        long sum;
+
+        void add(long[] row) {
+            count++;
+            sum += mix(mix(mix(row[0]) + row[1]) + row[2]);
+        }
+
+        /**
+         * The SplitMix64 finalizer.
+         */
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClosureChecksum)) {
+                return false;
+            }
+            ClosureChecksum other = (ClosureChecksum) o;
+            return count == other.count && sum == other.sum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, sum);
+        }
+    }
+
+    /**
+     * An index and the Fenwick trees of the scenario count and risk sum of its nodes, indexed by preorder position + 1.
+     * The risk sums are exact, see {@link FixedPointSums}.
+     */
+    private static final class Fenwick {
+
+        final HierarchyIndex index;
+        final long[] counts;
+        final FixedPointSums sums;
+
+        Fenwick(HierarchyIndex index) {
+            this.index = index;
+            this.counts = new long[index.size() + 1];
+            this.sums = new FixedPointSums(index.size() + 1);
+        }
+
+        void add(RiskDimension dimension, ScenarioRiskSnapshot snapshot, int sign) {
+            int node = index.nodeOf(dimension.keyOf(snapshot));
+            if (node < 0 || snapshot.getRiskValue() == FixedPoint.NULL) {
+                return;
+            }
+            for (int i = index.position(node) + 1; i < counts.length; i += i & -i) {
+                counts[i] += sign;
+                sums.add(i, sign * snapshot.getRiskValue());
+            }
+        }
+    }
+
+    /**
+     * The parent links of a hierarchy and their {@link Fenwick} index, guarded by the register lock.
+     */
+    private static final class Tree {
+
+        final RiskDimension dimension;
+        final Map<Long, Long> parentIds = new HashMap<>();
+        // serializes the rebuilds, outside the register lock
+        final Object rebuildLock = new Object();
+        Fenwick fenwick = new Fenwick(HierarchyIndex.EMPTY);
+        boolean stale = true;
+        // bumped whenever the index goes stale, so that a rebuild started before is not swapped in
+        long generation;
+        // the scenario deltas since the snapshots of the running rebuild were copied, null if none is running
+        List<ScenarioRiskSnapshot> added;
+        List<ScenarioRiskSnapshot> removed;
+
+        Tree(RiskDimension dimension) {
+            this.dimension = dimension;
+        }
+
+        void invalidate() {
+            stale = true;
+            generation++;
+        }
+
+        void reparent(long id, Long parentId, boolean deleted) {
+            if (deleted) {
+                if (parentIds.containsKey(id)) {
+                    parentIds.remove(id);
+                    invalidate();
+                }
+            } else if (!parentIds.containsKey(id) || !Objects.equals(parentIds.get(id), parentId)) {
+                parentIds.put(id, parentId);
+                invalidate();
+            }
+        }
+
+        /**
+         * @return what to rebuild the index from, or {@code null} if it is not stale.
+         */
+        Rebuild startRebuild(Collection<ScenarioRiskSnapshot> snapshots) {
+            if (!stale) {
+                return null;
+            }
+            added = new ArrayList<>();
+            removed = new ArrayList<>();
+            return new Rebuild(generation, new HashMap<>(parentIds), new ArrayList<>(snapshots));
+        }
+
+        /**
+         * @return whether the rebuilt index was swapped in, having replayed the deltas since its snapshots.
+         */
+        boolean finishRebuild(Rebuild rebuild, Fenwick rebuilt) {
+            boolean current = rebuild.generation == generation;
+            if (current) {
+                added.forEach(snapshot -> rebuilt.add(dimension, snapshot, 1));
+                removed.forEach(snapshot -> rebuilt.add(dimension, snapshot, -1));
+                fenwick = rebuilt;
+                stale = false;
+            }
+            added = null;
+            removed = null;
+            return current;
+        }
+
+        void add(ScenarioRiskSnapshot snapshot, int sign) {
+            if (dimension.keyOf(snapshot) == ScenarioRiskSnapshot.NO_ID || snapshot.getRiskValue() == FixedPoint.NULL) {
+                return;
+            }
+            if (!stale) {
+                fenwick.add(dimension, snapshot, sign);
+            } else if (added != null) {
+                (sign > 0 ? added : removed).add(snapshot);
+            }
+        }
+
+        /**
+         * The parent links and snapshots copied under the register lock, at some generation of the tree.
+         */
+        static final class Rebuild {
+
+            final long generation;
+            final Map<Long, Long> parentIds;
+            final Collection<ScenarioRiskSnapshot> snapshots;
+
+            Rebuild(long generation, Map<Long, Long> parentIds, Collection<ScenarioRiskSnapshot> snapshots) {
+                this.generation = generation;
+                this.parentIds = parentIds;
+                this.snapshots = snapshots;
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.Arrays;
+
+/**
+ * A growable columnar buffer of risk history points: a key (a scenario or roll-up id), an epoch millisecond timestamp
+ * and {@link #VALUES} {@link FixedPoint} values.
+ * <p>
+ * Encoded segments store each column in turn as zig-zag varints of a delta: timestamps to the previous point, keys to
+ * the previous key and values to the previous point of the same key. Points sorted by key then time therefore take a
+ * few bytes each, the values of a series changing slowly and the timestamps of a flush being close. Not thread-safe.
+ */
+final class RiskHistoryPoints {
+
+    static final int VALUES = 3;
+
+    private static final int FORMAT = 1;
+
+    private int size;
+
+    private long[] keys;
+
+    private long[] timestamps;
+
+    private final long[][] values = new long[VALUES][];
+
+    RiskHistoryPoints() {
+        this(64);
+    }
+
+    private RiskHistoryPoints(int capacity) {
+        keys = new long[capacity];
+        timestamps = new long[capacity];
+        for (int column = 0; column < VALUES; column++) {
+            values[column] = new long[capacity];
+        }
+    }
+
+    void add(long key, long timestamp, long value0, long value1, long value2) {
+        if (size == keys.length) {
+            int capacity = Math.max(64, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            for (int column = 0; column < VALUES; column++) {
+                values[column] = Arrays.copyOf(values[column], capacity);
+            }
+        }
+        keys[size] = key;
+        timestamps[size] = timestamp;
+        values[0][size] = value0;
+        values[1][size] = value1;
+        values[2][size] = value2;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long key(int point) {
+        return keys[point];
+    }
+
+    long timestamp(int point) {
+        return timestamps[point];
+    }
+
+    long value(int column, int point) {
+        return values[column][point];
+    }
+
+    /**
+     * @return a copy sorted by key then timestamp.
+     */
+    RiskHistoryPoints sortedByKey() {
+        return reorder(stableOrder(keys, stableOrder(timestamps, identity())));
+    }
+
+    /**
+     * @return a copy sorted by timestamp, points with the same timestamp keeping their order.
+     */
+    RiskHistoryPoints sortedByTimestamp() {
+        return reorder(stableOrder(timestamps, identity()));
+    }
+
+    /**
+     * Encode a range of points into a segment payload.
+     */
+    byte[] encode(int from, int to) {
+        Output out = new Output((to - from) * 8 + 16);
+        out.writeVarint(FORMAT);
+        out.writeVarint(to - from);
+        long previous = 0;
+        for (int point = from; point < to; point++) {
+            out.writeSigned(keys[point] - previous);
+            previous = keys[point];
+        }
+        previous = 0;
+        for (int point = from; point < to; point++) {
+            out.writeSigned(timestamps[point] - previous);
+            previous = timestamps[point];
+        }
+        for (int column = 0; column < VALUES; column++) {
+            previous = 0;
+            for (int point = from; point < to; point++) {
+                if (point > from && keys[point] != keys[point - 1]) {
+                    previous = 0;
+                }
+                out.writeSigned(values[column][point] - previous);
+                previous = values[column][point];
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a segment payload.
+     *
+     * @throws IllegalArgumentException if the payload is not a known segment format.
+     */
+    static RiskHistoryPoints decode(byte[] payload) {
+        Input in = new Input(payload);
+        int format = (int) in.readVarint();
+        if (format != FORMAT) {
+            throw new IllegalArgumentException("Unknown risk history segment format " + format);
+        }
+        int count = (int) in.readVarint();
+        RiskHistoryPoints points = new RiskHistoryPoints(Math.max(1, count));
+        points.size = count;
+        long previous = 0;
+        for (int point = 0; point < count; point++) {
+            previous += in.readSigned();
+            points.keys[point] = previous;
+        }
+        previous = 0;
+        for (int point = 0; point < count; point++) {
+            previous += in.readSigned();
+            points.timestamps[point] = previous;
+        }
+        for (int column = 0; column < VALUES; column++) {
+            previous = 0;
+            for (int point = 0; point < count; point++) {
+                if (point > 0 && points.keys[point] != points.keys[point - 1]) {
+                    previous = 0;
+                }
+                previous += in.readSigned();
+                points.values[column][point] = previous;
+            }
+        }
+        return points;
+    }
+
+    private RiskHistoryPoints reorder(int[] order) {
+        RiskHistoryPoints sorted = new RiskHistoryPoints(Math.max(1, size));
+        for (int point : order) {
+            sorted.add(keys[point], timestamps[point], values[0][point], values[1][point], values[2][point]);
+        }
+        return sorted;
+    }
+
+    private int[] identity() {
+        int[] order = new int[size];
+        for (int point = 0; point < size; point++) {
+            order[point] = point;
+        }
+        return order;
+    }
+
+    /**
+     * Stable merge sort of point indexes by a column.
+     */
+    private static int[] stableOrder(long[] column, int[] order) {
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int low = 0; low < order.length; low += 2 * width) {
+                int middle = Math.min(low + width, order.length);
+                int high = Math.min(low + 2 * width, order.length);
+                int left = low;
+                int right = middle;
+                for (int target = low; target < high; target++) {
+                    if (left < middle && (right >= high || column[order[left]] <= column[order[right]])) {
+                        buffer[target] = order[left++];
+                    } else {
+                        buffer[target] = order[right++];
+                    }
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    private static final class Output {
+
+        private byte[] bytes;
+        private int length;
+
+        Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void writeSigned(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeVarint(long value) {
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2 + 10);
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long readSigned() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= bytes.length) {
+                    throw new IllegalArgumentException("Truncated risk history segment");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed risk history segment");
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.repository.RiskHistoryRepository;
+import com.gobr.pragrisk.repository.RiskHistorySegment;
+import com.gobr.pragrisk.service.dto.RiskTrendPointDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service keeping an append-only history of scenario risk values and of the {@link RiskRollupService} roll-ups.
+ * <p>
+ * Each scenario delta of the {@link ScenarioRiskRegister} appends a point (probability, qonsequence, risk value) to an
+ * in-memory buffer, and a rebuild appends the scenarios whose values changed since they were last recorded; deleted
+ * scenarios get a point without values. Every {@code application.risk.history.flush-interval-ms} the buffer is sorted
+ * by scenario, cut into {@link RiskHistoryPoints} segments and inserted in one batch, together with a point (count,
+ * sum, max) for each roll-up touched since the previous flush. Bulk recomputes thus only cost an array append per
+ * changed scenario on the write path, and trends lag by at most one flush.
+ * <p>
+ * Segments which could not be inserted are kept and retried with the next flushes, up to
+ * {@code application.risk.history.max-pending-segments} of them. They are only dropped, and counted in
+ * {@code pragrisk.risk.history.dropped}, after {@code max-flush-attempts} failed flushes in a row, or oldest first when
+ * more are pending.
+ * <p>
+ * A segment only holds the keys of one bucket of {@code application.risk.history.key-bucket-size} consecutive ids, so
+ * the trend of a scenario or roll-up only reads, from an index on (series, min key, first instant), the segments of its
+ * own bucket.
+ */
+@Service
+public class RiskHistoryService implements ScenarioRiskListener {
+
+    /**
+     * The series of scenario points; roll-up series are named after their {@link RiskDimension#getPath()}.
+     */
+    public static final String SCENARIO_SERIES = "scenarios";
+
+    private static final int SCENARIO_RISK_VALUE = 2;
+
+    private static final int ROLLUP_SUM = 1;
+
+    private final Logger log = LoggerFactory.getLogger(RiskHistoryService.class);
+
+    private final ScenarioRiskRegister register;
+
+    private final RiskRollupService riskRollupService;
+
+    private final RiskHistoryRepository riskHistoryRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final int segmentSize;
+
+    private final int keyBucketSize;
+
+    private final int maxPoints;
+
+    private final int maxFlushAttempts;
+
+    private final int maxPendingSegments;
+
+    private final Counter droppedPoints;
+
+    // guarded by this service's monitor, like flushes
+    private final List<RiskHistorySegment> unflushed = new ArrayList<>();
+
+    private int failedFlushes;
+
+    // guarded by the register lock, like the listener callbacks
+    private final Map<Long, ScenarioRiskSnapshot> recorded = new HashMap<>();
+
+    private final Map<RiskDimension, Set<Long>> touched = new EnumMap<>(RiskDimension.class);
+
+    private RiskHistoryPoints pending = new RiskHistoryPoints();
+
+    private boolean initialized;
+
+    private boolean historyEmpty;
+
+    public RiskHistoryService(
+        ScenarioRiskRegister register,
+        RiskRollupService riskRollupService,
+        RiskHistoryRepository riskHistoryRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Risk.History properties = applicationProperties.getRisk().getHistory();
+        this.register = register;
+        this.riskRollupService = riskRollupService;
+        this.riskHistoryRepository = riskHistoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.segmentSize = properties.getSegmentSize();
+        this.keyBucketSize = properties.getKeyBucketSize();
+        this.maxPoints = properties.getMaxPoints();
+        this.maxFlushAttempts = properties.getMaxFlushAttempts();
+        this.maxPendingSegments = properties.getMaxPendingSegments();
+        this.droppedPoints =
+            Counter
+                .builder("pragrisk.risk.history.dropped")
+                .description("Risk history points dropped after failed flushes")
+                .register(registry);
+        for (RiskDimension dimension : RiskDimension.values()) {
+            touched.put(dimension, new HashSet<>());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        register.addListener(this);
+    }
+
+    /**
+     * Find out whether the history is empty before the {@link ScenarioRiskRegister} is first rebuilt, so that the
+     * listener callbacks stay in memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onApplicationReady() {
+        boolean empty = transactionTemplate.execute(status -> riskHistoryRepository.isEmpty());
+        register.read(() -> {
+            historyEmpty = empty;
+            return null;
+        });
+    }
+
+    @Override
+    public void scenarioRiskChanged(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current) {
+        long now = System.currentTimeMillis();
+        if (current != null) {
+            record(recorded.put(current.getId(), current), current, now);
+        } else if (previous != null && recorded.remove(previous.getId()) != null) {
+            recordDeletion(previous, now);
+        }
+    }
+
+    /**
+     * Diff the rebuilt register against the recorded values. The first rebuild only records a baseline when the
+     * history was empty at startup, so that restarts do not append a point per scenario.
+     */
+    @Override
+    public void registerRebuilt(Collection<ScenarioRiskSnapshot> snapshots) {
+        long now = System.currentTimeMillis();
+        boolean recordChanges = initialized || historyEmpty;
+        initialized = true;
+        Map<Long, ScenarioRiskSnapshot> previous = new HashMap<>(recorded);
+        recorded.clear();
+        for (ScenarioRiskSnapshot snapshot : snapshots) {
+            recorded.put(snapshot.getId(), snapshot);
+            ScenarioRiskSnapshot last = previous.remove(snapshot.getId());
+            if (recordChanges) {
+                record(last, snapshot, now);
+            }
+        }
+        if (recordChanges) {
+            previous.values().forEach(deleted -> recordDeletion(deleted, now));
+        }
+    }
+
+    /**
+     * Append the buffered points, and the segments of the previous failed flushes, to the history.
+     */
+    @Scheduled(
+        fixedDelayString = "${application.risk.history.flush-interval-ms:10000}",
+        initialDelayString = "${application.risk.history.flush-interval-ms:10000}"
+    )
+    public synchronized void flush() {
+        List<RiskHistorySegment> segments = register.read(() -> {
+            long now = System.currentTimeMillis();
+            List<RiskHistorySegment> result = new ArrayList<>();
+            RiskHistoryPoints scenarios = pending;
+            pending = new RiskHistoryPoints();
+            cut(SCENARIO_SERIES, scenarios, result);
+            for (RiskDimension dimension : RiskDimension.values()) {
+                RiskHistoryPoints rollups = new RiskHistoryPoints();
+                for (long id : touched.get(dimension)) {
+                    RiskRollup rollup = riskRollupService.getRollup(dimension, id);
+                    if (rollup == null) {
+                        rollups.add(id, now, 0, 0, FixedPoint.NULL);
+                    } else {
+                        rollups.add(id, now, rollup.getCount(), rollup.getFixedPointSum(), rollup.getMax());
+                    }
+                }
+                touched.get(dimension).clear();
+                cut(dimension.getPath(), rollups, result);
+            }
+            return result;
+        });
+        unflushed.addAll(segments);
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> riskHistoryRepository.insertAll(unflushed));
+            log.debug("Appended {} risk history segments", unflushed.size());
+            unflushed.clear();
+            failedFlushes = 0;
+        } catch (DataAccessException e) {
+            failedFlushes++;
+            if (failedFlushes >= maxFlushAttempts) {
+                log.error("Could not append {} risk history segments after {} attempts, dropped", unflushed.size(), failedFlushes, e);
+                drop(unflushed.size());
+                failedFlushes = 0;
+            } else {
+                log.warn("Could not append {} risk history segments, retried with the next flush", unflushed.size(), e);
+                if (unflushed.size() > maxPendingSegments) {
+                    log.error("Dropped the {} oldest pending risk history segments", unflushed.size() - maxPendingSegments);
+                    drop(unflushed.size() - maxPendingSegments);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of segments kept for the next flush.
+     */
+    synchronized int getUnflushedSegments() {
+        return unflushed.size();
+    }
+
+    private void drop(int count) {
+        List<RiskHistorySegment> dropped = unflushed.subList(0, count);
+        dropped.forEach(segment -> droppedPoints.increment(segment.getPointCount()));
+        dropped.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Get the risk value trend of a scenario.
+     *
+     * @see #findTrend(String, long, Instant, Instant, Duration)
+     */
+    public List<RiskTrendPointDTO> findScenarioTrend(long scenarioId, Instant from, Instant to, Duration step) {
+        return findTrend(SCENARIO_SERIES, scenarioId, from, to, step);
+    }
+
+    /**
+     * Get the risk sum trend of an Actor, Technology, Vulnerability or Environment.
+     *
+     * @see #findTrend(String, long, Instant, Instant, Duration)
+     */
+    public List<RiskTrendPointDTO> findRollupTrend(RiskDimension dimension, long id, Instant from, Instant to, Duration step) {
+        return findTrend(dimension.getPath(), id, from, to, step);
+    }
+
+    /**
+     * Get a trend from the flushed history.
+     *
+     * @param series the series.
+     * @param key the id of the scenario or of the roll-up entity.
+     * @param from the first instant, inclusive.
+     * @param to the last instant, inclusive.
+     * @param step the width of the time buckets to downsample to, or {@code null} for the recorded points, which are
+     * downsampled to {@code application.risk.history.max-points} buckets if there are more.
+     * @return the points or the non-empty buckets, in time order.
+     */
+    List<RiskTrendPointDTO> findTrend(String series, long key, Instant from, Instant to, Duration step) {
+        RiskHistoryPoints matched = new RiskHistoryPoints();
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+            riskHistoryRepository.findSegments(
+                series,
+                key,
+                Math.floorDiv(key, keyBucketSize) * keyBucketSize,
+                from,
+                to,
+                segment -> {
+                    RiskHistoryPoints points = RiskHistoryPoints.decode(segment.getPayload());
+                    for (int point = 0; point < points.size(); point++) {
+                        long timestamp = points.timestamp(point);
+                        if (points.key(point) == key && timestamp >= from.toEpochMilli() && timestamp <= to.toEpochMilli()) {
+                            matched.add(key, timestamp, points.value(0, point), points.value(1, point), points.value(2, point));
+                        }
+                    }
+                }
+            )
+        );
+        RiskHistoryPoints sorted = matched.sortedByTimestamp();
+        int column = SCENARIO_SERIES.equals(series) ? SCENARIO_RISK_VALUE : ROLLUP_SUM;
+        long stepMillis = step != null ? step.toMillis() : 0;
+        if (step == null && sorted.size() > maxPoints) {
+            long span = to.toEpochMilli() - from.toEpochMilli() + 1;
+            stepMillis = (span + maxPoints - 1) / maxPoints;
+        }
+        return stepMillis > 0 ? downsample(sorted, column, from.toEpochMilli(), stepMillis) : toDtos(sorted, column);
+    }
+
+    private void record(ScenarioRiskSnapshot last, ScenarioRiskSnapshot current, long now) {
+        if (
+            last != null &&
+            last.getProbability() == current.getProbability() &&
+            last.getQonsequence() == current.getQonsequence() &&
+            last.getRiskValue() == current.getRiskValue()
+        ) {
+            return;
+        }
+        pending.add(current.getId(), now, current.getProbability(), current.getQonsequence(), current.getRiskValue());
+        touch(last);
+        touch(current);
+    }
+
+    private void recordDeletion(ScenarioRiskSnapshot deleted, long now) {
+        pending.add(deleted.getId(), now, FixedPoint.NULL, FixedPoint.NULL, FixedPoint.NULL);
+        touch(deleted);
+    }
+
+    private void touch(ScenarioRiskSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        for (RiskDimension dimension : RiskDimension.values()) {
+            long key = dimension.keyOf(snapshot);
+            if (key != ScenarioRiskSnapshot.NO_ID) {
+                touched.get(dimension).add(key);
+            }
+        }
+    }
+
+    /**
+     * Sort points by key and cut them into segments of at most {@code segmentSize} points of the same key bucket.
+     */
+    private void cut(String series, RiskHistoryPoints points, List<RiskHistorySegment> segments) {
+        RiskHistoryPoints sorted = points.sortedByKey();
+        int from = 0;
+        while (from < sorted.size()) {
+            long bucket = Math.floorDiv(sorted.key(from), keyBucketSize);
+            long firstAt = Long.MAX_VALUE;
+            long lastAt = Long.MIN_VALUE;
+            int to = from;
+            for (; to < sorted.size() && to - from < segmentSize && Math.floorDiv(sorted.key(to), keyBucketSize) == bucket; to++) {
+                firstAt = Math.min(firstAt, sorted.timestamp(to));
+                lastAt = Math.max(lastAt, sorted.timestamp(to));
+            }
+            segments.add(
+                new RiskHistorySegment(
+                    series,
+                    sorted.key(from),
+                    sorted.key(to - 1),
+                    Instant.ofEpochMilli(firstAt),
+                    Instant.ofEpochMilli(lastAt),
+                    to - from,
+                    sorted.encode(from, to)
+                )
+            );
+            from = to;
+        }
+    }
+
+    private static List<RiskTrendPointDTO> toDtos(RiskHistoryPoints points, int column) {
+        List<RiskTrendPointDTO> result = new ArrayList<>(points.size());
+        for (int point = 0; point < points.size(); point++) {
+            long value = points.value(column, point);
+            RiskTrendPointDTO dto = new RiskTrendPointDTO();
+            dto.setTimestamp(Instant.ofEpochMilli(points.timestamp(point)));
+            dto.setSamples(1);
+            dto.setMin(FixedPoint.toBigDecimal(value));
+            dto.setMax(dto.getMin());
+            dto.setLast(dto.getMin());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * Aggregate time-sorted points into buckets of {@code step} milliseconds starting at {@code origin}; missing
+     * values are left out of the minimum and maximum.
+     */
+    private static List<RiskTrendPointDTO> downsample(RiskHistoryPoints points, int column, long origin, long step) {
+        List<RiskTrendPointDTO> result = new ArrayList<>();
+        int point = 0;
+        while (point < points.size()) {
+            long bucket = Math.floorDiv(points.timestamp(point) - origin, step);
+            long samples = 0;
+            long min = FixedPoint.NULL;
+            long max = FixedPoint.NULL;
+            long last = FixedPoint.NULL;
+            for (; point < points.size() && Math.floorDiv(points.timestamp(point) - origin, step) == bucket; point++) {
+                last = points.value(column, point);
+                samples++;
+                if (last != FixedPoint.NULL) {
+                    min = min == FixedPoint.NULL ? last : Math.min(min, last);
+                    max = max == FixedPoint.NULL ? last : Math.max(max, last);
+                }
+            }
+            RiskTrendPointDTO dto = new RiskTrendPointDTO();
+            dto.setTimestamp(Instant.ofEpochMilli(origin + bucket * step));
+            dto.setSamples(samples);
+            dto.setMin(FixedPoint.toBigDecimal(min));
+            dto.setMax(FixedPoint.toBigDecimal(max));
+            dto.setLast(FixedPoint.toBigDecimal(last));
+            result.add(dto);
+        }
+        return result;
+    }
+}
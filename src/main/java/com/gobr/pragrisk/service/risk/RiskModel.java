@@ -0,0 +1,102 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * An immutable risk weighting model, with its weights held as {@link FixedPoint} values.
+ */
+public final class RiskModel {
+
+    private final RiskWeightingModel type;
+
+    private final long probabilityWeight;
+
+    private final long consequenceWeight;
+
+    public RiskModel(RiskWeightingModel type, BigDecimal probabilityWeight, BigDecimal consequenceWeight) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.probabilityWeight = probabilityWeight == null ? FixedPoint.ONE : FixedPoint.of(probabilityWeight);
+        this.consequenceWeight = consequenceWeight == null ? FixedPoint.ONE : FixedPoint.of(consequenceWeight);
+    }
+
+    public RiskWeightingModel getType() {
+        return type;
+    }
+
+    public BigDecimal getProbabilityWeight() {
+        return FixedPoint.toBigDecimal(probabilityWeight);
+    }
+
+    public BigDecimal getConsequenceWeight() {
+        return FixedPoint.toBigDecimal(consequenceWeight);
+    }
+
+    /**
+     * Compute a risk value from fixed-point inputs.
+     *
+     * @param probability the fixed-point probability.
+     * @param qonsequence the fixed-point qonsequence.
+     * @return the fixed-point risk value, or {@link FixedPoint#NULL} if an input is missing.
+     * @throws ArithmeticException if the result overflows a {@code long}.
+     */
+    public long compute(long probability, long qonsequence) {
+        if (probability == FixedPoint.NULL || qonsequence == FixedPoint.NULL) {
+            return FixedPoint.NULL;
+        }
+        switch (type) {
+            case WEIGHTED_PRODUCT:
+                return FixedPoint.multiply(
+                    FixedPoint.multiply(probabilityWeight, probability),
+                    FixedPoint.multiply(consequenceWeight, qonsequence)
+                );
+            case WEIGHTED_SUM:
+                return FixedPoint.add(
+                    FixedPoint.multiply(probabilityWeight, probability),
+                    FixedPoint.multiply(consequenceWeight, qonsequence)
+                );
+            case PRODUCT:
+            default:
+                return FixedPoint.multiply(probability, qonsequence);
+        }
+    }
+
+    /**
+     * Compute a risk value with {@link BigDecimal} arithmetic, for inputs that do not fit the fixed-point range.
+     *
+     * @param probability the probability.
+     * @param qonsequence the qonsequence.
+     * @return the risk value, or {@code null} if an input is missing.
+     */
+    public BigDecimal compute(BigDecimal probability, BigDecimal qonsequence) {
+        if (probability == null || qonsequence == null) {
+            return null;
+        }
+        BigDecimal pw = FixedPoint.toBigDecimal(probabilityWeight);
+        BigDecimal cw = FixedPoint.toBigDecimal(consequenceWeight);
+        BigDecimal result;
+        switch (type) {
+            case WEIGHTED_PRODUCT:
+                result = pw.multiply(probability).multiply(cw.multiply(qonsequence));
+                break;
+            case WEIGHTED_SUM:
+                result = pw.multiply(probability).add(cw.multiply(qonsequence));
+                break;
+            case PRODUCT:
+            default:
+                result = probability.multiply(qonsequence);
+        }
+        return result.setScale(FixedPoint.SCALE, RoundingMode.HALF_UP);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RiskModel{" +
+            "type=" + type +
+            ", probabilityWeight=" + getProbabilityWeight() +
+            ", consequenceWeight=" + getConsequenceWeight() +
+            "}";
+    }
+}
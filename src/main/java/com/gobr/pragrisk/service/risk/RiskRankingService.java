@@ -0,0 +1,156 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.service.dto.RankedScenarioDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service ranking scenarios by risk value, globally and per environment, updated with each scenario delta of the
+ * {@link ScenarioRiskRegister}.
+ * <p>
+ * Scenarios without a risk value are not ranked. Ties are broken by increasing scenario id.
+ */
+@Service
+public class RiskRankingService implements ScenarioRiskListener {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final RankedScenarioIndex EMPTY = new RankedScenarioIndex();
+
+    private final ScenarioRiskRegister register;
+
+    private final RankedScenarioIndex global = new RankedScenarioIndex();
+
+    private final Map<Long, RankedScenarioIndex> byEnvironment = new HashMap<>();
+
+    public RiskRankingService(ScenarioRiskRegister register) {
+        this.register = register;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        register.addListener(this);
+    }
+
+    @Override
+    public void scenarioRiskChanged(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current) {
+        if (previous != null) {
+            remove(previous);
+        }
+        if (current != null) {
+            insert(current);
+        }
+    }
+
+    @Override
+    public void registerRebuilt(Collection<ScenarioRiskSnapshot> snapshots) {
+        global.clear();
+        byEnvironment.clear();
+        snapshots.forEach(this::insert);
+    }
+
+    /**
+     * Get the riskiest scenarios.
+     *
+     * @param limit the number of scenarios, capped to {@link #MAX_LIMIT}.
+     * @param environmentId the id of the environment of the scenario actors, or {@code null} for all scenarios.
+     * @return the ranked scenarios, riskiest first.
+     */
+    public List<RankedScenarioDTO> findTop(int limit, Long environmentId) {
+        return register.read(() -> {
+            RankedScenarioIndex index = index(environmentId);
+            int size = index.size();
+            List<RankedScenarioDTO> result = new ArrayList<>();
+            index.forEachTop(
+                Math.min(limit, MAX_LIMIT),
+                (id, riskValue) -> result.add(new RankedScenarioDTO(id, FixedPoint.toBigDecimal(riskValue), result.size() + 1, size))
+            );
+            return result;
+        });
+    }
+
+    /**
+     * Get the rank of a scenario.
+     *
+     * @param scenarioId the id of the scenario.
+     * @param environmentId the id of the environment to rank the scenario in, or {@code null} for all scenarios.
+     * @return the ranked scenario, empty if it is not ranked in this scope.
+     */
+    public Optional<RankedScenarioDTO> findRank(long scenarioId, Long environmentId) {
+        return register.read(() -> {
+            ScenarioRiskSnapshot snapshot = register.get(scenarioId);
+            if (snapshot == null || snapshot.getRiskValue() == FixedPoint.NULL) {
+                return Optional.empty();
+            }
+            RankedScenarioIndex index = index(environmentId);
+            int rank = index.rankOf(scenarioId, snapshot.getRiskValue());
+            if (rank == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new RankedScenarioDTO(scenarioId, FixedPoint.toBigDecimal(snapshot.getRiskValue()), rank, index.size()));
+        });
+    }
+
+    /**
+     * Get the scenario at a risk percentile: the lowest ranked scenario whose risk is at least that of
+     * {@code quantile} of the ranked scenarios.
+     *
+     * @param quantile the quantile, between 0 and 1.
+     * @param environmentId the id of the environment of the scenario actors, or {@code null} for all scenarios.
+     * @return the ranked scenario, empty if no scenario is ranked in this scope.
+     */
+    public Optional<RankedScenarioDTO> findAtQuantile(double quantile, Long environmentId) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile " + quantile + " is not between 0 and 1");
+        }
+        return register.read(() -> {
+            RankedScenarioIndex index = index(environmentId);
+            int size = index.size();
+            if (size == 0) {
+                return Optional.empty();
+            }
+            int ascendingIndex = Math.max(0, (int) Math.ceil(quantile * size) - 1);
+            int rank = size - ascendingIndex;
+            return Optional.of(new RankedScenarioDTO(index.idAt(rank), FixedPoint.toBigDecimal(index.riskValueAt(rank)), rank, size));
+        });
+    }
+
+    private RankedScenarioIndex index(Long environmentId) {
+        if (environmentId == null) {
+            return global;
+        }
+        return byEnvironment.getOrDefault(environmentId, EMPTY);
+    }
+
+    private void insert(ScenarioRiskSnapshot snapshot) {
+        if (snapshot.getRiskValue() == FixedPoint.NULL) {
+            return;
+        }
+        global.insert(snapshot.getId(), snapshot.getRiskValue());
+        if (snapshot.getEnvironmentId() != ScenarioRiskSnapshot.NO_ID) {
+            byEnvironment
+                .computeIfAbsent(snapshot.getEnvironmentId(), id -> new RankedScenarioIndex())
+                .insert(snapshot.getId(), snapshot.getRiskValue());
+        }
+    }
+
+    private void remove(ScenarioRiskSnapshot snapshot) {
+        if (snapshot.getRiskValue() == FixedPoint.NULL) {
+            return;
+        }
+        global.remove(snapshot.getId(), snapshot.getRiskValue());
+        RankedScenarioIndex index = byEnvironment.get(snapshot.getEnvironmentId());
+        if (index != null) {
+            index.remove(snapshot.getId(), snapshot.getRiskValue());
+            if (index.size() == 0) {
+                byEnvironment.remove(snapshot.getEnvironmentId());
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.math.BigDecimal;
+import java.util.TreeMap;
+
+/**
+ * Count, sum, maximum and log2 histogram of the {@link FixedPoint} risk values of a group of scenarios.
+ * <p>
+ * The maximum is read from the number of occurrences of each distinct value, kept sorted: adding and removing a value
+ * are O(log k) for k distinct values in the group, and the maximum is always current. The sum is kept exact: it
+ * spills into a {@link BigDecimal} when it overflows a {@code long}.
+ */
+final class RiskRollup {
+
+    /**
+     * Bucket 0 holds values {@code <= 0}, bucket {@code b > 0} holds values in {@code [2^(b-1), 2^b)} hundredths.
+     */
+    static final int BUCKETS = 64;
+
+    private long count;
+
+    private long sum;
+
+    private BigDecimal spilled = BigDecimal.ZERO;
+
+    private final TreeMap<Long, Integer> occurrences = new TreeMap<>();
+
+    private final long[] histogram = new long[BUCKETS];
+
+    static int bucket(long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    static long bucketLowerBound(int bucket) {
+        return bucket == 0 ? Long.MIN_VALUE : 1L << (bucket - 1);
+    }
+
+    static long bucketUpperBound(int bucket) {
+        return bucket == 0 ? 1 : bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    void add(long value) {
+        try {
+            sum = FixedPoint.add(sum, value);
+        } catch (ArithmeticException e) {
+            spilled = spilled.add(FixedPoint.toBigDecimal(sum));
+            sum = value;
+        }
+        count++;
+        histogram[bucket(value)]++;
+        occurrences.merge(value, 1, Integer::sum);
+    }
+
+    void remove(long value) {
+        try {
+            sum = Math.subtractExact(sum, value);
+        } catch (ArithmeticException e) {
+            spilled = spilled.add(FixedPoint.toBigDecimal(sum));
+            sum = Math.negateExact(value);
+        }
+        count--;
+        histogram[bucket(value)]--;
+        occurrences.computeIfPresent(value, (key, occurrence) -> occurrence == 1 ? null : occurrence - 1);
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    BigDecimal getSum() {
+        return spilled.add(FixedPoint.toBigDecimal(sum));
+    }
+
+    /**
+     * @return the sum as a {@link FixedPoint}, saturated to the range of a {@code long} past which it spilled.
+     */
+    long getFixedPointSum() {
+        if (spilled.signum() == 0) {
+            return sum;
+        }
+        BigDecimal total = getSum().movePointRight(FixedPoint.SCALE);
+        if (total.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        return total.compareTo(BigDecimal.valueOf(Long.MIN_VALUE + 1)) <= 0 ? Long.MIN_VALUE + 1 : total.longValueExact();
+    }
+
+    /**
+     * @return the maximum, or 0 if the group is empty.
+     */
+    long getMax() {
+        return occurrences.isEmpty() ? 0 : occurrences.lastKey();
+    }
+
+    long getHistogram(int bucket) {
+        return histogram[bucket];
+    }
+}
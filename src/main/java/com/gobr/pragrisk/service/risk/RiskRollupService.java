@@ -0,0 +1,141 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.service.dto.RiskRollupDTO;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service maintaining risk roll-ups for every {@link RiskDimension}, updated with each scenario delta of the
+ * {@link ScenarioRiskRegister}.
+ * <p>
+ * Scenarios without a risk value are left out of the roll-ups.
+ */
+@Service
+public class RiskRollupService implements ScenarioRiskListener {
+
+    private final ScenarioRiskRegister register;
+
+    private final Map<RiskDimension, Map<Long, RiskRollup>> rollups = new EnumMap<>(RiskDimension.class);
+
+    public RiskRollupService(ScenarioRiskRegister register) {
+        this.register = register;
+        for (RiskDimension dimension : RiskDimension.values()) {
+            rollups.put(dimension, new HashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        register.addListener(this);
+    }
+
+    @Override
+    public void scenarioRiskChanged(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current) {
+        for (RiskDimension dimension : RiskDimension.values()) {
+            if (previous != null) {
+                remove(dimension, previous);
+            }
+            if (current != null) {
+                add(dimension, current);
+            }
+        }
+    }
+
+    @Override
+    public void registerRebuilt(Collection<ScenarioRiskSnapshot> snapshots) {
+        rollups.values().forEach(Map::clear);
+        for (ScenarioRiskSnapshot snapshot : snapshots) {
+            for (RiskDimension dimension : RiskDimension.values()) {
+                add(dimension, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Get the roll-up of one Actor, Technology, Vulnerability or Environment.
+     *
+     * @param dimension the dimension.
+     * @param id the id of the entity.
+     * @return the roll-up, empty if no scenario with a risk value belongs to the entity.
+     */
+    public Optional<RiskRollupDTO> findOne(RiskDimension dimension, long id) {
+        return register.read(() -> {
+            RiskRollup rollup = rollups.get(dimension).get(id);
+            if (rollup == null) {
+                return Optional.empty();
+            }
+            return Optional.of(toDto(id, rollup));
+        });
+    }
+
+    /**
+     * Get the roll-ups of every Actor, Technology, Vulnerability or Environment having scenarios with a risk value.
+     *
+     * @param dimension the dimension.
+     * @return the roll-ups, by increasing id.
+     */
+    public List<RiskRollupDTO> findAll(RiskDimension dimension) {
+        return register.read(() -> {
+            List<RiskRollupDTO> result = new ArrayList<>(rollups.get(dimension).size());
+            rollups.get(dimension).forEach((id, rollup) -> result.add(toDto(id, rollup)));
+            result.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+            return result;
+        });
+    }
+
+    /**
+     * @return the live roll-up of an entity, or {@code null} if it has no scenario with a risk value; callers must
+     * hold the {@link ScenarioRiskRegister} lock and must not modify it.
+     */
+    RiskRollup getRollup(RiskDimension dimension, long id) {
+        return rollups.get(dimension).get(id);
+    }
+
+    private void add(RiskDimension dimension, ScenarioRiskSnapshot snapshot) {
+        long key = dimension.keyOf(snapshot);
+        if (key == ScenarioRiskSnapshot.NO_ID || snapshot.getRiskValue() == FixedPoint.NULL) {
+            return;
+        }
+        rollups.get(dimension).computeIfAbsent(key, id -> new RiskRollup()).add(snapshot.getRiskValue());
+    }
+
+    private void remove(RiskDimension dimension, ScenarioRiskSnapshot snapshot) {
+        long key = dimension.keyOf(snapshot);
+        if (key == ScenarioRiskSnapshot.NO_ID || snapshot.getRiskValue() == FixedPoint.NULL) {
+            return;
+        }
+        Map<Long, RiskRollup> byId = rollups.get(dimension);
+        RiskRollup rollup = byId.get(key);
+        rollup.remove(snapshot.getRiskValue());
+        if (rollup.isEmpty()) {
+            byId.remove(key);
+        }
+    }
+
+    private static RiskRollupDTO toDto(long id, RiskRollup rollup) {
+        RiskRollupDTO dto = new RiskRollupDTO();
+        dto.setId(id);
+        dto.setCount(rollup.getCount());
+        dto.setSum(rollup.getSum());
+        dto.setMax(FixedPoint.toBigDecimal(rollup.getMax()));
+        dto.setMean(dto.getSum().divide(BigDecimal.valueOf(rollup.getCount()), FixedPoint.SCALE, RoundingMode.HALF_UP));
+        for (int bucket = 0; bucket < RiskRollup.BUCKETS; bucket++) {
+            long count = rollup.getHistogram(bucket);
+            if (count > 0) {
+                BigDecimal lowerBound = bucket == 0 ? null : FixedPoint.toBigDecimal(RiskRollup.bucketLowerBound(bucket));
+                BigDecimal upperBound = FixedPoint.toBigDecimal(RiskRollup.bucketUpperBound(bucket));
+                dto.getHistogram().add(new RiskRollupDTO.Bucket(lowerBound, upperBound, count));
+            }
+        }
+        return dto;
+    }
+}
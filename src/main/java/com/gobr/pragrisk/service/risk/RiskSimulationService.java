@@ -0,0 +1,265 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.ScenarioRiskRow;
+import com.gobr.pragrisk.service.dto.LossDistributionDTO;
+import com.gobr.pragrisk.service.dto.RiskSimulationRequestDTO;
+import com.gobr.pragrisk.service.dto.RiskSimulationResultDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service running Monte Carlo loss simulations over the whole scenario register.
+ * <p>
+ * A scenario occurs with probability {@code probability / application.risk.simulation.probability-scale} (capped
+ * at 1) and then loses a log-normal amount with median {@code qonsequence} and shape
+ * {@code application.risk.simulation.loss-sigma}.
+ */
+@Service
+public class RiskSimulationService {
+
+    private static final int ACTOR = 0;
+
+    private static final int TECHNOLOGY = 1;
+
+    private static final int ENVIRONMENT = 2;
+
+    private final Logger log = LoggerFactory.getLogger(RiskSimulationService.class);
+
+    private final ScenarioRepository scenarioRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ForkJoinPool pool;
+
+    private final int maxIterations;
+
+    private final double probabilityScale;
+
+    private final double lossSigma;
+
+    private final int batchSize;
+
+    public RiskSimulationService(
+        ScenarioRepository scenarioRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Risk.Simulation properties = applicationProperties.getRisk().getSimulation();
+        int parallelism = properties.getParallelism();
+        this.scenarioRepository = scenarioRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxIterations = properties.getMaxIterations();
+        this.probabilityScale = properties.getProbabilityScale();
+        this.lossSigma = properties.getLossSigma();
+        this.batchSize = applicationProperties.getRisk().getRecomputeBatchSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Run a simulation.
+     *
+     * @param request the simulation parameters, {@code iterations} must not exceed {@link #getMaxIterations()}.
+     * @return the loss distributions for the register and for each Actor, Technology and Environment.
+     */
+    public RiskSimulationResultDTO simulate(RiskSimulationRequestDTO request) {
+        if (request.getIterations() > maxIterations) {
+            throw new IllegalArgumentException("At most " + maxIterations + " iterations are allowed");
+        }
+        long start = System.currentTimeMillis();
+        long seed = request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong();
+        Inputs inputs = readOnlyTransactionTemplate.execute(status -> loadInputs());
+        log.debug("Simulating {} iterations over {} scenarios with seed {}", request.getIterations(), inputs.size, seed);
+
+        MonteCarloSimulation.Result result = inputs.toSimulation(lossSigma).run(request.getIterations(), seed, pool);
+
+        RiskSimulationResultDTO dto = new RiskSimulationResultDTO();
+        dto.setIterations(request.getIterations());
+        dto.setSeed(seed);
+        dto.setScenarios(inputs.size);
+        dto.setRegister(registerDistribution(result, request.getCurvePoints()));
+        dto.setActors(groupDistributions(result, ACTOR, inputs.groupIds[ACTOR], request.getCurvePoints()));
+        dto.setTechnologies(groupDistributions(result, TECHNOLOGY, inputs.groupIds[TECHNOLOGY], request.getCurvePoints()));
+        dto.setEnvironments(groupDistributions(result, ENVIRONMENT, inputs.groupIds[ENVIRONMENT], request.getCurvePoints()));
+        dto.setDurationMillis(System.currentTimeMillis() - start);
+        log.debug("Simulation with seed {} done in {} ms", seed, dto.getDurationMillis());
+        return dto;
+    }
+
+    private Inputs loadInputs() {
+        Inputs inputs = new Inputs();
+        scenarioRepository.fetchAllRiskRows(batchSize, inputs::add);
+        return inputs;
+    }
+
+    private static LossDistributionDTO registerDistribution(MonteCarloSimulation.Result result, int curvePoints) {
+        double[] sorted = result.registerLosses.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        LossDistributionDTO dto = new LossDistributionDTO();
+        dto.setMean(Arrays.stream(sorted).sum() / n);
+        dto.setP50(sorted[percentileIndex(0.5, n)]);
+        dto.setP90(sorted[percentileIndex(0.9, n)]);
+        dto.setP99(sorted[percentileIndex(0.99, n)]);
+        List<LossDistributionDTO.Point> curve = new ArrayList<>(curvePoints);
+        for (int i = 0; i < curvePoints; i++) {
+            int k = (int) ((long) i * (n - 1) / (curvePoints - 1));
+            curve.add(new LossDistributionDTO.Point(sorted[k], (n - k) / (double) n));
+        }
+        dto.setLossExceedanceCurve(curve);
+        return dto;
+    }
+
+    private static List<LossDistributionDTO> groupDistributions(
+        MonteCarloSimulation.Result result,
+        int dimension,
+        long[] groupIds,
+        int curvePoints
+    ) {
+        List<LossDistributionDTO> distributions = new ArrayList<>(groupIds.length);
+        for (int group = 0; group < groupIds.length; group++) {
+            int[] histogram = result.histogram(dimension, group);
+            LossDistributionDTO dto = new LossDistributionDTO();
+            dto.setId(groupIds[group]);
+            dto.setMean(result.mean(dimension, group));
+            dto.setP50(histogramPercentile(histogram, 0.5, result.iterations));
+            dto.setP90(histogramPercentile(histogram, 0.9, result.iterations));
+            dto.setP99(histogramPercentile(histogram, 0.99, result.iterations));
+            dto.setLossExceedanceCurve(histogramCurve(histogram, result.iterations, curvePoints));
+            distributions.add(dto);
+        }
+        return distributions;
+    }
+
+    private static int percentileIndex(double quantile, int n) {
+        return Math.max(0, (int) Math.ceil(quantile * n) - 1);
+    }
+
+    /**
+     * @return the upper bound of the histogram bin holding the quantile, or the lower bound for the overflow bin.
+     */
+    private static double histogramPercentile(int[] histogram, double quantile, int n) {
+        long target = percentileIndex(quantile, n) + 1L;
+        long cumulative = 0;
+        for (int bin = 0; bin < histogram.length; bin++) {
+            cumulative += histogram[bin];
+            if (cumulative >= target) {
+                boolean overflow = bin == histogram.length - 1;
+                return overflow ? MonteCarloSimulation.binLowerBound(bin) : MonteCarloSimulation.binUpperBound(bin);
+            }
+        }
+        return MonteCarloSimulation.binLowerBound(histogram.length - 1);
+    }
+
+    private static List<LossDistributionDTO.Point> histogramCurve(int[] histogram, int n, int curvePoints) {
+        int first = -1;
+        int last = -1;
+        for (int bin = 1; bin < histogram.length; bin++) {
+            if (histogram[bin] > 0) {
+                first = first < 0 ? bin : first;
+                last = bin;
+            }
+        }
+        List<LossDistributionDTO.Point> curve = new ArrayList<>();
+        if (first < 0) {
+            return curve;
+        }
+        long[] exceeding = new long[histogram.length + 1];
+        for (int bin = histogram.length - 1; bin >= 0; bin--) {
+            exceeding[bin] = exceeding[bin + 1] + histogram[bin];
+        }
+        int stride = Math.max(1, (last - first + curvePoints - 1) / curvePoints);
+        for (int bin = first; bin <= last; bin += stride) {
+            curve.add(new LossDistributionDTO.Point(MonteCarloSimulation.binLowerBound(bin), exceeding[bin] / (double) n));
+        }
+        return curve;
+    }
+
+    /**
+     * The simulation inputs, as primitive arrays with dense group indexes.
+     */
+    private final class Inputs {
+
+        int size;
+        double[] occurrence = new double[1024];
+        double[] logMedian = new double[1024];
+        int[][] groupOf = new int[3][1024];
+        final List<Map<Long, Integer>> groupIndexes = List.of(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        long[][] groupIds = new long[3][];
+
+        void add(ScenarioRiskRow row) {
+            if (row.getProbability() == FixedPoint.NULL || row.getQonsequence() == FixedPoint.NULL) {
+                return;
+            }
+            double probability = Math.min(1, FixedPoint.toDouble(row.getProbability()) / probabilityScale);
+            double qonsequence = FixedPoint.toDouble(row.getQonsequence());
+            if (probability <= 0 || qonsequence <= 0) {
+                return;
+            }
+            if (size == occurrence.length) {
+                int capacity = size * 2;
+                occurrence = Arrays.copyOf(occurrence, capacity);
+                logMedian = Arrays.copyOf(logMedian, capacity);
+                for (int d = 0; d < groupOf.length; d++) {
+                    groupOf[d] = Arrays.copyOf(groupOf[d], capacity);
+                }
+            }
+            occurrence[size] = probability;
+            logMedian[size] = Math.log(qonsequence);
+            groupOf[ACTOR][size] = groupIndex(ACTOR, row.getActorId());
+            groupOf[TECHNOLOGY][size] = groupIndex(TECHNOLOGY, row.getTechnologyId());
+            groupOf[ENVIRONMENT][size] = groupIndex(ENVIRONMENT, row.getEnvironmentId());
+            size++;
+        }
+
+        private int groupIndex(int dimension, long id) {
+            if (id == ScenarioRepository.NULL_VALUE) {
+                return -1;
+            }
+            Map<Long, Integer> indexes = groupIndexes.get(dimension);
+            return indexes.computeIfAbsent(id, key -> indexes.size());
+        }
+
+        MonteCarloSimulation toSimulation(double sigma) {
+            int[] groupCounts = new int[groupOf.length];
+            int[][] trimmedGroupOf = new int[groupOf.length][];
+            for (int d = 0; d < groupOf.length; d++) {
+                Map<Long, Integer> indexes = groupIndexes.get(d);
+                long[] ids = new long[indexes.size()];
+                indexes.forEach((id, index) -> ids[index] = id);
+                groupCounts[d] = ids.length;
+                groupIds[d] = ids;
+                trimmedGroupOf[d] = Arrays.copyOf(groupOf[d], size);
+            }
+            return new MonteCarloSimulation(
+                Arrays.copyOf(occurrence, size),
+                Arrays.copyOf(logMedian, size),
+                sigma,
+                trimmedGroupOf,
+                groupCounts
+            );
+        }
+    }
+}
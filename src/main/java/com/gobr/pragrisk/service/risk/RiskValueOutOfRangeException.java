@@ -0,0 +1,20 @@
+package com.gobr.pragrisk.service.risk;
+
+/**
+ * Thrown when a scenario value does not fit the {@link FixedPoint} range the {@link ScenarioRiskRegister} keeps it in.
+ */
+public class RiskValueOutOfRangeException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String field;
+
+    public RiskValueOutOfRangeException(String field) {
+        super(field + " is out of range");
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
@@ -0,0 +1,19 @@
+package com.gobr.pragrisk.service.risk;
+
+/**
+ * The weighting models used to derive a risk value from probability and qonsequence.
+ */
+public enum RiskWeightingModel {
+    /**
+     * {@code probability * qonsequence}, weights are ignored.
+     */
+    PRODUCT,
+    /**
+     * {@code (probabilityWeight * probability) * (consequenceWeight * qonsequence)}.
+     */
+    WEIGHTED_PRODUCT,
+    /**
+     * {@code probabilityWeight * probability + consequenceWeight * qonsequence}.
+     */
+    WEIGHTED_SUM,
+}
@@ -0,0 +1,35 @@
+package com.gobr.pragrisk.service.risk;
+
+/**
+ * Published when a scenario is saved or deleted, and handled once the surrounding transaction commits.
+ */
+public final class ScenarioChangedEvent {
+
+    private final long scenarioId;
+
+    private final ScenarioRiskSnapshot snapshot;
+
+    private ScenarioChangedEvent(long scenarioId, ScenarioRiskSnapshot snapshot) {
+        this.scenarioId = scenarioId;
+        this.snapshot = snapshot;
+    }
+
+    public static ScenarioChangedEvent saved(ScenarioRiskSnapshot snapshot) {
+        return new ScenarioChangedEvent(snapshot.getId(), snapshot);
+    }
+
+    public static ScenarioChangedEvent deleted(long scenarioId) {
+        return new ScenarioChangedEvent(scenarioId, null);
+    }
+
+    public long getScenarioId() {
+        return scenarioId;
+    }
+
+    /**
+     * @return the saved state, or {@code null} if the scenario was deleted.
+     */
+    public ScenarioRiskSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,26 @@
+package com.gobr.pragrisk.service.risk;
+
+import java.util.Collection;
+
+/**
+ * A view kept up to date by the {@link ScenarioRiskRegister}.
+ * <p>
+ * Callbacks are invoked while the register holds its lock, so they must be quick and must not call back into
+ * anything that waits on another thread holding that lock.
+ */
+public interface ScenarioRiskListener {
+    /**
+     * A scenario was created, updated or deleted.
+     *
+     * @param previous the previous state, or {@code null} for a new scenario.
+     * @param current the new state, or {@code null} for a deleted scenario.
+     */
+    void scenarioRiskChanged(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current);
+
+    /**
+     * The register was reloaded from the database: drop every derived state and rebuild it from {@code snapshots}.
+     *
+     * @param snapshots every scenario.
+     */
+    void registerRebuilt(Collection<ScenarioRiskSnapshot> snapshots);
+}
@@ -0,0 +1,247 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.TechnologyRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory register of the risk state of every scenario, kept in sync with committed changes and feeding
+ * {@link ScenarioRiskListener}s with deltas.
+ * <p>
+ * The register is loaded when the application starts, then rebuilt on {@code application.risk.register.rebuild-cron}
+ * and after a bulk recompute, which bypass {@link ScenarioChangedEvent}s. Changes committed while a rebuild is
+ * loading are replayed on top of the loaded state.
+ * <p>
+ * All state, including the listeners' own, is guarded by this register's monitor: readers go through
+ * {@link #read(Supplier)}.
+ */
+@Service
+public class ScenarioRiskRegister {
+
+    private final Logger log = LoggerFactory.getLogger(ScenarioRiskRegister.class);
+
+    private final ScenarioRepository scenarioRepository;
+
+    private final ActorRepository actorRepository;
+
+    private final TechnologyRepository technologyRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final List<ScenarioRiskListener> listeners = new CopyOnWriteArrayList<>();
+
+    private Map<Long, ScenarioRiskSnapshot> snapshots = new HashMap<>();
+
+    private Map<Long, Long> actorEnvironments = new HashMap<>();
+
+    private Map<Long, TechStack> technologyStacks = new HashMap<>();
+
+    /**
+     * The changes committed while a rebuild is loading, in order, {@code null} otherwise.
+     */
+    private List<Consumer<Boolean>> pendingChanges;
+
+    public ScenarioRiskRegister(
+        ScenarioRepository scenarioRepository,
+        ActorRepository actorRepository,
+        TechnologyRepository technologyRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.scenarioRepository = scenarioRepository;
+        this.actorRepository = actorRepository;
+        this.technologyRepository = technologyRepository;
+        // read-write, so that the cached state is loaded from the primary database rather than from a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getRisk().getRecomputeBatchSize();
+    }
+
+    public void addListener(ScenarioRiskListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Run {@code reader} while no change can be applied.
+     */
+    public synchronized <T> T read(Supplier<T> reader) {
+        return reader.get();
+    }
+
+    /**
+     * @return every scenario snapshot; only use it from a listener callback or from {@link #read(Supplier)}.
+     */
+    synchronized Collection<ScenarioRiskSnapshot> snapshots() {
+        return Collections.unmodifiableCollection(snapshots.values());
+    }
+
+    /**
+     * @return the snapshot of a scenario, or {@code null} if it is unknown.
+     */
+    synchronized ScenarioRiskSnapshot get(long scenarioId) {
+        return snapshots.get(scenarioId);
+    }
+
+    public synchronized int size() {
+        return snapshots.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onScenarioChanged(ScenarioChangedEvent event) {
+        record(notify -> apply(event, notify));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onActorChanged(ActorChangedEvent event) {
+        record(notify -> apply(event, notify));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTechnologyChanged(TechnologyChangedEvent event) {
+        record(notify -> apply(event, notify));
+    }
+
+    /**
+     * Apply a change now, notifying listeners, and keep it for replay if a rebuild is loading.
+     */
+    private void record(Consumer<Boolean> change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+        change.accept(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${application.risk.register.rebuild-cron:0 30 3 * * ?}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Reload every scenario from the database and rebuild the listeners' state from scratch.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            if (pendingChanges != null) {
+                log.debug("Scenario risk register rebuild already running, skipped");
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+        Map<Long, Long> loadedActors = new HashMap<>();
+        Map<Long, TechStack> loadedTechnologies = new HashMap<>();
+        Map<Long, ScenarioRiskSnapshot> loadedSnapshots = new HashMap<>();
+        int size;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                actorRepository.findAllGroupIds().forEach(actor -> loadedActors.put(actor.getId(), actor.getGroupId()));
+                technologyRepository
+                    .findAllTechStacks()
+                    .forEach(technology -> loadedTechnologies.put(technology.getId(), technology.getTechStackType()));
+                scenarioRepository.fetchAllRiskRows(batchSize, row -> loadedSnapshots.put(row.getId(), ScenarioRiskSnapshot.of(row)));
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            snapshots = loadedSnapshots;
+            actorEnvironments = loadedActors;
+            technologyStacks = loadedTechnologies;
+            pendingChanges.forEach(change -> change.accept(false));
+            pendingChanges = null;
+            Collection<ScenarioRiskSnapshot> all = snapshots();
+            listeners.forEach(listener -> listener.registerRebuilt(all));
+            size = all.size();
+        }
+        log.info("Scenario risk register rebuilt with {} scenarios in {} ms", size, System.currentTimeMillis() - start);
+    }
+
+    private void apply(ScenarioChangedEvent event, boolean notify) {
+        ScenarioRiskSnapshot previous = snapshots.remove(event.getScenarioId());
+        ScenarioRiskSnapshot current = event.getSnapshot() == null ? null : resolve(event.getSnapshot());
+        if (current != null) {
+            snapshots.put(current.getId(), current);
+        }
+        if (notify) {
+            notifyListeners(previous, current);
+        }
+    }
+
+    private void apply(ActorChangedEvent event, boolean notify) {
+        if (remap(actorEnvironments, event.getActorId(), event.isDeleted(), event.getEnvironmentId())) {
+            reresolve(snapshot -> snapshot.getActorId() == event.getActorId(), notify);
+        }
+    }
+
+    private void apply(TechnologyChangedEvent event, boolean notify) {
+        if (remap(technologyStacks, event.getTechnologyId(), event.isDeleted(), event.getTechStack())) {
+            reresolve(snapshot -> snapshot.getTechnologyId() == event.getTechnologyId(), notify);
+        }
+    }
+
+    /**
+     * @return whether the value mapped to {@code key} changed.
+     */
+    private static <V> boolean remap(Map<Long, V> map, long key, boolean deleted, V value) {
+        V previous = deleted ? map.remove(key) : map.put(key, value);
+        return !Objects.equals(previous, deleted ? null : value);
+    }
+
+    private void reresolve(Predicate<ScenarioRiskSnapshot> affected, boolean notify) {
+        for (ScenarioRiskSnapshot previous : new ArrayList<>(snapshots.values())) {
+            if (affected.test(previous)) {
+                ScenarioRiskSnapshot current = resolve(previous);
+                snapshots.put(current.getId(), current);
+                if (notify && current != previous) {
+                    notifyListeners(previous, current);
+                }
+            }
+        }
+    }
+
+    private ScenarioRiskSnapshot resolve(ScenarioRiskSnapshot snapshot) {
+        Long environmentId = actorEnvironments.get(snapshot.getActorId());
+        TechStack techStack = technologyStacks.get(snapshot.getTechnologyId());
+        return snapshot.withResolved(environmentId == null ? ScenarioRiskSnapshot.NO_ID : environmentId, techStack);
+    }
+
+    private void notifyListeners(ScenarioRiskSnapshot previous, ScenarioRiskSnapshot current) {
+        if (previous == null && current == null) {
+            return;
+        }
+        for (ScenarioRiskListener listener : listeners) {
+            listener.scenarioRiskChanged(previous, current);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.repository.ScenarioRiskRow;
+
+/**
+ * An immutable, primitive copy of the risk-relevant state of a {@link Scenario}.
+ * <p>
+ * Decimals are {@link FixedPoint} values and missing references are {@link #NO_ID}.
+ */
+public final class ScenarioRiskSnapshot {
+
+    public static final long NO_ID = Long.MIN_VALUE;
+
+    private final long id;
+    private final long probability;
+    private final long qonsequence;
+    private final long riskValue;
+    private final long actorId;
+    private final long technologyId;
+    private final long vulnerabilityId;
+    private final long environmentId;
+
+    private final TechStack techStack;
+
+    ScenarioRiskSnapshot(
+        long id,
+        long probability,
+        long qonsequence,
+        long riskValue,
+        long actorId,
+        long technologyId,
+        long vulnerabilityId,
+        long environmentId,
+        TechStack techStack
+    ) {
+        this.id = id;
+        this.probability = probability;
+        this.qonsequence = qonsequence;
+        this.riskValue = riskValue;
+        this.actorId = actorId;
+        this.technologyId = technologyId;
+        this.vulnerabilityId = vulnerabilityId;
+        this.environmentId = environmentId;
+        this.techStack = techStack;
+    }
+
+    /**
+     * Snapshot a scenario; its environment and tech stack are left unresolved.
+     */
+    public static ScenarioRiskSnapshot of(Scenario scenario) {
+        return new ScenarioRiskSnapshot(
+            scenario.getId(),
+            FixedPoint.of(scenario.getProbability()),
+            FixedPoint.of(scenario.getQonsequence()),
+            FixedPoint.of(scenario.getRiskValue()),
+            scenario.getActorFK() == null ? NO_ID : scenario.getActorFK().getId(),
+            scenario.getTechnologyFK() == null ? NO_ID : scenario.getTechnologyFK().getId(),
+            scenario.getVulnerabilityFK() == null ? NO_ID : scenario.getVulnerabilityFK().getId(),
+            NO_ID,
+            null
+        );
+    }
+
+    static ScenarioRiskSnapshot of(ScenarioRiskRow row) {
+        return new ScenarioRiskSnapshot(
+            row.getId(),
+            row.getProbability(),
+            row.getQonsequence(),
+            row.getRiskValue(),
+            row.getActorId(),
+            row.getTechnologyId(),
+            row.getVulnerabilityId(),
+            row.getEnvironmentId(),
+            row.getTechStack()
+        );
+    }
+
+    /**
+     * @return a snapshot with the given actor environment and technology stack, or this one if they are unchanged.
+     */
+    ScenarioRiskSnapshot withResolved(long environmentId, TechStack techStack) {
+        if (environmentId == this.environmentId && techStack == this.techStack) {
+            return this;
+        }
+        return new ScenarioRiskSnapshot(
+            id,
+            probability,
+            qonsequence,
+            riskValue,
+            actorId,
+            technologyId,
+            vulnerabilityId,
+            environmentId,
+            techStack
+        );
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getProbability() {
+        return probability;
+    }
+
+    public long getQonsequence() {
+        return qonsequence;
+    }
+
+    public long getRiskValue() {
+        return riskValue;
+    }
+
+    public long getActorId() {
+        return actorId;
+    }
+
+    public long getTechnologyId() {
+        return technologyId;
+    }
+
+    public long getVulnerabilityId() {
+        return vulnerabilityId;
+    }
+
+    public long getEnvironmentId() {
+        return environmentId;
+    }
+
+    /**
+     * @return the tech stack of the technology, or {@code null}.
+     */
+    public TechStack getTechStack() {
+        return techStack;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ScenarioRiskSnapshot{" +
+            "id=" + id +
+            ", riskValue=" + FixedPoint.toBigDecimal(riskValue) +
+            ", actorId=" + actorId +
+            ", technologyId=" + technologyId +
+            ", vulnerabilityId=" + vulnerabilityId +
+            ", environmentId=" + environmentId +
+            ", techStack=" + techStack +
+            "}";
+    }
+}
@@ -0,0 +1,55 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+
+/**
+ * Published when a technology is saved or deleted. The hierarchy closure table is updated within the surrounding
+ * transaction, in-memory state once it commits.
+ */
+public final class TechnologyChangedEvent {
+
+    private final long technologyId;
+
+    private final TechStack techStack;
+
+    private final Long parentId;
+
+    private final boolean deleted;
+
+    private TechnologyChangedEvent(long technologyId, TechStack techStack, Long parentId, boolean deleted) {
+        this.technologyId = technologyId;
+        this.techStack = techStack;
+        this.parentId = parentId;
+        this.deleted = deleted;
+    }
+
+    public static TechnologyChangedEvent saved(long technologyId, TechStack techStack, Long parentId) {
+        return new TechnologyChangedEvent(technologyId, techStack, parentId, false);
+    }
+
+    public static TechnologyChangedEvent deleted(long technologyId) {
+        return new TechnologyChangedEvent(technologyId, null, null, true);
+    }
+
+    public long getTechnologyId() {
+        return technologyId;
+    }
+
+    /**
+     * @return the tech stack of the technology, or {@code null} if it has none.
+     */
+    public TechStack getTechStack() {
+        return techStack;
+    }
+
+    /**
+     * @return the id of the parent technology, or {@code null} if it has none.
+     */
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
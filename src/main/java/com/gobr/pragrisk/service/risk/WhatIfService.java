@@ -0,0 +1,123 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.service.dto.WhatIfRequestDTO;
+import com.gobr.pragrisk.service.dto.WhatIfResultDTO;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service evaluating what-if sweeps: the residual risk that hypothetical mitigation changes would leave, without
+ * persisting anything.
+ * <p>
+ * A sweep takes one {@link WhatIfSweep} snapshot of the {@link ScenarioRiskRegister} and of the mitigation links, then
+ * evaluates its options in parallel against it.
+ */
+@Service
+public class WhatIfService {
+
+    private final Logger log = LoggerFactory.getLogger(WhatIfService.class);
+
+    private final ScenarioRiskRegister register;
+
+    private final ResidualRiskService residualRiskService;
+
+    private final ResidualRiskModel model;
+
+    private final ForkJoinPool pool;
+
+    private final int maxOptions;
+
+    public WhatIfService(
+        ScenarioRiskRegister register,
+        ResidualRiskService residualRiskService,
+        ResidualRiskModel model,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Risk.WhatIf properties = applicationProperties.getRisk().getWhatIf();
+        int parallelism = properties.getParallelism();
+        this.register = register;
+        this.residualRiskService = residualRiskService;
+        this.model = model;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxOptions = properties.getMaxOptions();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public int getMaxOptions() {
+        return maxOptions;
+    }
+
+    /**
+     * Evaluate a sweep.
+     *
+     * @param request the options, at most {@link #getMaxOptions()}.
+     * @return the current residual risk and the residual risk left by each option, in request order.
+     */
+    public WhatIfResultDTO evaluate(WhatIfRequestDTO request) {
+        List<WhatIfRequestDTO.Option> options = request.getOptions();
+        if (options.size() > maxOptions) {
+            throw new IllegalArgumentException("At most " + maxOptions + " options are allowed");
+        }
+        long start = System.currentTimeMillis();
+        MitigationLinks links = residualRiskService.getMitigationLinks();
+        WhatIfSweep sweep = register.read(() -> WhatIfSweep.of(register.snapshots(), links, model));
+
+        WhatIfResultDTO.OptionResult[] results = new WhatIfResultDTO.OptionResult[options.size()];
+        pool.invoke(new SweepTask(sweep, options, results, 0, options.size()));
+
+        WhatIfResultDTO dto = new WhatIfResultDTO();
+        dto.setInherentRisk(sweep.getInherentRisk());
+        dto.setResidualRisk(sweep.getResidualRisk());
+        dto.setOptions(Arrays.asList(results));
+        dto.setDurationMillis(System.currentTimeMillis() - start);
+        log.debug("What-if sweep of {} options done in {} ms", options.size(), dto.getDurationMillis());
+        return dto;
+    }
+
+    /**
+     * Evaluates a range of options, splitting it in halves down to a few options per task.
+     */
+    private static final class SweepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int GRAIN = 8;
+
+        private final WhatIfSweep sweep;
+        private final List<WhatIfRequestDTO.Option> options;
+        private final WhatIfResultDTO.OptionResult[] results;
+        private final int from;
+        private final int to;
+
+        SweepTask(WhatIfSweep sweep, List<WhatIfRequestDTO.Option> options, WhatIfResultDTO.OptionResult[] results, int from, int to) {
+            this.sweep = sweep;
+            this.options = options;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                for (int i = from; i < to; i++) {
+                    results[i] = sweep.evaluate(options.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SweepTask(sweep, options, results, from, middle), new SweepTask(sweep, options, results, middle, to));
+        }
+    }
+}
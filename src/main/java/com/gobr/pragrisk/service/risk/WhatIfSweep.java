@@ -0,0 +1,206 @@
+package com.gobr.pragrisk.service.risk;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.service.dto.WhatIfRequestDTO;
+import com.gobr.pragrisk.service.dto.WhatIfResultDTO;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the scenario register and of the mitigation links, against which what-if options are
+ * evaluated.
+ * <p>
+ * Options never modify the snapshot: each one overlays its mitigation changes on the links and recomputes the
+ * remaining risk fraction of the vulnerabilities they touch only, then the residual risk of the scenarios of those
+ * vulnerabilities. Any number of options can therefore be evaluated concurrently.
+ */
+final class WhatIfSweep {
+
+    private final MitigationLinks links;
+
+    private final ResidualRiskModel model;
+
+    private final Map<Long, Exposure> exposures;
+
+    private final Map<Long, BigDecimal> environmentResiduals;
+
+    private final BigDecimal inherentRisk;
+
+    private final BigDecimal residualRisk;
+
+    private WhatIfSweep(
+        MitigationLinks links,
+        ResidualRiskModel model,
+        Map<Long, Exposure> exposures,
+        Map<Long, BigDecimal> environmentResiduals,
+        BigDecimal inherentRisk,
+        BigDecimal residualRisk
+    ) {
+        this.links = links;
+        this.model = model;
+        this.exposures = exposures;
+        this.environmentResiduals = environmentResiduals;
+        this.inherentRisk = inherentRisk;
+        this.residualRisk = residualRisk;
+    }
+
+    /**
+     * Take a snapshot; the scenario snapshots are only read during this call.
+     */
+    static WhatIfSweep of(Collection<ScenarioRiskSnapshot> snapshots, MitigationLinks links, ResidualRiskModel model) {
+        MitigationCoverage coverage = links.coverage();
+        Map<Long, Exposure> exposures = new HashMap<>();
+        Map<Long, Total> environmentTotals = new HashMap<>();
+        Total inherent = new Total();
+        Total residual = new Total();
+        for (ScenarioRiskSnapshot snapshot : snapshots) {
+            if (snapshot.getRiskValue() == FixedPoint.NULL) {
+                continue;
+            }
+            int remaining = coverage.remaining(snapshot.getVulnerabilityId());
+            long scenarioResidual = ResidualRiskService.residual(snapshot.getRiskValue(), remaining);
+            inherent.add(snapshot.getRiskValue());
+            residual.add(scenarioResidual);
+            if (snapshot.getEnvironmentId() != ScenarioRiskSnapshot.NO_ID) {
+                environmentTotals.computeIfAbsent(snapshot.getEnvironmentId(), id -> new Total()).add(scenarioResidual);
+            }
+            if (links.firstLink(snapshot.getVulnerabilityId()) >= 0) {
+                exposures
+                    .computeIfAbsent(snapshot.getVulnerabilityId(), id -> new Exposure())
+                    .add(snapshot.getRiskValue(), snapshot.getEnvironmentId());
+            }
+        }
+        Map<Long, BigDecimal> environmentResiduals = new HashMap<>();
+        environmentTotals.forEach((id, total) -> environmentResiduals.put(id, total.value()));
+        return new WhatIfSweep(links, model, exposures, environmentResiduals, inherent.value(), residual.value());
+    }
+
+    BigDecimal getInherentRisk() {
+        return inherentRisk;
+    }
+
+    BigDecimal getResidualRisk() {
+        return residualRisk;
+    }
+
+    /**
+     * Evaluate one option; changes of mitigations linked to no vulnerability have no effect, and of several changes
+     * of the same mitigation the last one wins.
+     */
+    WhatIfResultDTO.OptionResult evaluate(WhatIfRequestDTO.Option option) {
+        Map<Long, WhatIfRequestDTO.Change> changes = new HashMap<>();
+        Set<Long> vulnerabilityIds = new LinkedHashSet<>();
+        for (WhatIfRequestDTO.Change change : option.getChanges()) {
+            changes.put(change.getMitigationId(), change);
+            for (int link : links.linksOf(change.getMitigationId())) {
+                vulnerabilityIds.add(links.vulnerabilityId(link));
+            }
+        }
+        MitigationCoverage coverage = links.coverage();
+        Total delta = new Total();
+        Map<Long, Total> environmentDeltas = new HashMap<>();
+        long affectedScenarios = 0;
+        for (long vulnerabilityId : vulnerabilityIds) {
+            int before = coverage.remaining(vulnerabilityId);
+            int after = remaining(vulnerabilityId, changes);
+            Exposure exposure = exposures.get(vulnerabilityId);
+            if (after == before || exposure == null) {
+                continue;
+            }
+            affectedScenarios += exposure.size;
+            for (int i = 0; i < exposure.size; i++) {
+                long riskValue = exposure.riskValues[i];
+                long scenarioDelta = ResidualRiskService.residual(riskValue, after) - ResidualRiskService.residual(riskValue, before);
+                delta.add(scenarioDelta);
+                if (exposure.environmentIds[i] != ScenarioRiskSnapshot.NO_ID) {
+                    environmentDeltas.computeIfAbsent(exposure.environmentIds[i], id -> new Total()).add(scenarioDelta);
+                }
+            }
+        }
+        WhatIfResultDTO.OptionResult result = new WhatIfResultDTO.OptionResult();
+        result.setLabel(option.getLabel());
+        result.setAffectedVulnerabilities(vulnerabilityIds.size());
+        result.setAffectedScenarios(affectedScenarios);
+        result.setResidualRiskDelta(delta.value());
+        result.setResidualRisk(residualRisk.add(result.getResidualRiskDelta()));
+        environmentDeltas.forEach((environmentId, environmentDelta) -> {
+            BigDecimal value = environmentDelta.value();
+            if (value.signum() != 0) {
+                BigDecimal environmentResidual = environmentResiduals.get(environmentId).add(value);
+                result.getEnvironments().add(new WhatIfResultDTO.EnvironmentResult(environmentId, environmentResidual, value));
+            }
+        });
+        result.getEnvironments().sort((a, b) -> Long.compare(a.getEnvironmentId(), b.getEnvironmentId()));
+        return result;
+    }
+
+    /**
+     * @return the remaining risk fraction of a vulnerability with the changes applied, in the order of
+     * {@link MitigationCoverage} so that unchanged vulnerabilities round identically.
+     */
+    private int remaining(long vulnerabilityId, Map<Long, WhatIfRequestDTO.Change> changes) {
+        int remaining = ResidualRiskModel.FULL;
+        for (int link = links.firstLink(vulnerabilityId); link < links.size() && links.vulnerabilityId(link) == vulnerabilityId; link++) {
+            MitigationStatus status = links.status(link);
+            MitigationType type = links.type(link);
+            WhatIfRequestDTO.Change change = changes.get(links.mitigationId(link));
+            if (change != null) {
+                if (change.isRemoved()) {
+                    continue;
+                }
+                status = change.getStatus() != null ? change.getStatus() : status;
+                type = change.getType() != null ? change.getType() : type;
+            }
+            remaining = ResidualRiskModel.remainingAfter(remaining, model.effectiveness(status, type));
+        }
+        return remaining;
+    }
+
+    /**
+     * The scenarios of one vulnerability.
+     */
+    private static final class Exposure {
+
+        int size;
+        long[] riskValues = new long[4];
+        long[] environmentIds = new long[4];
+
+        void add(long riskValue, long environmentId) {
+            if (size == riskValues.length) {
+                riskValues = Arrays.copyOf(riskValues, size * 2);
+                environmentIds = Arrays.copyOf(environmentIds, size * 2);
+            }
+            riskValues[size] = riskValue;
+            environmentIds[size] = environmentId;
+            size++;
+        }
+    }
+
+    /**
+     * A {@link FixedPoint} sum spilling into a {@link BigDecimal} on overflow.
+     */
+    private static final class Total {
+
+        long sum;
+        BigDecimal spilled = BigDecimal.ZERO;
+
+        void add(long value) {
+            try {
+                sum = Math.addExact(sum, value);
+            } catch (ArithmeticException e) {
+                spilled = spilled.add(FixedPoint.toBigDecimal(sum));
+                sum = value;
+            }
+        }
+
+        BigDecimal value() {
+            return spilled.add(FixedPoint.toBigDecimal(sum));
+        }
+    }
+}
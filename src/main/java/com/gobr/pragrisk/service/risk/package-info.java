@@ -0,0 +1,4 @@
+/**
+ * Risk computation and analysis services.
+ */
+package com.gobr.pragrisk.service.risk;
@@ -0,0 +1,163 @@
+package com.gobr.pragrisk.service.search;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The progress of a reindex job of the {@link SearchReindexService}, updated while it runs.
+ */
+public final class ReindexProgress {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private final Instant startedDate = Instant.now();
+
+    private final List<IndexProgress> indices;
+
+    private volatile Status status = Status.RUNNING;
+
+    private volatile Instant finishedDate;
+
+    private volatile String error;
+
+    ReindexProgress(Collection<SearchDocumentType> types) {
+        this.indices = types.stream().map(IndexProgress::new).collect(Collectors.toUnmodifiableList());
+    }
+
+    public Instant getStartedDate() {
+        return startedDate;
+    }
+
+    public Instant getFinishedDate() {
+        return finishedDate;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the message of the failure of the job, if it failed.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the progress of the index of each type, in the order they are rebuilt.
+     */
+    public List<IndexProgress> getIndices() {
+        return indices;
+    }
+
+    boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    void complete() {
+        finishedDate = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finishedDate = Instant.now();
+        status = Status.FAILED;
+    }
+
+    /**
+     * The progress of the rebuild of the index of one type.
+     */
+    public static final class IndexProgress {
+
+        private final SearchDocumentType type;
+
+        private final AtomicLong documents = new AtomicLong();
+
+        private final AtomicInteger completedSlices = new AtomicInteger();
+
+        private volatile Status status = Status.PENDING;
+
+        private volatile String index;
+
+        private volatile long total;
+
+        private volatile int slices;
+
+        IndexProgress(SearchDocumentType type) {
+            this.type = type;
+        }
+
+        public SearchDocumentType getType() {
+            return type;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the name of the index being built, the alias of the type pointing to it once it is complete.
+         */
+        public String getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the number of entities when the index started loading.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return the number of documents loaded so far.
+         */
+        public long getDocuments() {
+            return documents.get();
+        }
+
+        public int getSlices() {
+            return slices;
+        }
+
+        public int getCompletedSlices() {
+            return completedSlices.get();
+        }
+
+        void start(String index) {
+            this.index = index;
+            status = Status.RUNNING;
+        }
+
+        void load(long total, int slices) {
+            this.total = total;
+            this.slices = slices;
+        }
+
+        void addDocuments(int count) {
+            documents.addAndGet(count);
+        }
+
+        void completeSlice() {
+            completedSlices.incrementAndGet();
+        }
+
+        void complete() {
+            status = Status.COMPLETED;
+        }
+
+        void fail() {
+            status = Status.FAILED;
+        }
+    }
+}
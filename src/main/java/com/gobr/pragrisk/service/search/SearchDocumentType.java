@@ -0,0 +1,45 @@
+package com.gobr.pragrisk.service.search;
+
+import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Environment;
+import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.User;
+import com.gobr.pragrisk.domain.Vulnerability;
+
+/**
+ * The entities indexed in Elasticsearch, by the {@link SearchIndexer}.
+ */
+public enum SearchDocumentType {
+    ACTOR(Actor.class, Actor.EAGER_RELATIONSHIPS_GRAPH),
+    ENVIRONMENT(Environment.class, null),
+    MITIGATION(Mitigation.class, null),
+    SCENARIO(Scenario.class, Scenario.EAGER_RELATIONSHIPS_GRAPH),
+    TECHNOLOGY(Technology.class, Technology.EAGER_RELATIONSHIPS_GRAPH),
+    USER(User.class, null),
+    VULNERABILITY(Vulnerability.class, null);
+
+    private final Class<?> entityClass;
+
+    private final String fetchGraph;
+
+    SearchDocumentType(Class<?> entityClass, String fetchGraph) {
+        this.entityClass = entityClass;
+        this.fetchGraph = fetchGraph;
+    }
+
+    /**
+     * @return the class of the entities, also mapped to their documents.
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return the name of the entity graph to read the entities of whole documents with, or {@code null}.
+     */
+    public String getFetchGraph() {
+        return fetchGraph;
+    }
+}
@@ -0,0 +1,410 @@
+package com.gobr.pragrisk.service.search;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Environment;
+import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.User;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.EnvironmentRepository;
+import com.gobr.pragrisk.repository.MitigationRepository;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.SearchOutboxEntry;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
+import com.gobr.pragrisk.repository.TechnologyRepository;
+import com.gobr.pragrisk.repository.UserRepository;
+import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.repository.search.ActorSearchRepository;
+import com.gobr.pragrisk.repository.search.EnvironmentSearchRepository;
+import com.gobr.pragrisk.repository.search.MitigationSearchRepository;
+import com.gobr.pragrisk.repository.search.ScenarioSearchRepository;
+import com.gobr.pragrisk.repository.search.TechnologySearchRepository;
+import com.gobr.pragrisk.repository.search.UserSearchRepository;
+import com.gobr.pragrisk.repository.search.VulnerabilitySearchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service keeping the Elasticsearch indices in step with the database, through a transactional outbox.
+ * <p>
+ * Writes do not index their entities: they {@link #enqueue} them in the {@code search_outbox} table, in the same
+ * transaction, so that their latency does not depend on Elasticsearch and a rolled back write indexes nothing. Every
+ * {@code application.search.indexer.poll-interval-ms} the pending entries are drained in id order, by batches of
+ * {@code application.search.indexer.batch-size}: the entries of a batch are coalesced by document, and the current
+ * state of the documents of each type is shipped in one bulk request, the documents whose entity no longer exists
+ * being deleted. Shipped entries are deleted, so documents are indexed at least once.
+ * <p>
+ * A failed bulk request leaves its entries pending with one more failed attempt, and the indexer backs off from
+ * {@code retry-backoff-ms}, doubling up to {@code max-retry-backoff-ms}; entries are given up after
+ * {@code max-attempts} and moved to the {@code search_outbox_dead_letter} table, counted by the
+ * {@code pragrisk.search.outbox.dead} counter and the {@code pragrisk.search.outbox.dead-letters} gauge. Only one bulk
+ * request is in flight at a time, so a slow or overloaded cluster slows the indexer down while the backlog builds up
+ * in the outbox, published with its age as the {@code pragrisk.search.outbox.backlog} and
+ * {@code pragrisk.search.outbox.lag} gauges.
+ * <p>
+ * While the {@link SearchReindexService} rebuilds the index of a type, the ids of the documents of that type shipped
+ * to the live index are {@linkplain #startTracking tracked}, so that they can be shipped again once the rebuilt index
+ * is live.
+ * <p>
+ * Services caching what they read from the indices {@linkplain #addShipListener listen} to the documents shipped.
+ */
+@Service
+public class SearchIndexer {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexer.class);
+
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    private final Map<SearchDocumentType, DocumentIndexer<?>> indexers = new EnumMap<>(SearchDocumentType.class);
+
+    private final Map<SearchDocumentType, Set<Long>> trackedIds = new ConcurrentHashMap<>();
+
+    private final List<Consumer<SearchDocumentType>> shipListeners = new CopyOnWriteArrayList<>();
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMs;
+
+    private final long maxRetryBackoffMs;
+
+    private final Counter indexedDocuments;
+
+    private final Counter deletedDocuments;
+
+    private final Counter coalescedEntries;
+
+    private final Counter failedRequests;
+
+    private final Counter deadEntries;
+
+    private final Timer bulkRequests;
+
+    private volatile long backlog;
+
+    private volatile double lagSeconds;
+
+    private volatile long deadLetters;
+
+    // guarded by this, like the drains
+    private int consecutiveFailures;
+
+    private long retryAt;
+
+    private boolean deadLettersMoved;
+
+    public SearchIndexer(
+        SearchOutboxRepository searchOutboxRepository,
+        ActorRepository actorRepository,
+        ActorSearchRepository actorSearchRepository,
+        EnvironmentRepository environmentRepository,
+        EnvironmentSearchRepository environmentSearchRepository,
+        MitigationRepository mitigationRepository,
+        MitigationSearchRepository mitigationSearchRepository,
+        ScenarioRepository scenarioRepository,
+        ScenarioSearchRepository scenarioSearchRepository,
+        TechnologyRepository technologyRepository,
+        TechnologySearchRepository technologySearchRepository,
+        UserRepository userRepository,
+        UserSearchRepository userSearchRepository,
+        VulnerabilityRepository vulnerabilityRepository,
+        VulnerabilitySearchRepository vulnerabilitySearchRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Search.Indexer properties = applicationProperties.getSearch().getIndexer();
+        this.searchOutboxRepository = searchOutboxRepository;
+        // read-write, so that documents are read from the primary database rather than from a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = properties.getBatchSize();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.retryBackoffMs = properties.getRetryBackoffMs();
+        this.maxRetryBackoffMs = properties.getMaxRetryBackoffMs();
+        indexers.put(SearchDocumentType.ACTOR, new DocumentIndexer<>(actorRepository::findAllById, actorSearchRepository, Actor::getId));
+        indexers.put(
+            SearchDocumentType.ENVIRONMENT,
+            new DocumentIndexer<>(environmentRepository::findAllById, environmentSearchRepository, Environment::getId)
+        );
+        indexers.put(
+            SearchDocumentType.MITIGATION,
+            new DocumentIndexer<>(mitigationRepository::findAllById, mitigationSearchRepository, Mitigation::getId)
+        );
+        indexers.put(
+            SearchDocumentType.SCENARIO,
+            new DocumentIndexer<>(scenarioRepository::findAllWithEagerRelationships, scenarioSearchRepository, Scenario::getId)
+        );
+        indexers.put(
+            SearchDocumentType.TECHNOLOGY,
+            new DocumentIndexer<>(technologyRepository::findAllById, technologySearchRepository, Technology::getId)
+        );
+        indexers.put(SearchDocumentType.USER, new DocumentIndexer<>(userRepository::findAllById, userSearchRepository, User::getId));
+        indexers.put(
+            SearchDocumentType.VULNERABILITY,
+            new DocumentIndexer<>(vulnerabilityRepository::findAllById, vulnerabilitySearchRepository, Vulnerability::getId)
+        );
+        this.indexedDocuments = documentCounter("index", registry);
+        this.deletedDocuments = documentCounter("delete", registry);
+        this.coalescedEntries =
+            Counter
+                .builder("pragrisk.search.outbox.coalesced")
+                .description("Outbox entries shipped together with another entry of the same document")
+                .register(registry);
+        this.failedRequests =
+            Counter.builder("pragrisk.search.indexer.failures").description("Failed bulk requests, retried later").register(registry);
+        this.deadEntries =
+            Counter
+                .builder("pragrisk.search.outbox.dead")
+                .description("Outbox entries given up after max-attempts and moved to the dead letters")
+                .register(registry);
+        this.bulkRequests =
+            Timer
+                .builder("pragrisk.search.indexer.bulk")
+                .description("Bulk requests shipping the documents of one type")
+                .register(registry);
+        Gauge
+            .builder("pragrisk.search.outbox.backlog", this, indexer -> indexer.backlog)
+            .description("Outbox entries waiting to be indexed")
+            .register(registry);
+        Gauge
+            .builder("pragrisk.search.outbox.lag", this, indexer -> indexer.lagSeconds)
+            .baseUnit("seconds")
+            .description("Age of the oldest outbox entry waiting to be indexed")
+            .register(registry);
+        Gauge
+            .builder("pragrisk.search.outbox.dead-letters", this, indexer -> indexer.deadLetters)
+            .description("Outbox entries given up, waiting in the dead letters")
+            .register(registry);
+    }
+
+    private static Counter documentCounter(String operation, MeterRegistry registry) {
+        return Counter
+            .builder("pragrisk.search.indexer.documents")
+            .description("Documents shipped to Elasticsearch, by operation")
+            .tag("operation", operation)
+            .register(registry);
+    }
+
+    /**
+     * Queue a document for indexing once the current transaction commits.
+     *
+     * @param type the type of the document.
+     * @param id the id of its entity, which may have been deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(SearchDocumentType type, Long id) {
+        searchOutboxRepository.insertAll(type.name(), List.of(id));
+    }
+
+    /**
+     * Queue documents for indexing once the current transaction commits.
+     *
+     * @param type the type of the documents.
+     * @param ids the ids of their entities, which may have been deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(SearchDocumentType type, Collection<Long> ids) {
+        searchOutboxRepository.insertAll(type.name(), ids);
+    }
+
+    /**
+     * Start tracking the documents of a type shipped from now on, until {@link #stopTracking}.
+     *
+     * @param type the type of the documents.
+     * @return the ids of the documents shipped since, updated as they are shipped.
+     */
+    public Set<Long> startTracking(SearchDocumentType type) {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        trackedIds.put(type, ids);
+        return ids;
+    }
+
+    /**
+     * Stop tracking the documents of a type shipped.
+     *
+     * @param type the type of the documents.
+     */
+    public void stopTracking(SearchDocumentType type) {
+        trackedIds.remove(type);
+    }
+
+    /**
+     * Listen to the documents shipped: the listener is called with their type after every successful bulk request.
+     *
+     * @param listener the listener, called from the draining thread.
+     */
+    public void addShipListener(Consumer<SearchDocumentType> listener) {
+        shipListeners.add(listener);
+    }
+
+    /**
+     * Ship the pending outbox entries to Elasticsearch, until the outbox is empty or a bulk request fails.
+     */
+    @Scheduled(
+        fixedDelayString = "${application.search.indexer.poll-interval-ms:500}",
+        initialDelayString = "${application.search.indexer.poll-interval-ms:500}"
+    )
+    public synchronized void drain() {
+        if (!deadLettersMoved) {
+            // entries given up before a restart, or under a higher max-attempts
+            moveDeadLetters();
+            deadLettersMoved = true;
+        }
+        if (System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        List<SearchOutboxEntry> entries;
+        do {
+            entries = transactionTemplate.execute(status -> searchOutboxRepository.findPending(batchSize, maxAttempts));
+            updateBacklog(entries);
+            if (entries.isEmpty() || !ship(entries)) {
+                return;
+            }
+        } while (entries.size() == batchSize);
+    }
+
+    private void updateBacklog(List<SearchOutboxEntry> entries) {
+        if (entries.size() < batchSize) {
+            backlog = entries.size();
+        } else {
+            backlog = transactionTemplate.execute(status -> searchOutboxRepository.countPending(maxAttempts));
+        }
+        lagSeconds = entries.isEmpty() ? 0 : Duration.between(entries.get(0).getCreatedDate(), Instant.now()).toMillis() / 1000.0;
+    }
+
+    private void moveDeadLetters() {
+        int moved = transactionTemplate.execute(status -> searchOutboxRepository.deadLetterAll(maxAttempts));
+        if (moved > 0) {
+            log.warn("Moved {} outbox entries to the dead letters", moved);
+            deadEntries.increment(moved);
+        }
+        deadLetters = transactionTemplate.execute(status -> searchOutboxRepository.countDeadLetters());
+    }
+
+    /**
+     * @return whether every bulk request succeeded.
+     */
+    private boolean ship(List<SearchOutboxEntry> entries) {
+        Map<SearchDocumentType, List<SearchOutboxEntry>> entriesByType = new EnumMap<>(SearchDocumentType.class);
+        List<SearchOutboxEntry> shipped = new ArrayList<>(entries.size());
+        for (SearchOutboxEntry entry : entries) {
+            try {
+                SearchDocumentType type = SearchDocumentType.valueOf(entry.getDocumentType());
+                entriesByType.computeIfAbsent(type, key -> new ArrayList<>()).add(entry);
+            } catch (IllegalArgumentException e) {
+                log.warn("Dropping outbox entry {} of unknown document type {}", entry.getId(), entry.getDocumentType());
+                shipped.add(entry);
+            }
+        }
+        List<SearchOutboxEntry> failed = new ArrayList<>();
+        entriesByType.forEach((type, typeEntries) -> {
+            Set<Long> ids = new LinkedHashSet<>();
+            typeEntries.forEach(entry -> ids.add(entry.getDocumentId()));
+            coalescedEntries.increment(typeEntries.size() - ids.size());
+            Set<Long> tracked = trackedIds.get(type);
+            if (tracked != null) {
+                tracked.addAll(ids);
+            }
+            try {
+                bulkRequests.record(() -> transactionTemplate.executeWithoutResult(status -> indexers.get(type).index(ids)));
+                shipped.addAll(typeEntries);
+                shipListeners.forEach(listener -> listener.accept(type));
+            } catch (RuntimeException e) {
+                failedRequests.increment();
+                log.warn("Could not index {} {} documents: {}", ids.size(), type, e.getMessage());
+                failed.addAll(typeEntries);
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            searchOutboxRepository.deleteAll(shipped);
+            searchOutboxRepository.failAll(failed);
+        });
+        boolean gaveUp = false;
+        for (SearchOutboxEntry entry : failed) {
+            if (entry.getAttempts() + 1 >= maxAttempts) {
+                log.error("Gave up indexing {} {} after {} attempts", entry.getDocumentType(), entry.getDocumentId(), maxAttempts);
+                gaveUp = true;
+            }
+        }
+        if (gaveUp) {
+            moveDeadLetters();
+        }
+        if (failed.isEmpty()) {
+            consecutiveFailures = 0;
+            return true;
+        }
+        consecutiveFailures++;
+        retryAt = System.currentTimeMillis() + Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(consecutiveFailures - 1, 30));
+        return false;
+    }
+
+    /**
+     * Ships the documents of one type.
+     */
+    private final class DocumentIndexer<T> {
+
+        private final Function<Collection<Long>, List<T>> loader;
+
+        private final ElasticsearchRepository<T, Long> searchRepository;
+
+        private final Function<T, Long> id;
+
+        DocumentIndexer(
+            Function<Collection<Long>, List<T>> loader,
+            ElasticsearchRepository<T, Long> searchRepository,
+            Function<T, Long> id
+        ) {
+            this.loader = loader;
+            this.searchRepository = searchRepository;
+            this.id = id;
+        }
+
+        /**
+         * Index the current state of the documents, or delete those whose entity no longer exists. Must run in a
+         * transaction, as documents are mapped from the entities and their lazy relationships.
+         */
+        void index(Set<Long> ids) {
+            List<T> documents = loader.apply(ids);
+            Set<Long> deleted = new LinkedHashSet<>(ids);
+            documents.forEach(document -> deleted.remove(id.apply(document)));
+            if (!documents.isEmpty()) {
+                searchRepository.saveAll(documents);
+                indexedDocuments.increment(documents.size());
+            }
+            if (!deleted.isEmpty()) {
+                searchRepository.deleteAllById(deleted);
+                deletedDocuments.increment(deleted.size());
+            }
+        }
+    }
+}
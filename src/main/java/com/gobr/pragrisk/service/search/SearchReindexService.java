@@ -0,0 +1,275 @@
+package com.gobr.pragrisk.service.search;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.repository.IdRange;
+import com.gobr.pragrisk.repository.Keyset;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.KeysetRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PreDestroy;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.common.settings.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service rebuilding the Elasticsearch indices from the database, without downtime.
+ * <p>
+ * The index name of each {@code @Document} is an alias of a versioned index, named after the alias and the time it was
+ * built. A reindex creates a new versioned index with the current mapping, with no replica and refreshes disabled while
+ * it loads. The entity table is split into id-range slices, read in parallel on
+ * {@code application.search.reindex.parallelism} threads by pages of {@code application.search.reindex.batch-size}
+ * entities, each page being shipped in one bulk request. The index then gets its replicas and refresh interval back,
+ * and the alias is moved to it in one atomic request that also deletes the previous index: searches never see a
+ * missing or partial index, so mapping changes no longer need downtime.
+ * <p>
+ * Writes keep being indexed into the live index meanwhile. The documents shipped by the {@link SearchIndexer} during a
+ * rebuild are queued again once the new index is live, as their entity may have been read before it changed.
+ */
+@Service
+public class SearchReindexService {
+
+    private static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+
+    private static final int SLICES_PER_THREAD = 4;
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private final ElasticsearchRestTemplate elasticsearchTemplate;
+
+    private final KeysetRepository keysetRepository;
+
+    private final SearchIndexer searchIndexer;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final ForkJoinPool pool;
+
+    private final int batchSize;
+
+    private final AtomicReference<ReindexProgress> progress = new AtomicReference<>();
+
+    public SearchReindexService(
+        ElasticsearchRestTemplate elasticsearchTemplate,
+        KeysetRepository keysetRepository,
+        SearchIndexer searchIndexer,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Search.Reindex properties = applicationProperties.getSearch().getReindex();
+        int parallelism = properties.getParallelism();
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.keysetRepository = keysetRepository;
+        this.searchIndexer = searchIndexer;
+        // read-write, so that entities are read from the primary database rather than from a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.batchSize = properties.getBatchSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return the progress of the running reindex, or of the last one.
+     */
+    public Optional<ReindexProgress> getProgress() {
+        return Optional.ofNullable(progress.get());
+    }
+
+    /**
+     * Start rebuilding the indices of some document types, one after the other, in the background.
+     *
+     * @param types the types of the documents.
+     * @return the progress of the reindex.
+     * @throws IllegalStateException if a reindex is already running.
+     */
+    public ReindexProgress start(Collection<SearchDocumentType> types) {
+        ReindexProgress started = new ReindexProgress(types);
+        ReindexProgress previous = progress.get();
+        if ((previous != null && previous.isRunning()) || !progress.compareAndSet(previous, started)) {
+            throw new IllegalStateException("A reindex is already running");
+        }
+        taskExecutor.execute(() -> run(started));
+        return started;
+    }
+
+    private void run(ReindexProgress job) {
+        for (ReindexProgress.IndexProgress index : job.getIndices()) {
+            try {
+                reindex(index);
+            } catch (RuntimeException e) {
+                log.error("Could not reindex the {} documents", index.getType(), e);
+                index.fail();
+                job.fail(e.getMessage());
+                return;
+            }
+        }
+        job.complete();
+    }
+
+    private void reindex(ReindexProgress.IndexProgress progress) {
+        SearchDocumentType type = progress.getType();
+        String alias = elasticsearchTemplate.getIndexCoordinatesFor(type.getEntityClass()).getIndexName();
+        IndexCoordinates index = IndexCoordinates.of(alias + "-" + System.currentTimeMillis());
+        IndexOperations entityOperations = elasticsearchTemplate.indexOps(type.getEntityClass());
+        IndexOperations indexOperations = elasticsearchTemplate.indexOps(index);
+        Map<String, Object> settings = entityOperations.createSettings();
+        Map<String, Object> loadSettings = new HashMap<>(settings);
+        loadSettings.put(NUMBER_OF_REPLICAS, 0);
+        loadSettings.put(REFRESH_INTERVAL, "-1");
+
+        log.info("Rebuilding the {} index into {}", alias, index.getIndexName());
+        progress.start(index.getIndexName());
+        Set<Long> shippedIds = searchIndexer.startTracking(type);
+        try {
+            indexOperations.create(loadSettings, entityOperations.createMapping());
+            try {
+                load(progress, index);
+                restoreSettings(index, settings);
+                indexOperations.refresh();
+                moveAlias(alias, index);
+            } catch (RuntimeException e) {
+                deleteQuietly(indexOperations, e);
+                throw e;
+            }
+        } finally {
+            searchIndexer.stopTracking(type);
+        }
+        if (!shippedIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> searchIndexer.enqueueAll(type, shippedIds));
+        }
+        progress.complete();
+        log.info("Rebuilt the {} index into {} with {} documents", alias, index.getIndexName(), progress.getDocuments());
+    }
+
+    /**
+     * Load the documents into the index, from the id-range slices of their entities read in parallel.
+     */
+    private void load(ReindexProgress.IndexProgress progress, IndexCoordinates index) {
+        Class<?> entityClass = progress.getType().getEntityClass();
+        long total = transactionTemplate.execute(status -> keysetRepository.count(entityClass));
+        List<IdRange> slices = transactionTemplate
+            .execute(status -> keysetRepository.findIdRange(entityClass))
+            .map(range -> range.split(pool.getParallelism() * SLICES_PER_THREAD))
+            .orElse(List.of());
+        progress.load(total, slices.size());
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(slices.size());
+        for (IdRange slice : slices) {
+            tasks.add(pool.submit(() -> loadSlice(progress, index, slice, aborted)));
+        }
+        RuntimeException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                aborted.set(true);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void loadSlice(ReindexProgress.IndexProgress progress, IndexCoordinates index, IdRange slice, AtomicBoolean aborted) {
+        SearchDocumentType type = progress.getType();
+        Keyset position = Keyset.first(Sort.by("id"));
+        while (position != null && !aborted.get()) {
+            Keyset current = position;
+            position =
+                transactionTemplate.execute(status -> {
+                    // documents are mapped from the entities and their lazy relationships, within the transaction
+                    KeysetPage<?> page = keysetRepository.findPageInRange(
+                        type.getEntityClass(),
+                        slice,
+                        current,
+                        batchSize,
+                        type.getFetchGraph()
+                    );
+                    if (!page.getContent().isEmpty()) {
+                        elasticsearchTemplate.save(page.getContent(), index);
+                        progress.addDocuments(page.getContent().size());
+                    }
+                    return page.getNext();
+                });
+        }
+        progress.completeSlice();
+    }
+
+    private void restoreSettings(IndexCoordinates index, Map<String, Object> settings) {
+        Settings.Builder restored = Settings.builder();
+        for (String key : List.of(NUMBER_OF_REPLICAS, REFRESH_INTERVAL)) {
+            Object value = settings.get(key);
+            if (value == null) {
+                restored.putNull(key);
+            } else {
+                restored.put(key, value.toString());
+            }
+        }
+        UpdateSettingsRequest request = new UpdateSettingsRequest(index.getIndexName()).settings(restored);
+        elasticsearchTemplate.execute(client -> client.indices().putSettings(request, RequestOptions.DEFAULT));
+    }
+
+    /**
+     * Point the alias to the index, and delete the indices it pointed to, in one atomic request.
+     */
+    private void moveAlias(String alias, IndexCoordinates index) {
+        IndexOperations aliasOperations = elasticsearchTemplate.indexOps(IndexCoordinates.of(alias));
+        AliasActions actions = new AliasActions(
+            new AliasAction.Add(AliasActionParameters.builder().withIndices(index.getIndexName()).withAliases(alias).build())
+        );
+        Collection<String> previousIndices = aliasOperations.getAliases(alias).keySet();
+        if (previousIndices.isEmpty() && aliasOperations.exists()) {
+            // created under the alias name by the search repositories, before the first reindex
+            previousIndices = List.of(alias);
+        }
+        for (String previousIndex : previousIndices) {
+            actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(previousIndex).build()));
+        }
+        aliasOperations.alias(actions);
+    }
+
+    private void deleteQuietly(IndexOperations indexOperations, RuntimeException cause) {
+        try {
+            indexOperations.delete();
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.gobr.pragrisk.service.search;
+
+import static org.elasticsearch.index.query.QueryBuilders.multiMatchQuery;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.service.dto.SuggestionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service suggesting entities as their names are typed, from the {@code search_as_you_type} sub-fields of their
+ * documents.
+ * <p>
+ * The typed words match the words of the fields of a {@link SuggestionType}, the last one by prefix, through a
+ * {@code bool_prefix} {@code multi_match} on the edge n-grams indexed for the fields and their shingles: a suggestion
+ * is a single query on pre-computed prefixes, which neither counts the hits nor reads more of the documents than
+ * their labels.
+ * <p>
+ * The suggestions of the hottest prefixes are kept in memory: up to {@code application.search.suggest.cache-size}
+ * prefixes, least recently used first out, each for at most {@code cache-ttl-ms}. The suggestions of a type are
+ * forgotten whenever the {@link SearchIndexer} ships documents of that type, and those read less than a refresh
+ * interval after, which may miss the shipped documents, are not kept.
+ */
+@Service
+public class SearchSuggestService {
+
+    /**
+     * The default {@code index.refresh_interval}, after which shipped documents are searchable.
+     */
+    private static final long REFRESH_INTERVAL_MS = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(SearchSuggestService.class);
+
+    private final ElasticsearchRestTemplate elasticsearchTemplate;
+
+    private final SearchIndexer searchIndexer;
+
+    private final Map<SuggestionType, Suggester<?>> suggesters = new EnumMap<>(SuggestionType.class);
+
+    private final long cacheTtlMs;
+
+    // guarded by itself, like lastShipped
+    private final Map<CacheKey, CachedSuggestions> cache;
+
+    private final Map<SearchDocumentType, Long> lastShipped = new EnumMap<>(SearchDocumentType.class);
+
+    private final Counter cacheHits;
+
+    private final Counter cacheMisses;
+
+    public SearchSuggestService(
+        ElasticsearchRestTemplate elasticsearchTemplate,
+        SearchIndexer searchIndexer,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Search.Suggest properties = applicationProperties.getSearch().getSuggest();
+        int cacheSize = properties.getCacheSize();
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.searchIndexer = searchIndexer;
+        this.cacheTtlMs = properties.getCacheTtlMs();
+        this.cache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedSuggestions> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        suggesters.put(
+            SuggestionType.ACTORS,
+            new Suggester<>(
+                Actor.class,
+                Actor::getId,
+                actor -> actor.getNickName() + " (" + actor.getFirstName() + " " + actor.getLastName() + ")",
+                "nickName",
+                "firstName",
+                "lastName"
+            )
+        );
+        suggesters.put(
+            SuggestionType.MITIGATIONS,
+            new Suggester<>(
+                Mitigation.class,
+                Mitigation::getId,
+                mitigation -> mitigation.getTitle() + " (" + mitigation.getControlID() + ")",
+                "title",
+                "controlID"
+            )
+        );
+        suggesters.put(SuggestionType.SCENARIOS, new Suggester<>(Scenario.class, Scenario::getId, Scenario::getTitle, "title"));
+        suggesters.put(SuggestionType.TECHNOLOGIES, new Suggester<>(Technology.class, Technology::getId, Technology::getName, "name"));
+        suggesters.put(
+            SuggestionType.VULNERABILITIES,
+            new Suggester<>(
+                Vulnerability.class,
+                Vulnerability::getId,
+                vulnerability ->
+                    vulnerability.getCweReference() == null
+                        ? vulnerability.getName()
+                        : vulnerability.getName() + " (" + vulnerability.getCweReference() + ")",
+                "name",
+                "cweReference"
+            )
+        );
+        this.cacheHits = cacheCounter("hit", registry);
+        this.cacheMisses = cacheCounter("miss", registry);
+    }
+
+    private static Counter cacheCounter(String result, MeterRegistry registry) {
+        return Counter
+            .builder("pragrisk.search.suggest.cache")
+            .description("Suggestions read from the prefix cache, or from Elasticsearch")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        searchIndexer.addShipListener(this::evict);
+    }
+
+    /**
+     * Suggest the entities of a type whose words start with the typed ones.
+     *
+     * @param type the type of the entities.
+     * @param text the typed text, whose last word may be incomplete.
+     * @param size the most suggestions.
+     * @return the suggestions, best first, or none if the text is blank.
+     */
+    public List<SuggestionDTO> suggest(SuggestionType type, String text, int size) {
+        String prefix = text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        CacheKey key = new CacheKey(type, prefix, size);
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedSuggestions cached = cache.get(key);
+            if (cached != null && cached.expiresAt > now) {
+                cacheHits.increment();
+                return cached.suggestions;
+            }
+        }
+        cacheMisses.increment();
+        log.debug("Request to suggest {} for prefix {}", type.getPath(), prefix);
+        List<SuggestionDTO> suggestions = suggesters.get(type).suggest(type, prefix, size);
+        synchronized (cache) {
+            if (lastShipped.getOrDefault(type.getDocumentType(), 0L) < now - REFRESH_INTERVAL_MS) {
+                cache.put(key, new CachedSuggestions(suggestions, now + cacheTtlMs));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Forget the suggestions of the documents of a type.
+     *
+     * @param type the type of the documents.
+     */
+    void evict(SearchDocumentType type) {
+        synchronized (cache) {
+            lastShipped.put(type, System.currentTimeMillis());
+            cache.keySet().removeIf(key -> key.type.getDocumentType() == type);
+        }
+    }
+
+    /**
+     * Reads the suggestions of one type.
+     */
+    private final class Suggester<T> {
+
+        private final Class<T> clazz;
+
+        private final Function<T, Long> id;
+
+        private final Function<T, String> label;
+
+        private final String[] sourceFields;
+
+        Suggester(Class<T> clazz, Function<T, Long> id, Function<T, String> label, String... labelFields) {
+            this.clazz = clazz;
+            this.id = id;
+            this.label = label;
+            this.sourceFields = new String[labelFields.length + 1];
+            this.sourceFields[0] = "id";
+            System.arraycopy(labelFields, 0, sourceFields, 1, labelFields.length);
+        }
+
+        List<SuggestionDTO> suggest(SuggestionType type, String prefix, int size) {
+            MultiMatchQueryBuilder query = multiMatchQuery(prefix).type(MultiMatchQueryBuilder.Type.BOOL_PREFIX);
+            for (String field : type.getFields()) {
+                query.field(field + ".suggest").field(field + ".suggest._2gram").field(field + ".suggest._3gram");
+            }
+            NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(query);
+            nativeSearchQuery.setPageable(PageRequest.of(0, size));
+            nativeSearchQuery.setTrackTotalHits(false);
+            nativeSearchQuery.addSourceFilter(new FetchSourceFilter(sourceFields, null));
+            return elasticsearchTemplate
+                .search(nativeSearchQuery, clazz)
+                .stream()
+                .map(SearchHit::getContent)
+                .map(document -> new SuggestionDTO(id.apply(document), label.apply(document)))
+                .collect(Collectors.toUnmodifiableList());
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final SuggestionType type;
+
+        private final String prefix;
+
+        private final int size;
+
+        CacheKey(SuggestionType type, String prefix, int size) {
+            this.type = type;
+            this.prefix = prefix;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return type == other.type && prefix.equals(other.prefix) && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, prefix, size);
+        }
+    }
+
+    private static final class CachedSuggestions {
+
+        private final List<SuggestionDTO> suggestions;
+
+        private final long expiresAt;
+
+        CachedSuggestions(List<SuggestionDTO> suggestions, long expiresAt) {
+            this.suggestions = suggestions;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
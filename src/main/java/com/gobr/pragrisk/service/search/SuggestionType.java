@@ -0,0 +1,50 @@
+package com.gobr.pragrisk.service.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The entities the {@link SearchSuggestService} suggests, with their fields mapped as {@code search_as_you_type}.
+ */
+public enum SuggestionType {
+    ACTORS("actors", SearchDocumentType.ACTOR, "nickName", "firstName", "lastName"),
+    MITIGATIONS("mitigations", SearchDocumentType.MITIGATION, "title"),
+    SCENARIOS("scenarios", SearchDocumentType.SCENARIO, "title"),
+    TECHNOLOGIES("technologies", SearchDocumentType.TECHNOLOGY, "name"),
+    VULNERABILITIES("vulnerabilities", SearchDocumentType.VULNERABILITY, "name", "cweReference");
+
+    private final String path;
+
+    private final SearchDocumentType documentType;
+
+    private final List<String> fields;
+
+    SuggestionType(String path, SearchDocumentType documentType, String... fields) {
+        this.path = path;
+        this.documentType = documentType;
+        this.fields = List.of(fields);
+    }
+
+    /**
+     * @return the name of this type in REST paths.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public SearchDocumentType getDocumentType() {
+        return documentType;
+    }
+
+    /**
+     * @return the fields whose words are matched by prefix, each with a {@code suggest} sub-field.
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public static Optional<SuggestionType> fromPath(String path) {
+        return Arrays.stream(values()).filter(type -> type.path.equals(path)).findFirst();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Elasticsearch indexing services.
+ */
+package com.gobr.pragrisk.service.search;
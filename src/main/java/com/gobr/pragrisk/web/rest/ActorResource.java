@@ -4,7 +4,14 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Actor;
 import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
 import com.gobr.pragrisk.service.ActorService;
+import com.gobr.pragrisk.service.criteria.ActorCriteria;
+import com.gobr.pragrisk.service.dto.ActorSummaryDTO;
+import com.gobr.pragrisk.service.risk.RiskDimension;
+import com.gobr.pragrisk.service.risk.RiskHierarchyService;
 import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -17,16 +24,18 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.gobr.pragrisk.domain.Actor}.
@@ -46,9 +55,12 @@ public class ActorResource {
 
     private final ActorRepository actorRepository;
 
-    public ActorResource(ActorService actorService, ActorRepository actorRepository) {
+    private final RiskHierarchyService riskHierarchyService;
+
+    public ActorResource(ActorService actorService, ActorRepository actorRepository, RiskHierarchyService riskHierarchyService) {
         this.actorService = actorService;
         this.actorRepository = actorRepository;
+        this.riskHierarchyService = riskHierarchyService;
     }
 
     /**
@@ -75,15 +87,20 @@ public class ActorResource {
      * {@code PUT  /actors/:id} : Updates an existing actor.
      *
      * @param id the id of the actor to save.
+     * @param ifMatch the {@code ETag} the actor was read with, if it must not have changed since.
      * @param actor the actor to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated actor,
-     * or with status {@code 400 (Bad Request)} if the actor is not valid,
+     * or with status {@code 400 (Bad Request)} if the actor is not valid or would descend from itself,
+     * or with status {@code 412 (Precondition Failed)} and with body the current actor if it has changed since {@code ifMatch},
      * or with status {@code 500 (Internal Server Error)} if the actor couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/actors/{id}")
-    public ResponseEntity<Actor> updateActor(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody Actor actor)
-        throws URISyntaxException {
+    public ResponseEntity<Actor> updateActor(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @Valid @RequestBody Actor actor
+    ) throws URISyntaxException {
         log.debug("REST request to update Actor : {}, {}", id, actor);
         if (actor.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -95,10 +112,30 @@ public class ActorResource {
         if (!actorRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (
+            actor.getParentActor() != null &&
+            actor.getParentActor().getId() != null &&
+            riskHierarchyService.wouldCreateCycle(RiskDimension.ACTOR, id, actor.getParentActor().getId())
+        ) {
+            throw new BadRequestAlertException("An actor cannot descend from itself", ENTITY_NAME, "cyclicparent");
+        }
 
-        Actor result = actorService.save(actor);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            actor.setVersion(expectedVersion);
+        }
+        Actor result;
+        try {
+            result = actorService.update(actor);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(actorService.findCurrent(id), Actor::getVersion);
+        }
         return ResponseEntity
             .ok()
+            .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, actor.getId().toString()))
             .body(result);
     }
@@ -107,9 +144,11 @@ public class ActorResource {
      * {@code PATCH  /actors/:id} : Partial updates given fields of an existing actor, field will ignore if it is null
      *
      * @param id the id of the actor to save.
+     * @param ifMatch the {@code ETag} the actor was read with, if it must not have changed since.
      * @param actor the actor to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated actor,
      * or with status {@code 400 (Bad Request)} if the actor is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current actor if it has changed since {@code ifMatch},
      * or with status {@code 404 (Not Found)} if the actor is not found,
      * or with status {@code 500 (Internal Server Error)} if the actor couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -117,6 +156,7 @@ public class ActorResource {
     @PatchMapping(value = "/actors/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Actor> partialUpdateActor(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Actor actor
     ) throws URISyntaxException {
         log.debug("REST request to partial update Actor partially : {}, {}", id, actor);
@@ -131,10 +171,23 @@ public class ActorResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Actor> result = actorService.partialUpdate(actor);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            actor.setVersion(expectedVersion);
+        }
+        Optional<Actor> result;
+        try {
+            result = actorService.partialUpdate(actor);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(actorService.findCurrent(id), Actor::getVersion);
+        }
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Actor::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, actor.getId().toString())
         );
     }
@@ -143,13 +196,63 @@ public class ActorResource {
      * {@code GET  /actors} : get all the actors.
      *
      * @param pageable the pagination information.
+     * @param after the position of a keyset page, empty for the first one; pages by offset if absent.
+     * @param count whether to count the actors when paging by offset.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of actors in body.
      */
     @GetMapping("/actors")
-    public ResponseEntity<List<Actor>> getAllActors(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Actor>> getAllActors(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "true") boolean count
+    ) {
         log.debug("REST request to get a page of Actors");
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            KeysetPage<Actor> page = actorService.findPage(
+                KeysetPaginationUtil.parseKeyset(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        if (!count) {
+            Slice<Actor> slice = actorService.findSlice(pageable);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Actor> page = actorService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /actors?view=summary} : get the summaries of all the actors, with the names of the entities they
+     * reference rather than the entities.
+     *
+     * @param pageable the pagination information.
+     * @param count whether to count the actors.
+     * @param after not supported: keyset pages list whole actors.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of summaries in body.
+     */
+    @GetMapping(value = "/actors", params = "view=summary")
+    public ResponseEntity<List<ActorSummaryDTO>> getAllActorSummaries(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(defaultValue = "true") boolean count,
+        @RequestParam(required = false) String after
+    ) {
+        log.debug("REST request to get a page of Actor summaries");
+        if (after != null) {
+            throw new BadRequestAlertException("Keyset pages have no summary view", ENTITY_NAME, "nosummary");
+        }
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (!count) {
+            Slice<ActorSummaryDTO> slice = actorService.findSummarySlice(pageable);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<ActorSummaryDTO> page = actorService.findAllSummaries(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -163,7 +266,7 @@ public class ActorResource {
     public ResponseEntity<Actor> getActor(@PathVariable Long id) {
         log.debug("REST request to get Actor : {}", id);
         Optional<Actor> actor = actorService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(actor);
+        return EntityTagUtil.wrapOrNotFound(actor, Actor::getVersion);
     }
 
     /**
@@ -188,16 +291,55 @@ public class ActorResource {
      *
      * @param query the query of the actor search.
      * @param pageable the pagination information.
+     * @param after the position of a cursor page, empty for the first one; pages by offset if absent.
      * @return the result of the search.
      */
     @GetMapping("/_search/actors")
     public ResponseEntity<List<Actor>> searchActors(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after
     ) {
         log.debug("REST request to search for a page of Actors for query {}", query);
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            SearchCursorPage<Actor> page = actorService.search(
+                query,
+                KeysetPaginationUtil.parseSearchCursor(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateSearchCursorHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
         Page<Actor> page = actorService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code GET  /_search/actors/faceted?query=:query} : search for the actors corresponding to the query and the
+     * criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, in the simple query string syntax; every actor matches if absent.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of actors with the counts of their
+     * facets in body.
+     */
+    @GetMapping("/_search/actors/faceted")
+    public ResponseEntity<FacetedPage<Actor>> searchFacetedActors(
+        @RequestParam(required = false) String query,
+        ActorCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a faceted page of Actors for query {} : {}", query, criteria);
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
+        FacetedPage<Actor> page = actorService.search(query, criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page.getPage()
+        );
+        return ResponseEntity.ok().headers(headers).body(page);
+    }
 }
@@ -0,0 +1,69 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for the entity tags of versioned entities.
+ * <p>
+ * Responses carrying an entity tag it with its version, as a strong {@code ETag}. {@code PUT} and {@code PATCH}
+ * requests can send the tag back in an {@code If-Match} header, to only apply if the entity has not changed since;
+ * otherwise they get a {@code 412 (Precondition Failed)} with the current entity and tag.
+ */
+final class EntityTagUtil {
+
+    private EntityTagUtil() {}
+
+    static String toEntityTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param ifMatch the {@code If-Match} header, if any.
+     * @param entityName the entity name of the errors.
+     * @return the version the entity must still have, or {@code null} if any version will do.
+     * @throws BadRequestAlertException if the header is neither {@code *} nor a single entity tag of ours.
+     */
+    static Long parseIfMatch(String ifMatch, String entityName) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // not one of our tags
+            }
+        }
+        throw new BadRequestAlertException("Invalid If-Match header", entityName, "invalidifmatch");
+    }
+
+    /**
+     * Wrap the entity, if any, into a {@code 200 (OK)} tagged with its version, or throw a {@code 404 (Not Found)}.
+     */
+    static <T> ResponseEntity<T> wrapOrNotFound(Optional<T> maybeEntity, Function<T, Long> version, HttpHeaders headers) {
+        return maybeEntity
+            .map(entity -> ResponseEntity.ok().headers(headers).eTag(toEntityTag(version.apply(entity))).body(entity))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    static <T> ResponseEntity<T> wrapOrNotFound(Optional<T> maybeEntity, Function<T, Long> version) {
+        return wrapOrNotFound(maybeEntity, version, null);
+    }
+
+    /**
+     * Wrap the current entity, if any, into a {@code 412 (Precondition Failed)} tagged with its version, or throw a
+     * {@code 404 (Not Found)} if it has been deleted since.
+     */
+    static <T> ResponseEntity<T> preconditionFailed(Optional<T> currentEntity, Function<T, Long> version) {
+        return currentEntity
+            .map(entity -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(toEntityTag(version.apply(entity))).body(entity))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
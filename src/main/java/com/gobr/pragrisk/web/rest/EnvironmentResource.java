@@ -17,10 +17,11 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.gobr.pragrisk.domain.Environment}.
@@ -69,15 +70,18 @@ public class EnvironmentResource {
      * {@code PUT  /environments/:id} : Updates an existing environment.
      *
      * @param id the id of the environment to save.
+     * @param ifMatch the {@code ETag} the environment was read with, if it must not have changed since.
      * @param environment the environment to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated environment,
      * or with status {@code 400 (Bad Request)} if the environment is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current environment if it has changed since {@code ifMatch},
      * or with status {@code 500 (Internal Server Error)} if the environment couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/environments/{id}")
     public ResponseEntity<Environment> updateEnvironment(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Environment environment
     ) throws URISyntaxException {
         log.debug("REST request to update Environment : {}, {}", id, environment);
@@ -92,9 +96,22 @@ public class EnvironmentResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Environment result = environmentService.save(environment);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            environment.setVersion(expectedVersion);
+        }
+        Environment result;
+        try {
+            result = environmentService.update(environment);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(environmentService.findCurrent(id), Environment::getVersion);
+        }
         return ResponseEntity
             .ok()
+            .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, environment.getId().toString()))
             .body(result);
     }
@@ -103,9 +120,11 @@ public class EnvironmentResource {
      * {@code PATCH  /environments/:id} : Partial updates given fields of an existing environment, field will ignore if it is null
      *
      * @param id the id of the environment to save.
+     * @param ifMatch the {@code ETag} the environment was read with, if it must not have changed since.
      * @param environment the environment to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated environment,
      * or with status {@code 400 (Bad Request)} if the environment is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current environment if it has changed since {@code ifMatch},
      * or with status {@code 404 (Not Found)} if the environment is not found,
      * or with status {@code 500 (Internal Server Error)} if the environment couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -113,6 +132,7 @@ public class EnvironmentResource {
     @PatchMapping(value = "/environments/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Environment> partialUpdateEnvironment(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Environment environment
     ) throws URISyntaxException {
         log.debug("REST request to partial update Environment partially : {}, {}", id, environment);
@@ -127,10 +147,23 @@ public class EnvironmentResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Environment> result = environmentService.partialUpdate(environment);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            environment.setVersion(expectedVersion);
+        }
+        Optional<Environment> result;
+        try {
+            result = environmentService.partialUpdate(environment);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(environmentService.findCurrent(id), Environment::getVersion);
+        }
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Environment::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, environment.getId().toString())
         );
     }
@@ -156,7 +189,7 @@ public class EnvironmentResource {
     public ResponseEntity<Environment> getEnvironment(@PathVariable Long id) {
         log.debug("REST request to get Environment : {}", id);
         Optional<Environment> environment = environmentService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(environment);
+        return EntityTagUtil.wrapOrNotFound(environment, Environment::getVersion);
     }
 
     /**
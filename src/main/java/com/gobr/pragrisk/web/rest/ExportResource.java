@@ -0,0 +1,59 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.service.export.ExportFormat;
+import com.gobr.pragrisk.service.export.ExportService;
+import com.gobr.pragrisk.service.export.ExportView;
+import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller for streaming exports of the risk register and its entities.
+ */
+@RestController
+@RequestMapping("/api")
+public class ExportResource {
+
+    private static final String ENTITY_NAME = "export";
+
+    private final Logger log = LoggerFactory.getLogger(ExportResource.class);
+
+    private final ExportService exportService;
+
+    public ExportResource(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * {@code GET  /export/:view} : stream every row of a view as an attachment.
+     *
+     * @param view the view to export: an entity such as {@code scenarios}, or {@code risk-register}.
+     * @param format the format of the export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the rows in body, written as they are read,
+     * or with status {@code 400 (Bad Request)} if the view is unknown.
+     */
+    @GetMapping("/export/{view}")
+    public ResponseEntity<StreamingResponseBody> export(
+        @PathVariable String view,
+        @RequestParam(defaultValue = "NDJSON") ExportFormat format
+    ) {
+        log.debug("REST request to export {} as {}", view, format);
+        ExportView exportView = ExportView
+            .fromPath(view)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown export " + view, ENTITY_NAME, "unknownexport"));
+        ContentDisposition disposition = ContentDisposition
+            .attachment()
+            .filename(exportView.getPath() + "." + format.getExtension())
+            .build();
+        return ResponseEntity
+            .ok()
+            .contentType(format.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .body(output -> exportService.export(exportView, format, output));
+    }
+}
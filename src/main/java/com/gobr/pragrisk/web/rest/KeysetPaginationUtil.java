@@ -0,0 +1,127 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.repository.Keyset;
+import com.gobr.pragrisk.repository.KeysetPage;
+import com.gobr.pragrisk.repository.search.SearchCursor;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
+import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
+import java.text.MessageFormat;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for the list endpoints paginated without a count query: by keyset, when the request has an
+ * {@code after} parameter, or by offset with {@code count=false}.
+ * <p>
+ * Links are written as by {@link tech.jhipster.web.util.PaginationUtil}, without the last page nor a total count.
+ * The first keyset page is requested with an empty {@code after}, the next ones with the token of the {@code next}
+ * link.
+ * <p>
+ * Search endpoints page the same way after a {@link SearchCursor}, with the total count of the hits.
+ */
+final class KeysetPaginationUtil {
+
+    private static final String AFTER_PARAM = "after";
+
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * @param after the {@code after} parameter, empty for the first page.
+     * @param sort the requested sort, only used for the first page.
+     * @param entityName the entity name of the errors.
+     * @return the position of the requested page.
+     * @throws BadRequestAlertException if the token is malformed or the sort is not supported.
+     */
+    static Keyset parseKeyset(String after, Sort sort, String entityName) {
+        try {
+            return after.isEmpty() ? Keyset.first(sort) : Keyset.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "invalidkeyset");
+        }
+    }
+
+    /**
+     * @param after the {@code after} parameter, empty for the first page.
+     * @param sort the requested sort, only used for the first page.
+     * @param entityName the entity name of the errors.
+     * @return the position of the requested search page.
+     * @throws BadRequestAlertException if the token is malformed.
+     */
+    static SearchCursor parseSearchCursor(String after, Sort sort, String entityName) {
+        try {
+            return after.isEmpty() ? SearchCursor.first(sort) : SearchCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "invalidsearchcursor");
+        }
+    }
+
+    /**
+     * @param pageable the requested search page, by offset.
+     * @param entityName the entity name of the errors.
+     * @throws BadRequestAlertException if the page reaches past the hits Elasticsearch pages by offset.
+     */
+    static void checkSearchWindow(Pageable pageable, String entityName) {
+        if (pageable.isPaged() && pageable.getOffset() + pageable.getPageSize() > SearchCursor.MAX_RESULT_WINDOW) {
+            throw new BadRequestAlertException(
+                "Search pages past the first " + SearchCursor.MAX_RESULT_WINDOW + " hits are read with an after parameter",
+                entityName,
+                "searchwindow"
+            );
+        }
+    }
+
+    static HttpHeaders generateSearchCursorHttpHeaders(UriComponentsBuilder uriBuilder, SearchCursorPage<?> page) {
+        StringBuilder link = new StringBuilder();
+        if (page.hasNext()) {
+            link.append(prepareLink(uriBuilder.replaceQueryParam(AFTER_PARAM, page.getNext().encode()), "next")).append(',');
+        }
+        link.append(prepareLink(uriBuilder.replaceQueryParam(AFTER_PARAM, ""), "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_X_TOTAL_COUNT, Long.toString(page.getTotalHits()));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, KeysetPage<?> page) {
+        StringBuilder link = new StringBuilder();
+        if (page.hasNext()) {
+            link.append(prepareLink(uriBuilder.replaceQueryParam(AFTER_PARAM, page.getNext().encode()), "next")).append(',');
+        }
+        link.append(prepareLink(uriBuilder.replaceQueryParam(AFTER_PARAM, ""), "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    static HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<?> slice) {
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next")).append(',');
+        }
+        if (slice.hasPrevious()) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev")).append(',');
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        return prepareLink(uriBuilder.replaceQueryParam("page", pageNumber).replaceQueryParam("size", pageSize), relType);
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, String relType) {
+        String uri = uriBuilder.toUriString().replace(",", "%2C").replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+}
@@ -0,0 +1,71 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.service.dto.CoverageByTypeDTO;
+import com.gobr.pragrisk.service.dto.CoverageGapDTO;
+import com.gobr.pragrisk.service.dto.MitigationSetCoverDTO;
+import com.gobr.pragrisk.service.risk.ControlGapService;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the mitigation coverage of vulnerabilities.
+ */
+@RestController
+@RequestMapping("/api")
+public class MitigationCoverageResource {
+
+    private final Logger log = LoggerFactory.getLogger(MitigationCoverageResource.class);
+
+    private final ControlGapService controlGapService;
+
+    public MitigationCoverageResource(ControlGapService controlGapService) {
+        this.controlGapService = controlGapService;
+    }
+
+    /**
+     * {@code GET  /mitigation-coverage/gaps} : get the vulnerabilities without any mitigation at or above a status.
+     *
+     * @param minimumStatus the lowest mitigation status to count.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the uncovered vulnerabilities in body.
+     */
+    @GetMapping("/mitigation-coverage/gaps")
+    public ResponseEntity<CoverageGapDTO> getCoverageGaps(
+        @RequestParam(defaultValue = "PLANNED_AND_TRACKED") MitigationStatus minimumStatus
+    ) {
+        log.debug("REST request to get the vulnerabilities without mitigation at or above {}", minimumStatus);
+        return ResponseEntity.ok(controlGapService.findGaps(minimumStatus));
+    }
+
+    /**
+     * {@code GET  /mitigation-coverage/types} : get the share of vulnerabilities covered by each mitigation type.
+     *
+     * @param minimumStatus the lowest mitigation status to count, every mitigation if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the coverage of every type in body.
+     */
+    @GetMapping("/mitigation-coverage/types")
+    public ResponseEntity<List<CoverageByTypeDTO>> getCoverageByType(@RequestParam(required = false) MitigationStatus minimumStatus) {
+        log.debug("REST request to get the coverage by mitigation type at or above {}", minimumStatus);
+        return ResponseEntity.ok(controlGapService.findCoverageByType(minimumStatus));
+    }
+
+    /**
+     * {@code GET  /mitigation-coverage/set-cover} : get a small set of mitigations covering the vulnerabilities of an
+     * environment.
+     *
+     * @param environmentId the id of the environment of the scenario actors, every vulnerability if absent.
+     * @param minimumStatus the lowest status of the mitigations to pick, every mitigation if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the picked mitigations in body.
+     */
+    @GetMapping("/mitigation-coverage/set-cover")
+    public ResponseEntity<MitigationSetCoverDTO> getMitigationSetCover(
+        @RequestParam(required = false) Long environmentId,
+        @RequestParam(required = false) MitigationStatus minimumStatus
+    ) {
+        log.debug("REST request to get a mitigation set cover of environment {} at or above {}", environmentId, minimumStatus);
+        return ResponseEntity.ok(controlGapService.findMinimalCover(environmentId, minimumStatus));
+    }
+}
@@ -3,8 +3,12 @@ package com.gobr.pragrisk.web.rest;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.repository.KeysetPage;
 import com.gobr.pragrisk.repository.MitigationRepository;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
 import com.gobr.pragrisk.service.MitigationService;
+import com.gobr.pragrisk.service.criteria.MitigationCriteria;
 import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -17,16 +21,18 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.gobr.pragrisk.domain.Mitigation}.
@@ -75,15 +81,18 @@ public class MitigationResource {
      * {@code PUT  /mitigations/:id} : Updates an existing mitigation.
      *
      * @param id the id of the mitigation to save.
+     * @param ifMatch the {@code ETag} the mitigation was read with, if it must not have changed since.
      * @param mitigation the mitigation to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated mitigation,
      * or with status {@code 400 (Bad Request)} if the mitigation is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current mitigation if it has changed since {@code ifMatch},
      * or with status {@code 500 (Internal Server Error)} if the mitigation couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/mitigations/{id}")
     public ResponseEntity<Mitigation> updateMitigation(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Mitigation mitigation
     ) throws URISyntaxException {
         log.debug("REST request to update Mitigation : {}, {}", id, mitigation);
@@ -98,9 +107,22 @@ public class MitigationResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Mitigation result = mitigationService.save(mitigation);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            mitigation.setVersion(expectedVersion);
+        }
+        Mitigation result;
+        try {
+            result = mitigationService.update(mitigation);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(mitigationService.findCurrent(id), Mitigation::getVersion);
+        }
         return ResponseEntity
             .ok()
+            .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, mitigation.getId().toString()))
             .body(result);
     }
@@ -109,9 +131,11 @@ public class MitigationResource {
      * {@code PATCH  /mitigations/:id} : Partial updates given fields of an existing mitigation, field will ignore if it is null
      *
      * @param id the id of the mitigation to save.
+     * @param ifMatch the {@code ETag} the mitigation was read with, if it must not have changed since.
      * @param mitigation the mitigation to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated mitigation,
      * or with status {@code 400 (Bad Request)} if the mitigation is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current mitigation if it has changed since {@code ifMatch},
      * or with status {@code 404 (Not Found)} if the mitigation is not found,
      * or with status {@code 500 (Internal Server Error)} if the mitigation couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,6 +143,7 @@ public class MitigationResource {
     @PatchMapping(value = "/mitigations/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Mitigation> partialUpdateMitigation(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Mitigation mitigation
     ) throws URISyntaxException {
         log.debug("REST request to partial update Mitigation partially : {}, {}", id, mitigation);
@@ -133,10 +158,23 @@ public class MitigationResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Mitigation> result = mitigationService.partialUpdate(mitigation);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            mitigation.setVersion(expectedVersion);
+        }
+        Optional<Mitigation> result;
+        try {
+            result = mitigationService.partialUpdate(mitigation);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(mitigationService.findCurrent(id), Mitigation::getVersion);
+        }
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Mitigation::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, mitigation.getId().toString())
         );
     }
@@ -145,13 +183,33 @@ public class MitigationResource {
      * {@code GET  /mitigations} : get all the mitigations.
      *
      * @param pageable the pagination information.
+     * @param after the position of a keyset page, empty for the first one; pages by offset if absent.
+     * @param count whether to count the mitigations when paging by offset.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of mitigations in body.
      */
     @GetMapping("/mitigations")
-    public ResponseEntity<List<Mitigation>> getAllMitigations(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Mitigation>> getAllMitigations(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "true") boolean count
+    ) {
         log.debug("REST request to get a page of Mitigations");
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            KeysetPage<Mitigation> page = mitigationService.findPage(
+                KeysetPaginationUtil.parseKeyset(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        if (!count) {
+            Slice<Mitigation> slice = mitigationService.findSlice(pageable);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Mitigation> page = mitigationService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -165,7 +223,7 @@ public class MitigationResource {
     public ResponseEntity<Mitigation> getMitigation(@PathVariable Long id) {
         log.debug("REST request to get Mitigation : {}", id);
         Optional<Mitigation> mitigation = mitigationService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(mitigation);
+        return EntityTagUtil.wrapOrNotFound(mitigation, Mitigation::getVersion);
     }
 
     /**
@@ -190,16 +248,55 @@ public class MitigationResource {
      *
      * @param query the query of the mitigation search.
      * @param pageable the pagination information.
+     * @param after the position of a cursor page, empty for the first one; pages by offset if absent.
      * @return the result of the search.
      */
     @GetMapping("/_search/mitigations")
     public ResponseEntity<List<Mitigation>> searchMitigations(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after
     ) {
         log.debug("REST request to search for a page of Mitigations for query {}", query);
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            SearchCursorPage<Mitigation> page = mitigationService.search(
+                query,
+                KeysetPaginationUtil.parseSearchCursor(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateSearchCursorHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
         Page<Mitigation> page = mitigationService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code GET  /_search/mitigations/faceted?query=:query} : search for the mitigations corresponding to the query and the
+     * criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, in the simple query string syntax; every mitigation matches if absent.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of mitigations with the counts of their
+     * facets in body.
+     */
+    @GetMapping("/_search/mitigations/faceted")
+    public ResponseEntity<FacetedPage<Mitigation>> searchFacetedMitigations(
+        @RequestParam(required = false) String query,
+        MitigationCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a faceted page of Mitigations for query {} : {}", query, criteria);
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
+        FacetedPage<Mitigation> page = mitigationService.search(query, criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page.getPage()
+        );
+        return ResponseEntity.ok().headers(headers).body(page);
+    }
 }
@@ -0,0 +1,487 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.security.AuthoritiesConstants;
+import com.gobr.pragrisk.service.dto.AttackPathDTO;
+import com.gobr.pragrisk.service.dto.RankedScenarioDTO;
+import com.gobr.pragrisk.service.dto.ResidualRiskDTO;
+import com.gobr.pragrisk.service.dto.ResidualRiskSummaryDTO;
+import com.gobr.pragrisk.service.dto.RiskHeatmapDTO;
+import com.gobr.pragrisk.service.dto.RiskModelDTO;
+import com.gobr.pragrisk.service.dto.RiskRecomputeSummaryDTO;
+import com.gobr.pragrisk.service.dto.RiskRollupDTO;
+import com.gobr.pragrisk.service.dto.RiskSimulationRequestDTO;
+import com.gobr.pragrisk.service.dto.RiskSimulationResultDTO;
+import com.gobr.pragrisk.service.dto.RiskSubtreeDTO;
+import com.gobr.pragrisk.service.dto.RiskTrendPointDTO;
+import com.gobr.pragrisk.service.dto.WhatIfRequestDTO;
+import com.gobr.pragrisk.service.dto.WhatIfResultDTO;
+import com.gobr.pragrisk.service.risk.AttackGraphService;
+import com.gobr.pragrisk.service.risk.AttackNodeType;
+import com.gobr.pragrisk.service.risk.ResidualRiskService;
+import com.gobr.pragrisk.service.risk.RiskComputationEngine;
+import com.gobr.pragrisk.service.risk.RiskDimension;
+import com.gobr.pragrisk.service.risk.RiskHeatmapService;
+import com.gobr.pragrisk.service.risk.RiskHierarchyService;
+import com.gobr.pragrisk.service.risk.RiskHistoryService;
+import com.gobr.pragrisk.service.risk.RiskRankingService;
+import com.gobr.pragrisk.service.risk.RiskRollupService;
+import com.gobr.pragrisk.service.risk.RiskSimulationService;
+import com.gobr.pragrisk.service.risk.ScenarioRiskRegister;
+import com.gobr.pragrisk.service.risk.WhatIfService;
+import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for the risk computation engine.
+ */
+@RestController
+@RequestMapping("/api")
+public class RiskResource {
+
+    private final Logger log = LoggerFactory.getLogger(RiskResource.class);
+
+    private static final String ENTITY_NAME = "riskSimulation";
+
+    private static final String ROLLUP_ENTITY_NAME = "riskRollup";
+
+    private static final String RANKING_ENTITY_NAME = "riskRanking";
+
+    private static final String WHAT_IF_ENTITY_NAME = "whatIf";
+
+    private static final String HISTORY_ENTITY_NAME = "riskHistory";
+
+    private static final String HIERARCHY_ENTITY_NAME = "riskHierarchy";
+
+    private static final String ATTACK_PATH_ENTITY_NAME = "attackPath";
+
+    private final RiskComputationEngine riskComputationEngine;
+
+    private final RiskSimulationService riskSimulationService;
+
+    private final RiskRollupService riskRollupService;
+
+    private final RiskHeatmapService riskHeatmapService;
+
+    private final RiskRankingService riskRankingService;
+
+    private final ResidualRiskService residualRiskService;
+
+    private final WhatIfService whatIfService;
+
+    private final RiskHistoryService riskHistoryService;
+
+    private final RiskHierarchyService riskHierarchyService;
+
+    private final AttackGraphService attackGraphService;
+
+    private final ScenarioRiskRegister scenarioRiskRegister;
+
+    public RiskResource(
+        RiskComputationEngine riskComputationEngine,
+        RiskSimulationService riskSimulationService,
+        RiskRollupService riskRollupService,
+        RiskHeatmapService riskHeatmapService,
+        RiskRankingService riskRankingService,
+        ResidualRiskService residualRiskService,
+        WhatIfService whatIfService,
+        RiskHistoryService riskHistoryService,
+        RiskHierarchyService riskHierarchyService,
+        AttackGraphService attackGraphService,
+        ScenarioRiskRegister scenarioRiskRegister
+    ) {
+        this.riskComputationEngine = riskComputationEngine;
+        this.riskSimulationService = riskSimulationService;
+        this.riskRollupService = riskRollupService;
+        this.riskHeatmapService = riskHeatmapService;
+        this.riskRankingService = riskRankingService;
+        this.residualRiskService = residualRiskService;
+        this.whatIfService = whatIfService;
+        this.riskHistoryService = riskHistoryService;
+        this.riskHierarchyService = riskHierarchyService;
+        this.attackGraphService = attackGraphService;
+        this.scenarioRiskRegister = scenarioRiskRegister;
+    }
+
+    /**
+     * {@code GET  /risk/model} : get the risk weighting model currently applied to scenarios.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the model in body.
+     */
+    @GetMapping("/risk/model")
+    public ResponseEntity<RiskModelDTO> getRiskModel() {
+        log.debug("REST request to get the risk model");
+        return ResponseEntity.ok(new RiskModelDTO(riskComputationEngine.getModel()));
+    }
+
+    /**
+     * {@code PUT  /admin/risk/model} : replace the risk weighting model, until the next restart.
+     * <p>
+     * Stored risk values are not changed, use {@code POST /admin/risk/recompute} afterwards.
+     *
+     * @param riskModel the new model.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the applied model in body.
+     */
+    @PutMapping("/admin/risk/model")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<RiskModelDTO> updateRiskModel(@Valid @RequestBody RiskModelDTO riskModel) {
+        log.debug("REST request to update the risk model : {}", riskModel);
+        riskComputationEngine.setModel(riskModel.toRiskModel());
+        return ResponseEntity.ok(new RiskModelDTO(riskComputationEngine.getModel()));
+    }
+
+    /**
+     * {@code POST  /admin/risk/recompute} : recompute the risk value of every scenario.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the recompute summary in body.
+     */
+    @PostMapping("/admin/risk/recompute")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<RiskRecomputeSummaryDTO> recomputeRiskValues() {
+        log.debug("REST request to recompute all scenario risk values");
+        return ResponseEntity.ok(riskComputationEngine.recomputeAll());
+    }
+
+    /**
+     * {@code POST  /risk/simulations} : run a Monte Carlo loss simulation over the whole scenario register.
+     *
+     * @param request the simulation parameters.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the simulated loss distributions in body,
+     * or with status {@code 400 (Bad Request)} if too many iterations are requested.
+     */
+    @PostMapping("/risk/simulations")
+    public ResponseEntity<RiskSimulationResultDTO> simulate(@Valid @RequestBody RiskSimulationRequestDTO request) {
+        log.debug("REST request to run a risk simulation : {}", request);
+        if (request.getIterations() > riskSimulationService.getMaxIterations()) {
+            throw new BadRequestAlertException(
+                "At most " + riskSimulationService.getMaxIterations() + " iterations are allowed",
+                ENTITY_NAME,
+                "toomanyiterations"
+            );
+        }
+        return ResponseEntity.ok(riskSimulationService.simulate(request));
+    }
+
+    /**
+     * {@code GET  /risk/rollups/:dimension} : get the risk roll-ups of every actor, technology, vulnerability or environment.
+     *
+     * @param dimension one of {@code actors}, {@code technologies}, {@code vulnerabilities} or {@code environments}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of roll-ups in body,
+     * or with status {@code 400 (Bad Request)} if the dimension is unknown.
+     */
+    @GetMapping("/risk/rollups/{dimension}")
+    public ResponseEntity<List<RiskRollupDTO>> getRiskRollups(@PathVariable String dimension) {
+        log.debug("REST request to get the risk roll-ups of {}", dimension);
+        return ResponseEntity.ok(riskRollupService.findAll(toDimension(dimension)));
+    }
+
+    /**
+     * {@code GET  /risk/rollups/:dimension/:id} : get the risk roll-up of one actor, technology, vulnerability or environment.
+     *
+     * @param dimension one of {@code actors}, {@code technologies}, {@code vulnerabilities} or {@code environments}.
+     * @param id the id of the entity.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the roll-up in body,
+     * or with status {@code 404 (Not Found)} if no scenario with a risk value belongs to the entity.
+     */
+    @GetMapping("/risk/rollups/{dimension}/{id}")
+    public ResponseEntity<RiskRollupDTO> getRiskRollup(@PathVariable String dimension, @PathVariable Long id) {
+        log.debug("REST request to get the risk roll-up of {} {}", dimension, id);
+        return ResponseUtil.wrapOrNotFound(riskRollupService.findOne(toDimension(dimension), id));
+    }
+
+    /**
+     * {@code GET  /risk/heatmap} : get the probability &times; qonsequence heat-map of the scenarios.
+     *
+     * @param environmentId the id of the environment of the scenario actors, all environments if absent.
+     * @param techStack the tech stack of the scenario technologies, all tech stacks if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the heat-map in body.
+     */
+    @GetMapping("/risk/heatmap")
+    public ResponseEntity<RiskHeatmapDTO> getRiskHeatmap(
+        @RequestParam(required = false) Long environmentId,
+        @RequestParam(required = false) TechStack techStack
+    ) {
+        log.debug("REST request to get the risk heat-map of environment {} and tech stack {}", environmentId, techStack);
+        return ResponseEntity.ok(riskHeatmapService.getHeatmap(environmentId, techStack));
+    }
+
+    /**
+     * {@code GET  /risk/top} : get the riskiest scenarios.
+     *
+     * @param limit the number of scenarios, at most {@link RiskRankingService#MAX_LIMIT}.
+     * @param environmentId the id of the environment of the scenario actors, all environments if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the ranked scenarios in body, riskiest first.
+     */
+    @GetMapping("/risk/top")
+    public ResponseEntity<List<RankedScenarioDTO>> getTopRisks(
+        @RequestParam(defaultValue = "50") int limit,
+        @RequestParam(required = false) Long environmentId
+    ) {
+        log.debug("REST request to get the top {} risks of environment {}", limit, environmentId);
+        return ResponseEntity.ok(riskRankingService.findTop(limit, environmentId));
+    }
+
+    /**
+     * {@code GET  /risk/ranks/:scenarioId} : get the risk rank and percentile of a scenario.
+     *
+     * @param scenarioId the id of the scenario.
+     * @param environmentId the id of the environment to rank the scenario in, all environments if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the ranked scenario in body,
+     * or with status {@code 404 (Not Found)} if the scenario is not ranked.
+     */
+    @GetMapping("/risk/ranks/{scenarioId}")
+    public ResponseEntity<RankedScenarioDTO> getRiskRank(
+        @PathVariable Long scenarioId,
+        @RequestParam(required = false) Long environmentId
+    ) {
+        log.debug("REST request to get the risk rank of Scenario {} in environment {}", scenarioId, environmentId);
+        return ResponseUtil.wrapOrNotFound(riskRankingService.findRank(scenarioId, environmentId));
+    }
+
+    /**
+     * {@code GET  /risk/percentile} : get the scenario at a risk percentile.
+     *
+     * @param quantile the quantile, between 0 and 1.
+     * @param environmentId the id of the environment of the scenario actors, all environments if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the ranked scenario in body,
+     * with status {@code 400 (Bad Request)} if the quantile is out of range,
+     * or with status {@code 404 (Not Found)} if no scenario is ranked.
+     */
+    @GetMapping("/risk/percentile")
+    public ResponseEntity<RankedScenarioDTO> getRiskPercentile(
+        @RequestParam double quantile,
+        @RequestParam(required = false) Long environmentId
+    ) {
+        log.debug("REST request to get the risk percentile {} of environment {}", quantile, environmentId);
+        if (quantile < 0 || quantile > 1) {
+            throw new BadRequestAlertException("The quantile must be between 0 and 1", RANKING_ENTITY_NAME, "quantileoutofrange");
+        }
+        return ResponseUtil.wrapOrNotFound(riskRankingService.findAtQuantile(quantile, environmentId));
+    }
+
+    /**
+     * {@code GET  /risk/residual} : get the inherent and residual risk of the whole scenario register.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the residual risk summary in body.
+     */
+    @GetMapping("/risk/residual")
+    public ResponseEntity<ResidualRiskSummaryDTO> getResidualRiskSummary() {
+        log.debug("REST request to get the residual risk summary");
+        return ResponseEntity.ok(residualRiskService.computeAll());
+    }
+
+    /**
+     * {@code GET  /risk/residual/:scenarioId} : get the residual risk of a scenario.
+     *
+     * @param scenarioId the id of the scenario.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the residual risk in body,
+     * or with status {@code 404 (Not Found)} if the scenario is unknown.
+     */
+    @GetMapping("/risk/residual/{scenarioId}")
+    public ResponseEntity<ResidualRiskDTO> getResidualRisk(@PathVariable Long scenarioId) {
+        log.debug("REST request to get the residual risk of Scenario {}", scenarioId);
+        return ResponseUtil.wrapOrNotFound(residualRiskService.findOne(scenarioId));
+    }
+
+    /**
+     * {@code POST  /risk/what-if} : evaluate the residual risk that hypothetical mitigation changes would leave.
+     * <p>
+     * Nothing is persisted: each option is evaluated independently against a snapshot of the current risk.
+     *
+     * @param request the options to evaluate.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the residual risk of each option in body,
+     * or with status {@code 400 (Bad Request)} if too many options are requested.
+     */
+    @PostMapping("/risk/what-if")
+    public ResponseEntity<WhatIfResultDTO> evaluateWhatIf(@Valid @RequestBody WhatIfRequestDTO request) {
+        log.debug("REST request to evaluate a what-if sweep : {}", request);
+        if (request.getOptions().size() > whatIfService.getMaxOptions()) {
+            throw new BadRequestAlertException(
+                "At most " + whatIfService.getMaxOptions() + " options are allowed",
+                WHAT_IF_ENTITY_NAME,
+                "toomanyoptions"
+            );
+        }
+        return ResponseEntity.ok(whatIfService.evaluate(request));
+    }
+
+    /**
+     * {@code GET  /risk/history/:series/:id} : get the risk trend of a scenario or of a roll-up.
+     *
+     * @param series {@code scenarios} for the risk value of a scenario, or one of {@code actors}, {@code technologies},
+     * {@code vulnerabilities} or {@code environments} for the risk sum of a roll-up.
+     * @param id the id of the scenario or of the entity.
+     * @param from the first instant, 30 days before {@code to} if absent.
+     * @param to the last instant, now if absent.
+     * @param step the ISO-8601 width of the buckets to downsample to, such as {@code PT1H}; the recorded points if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the trend points in body, in time order,
+     * or with status {@code 400 (Bad Request)} if the series, the range or the step is invalid.
+     */
+    @GetMapping("/risk/history/{series}/{id}")
+    public ResponseEntity<List<RiskTrendPointDTO>> getRiskTrend(
+        @PathVariable String series,
+        @PathVariable Long id,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+        @RequestParam(required = false) String step
+    ) {
+        log.debug("REST request to get the risk trend of {} {} from {} to {} by {}", series, id, from, to, step);
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(30, ChronoUnit.DAYS);
+        if (start.isAfter(end)) {
+            throw new BadRequestAlertException("The start of the range must not be after its end", HISTORY_ENTITY_NAME, "invalidrange");
+        }
+        Duration width = step != null ? toStep(step) : null;
+        if (RiskHistoryService.SCENARIO_SERIES.equals(series)) {
+            return ResponseEntity.ok(riskHistoryService.findScenarioTrend(id, start, end, width));
+        }
+        RiskDimension dimension = RiskDimension
+            .fromPath(series)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown risk history series " + series, HISTORY_ENTITY_NAME, "unknownseries"));
+        return ResponseEntity.ok(riskHistoryService.findRollupTrend(dimension, id, start, end, width));
+    }
+
+    /**
+     * {@code GET  /risk/hierarchies/:dimension/:id} : get the ancestors, descendants and subtree risk of an actor or technology.
+     *
+     * @param dimension {@code actors} or {@code technologies}.
+     * @param id the id of the entity.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the subtree in body,
+     * or with status {@code 400 (Bad Request)} if the dimension is not a hierarchy,
+     * or with status {@code 404 (Not Found)} if the entity is unknown.
+     */
+    @GetMapping("/risk/hierarchies/{dimension}/{id}")
+    public ResponseEntity<RiskSubtreeDTO> getRiskSubtree(@PathVariable String dimension, @PathVariable Long id) {
+        log.debug("REST request to get the risk subtree of {} {}", dimension, id);
+        RiskDimension hierarchy = RiskDimension
+            .fromPath(dimension)
+            .filter(RiskHierarchyService::isHierarchical)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown hierarchy " + dimension, HIERARCHY_ENTITY_NAME, "unknownhierarchy"));
+        return ResponseUtil.wrapOrNotFound(riskHierarchyService.findSubtree(hierarchy, id));
+    }
+
+    /**
+     * {@code GET  /risk/attack-paths} : get the riskiest attack paths of an actor.
+     *
+     * @param actorId the id of the actor.
+     * @param limit the number of paths, at most {@link AttackGraphService#MAX_PATHS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the paths in body, riskiest first.
+     */
+    @GetMapping("/risk/attack-paths")
+    public ResponseEntity<List<AttackPathDTO>> getAttackPaths(@RequestParam Long actorId, @RequestParam(defaultValue = "50") int limit) {
+        log.debug("REST request to get the {} riskiest attack paths of Actor {}", limit, actorId);
+        return ResponseEntity.ok(attackGraphService.findPaths(actorId, limit));
+    }
+
+    /**
+     * {@code GET  /risk/attack-paths/shortest} : get an attack path with the fewest steps from an actor to a target.
+     *
+     * @param actorId the id of the actor.
+     * @param targetType one of {@code technologies}, {@code vulnerabilities} or {@code mitigations}.
+     * @param targetId the id of the target.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the path in body,
+     * or with status {@code 400 (Bad Request)} if the target type is unknown,
+     * or with status {@code 404 (Not Found)} if the target cannot be reached.
+     */
+    @GetMapping("/risk/attack-paths/shortest")
+    public ResponseEntity<AttackPathDTO> getShortestAttackPath(
+        @RequestParam Long actorId,
+        @RequestParam String targetType,
+        @RequestParam Long targetId
+    ) {
+        log.debug("REST request to get the shortest attack path from Actor {} to {} {}", actorId, targetType, targetId);
+        return ResponseUtil.wrapOrNotFound(attackGraphService.findShortestPath(actorId, toAttackNodeType(targetType), targetId));
+    }
+
+    /**
+     * {@code GET  /risk/attack-paths/riskiest} : get the attack path from an actor to a target whose least risky step is
+     * the riskiest.
+     *
+     * @param actorId the id of the actor.
+     * @param targetType one of {@code technologies}, {@code vulnerabilities} or {@code mitigations}.
+     * @param targetId the id of the target.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the path in body,
+     * or with status {@code 400 (Bad Request)} if the target type is unknown,
+     * or with status {@code 404 (Not Found)} if the target cannot be reached.
+     */
+    @GetMapping("/risk/attack-paths/riskiest")
+    public ResponseEntity<AttackPathDTO> getRiskiestAttackPath(
+        @RequestParam Long actorId,
+        @RequestParam String targetType,
+        @RequestParam Long targetId
+    ) {
+        log.debug("REST request to get the riskiest attack path from Actor {} to {} {}", actorId, targetType, targetId);
+        return ResponseUtil.wrapOrNotFound(attackGraphService.findRiskiestPath(actorId, toAttackNodeType(targetType), targetId));
+    }
+
+    /**
+     * {@code GET  /risk/attack-paths/technologies/:technologyId/actors} : get the actors that can reach a technology.
+     *
+     * @param technologyId the id of the technology.
+     * @param unmitigated whether to only keep the actors with a scenario on the technology whose vulnerability is not
+     * mitigated.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the actor ids in body.
+     */
+    @GetMapping("/risk/attack-paths/technologies/{technologyId}/actors")
+    public ResponseEntity<List<Long>> getActorsReachingTechnology(
+        @PathVariable Long technologyId,
+        @RequestParam(defaultValue = "false") boolean unmitigated
+    ) {
+        log.debug("REST request to get the actors reaching Technology {}, unmitigated only: {}", technologyId, unmitigated);
+        return ResponseEntity.ok(attackGraphService.findActorsReaching(technologyId, unmitigated));
+    }
+
+    /**
+     * {@code POST  /admin/risk/rollups/rebuild} : reload the scenario register and the actor and technology hierarchies,
+     * and rebuild every risk roll-up, heat-map, ranking and attack graph.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("/admin/risk/rollups/rebuild")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> rebuildRiskRollups() {
+        log.debug("REST request to rebuild the risk roll-ups");
+        scenarioRiskRegister.rebuild();
+        riskHierarchyService.reload();
+        return ResponseEntity.noContent().build();
+    }
+
+    private static AttackNodeType toAttackNodeType(String targetType) {
+        return AttackNodeType
+            .fromPath(targetType)
+            .filter(type -> type != AttackNodeType.ACTOR)
+            .orElseThrow(
+                () -> new BadRequestAlertException("Unknown attack path target " + targetType, ATTACK_PATH_ENTITY_NAME, "unknowntarget")
+            );
+    }
+
+    private static Duration toStep(String step) {
+        try {
+            Duration duration = Duration.parse(step);
+            if (!duration.isNegative() && duration.toMillis() > 0) {
+                return duration;
+            }
+        } catch (DateTimeParseException e) {
+            // reported below
+        }
+        throw new BadRequestAlertException("The step must be a positive ISO-8601 duration", HISTORY_ENTITY_NAME, "invalidstep");
+    }
+
+    private static RiskDimension toDimension(String path) {
+        return RiskDimension
+            .fromPath(path)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown roll-up dimension " + path, ROLLUP_ENTITY_NAME, "unknowndimension"));
+    }
+}
@@ -2,31 +2,52 @@ package com.gobr.pragrisk.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.repository.KeysetPage;
 import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
 import com.gobr.pragrisk.service.ScenarioService;
+import com.gobr.pragrisk.service.criteria.ScenarioCriteria;
+import com.gobr.pragrisk.service.dto.ImportSummaryDTO;
+import com.gobr.pragrisk.service.dto.ScenarioSummaryDTO;
+import com.gobr.pragrisk.service.ingest.ImportFormat;
+import com.gobr.pragrisk.service.ingest.ScenarioImportService;
 import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.gobr.pragrisk.domain.Scenario}.
@@ -46,9 +67,20 @@ public class ScenarioResource {
 
     private final ScenarioRepository scenarioRepository;
 
-    public ScenarioResource(ScenarioService scenarioService, ScenarioRepository scenarioRepository) {
+    private final ScenarioImportService scenarioImportService;
+
+    private final ObjectMapper objectMapper;
+
+    public ScenarioResource(
+        ScenarioService scenarioService,
+        ScenarioRepository scenarioRepository,
+        ScenarioImportService scenarioImportService,
+        ObjectMapper objectMapper
+    ) {
         this.scenarioService = scenarioService;
         this.scenarioRepository = scenarioRepository;
+        this.scenarioImportService = scenarioImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -75,15 +107,18 @@ public class ScenarioResource {
      * {@code PUT  /scenarios/:id} : Updates an existing scenario.
      *
      * @param id the id of the scenario to save.
+     * @param ifMatch the {@code ETag} the scenario was read with, if it must not have changed since.
      * @param scenario the scenario to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated scenario,
      * or with status {@code 400 (Bad Request)} if the scenario is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current scenario if it has changed since {@code ifMatch},
      * or with status {@code 500 (Internal Server Error)} if the scenario couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/scenarios/{id}")
     public ResponseEntity<Scenario> updateScenario(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Scenario scenario
     ) throws URISyntaxException {
         log.debug("REST request to update Scenario : {}, {}", id, scenario);
@@ -98,9 +133,22 @@ public class ScenarioResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Scenario result = scenarioService.save(scenario);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            scenario.setVersion(expectedVersion);
+        }
+        Scenario result;
+        try {
+            result = scenarioService.update(scenario);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(scenarioService.findCurrent(id), Scenario::getVersion);
+        }
         return ResponseEntity
             .ok()
+            .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, scenario.getId().toString()))
             .body(result);
     }
@@ -109,9 +157,11 @@ public class ScenarioResource {
      * {@code PATCH  /scenarios/:id} : Partial updates given fields of an existing scenario, field will ignore if it is null
      *
      * @param id the id of the scenario to save.
+     * @param ifMatch the {@code ETag} the scenario was read with, if it must not have changed since.
      * @param scenario the scenario to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated scenario,
      * or with status {@code 400 (Bad Request)} if the scenario is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current scenario if it has changed since {@code ifMatch},
      * or with status {@code 404 (Not Found)} if the scenario is not found,
      * or with status {@code 500 (Internal Server Error)} if the scenario couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,6 +169,7 @@ public class ScenarioResource {
     @PatchMapping(value = "/scenarios/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Scenario> partialUpdateScenario(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Scenario scenario
     ) throws URISyntaxException {
         log.debug("REST request to partial update Scenario partially : {}, {}", id, scenario);
@@ -133,25 +184,131 @@ public class ScenarioResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Scenario> result = scenarioService.partialUpdate(scenario);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            scenario.setVersion(expectedVersion);
+        }
+        Optional<Scenario> result;
+        try {
+            result = scenarioService.partialUpdate(scenario);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(scenarioService.findCurrent(id), Scenario::getVersion);
+        }
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Scenario::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, scenario.getId().toString())
         );
     }
 
+    /**
+     * {@code POST  /scenarios/import} : Import scenarios in bulk from NDJSON or CSV rows with the fields
+     * {@code title, description, probability, qonsequence, actorId, technologyId, vulnerabilityId}.
+     * <p>
+     * The request body is read and written as it streams in. The response streams one NDJSON line per rejected row,
+     * as soon as the batch holding the row is written, then a last line summarizing the import.
+     *
+     * @param request the request, whose body holds the rows.
+     * @param response the response the rejected rows and summary are written to.
+     * @throws IOException if the request cannot be read or the response written.
+     */
+    @PostMapping(
+        value = "/scenarios/import",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public void importScenarios(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        log.debug("REST request to import Scenarios as {}", contentType);
+        ImportFormat format = ImportFormat
+            .of(contentType)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported import format", ENTITY_NAME, "unsupportedformat"));
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream output = response.getOutputStream();
+        try (Reader input = new InputStreamReader(request.getInputStream(), charset)) {
+            ImportSummaryDTO summary = scenarioImportService.importScenarios(input, format, rejection -> writeLine(output, rejection));
+            writeLine(output, summary);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeLine(OutputStream output, Object value) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(value));
+            output.write('\n');
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * {@code GET  /scenarios} : get all the scenarios.
      *
      * @param pageable the pagination information.
+     * @param after the position of a keyset page, empty for the first one; pages by offset if absent.
+     * @param count whether to count the scenarios when paging by offset.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of scenarios in body.
      */
     @GetMapping("/scenarios")
-    public ResponseEntity<List<Scenario>> getAllScenarios(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Scenario>> getAllScenarios(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "true") boolean count
+    ) {
         log.debug("REST request to get a page of Scenarios");
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            KeysetPage<Scenario> page = scenarioService.findPage(
+                KeysetPaginationUtil.parseKeyset(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        if (!count) {
+            Slice<Scenario> slice = scenarioService.findSlice(pageable);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Scenario> page = scenarioService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /scenarios?view=summary} : get the summaries of all the scenarios, with the names of the entities they
+     * reference rather than the entities.
+     *
+     * @param pageable the pagination information.
+     * @param count whether to count the scenarios.
+     * @param after not supported: keyset pages list whole scenarios.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of summaries in body.
+     */
+    @GetMapping(value = "/scenarios", params = "view=summary")
+    public ResponseEntity<List<ScenarioSummaryDTO>> getAllScenarioSummaries(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(defaultValue = "true") boolean count,
+        @RequestParam(required = false) String after
+    ) {
+        log.debug("REST request to get a page of Scenario summaries");
+        if (after != null) {
+            throw new BadRequestAlertException("Keyset pages have no summary view", ENTITY_NAME, "nosummary");
+        }
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (!count) {
+            Slice<ScenarioSummaryDTO> slice = scenarioService.findSummarySlice(pageable);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<ScenarioSummaryDTO> page = scenarioService.findAllSummaries(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -165,7 +322,7 @@ public class ScenarioResource {
     public ResponseEntity<Scenario> getScenario(@PathVariable Long id) {
         log.debug("REST request to get Scenario : {}", id);
         Optional<Scenario> scenario = scenarioService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(scenario);
+        return EntityTagUtil.wrapOrNotFound(scenario, Scenario::getVersion);
     }
 
     /**
@@ -190,16 +347,55 @@ public class ScenarioResource {
      *
      * @param query the query of the scenario search.
      * @param pageable the pagination information.
+     * @param after the position of a cursor page, empty for the first one; pages by offset if absent.
      * @return the result of the search.
      */
     @GetMapping("/_search/scenarios")
     public ResponseEntity<List<Scenario>> searchScenarios(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after
     ) {
         log.debug("REST request to search for a page of Scenarios for query {}", query);
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            SearchCursorPage<Scenario> page = scenarioService.search(
+                query,
+                KeysetPaginationUtil.parseSearchCursor(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateSearchCursorHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
         Page<Scenario> page = scenarioService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code GET  /_search/scenarios/faceted?query=:query} : search for the scenarios corresponding to the query and the
+     * criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, in the simple query string syntax; every scenario matches if absent.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of scenarios with the counts of their
+     * facets in body.
+     */
+    @GetMapping("/_search/scenarios/faceted")
+    public ResponseEntity<FacetedPage<Scenario>> searchFacetedScenarios(
+        @RequestParam(required = false) String query,
+        ScenarioCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a faceted page of Scenarios for query {} : {}", query, criteria);
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
+        FacetedPage<Scenario> page = scenarioService.search(query, criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page.getPage()
+        );
+        return ResponseEntity.ok().headers(headers).body(page);
+    }
 }
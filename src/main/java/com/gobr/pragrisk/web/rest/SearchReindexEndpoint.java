@@ -0,0 +1,74 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.service.search.ReindexProgress;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.gobr.pragrisk.service.search.SearchReindexService;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint rebuilding the Elasticsearch indices, at {@code /management/reindex}.
+ * <p>
+ * {@code GET} returns the progress of the running reindex, or of the last one. {@code POST} starts rebuilding the index
+ * of the {@code type} of its body, such as {@code {"type": "scenario"}}, or of every type without one.
+ */
+@Component
+@WebEndpoint(id = "reindex")
+public class SearchReindexEndpoint {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexEndpoint.class);
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchReindexEndpoint(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    /**
+     * @return the {@link WebEndpointResponse} with status {@code 200 (OK)} and the progress of the reindex in body, or
+     * with status {@code 404 (Not Found)} if no reindex has run.
+     */
+    @ReadOperation
+    public WebEndpointResponse<ReindexProgress> progress() {
+        return searchReindexService
+            .getProgress()
+            .map(WebEndpointResponse::new)
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    /**
+     * @param type the document type to reindex, or {@code null} for every type.
+     * @return the {@link WebEndpointResponse} with status {@code 200 (OK)} and the progress of the reindex in body, or
+     * with status {@code 400 (Bad Request)} if the type is unknown, or with status {@code 409 (Conflict)} if a reindex
+     * is already running.
+     */
+    @WriteOperation
+    public WebEndpointResponse<ReindexProgress> reindex(@Nullable String type) {
+        log.debug("REST request to reindex the {} documents", type == null ? "all" : type);
+        Collection<SearchDocumentType> types;
+        try {
+            types =
+                type == null
+                    ? Arrays.asList(SearchDocumentType.values())
+                    : List.of(SearchDocumentType.valueOf(type.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        try {
+            return new WebEndpointResponse<>(searchReindexService.start(types));
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.service.dto.SuggestionDTO;
+import com.gobr.pragrisk.service.search.SearchSuggestService;
+import com.gobr.pragrisk.service.search.SuggestionType;
+import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the typeahead suggestions of the entity pickers.
+ */
+@RestController
+@RequestMapping("/api")
+public class SearchSuggestResource {
+
+    private static final String ENTITY_NAME = "suggestion";
+
+    private static final int MAX_SIZE = 50;
+
+    private final Logger log = LoggerFactory.getLogger(SearchSuggestResource.class);
+
+    private final SearchSuggestService searchSuggestService;
+
+    public SearchSuggestResource(SearchSuggestService searchSuggestService) {
+        this.searchSuggestService = searchSuggestService;
+    }
+
+    /**
+     * {@code GET  /_suggest/:type?prefix=:prefix} : suggest the entities of a type whose words start with the typed ones.
+     *
+     * @param type the entities to suggest: {@code actors}, {@code mitigations}, {@code scenarios}, {@code technologies}
+     * or {@code vulnerabilities}.
+     * @param prefix the typed text, whose last word may be incomplete.
+     * @param size the most suggestions, up to 50.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the ids and labels of the suggested entities in
+     * body, best first, or with status {@code 400 (Bad Request)} if the type is unknown or the size out of range.
+     */
+    @GetMapping("/_suggest/{type}")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+        @PathVariable String type,
+        @RequestParam String prefix,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        log.debug("REST request to suggest {} for prefix {}", type, prefix);
+        SuggestionType suggestionType = SuggestionType
+            .fromPath(type)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown suggestion type " + type, ENTITY_NAME, "unknowntype"));
+        if (size < 1 || size > MAX_SIZE) {
+            throw new BadRequestAlertException("The size must be between 1 and " + MAX_SIZE, ENTITY_NAME, "invalidsize");
+        }
+        return ResponseEntity.ok(searchSuggestService.suggest(suggestionType, prefix, size));
+    }
+}
@@ -3,8 +3,15 @@ package com.gobr.pragrisk.web.rest;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.repository.KeysetPage;
 import com.gobr.pragrisk.repository.TechnologyRepository;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
 import com.gobr.pragrisk.service.TechnologyService;
+import com.gobr.pragrisk.service.criteria.TechnologyCriteria;
+import com.gobr.pragrisk.service.dto.TechnologySummaryDTO;
+import com.gobr.pragrisk.service.risk.RiskDimension;
+import com.gobr.pragrisk.service.risk.RiskHierarchyService;
 import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -17,16 +24,18 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.gobr.pragrisk.domain.Technology}.
@@ -46,9 +55,16 @@ public class TechnologyResource {
 
     private final TechnologyRepository technologyRepository;
 
-    public TechnologyResource(TechnologyService technologyService, TechnologyRepository technologyRepository) {
+    private final RiskHierarchyService riskHierarchyService;
+
+    public TechnologyResource(
+        TechnologyService technologyService,
+        TechnologyRepository technologyRepository,
+        RiskHierarchyService riskHierarchyService
+    ) {
         this.technologyService = technologyService;
         this.technologyRepository = technologyRepository;
+        this.riskHierarchyService = riskHierarchyService;
     }
 
     /**
@@ -75,15 +91,18 @@ public class TechnologyResource {
      * {@code PUT  /technologies/:id} : Updates an existing technology.
      *
      * @param id the id of the technology to save.
+     * @param ifMatch the {@code ETag} the technology was read with, if it must not have changed since.
      * @param technology the technology to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated technology,
-     * or with status {@code 400 (Bad Request)} if the technology is not valid,
+     * or with status {@code 400 (Bad Request)} if the technology is not valid or would descend from itself,
+     * or with status {@code 412 (Precondition Failed)} and with body the current technology if it has changed since {@code ifMatch},
      * or with status {@code 500 (Internal Server Error)} if the technology couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/technologies/{id}")
     public ResponseEntity<Technology> updateTechnology(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Technology technology
     ) throws URISyntaxException {
         log.debug("REST request to update Technology : {}, {}", id, technology);
@@ -97,10 +116,30 @@ public class TechnologyResource {
         if (!technologyRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (
+            technology.getParentTechnology() != null &&
+            technology.getParentTechnology().getId() != null &&
+            riskHierarchyService.wouldCreateCycle(RiskDimension.TECHNOLOGY, id, technology.getParentTechnology().getId())
+        ) {
+            throw new BadRequestAlertException("A technology cannot descend from itself", ENTITY_NAME, "cyclicparent");
+        }
 
-        Technology result = technologyService.save(technology);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            technology.setVersion(expectedVersion);
+        }
+        Technology result;
+        try {
+            result = technologyService.update(technology);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(technologyService.findCurrent(id), Technology::getVersion);
+        }
         return ResponseEntity
             .ok()
+            .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, technology.getId().toString()))
             .body(result);
     }
@@ -109,9 +148,11 @@ public class TechnologyResource {
      * {@code PATCH  /technologies/:id} : Partial updates given fields of an existing technology, field will ignore if it is null
      *
      * @param id the id of the technology to save.
+     * @param ifMatch the {@code ETag} the technology was read with, if it must not have changed since.
      * @param technology the technology to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated technology,
      * or with status {@code 400 (Bad Request)} if the technology is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current technology if it has changed since {@code ifMatch},
      * or with status {@code 404 (Not Found)} if the technology is not found,
      * or with status {@code 500 (Internal Server Error)} if the technology couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,6 +160,7 @@ public class TechnologyResource {
     @PatchMapping(value = "/technologies/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Technology> partialUpdateTechnology(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Technology technology
     ) throws URISyntaxException {
         log.debug("REST request to partial update Technology partially : {}, {}", id, technology);
@@ -133,10 +175,23 @@ public class TechnologyResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Technology> result = technologyService.partialUpdate(technology);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            technology.setVersion(expectedVersion);
+        }
+        Optional<Technology> result;
+        try {
+            result = technologyService.partialUpdate(technology);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(technologyService.findCurrent(id), Technology::getVersion);
+        }
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Technology::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, technology.getId().toString())
         );
     }
@@ -145,13 +200,63 @@ public class TechnologyResource {
      * {@code GET  /technologies} : get all the technologies.
      *
      * @param pageable the pagination information.
+     * @param after the position of a keyset page, empty for the first one; pages by offset if absent.
+     * @param count whether to count the technologies when paging by offset.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of technologies in body.
      */
     @GetMapping("/technologies")
-    public ResponseEntity<List<Technology>> getAllTechnologies(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Technology>> getAllTechnologies(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "true") boolean count
+    ) {
         log.debug("REST request to get a page of Technologies");
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            KeysetPage<Technology> page = technologyService.findPage(
+                KeysetPaginationUtil.parseKeyset(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        if (!count) {
+            Slice<Technology> slice = technologyService.findSlice(pageable);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Technology> page = technologyService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /technologies?view=summary} : get the summaries of all the technologies, with the names of the entities they
+     * reference rather than the entities.
+     *
+     * @param pageable the pagination information.
+     * @param count whether to count the technologies.
+     * @param after not supported: keyset pages list whole technologies.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of summaries in body.
+     */
+    @GetMapping(value = "/technologies", params = "view=summary")
+    public ResponseEntity<List<TechnologySummaryDTO>> getAllTechnologySummaries(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(defaultValue = "true") boolean count,
+        @RequestParam(required = false) String after
+    ) {
+        log.debug("REST request to get a page of Technology summaries");
+        if (after != null) {
+            throw new BadRequestAlertException("Keyset pages have no summary view", ENTITY_NAME, "nosummary");
+        }
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (!count) {
+            Slice<TechnologySummaryDTO> slice = technologyService.findSummarySlice(pageable);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<TechnologySummaryDTO> page = technologyService.findAllSummaries(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -165,7 +270,7 @@ public class TechnologyResource {
     public ResponseEntity<Technology> getTechnology(@PathVariable Long id) {
         log.debug("REST request to get Technology : {}", id);
         Optional<Technology> technology = technologyService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(technology);
+        return EntityTagUtil.wrapOrNotFound(technology, Technology::getVersion);
     }
 
     /**
@@ -190,16 +295,55 @@ public class TechnologyResource {
      *
      * @param query the query of the technology search.
      * @param pageable the pagination information.
+     * @param after the position of a cursor page, empty for the first one; pages by offset if absent.
      * @return the result of the search.
      */
     @GetMapping("/_search/technologies")
     public ResponseEntity<List<Technology>> searchTechnologies(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after
     ) {
         log.debug("REST request to search for a page of Technologies for query {}", query);
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            SearchCursorPage<Technology> page = technologyService.search(
+                query,
+                KeysetPaginationUtil.parseSearchCursor(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateSearchCursorHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
         Page<Technology> page = technologyService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code GET  /_search/technologies/faceted?query=:query} : search for the technologies corresponding to the query and the
+     * criteria, with the counts of their facets.
+     *
+     * @param query the free text of the search, in the simple query string syntax; every technology matches if absent.
+     * @param criteria the filters of the facets.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of technologies with the counts of their
+     * facets in body.
+     */
+    @GetMapping("/_search/technologies/faceted")
+    public ResponseEntity<FacetedPage<Technology>> searchFacetedTechnologies(
+        @RequestParam(required = false) String query,
+        TechnologyCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a faceted page of Technologies for query {} : {}", query, criteria);
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
+        FacetedPage<Technology> page = technologyService.search(query, criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page.getPage()
+        );
+        return ResponseEntity.ok().headers(headers).body(page);
+    }
 }
@@ -3,30 +3,42 @@ package com.gobr.pragrisk.web.rest;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.repository.KeysetPage;
 import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
+import com.gobr.pragrisk.security.AuthoritiesConstants;
 import com.gobr.pragrisk.service.VulnerabilityService;
+import com.gobr.pragrisk.service.dto.CatalogueImportSummaryDTO;
+import com.gobr.pragrisk.service.ingest.CatalogueFormat;
+import com.gobr.pragrisk.service.ingest.VulnerabilityCatalogueService;
 import com.gobr.pragrisk.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.gobr.pragrisk.domain.Vulnerability}.
@@ -46,9 +58,16 @@ public class VulnerabilityResource {
 
     private final VulnerabilityRepository vulnerabilityRepository;
 
-    public VulnerabilityResource(VulnerabilityService vulnerabilityService, VulnerabilityRepository vulnerabilityRepository) {
+    private final VulnerabilityCatalogueService vulnerabilityCatalogueService;
+
+    public VulnerabilityResource(
+        VulnerabilityService vulnerabilityService,
+        VulnerabilityRepository vulnerabilityRepository,
+        VulnerabilityCatalogueService vulnerabilityCatalogueService
+    ) {
         this.vulnerabilityService = vulnerabilityService;
         this.vulnerabilityRepository = vulnerabilityRepository;
+        this.vulnerabilityCatalogueService = vulnerabilityCatalogueService;
     }
 
     /**
@@ -75,15 +94,18 @@ public class VulnerabilityResource {
      * {@code PUT  /vulnerabilities/:id} : Updates an existing vulnerability.
      *
      * @param id the id of the vulnerability to save.
+     * @param ifMatch the {@code ETag} the vulnerability was read with, if it must not have changed since.
      * @param vulnerability the vulnerability to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated vulnerability,
      * or with status {@code 400 (Bad Request)} if the vulnerability is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current vulnerability if it has changed since {@code ifMatch},
      * or with status {@code 500 (Internal Server Error)} if the vulnerability couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/vulnerabilities/{id}")
     public ResponseEntity<Vulnerability> updateVulnerability(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Vulnerability vulnerability
     ) throws URISyntaxException {
         log.debug("REST request to update Vulnerability : {}, {}", id, vulnerability);
@@ -98,9 +120,22 @@ public class VulnerabilityResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Vulnerability result = vulnerabilityService.save(vulnerability);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            vulnerability.setVersion(expectedVersion);
+        }
+        Vulnerability result;
+        try {
+            result = vulnerabilityService.update(vulnerability);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(vulnerabilityService.findCurrent(id), Vulnerability::getVersion);
+        }
         return ResponseEntity
             .ok()
+            .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, vulnerability.getId().toString()))
             .body(result);
     }
@@ -109,9 +144,11 @@ public class VulnerabilityResource {
      * {@code PATCH  /vulnerabilities/:id} : Partial updates given fields of an existing vulnerability, field will ignore if it is null
      *
      * @param id the id of the vulnerability to save.
+     * @param ifMatch the {@code ETag} the vulnerability was read with, if it must not have changed since.
      * @param vulnerability the vulnerability to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated vulnerability,
      * or with status {@code 400 (Bad Request)} if the vulnerability is not valid,
+     * or with status {@code 412 (Precondition Failed)} and with body the current vulnerability if it has changed since {@code ifMatch},
      * or with status {@code 404 (Not Found)} if the vulnerability is not found,
      * or with status {@code 500 (Internal Server Error)} if the vulnerability couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,6 +156,7 @@ public class VulnerabilityResource {
     @PatchMapping(value = "/vulnerabilities/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Vulnerability> partialUpdateVulnerability(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Vulnerability vulnerability
     ) throws URISyntaxException {
         log.debug("REST request to partial update Vulnerability partially : {}, {}", id, vulnerability);
@@ -133,34 +171,88 @@ public class VulnerabilityResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Vulnerability> result = vulnerabilityService.partialUpdate(vulnerability);
+        Long expectedVersion = EntityTagUtil.parseIfMatch(ifMatch, ENTITY_NAME);
+        if (expectedVersion != null) {
+            vulnerability.setVersion(expectedVersion);
+        }
+        Optional<Vulnerability> result;
+        try {
+            result = vulnerabilityService.partialUpdate(vulnerability);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            return EntityTagUtil.preconditionFailed(vulnerabilityService.findCurrent(id), Vulnerability::getVersion);
+        }
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Vulnerability::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, vulnerability.getId().toString())
         );
     }
 
+    /**
+     * {@code POST  /admin/vulnerabilities/catalogue} : Load a CWE list or NVD CVE feed file into the vulnerabilities,
+     * e.g. {@code curl --data-binary @nvdcve-1.1-2021.json.gz}. Vulnerabilities are matched by CWE or CVE id, so a
+     * re-import only writes the new and changed ones.
+     *
+     * @param format the format of the catalogue.
+     * @param request the request, whose body holds the catalogue, gzipped or not.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the import summary in body.
+     * @throws IOException if the catalogue cannot be read or parsed.
+     */
+    @PostMapping("/admin/vulnerabilities/catalogue")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<CatalogueImportSummaryDTO> importVulnerabilityCatalogue(
+        @RequestParam CatalogueFormat format,
+        HttpServletRequest request
+    ) throws IOException {
+        log.debug("REST request to import a {} vulnerability catalogue", format);
+        try (InputStream input = request.getInputStream()) {
+            return ResponseEntity.ok(vulnerabilityCatalogueService.importCatalogue(input, format));
+        }
+    }
+
     /**
      * {@code GET  /vulnerabilities} : get all the vulnerabilities.
      *
      * @param pageable the pagination information.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param after the position of a keyset page, empty for the first one; pages by offset if absent.
+     * @param count whether to count the vulnerabilities when paging by offset.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of vulnerabilities in body.
      */
     @GetMapping("/vulnerabilities")
     public ResponseEntity<List<Vulnerability>> getAllVulnerabilities(
         @org.springdoc.api.annotations.ParameterObject Pageable pageable,
-        @RequestParam(required = false, defaultValue = "false") boolean eagerload
+        @RequestParam(required = false, defaultValue = "false") boolean eagerload,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "true") boolean count
     ) {
         log.debug("REST request to get a page of Vulnerabilities");
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            KeysetPage<Vulnerability> page = vulnerabilityService.findPage(
+                KeysetPaginationUtil.parseKeyset(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize(),
+                eagerload
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        if (!count) {
+            Slice<Vulnerability> slice = vulnerabilityService.findSlice(pageable, eagerload);
+            HttpHeaders headers = KeysetPaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Vulnerability> page;
         if (eagerload) {
             page = vulnerabilityService.findAllWithEagerRelationships(pageable);
         } else {
             page = vulnerabilityService.findAll(pageable);
         }
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -174,7 +266,7 @@ public class VulnerabilityResource {
     public ResponseEntity<Vulnerability> getVulnerability(@PathVariable Long id) {
         log.debug("REST request to get Vulnerability : {}", id);
         Optional<Vulnerability> vulnerability = vulnerabilityService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(vulnerability);
+        return EntityTagUtil.wrapOrNotFound(vulnerability, Vulnerability::getVersion);
     }
 
     /**
@@ -199,16 +291,29 @@ public class VulnerabilityResource {
      *
      * @param query the query of the vulnerability search.
      * @param pageable the pagination information.
+     * @param after the position of a cursor page, empty for the first one; pages by offset if absent.
      * @return the result of the search.
      */
     @GetMapping("/_search/vulnerabilities")
     public ResponseEntity<List<Vulnerability>> searchVulnerabilities(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String after
     ) {
         log.debug("REST request to search for a page of Vulnerabilities for query {}", query);
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (after != null) {
+            SearchCursorPage<Vulnerability> page = vulnerabilityService.search(
+                query,
+                KeysetPaginationUtil.parseSearchCursor(after, pageable.getSort(), ENTITY_NAME),
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateSearchCursorHttpHeaders(uriBuilder, page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        KeysetPaginationUtil.checkSearchWindow(pageable, ENTITY_NAME);
         Page<Vulnerability> page = vulnerabilityService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 }
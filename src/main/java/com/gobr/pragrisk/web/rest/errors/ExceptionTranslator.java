@@ -149,6 +149,17 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(new InvalidPasswordException(), request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleRiskValueOutOfRangeException(
+        com.gobr.pragrisk.service.risk.RiskValueOutOfRangeException ex,
+        NativeWebRequest request
+    ) {
+        return handleBadRequestAlertException(
+            new BadRequestAlertException("Scenario " + ex.getMessage(), "scenario", "riskvalueoutofrange"),
+            request
+        );
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleBadRequestAlertException(BadRequestAlertException ex, NativeWebRequest request) {
         return create(
@@ -1,10 +1,12 @@
 package com.gobr.pragrisk;
 
 import com.gobr.pragrisk.PragRiskApp;
+import com.gobr.pragrisk.web.rest.QueryBudgetExtension;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.context.SpringBootTest;
 
 /**
@@ -13,5 +15,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 @SpringBootTest(classes = PragRiskApp.class)
+@ExtendWith(QueryBudgetExtension.class)
 public @interface IntegrationTest {
 }
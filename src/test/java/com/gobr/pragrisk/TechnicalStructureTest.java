@@ -29,5 +29,9 @@ class TechnicalStructureTest {
         .whereLayer("Persistence").mayOnlyBeAccessedByLayers("Service", "Security", "Web", "Config")
         .whereLayer("Domain").mayOnlyBeAccessedByLayers("Persistence", "Service", "Security", "Web", "Config")
 
-        .ignoreDependency(belongToAnyOf(PragRiskApp.class), alwaysTrue());
+        .ignoreDependency(belongToAnyOf(PragRiskApp.class), alwaysTrue())
+        .ignoreDependency(alwaysTrue(), belongToAnyOf(
+            com.gobr.pragrisk.config.Constants.class,
+            com.gobr.pragrisk.config.ApplicationProperties.class
+        ));
 }
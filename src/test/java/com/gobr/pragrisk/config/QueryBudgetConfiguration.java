@@ -0,0 +1,48 @@
+package com.gobr.pragrisk.config;
+
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fails any {@code MockMvc} request running more SQL statements than the budget set by the
+ * {@link com.gobr.pragrisk.web.rest.QueryBudget} of its test.
+ */
+@Configuration
+public class QueryBudgetConfiguration {
+
+    @Bean
+    public MockMvcBuilderCustomizer queryBudgetCustomizer() {
+        return builder -> builder.addFilters(new QueryBudgetFilter());
+    }
+
+    static class QueryBudgetFilter implements Filter {
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            int before = QueryCounter.count();
+            chain.doFilter(request, response);
+            int statements = QueryCounter.count() - before;
+            int budget = QueryCounter.budget();
+            if (statements > budget) {
+                HttpServletRequest httpRequest = (HttpServletRequest) request;
+                throw new AssertionError(
+                    httpRequest.getMethod() +
+                    " " +
+                    httpRequest.getRequestURI() +
+                    " ran " +
+                    statements +
+                    " SQL statements, over its budget of " +
+                    budget
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.gobr.pragrisk.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread, and holds the statement budget of a request on the
+ * thread of the running test.
+ * <p>
+ * Registered as the Hibernate statement inspector of the tests. Statements run through a {@code JdbcTemplate} are not
+ * counted.
+ */
+public class QueryCounter implements StatementInspector {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static final ThreadLocal<Integer> BUDGET = ThreadLocal.withInitial(() -> UNLIMITED);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * @return the number of statements prepared on this thread so far.
+     */
+    public static int count() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * @return the number of statements a single request may run on this thread.
+     */
+    public static int budget() {
+        return BUDGET.get();
+    }
+
+    public static void setBudget(int budget) {
+        BUDGET.set(budget);
+    }
+
+    public static void clearBudget() {
+        BUDGET.remove();
+    }
+}
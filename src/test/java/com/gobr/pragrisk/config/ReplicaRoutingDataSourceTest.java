@@ -0,0 +1,128 @@
+package com.gobr.pragrisk.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gobr.pragrisk.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests for the {@link ReplicaRoutingDataSource} and {@link ReplicaLagMonitor} classes, on two H2 databases.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary";
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica";
+
+    private ApplicationProperties.Datasource.Replica properties;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ApplicationProperties.Datasource.Replica();
+        properties.setLagQuery("select 0");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToTheReplica() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource());
+
+        assertThat(readUrl(jdbcTemplate, true)).isEqualTo(REPLICA_URL);
+        assertThat(readUrl(jdbcTemplate, false)).isEqualTo(PRIMARY_URL);
+        assertThat(jdbcTemplate.execute(urlCallback())).isEqualTo(PRIMARY_URL);
+        assertThat(meterRegistry.get("pragrisk.datasource.reads").tag("route", "replica").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadsGoToThePrimaryWhileTheReplicaLags() {
+        properties.setLagQuery("select 10");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource());
+
+        assertThat(readUrl(jdbcTemplate, true)).isEqualTo(PRIMARY_URL);
+        assertThat(meterRegistry.get("pragrisk.datasource.replica.lag").gauge().value()).isEqualTo(10);
+        assertThat(meterRegistry.get("pragrisk.datasource.reads").tag("route", "primary-replica-lagging").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testReadsGoToThePrimaryWhenTheReplicaFails() {
+        properties.setLagQuery("select unknown_column");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource());
+
+        assertThat(readUrl(jdbcTemplate, true)).isEqualTo(PRIMARY_URL);
+        assertThat(meterRegistry.get("pragrisk.datasource.replica.available").gauge().value()).isZero();
+    }
+
+    @Test
+    void testReadsOfAUserGoToThePrimaryAfterTheirWrite() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource());
+        authenticate("writer");
+        readUrl(jdbcTemplate, false);
+
+        assertThat(readUrl(jdbcTemplate, true)).isEqualTo(PRIMARY_URL);
+        authenticate("reader");
+        assertThat(readUrl(jdbcTemplate, true)).isEqualTo(REPLICA_URL);
+    }
+
+    @Test
+    void testReadsOfAUserGoBackToTheReplicaAfterTheWindow() {
+        properties.setReadYourWritesMs(0);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource());
+        authenticate("writer");
+        readUrl(jdbcTemplate, false);
+
+        assertThat(readUrl(jdbcTemplate, true)).isEqualTo(REPLICA_URL);
+    }
+
+    private DataSource routingDataSource() {
+        DataSource replica = new DriverManagerDataSource(REPLICA_URL);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, properties, meterRegistry);
+        monitor.checkLag();
+        return new LazyConnectionDataSourceProxy(
+            new ReplicaRoutingDataSource(
+                new DriverManagerDataSource(PRIMARY_URL),
+                replica,
+                monitor,
+                properties.getReadYourWritesMs(),
+                meterRegistry
+            )
+        );
+    }
+
+    private static String readUrl(JdbcTemplate jdbcTemplate, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.execute(urlCallback()));
+    }
+
+    private static ConnectionCallback<String> urlCallback() {
+        return connection -> connection.getMetaData().getURL();
+    }
+
+    private static void authenticate(String login) {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(login, login, authorities));
+    }
+}
@@ -0,0 +1,37 @@
+package com.gobr.pragrisk.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IdRange}.
+ */
+class IdRangeTest {
+
+    @Test
+    void splitsIntoContiguousSlicesCoveringTheRange() {
+        assertThat(new IdRange(1, 10).split(3)).containsExactly(new IdRange(1, 4), new IdRange(5, 8), new IdRange(9, 10));
+        assertThat(new IdRange(1001, 1200).split(4))
+            .containsExactly(new IdRange(1001, 1050), new IdRange(1051, 1100), new IdRange(1101, 1150), new IdRange(1151, 1200));
+    }
+
+    @Test
+    void neverSplitsIntoEmptySlices() {
+        assertThat(new IdRange(5, 7).split(10)).containsExactly(new IdRange(5, 5), new IdRange(6, 6), new IdRange(7, 7));
+        assertThat(new IdRange(5, 5).split(4)).containsExactly(new IdRange(5, 5));
+        assertThat(new IdRange(1, 10).split(0)).containsExactly(new IdRange(1, 10));
+    }
+
+    @Test
+    void splitsUpToTheLargestId() {
+        assertThat(new IdRange(Long.MAX_VALUE - 3, Long.MAX_VALUE).split(2))
+            .containsExactly(new IdRange(Long.MAX_VALUE - 3, Long.MAX_VALUE - 2), new IdRange(Long.MAX_VALUE - 1, Long.MAX_VALUE));
+    }
+
+    @Test
+    void isNeverEmpty() {
+        assertThatThrownBy(() -> new IdRange(2, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
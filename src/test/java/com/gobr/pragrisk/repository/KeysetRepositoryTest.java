@@ -0,0 +1,43 @@
+package com.gobr.pragrisk.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the queries of {@link KeysetRepository}.
+ */
+class KeysetRepositoryTest {
+
+    @Test
+    void seeksOnARangeOfTheSortValue() {
+        assertThat(KeysetRepository.valuesQuery("Scenario", "id", "riskValue", false, true, true))
+            .isEqualTo(
+                "select e from Scenario e where e.riskValue <= :value and (e.riskValue < :value or e.id < :id)" +
+                " order by e.riskValue desc, e.id desc"
+            );
+        assertThat(KeysetRepository.valuesQuery("Scenario", "id", "title", true, false, true))
+            .isEqualTo(
+                "select e from Scenario e where e.title >= :value and (e.title > :value or e.id > :id) order by e.title asc, e.id asc"
+            );
+    }
+
+    @Test
+    void readsTheNullsAfterTheValues() {
+        assertThat(KeysetRepository.valuesQuery("Scenario", "id", "riskValue", false, true, false))
+            .isEqualTo("select e from Scenario e where e.riskValue is not null order by e.riskValue desc, e.id desc");
+        assertThat(KeysetRepository.valuesQuery("Scenario", "id", "title", true, false, false))
+            .isEqualTo("select e from Scenario e order by e.title asc, e.id asc");
+        assertThat(KeysetRepository.nullTailQuery("Scenario", "id", "riskValue", false, false))
+            .isEqualTo("select e from Scenario e where e.riskValue is null order by e.id desc");
+        assertThat(KeysetRepository.nullTailQuery("Scenario", "id", "riskValue", false, true))
+            .isEqualTo("select e from Scenario e where e.riskValue is null and e.id < :id order by e.id desc");
+    }
+
+    @Test
+    void seeksByIdOnThePrimaryKey() {
+        assertThat(KeysetRepository.byIdQuery("Actor", "id", true, false)).isEqualTo("select e from Actor e order by e.id asc");
+        assertThat(KeysetRepository.byIdQuery("Actor", "id", false, true))
+            .isEqualTo("select e from Actor e where e.id < :id order by e.id desc");
+    }
+}
@@ -0,0 +1,45 @@
+package com.gobr.pragrisk.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Unit tests for {@link Keyset}.
+ */
+class KeysetTest {
+
+    @Test
+    void startsFromTheRequestedSort() {
+        Keyset bySort = Keyset.first(Sort.by(Sort.Order.desc("riskValue"), Sort.Order.asc("id")));
+        assertThat(bySort.getProperty()).isEqualTo("riskValue");
+        assertThat(bySort.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(bySort.getId()).isNull();
+
+        Keyset byId = Keyset.first(Sort.by(Sort.Order.desc("id")));
+        assertThat(byId.isById()).isTrue();
+        assertThat(byId.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(Keyset.first(Sort.unsorted()).getDirection()).isEqualTo(Sort.Direction.ASC);
+
+        assertThatThrownBy(() -> Keyset.first(Sort.by("title", "riskValue"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundTripsThroughTokens() {
+        Keyset first = Keyset.first(Sort.by("title"));
+        for (Keyset keyset : new Keyset[] { first.after(42L, "a\nb=c"), first.after(43L, null), first.after(44L, "") }) {
+            String token = keyset.encode();
+            assertThat(token).matches("[A-Za-z0-9_-]+");
+            assertThat(Keyset.decode(token)).isEqualTo(keyset);
+        }
+        assertThatThrownBy(first::encode).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> Keyset.decode("not a token")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Keyset.decode("dGl0bGUKQVND")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.gobr.pragrisk.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gobr.pragrisk.IntegrationTest;
+import com.gobr.pragrisk.domain.Scenario;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the id allocation of the {@link ScenarioRepository}.
+ */
+@IntegrationTest
+@Transactional
+class ScenarioRepositoryIT {
+
+    private static final int SCENARIOS = ScenarioRepository.ID_ALLOCATION_SIZE + 10;
+
+    @Autowired
+    private ScenarioRepository scenarioRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void saveAllTakesOneSequenceValuePerAllocationBlock() {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < SCENARIOS; i++) {
+            scenarios.add(new Scenario().title("ALLOCATED-" + i).probability(BigDecimal.ONE).qonsequence(BigDecimal.ONE));
+        }
+        scenarioRepository.saveAll(scenarios);
+        em.flush();
+
+        // ids are consecutive within an allocation block, and the first block may be partly used already
+        int gaps = 0;
+        for (int i = 1; i < SCENARIOS; i++) {
+            if (scenarios.get(i).getId() != scenarios.get(i - 1).getId() + 1) {
+                gaps++;
+            }
+        }
+        assertThat(gaps).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void reservedIdsNeverClashWithAssignedIds() {
+        long[] reserved = new long[SCENARIOS];
+        scenarioRepository.reserveIds(reserved, SCENARIOS);
+        Scenario scenario = scenarioRepository.saveAndFlush(
+            new Scenario().title("ALLOCATED").probability(BigDecimal.ONE).qonsequence(BigDecimal.ONE)
+        );
+
+        for (int i = 1; i < SCENARIOS; i++) {
+            assertThat(reserved[i]).isGreaterThan(reserved[i - 1]);
+        }
+        assertThat(reserved).doesNotContain(scenario.getId());
+    }
+}
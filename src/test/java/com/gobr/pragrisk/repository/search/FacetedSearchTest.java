@@ -0,0 +1,112 @@
+package com.gobr.pragrisk.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.index.query.QueryBuilders.*;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.math.BigDecimal;
+import java.util.List;
+import org.elasticsearch.search.aggregations.AbstractAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregator;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.service.filter.BigDecimalFilter;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Unit tests for {@link FacetedSearch}.
+ */
+class FacetedSearchTest {
+
+    @Test
+    void compilesFiltersToFilterClauses() {
+        Filter<MitigationType> type = new Filter<>();
+        type.setEquals(MitigationType.PREVENTIVE);
+        type.setNotIn(List.of(MitigationType.DETERRING, MitigationType.CORRECTIVE));
+        type.setSpecified(true);
+
+        assertThat(FacetedSearch.toQuery("type.keyword", type))
+            .isEqualTo(
+                boolQuery()
+                    .filter(termQuery("type.keyword", "PREVENTIVE"))
+                    .mustNot(termsQuery("type.keyword", List.of("DETERRING", "CORRECTIVE")))
+                    .filter(existsQuery("type.keyword"))
+            );
+    }
+
+    @Test
+    void compilesRangeFiltersToRangeClauses() {
+        BigDecimalFilter riskValue = new BigDecimalFilter();
+        riskValue.setGreaterThanOrEqual(new BigDecimal("1000.50"));
+        riskValue.setLessThan(new BigDecimal(10000));
+
+        assertThat(FacetedSearch.toQuery("riskValue", riskValue))
+            .isEqualTo(boolQuery().filter(rangeQuery("riskValue").gte(1000.5)).filter(rangeQuery("riskValue").lt(10000.0)));
+    }
+
+    @Test
+    void emptyFiltersHaveNoClauses() {
+        FacetedSearch search = FacetedSearch.of(" ").terms("groupId", "group.id", new LongFilter(), 10).terms("other", "other", null, 10);
+
+        assertThat(search.getText()).isEqualTo(matchAllQuery());
+        assertThat(search.getFilter()).isNull();
+        assertThat(search.getAggregations())
+            .extracting(aggregation -> ((FilterAggregationBuilder) aggregation).getFilter())
+            .containsExactly(matchAllQuery(), matchAllQuery());
+    }
+
+    @Test
+    void countsEachFacetUnderTheFiltersOfTheOtherFacets() {
+        Filter<MitigationType> type = new Filter<>();
+        type.setEquals(MitigationType.PREVENTIVE);
+        Filter<MitigationStatus> status = new Filter<>();
+        status.setIn(List.of(MitigationStatus.AD_HOC));
+
+        FacetedSearch search = FacetedSearch
+            .of("firewall")
+            .terms("type", "type.keyword", type, 4)
+            .terms("status", "status.keyword", status, 6);
+
+        assertThat(search.getText()).isEqualTo(simpleQueryStringQuery("firewall"));
+        assertThat(search.getFilter())
+            .isEqualTo(
+                boolQuery()
+                    .filter(boolQuery().filter(termQuery("type.keyword", "PREVENTIVE")))
+                    .filter(boolQuery().filter(termsQuery("status.keyword", List.of("AD_HOC"))))
+            );
+        List<AbstractAggregationBuilder<?>> aggregations = search.getAggregations();
+        FilterAggregationBuilder typeFacet = (FilterAggregationBuilder) aggregations.get(0);
+        assertThat(typeFacet.getName()).isEqualTo("type");
+        assertThat(typeFacet.getFilter())
+            .isEqualTo(boolQuery().filter(boolQuery().filter(termsQuery("status.keyword", List.of("AD_HOC")))));
+        assertThat(typeFacet.getSubAggregations())
+            .containsExactly(new TermsAggregationBuilder("type").field("type.keyword").size(4));
+        FilterAggregationBuilder statusFacet = (FilterAggregationBuilder) aggregations.get(1);
+        assertThat(statusFacet.getFilter()).isEqualTo(boolQuery().filter(boolQuery().filter(termQuery("type.keyword", "PREVENTIVE"))));
+        assertThat(search.getFacetNames()).containsExactly("type", "status");
+    }
+
+    @Test
+    void rangeFacetsHaveOneMoreRangeThanThresholds() {
+        FacetedSearch search = FacetedSearch
+            .of(null)
+            .range("riskValue", "riskValue", null, List.of(new BigDecimal(1000), new BigDecimal(10000)));
+
+        RangeAggregationBuilder riskValue = (RangeAggregationBuilder) search
+            .getAggregations()
+            .get(0)
+            .getSubAggregations()
+            .iterator()
+            .next();
+        assertThat(riskValue.ranges())
+            .containsExactly(
+                new RangeAggregator.Range(null, null, 1000.0),
+                new RangeAggregator.Range(null, 1000.0, 10000.0),
+                new RangeAggregator.Range(null, 10000.0, null)
+            );
+    }
+}
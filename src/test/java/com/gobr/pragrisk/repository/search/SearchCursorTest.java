@@ -0,0 +1,62 @@
+package com.gobr.pragrisk.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Unit tests for {@link SearchCursor}.
+ */
+class SearchCursorTest {
+
+    @Test
+    void endsTheSortWithTheId() {
+        assertThat(SearchCursor.first(Sort.unsorted()).getSort()).isEqualTo(Sort.by("id"));
+        assertThat(SearchCursor.first(Sort.by(Sort.Order.desc("riskValue"))).getSort())
+            .isEqualTo(Sort.by(Sort.Order.desc("riskValue"), Sort.Order.asc("id")));
+        assertThat(SearchCursor.first(Sort.by(Sort.Order.desc("id"))).getSort()).isEqualTo(Sort.by(Sort.Order.desc("id")));
+        assertThat(SearchCursor.first(Sort.unsorted()).getValues()).isNull();
+    }
+
+    @Test
+    void roundTripsThroughTokens() {
+        SearchCursor cursor = SearchCursor
+            .first(Sort.by(Sort.Order.desc("riskValue"), Sort.Order.asc("probability"), Sort.Order.asc("title.keyword")))
+            .after(Arrays.asList(0.25, null, "A title, with\nodd characters", 42L));
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        SearchCursor decoded = SearchCursor.decode(token);
+        assertThat(decoded.getSort()).isEqualTo(cursor.getSort());
+        assertThat(decoded.getValues()).containsExactly(0.25, null, "A title, with\nodd characters", 42L);
+        assertThat(decoded.encode()).isEqualTo(token);
+    }
+
+    @Test
+    void firstPagesHaveNoToken() {
+        assertThatThrownBy(() -> SearchCursor.first(Sort.unsorted()).encode()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        List<String> malformed = List.of(
+            "{}",
+            "[1]",
+            "{\"sort\":[{\"property\":\"id\",\"direction\":\"ASC\"}],\"after\":[]}",
+            "{\"sort\":[{\"property\":\"id\",\"direction\":\"UP\"}],\"after\":[1]}",
+            "{\"sort\":[{\"property\":\"id\",\"direction\":\"ASC\"}],\"after\":[[1]]}"
+        );
+        for (String json : malformed) {
+            String token = Base64.getUrlEncoder().encodeToString(json.getBytes());
+            assertThatThrownBy(() -> SearchCursor.decode(token)).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> SearchCursor.decode("not a token")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("bm90IGpzb24")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,161 @@
+package com.gobr.pragrisk.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.enumeration.TechCategory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.elasticsearch.search.aggregations.bucket.range.Range;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitsImpl;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.core.clients.elasticsearch7.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import tech.jhipster.service.filter.Filter;
+
+/**
+ * Unit tests for {@link SearchPages}.
+ */
+class SearchPagesTest {
+
+    private ElasticsearchOperations operations;
+
+    private final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+    @BeforeEach
+    public void setup() {
+        operations = mock(ElasticsearchOperations.class);
+    }
+
+    @Test
+    void offsetPagesHaveTheTotalHits() {
+        returnHits(25_000, TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO, 20);
+
+        Page<Scenario> page = SearchPages.search(operations, queryStringQuery("*"), PageRequest.of(2, 20), 25_000, Scenario.class);
+
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getTotalElements()).isEqualTo(25_000);
+        verify(operations).search(query.capture(), eq(Scenario.class));
+        assertThat(query.getValue().getTrackTotalHitsUpTo()).isEqualTo(25_000);
+        assertThat(query.getValue().getPageable()).isEqualTo(PageRequest.of(2, 20));
+        assertThat(query.getValue().getSearchAfter()).isNull();
+    }
+
+    @Test
+    void cursorPagesReadOneMoreHitToFindTheNextPage() {
+        returnHits(3, TotalHitsRelation.EQUAL_TO, 3);
+        SearchCursor first = SearchCursor.first(Sort.by(Sort.Order.desc("riskValue")));
+
+        SearchCursorPage<Scenario> page = SearchPages.search(operations, queryStringQuery("*"), first, 2, 10_000, Scenario.class);
+
+        assertThat(page.getContent()).extracting(Scenario::getId).containsExactly(1L, 2L);
+        assertThat(page.getTotalHits()).isEqualTo(3);
+        assertThat(page.getNext()).isEqualTo(first.after(List.of(2.0, 2L)));
+        verify(operations).search(query.capture(), eq(Scenario.class));
+        assertThat(query.getValue().getPageable()).isEqualTo(PageRequest.of(0, 3, first.getSort()));
+        assertThat(query.getValue().getSearchAfter()).isNull();
+        assertThat(((NativeSearchQuery) query.getValue()).getQuery()).isEqualTo(queryStringQuery("*"));
+    }
+
+    @Test
+    void cursorPagesSearchAfterTheirPosition() {
+        returnHits(3, TotalHitsRelation.EQUAL_TO, 1);
+        SearchCursor position = SearchCursor.first(Sort.by(Sort.Order.desc("riskValue"))).after(List.of(2.0, 2L));
+
+        SearchCursorPage<Scenario> page = SearchPages.search(operations, queryStringQuery("*"), position, 2, 10_000, Scenario.class);
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.hasNext()).isFalse();
+        verify(operations).search(query.capture(), eq(Scenario.class));
+        assertThat(query.getValue().getSearchAfter()).containsExactly(2.0, 2L);
+    }
+
+    @Test
+    void facetedPagesHaveTheBucketsOfEveryFacet() {
+        Terms.Bucket service = mock(Terms.Bucket.class);
+        when(service.getKeyAsString()).thenReturn("SERVICE");
+        when(service.getDocCount()).thenReturn(3L);
+        Range.Bucket low = mock(Range.Bucket.class);
+        when(low.getKeyAsString()).thenReturn("*-1000.0");
+        when(low.getFrom()).thenReturn(Double.NEGATIVE_INFINITY);
+        when(low.getTo()).thenReturn(1000.0);
+        when(low.getDocCount()).thenReturn(2L);
+        SearchHitsImpl<Scenario> hits = new SearchHitsImpl<>(
+            3,
+            TotalHitsRelation.EQUAL_TO,
+            1,
+            null,
+            List.of(),
+            new ElasticsearchAggregations(new Aggregations(List.of(facet("technologyCategory", service), facet("riskValue", low)))),
+            null
+        );
+        when(operations.search(any(Query.class), eq(Scenario.class))).thenReturn(hits);
+        Filter<TechCategory> category = new Filter<>();
+        category.setEquals(TechCategory.SERVICE);
+        FacetedSearch search = FacetedSearch
+            .of("title")
+            .terms("technologyCategory", "technologyFK.category.keyword", category, 3)
+            .range("riskValue", "riskValue", null, List.of(new BigDecimal(1000)));
+
+        FacetedPage<Scenario> page = SearchPages.search(operations, search, PageRequest.of(0, 20), 10_000, Scenario.class);
+
+        assertThat(page.getPage().getTotalElements()).isEqualTo(3);
+        assertThat(page.getFacets()).containsOnlyKeys("technologyCategory", "riskValue");
+        assertThat(page.getFacets().get("technologyCategory"))
+            .extracting(FacetedPage.Bucket::getKey, FacetedPage.Bucket::getFrom, FacetedPage.Bucket::getCount)
+            .containsExactly(tuple("SERVICE", null, 3L));
+        assertThat(page.getFacets().get("riskValue"))
+            .extracting(FacetedPage.Bucket::getKey, FacetedPage.Bucket::getFrom, FacetedPage.Bucket::getTo, FacetedPage.Bucket::getCount)
+            .containsExactly(tuple("*-1000.0", null, 1000.0, 2L));
+        verify(operations).search(query.capture(), eq(Scenario.class));
+        NativeSearchQuery nativeSearchQuery = (NativeSearchQuery) query.getValue();
+        assertThat(nativeSearchQuery.getQuery()).isEqualTo(search.getText());
+        assertThat(nativeSearchQuery.getFilter()).isEqualTo(search.getFilter());
+        assertThat(nativeSearchQuery.getAggregations()).isEqualTo(search.getAggregations());
+    }
+
+    private static org.elasticsearch.search.aggregations.bucket.filter.Filter facet(String name, MultiBucketsAggregation.Bucket bucket) {
+        MultiBucketsAggregation buckets = mock(MultiBucketsAggregation.class);
+        when(buckets.getName()).thenReturn(name);
+        doReturn(List.of(bucket)).when(buckets).getBuckets();
+        org.elasticsearch.search.aggregations.bucket.filter.Filter filter = mock(
+            org.elasticsearch.search.aggregations.bucket.filter.Filter.class
+        );
+        when(filter.getName()).thenReturn(name);
+        when(filter.getAggregations()).thenReturn(new Aggregations(List.of(buckets)));
+        return filter;
+    }
+
+    private void returnHits(long totalHits, TotalHitsRelation relation, int count) {
+        List<SearchHit<Scenario>> hits = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Scenario scenario = new Scenario();
+            scenario.setId(id);
+            hits.add(new SearchHit<>("scenario", Long.toString(id), null, 1, new Object[] { (double) id, id }, Map.of(), scenario));
+        }
+        when(operations.search(any(Query.class), eq(Scenario.class)))
+            .thenReturn(new SearchHitsImpl<>(totalHits, relation, 1, null, hits, null, null));
+    }
+}
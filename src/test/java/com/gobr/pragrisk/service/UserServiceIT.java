@@ -1,17 +1,16 @@
 package com.gobr.pragrisk.service;
 
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.gobr.pragrisk.IntegrationTest;
 import com.gobr.pragrisk.config.Constants;
 import com.gobr.pragrisk.domain.User;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
 import com.gobr.pragrisk.repository.UserRepository;
-import com.gobr.pragrisk.repository.search.UserSearchRepository;
 import com.gobr.pragrisk.service.dto.AdminUserDTO;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -54,13 +53,8 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
-    /**
-     * This repository is mocked in the com.gobr.pragrisk.repository.search test package.
-     *
-     * @see com.gobr.pragrisk.repository.search.UserSearchRepositoryMockConfiguration
-     */
     @Autowired
-    private UserSearchRepository mockUserSearchRepository;
+    private SearchOutboxRepository searchOutboxRepository;
 
     @Autowired
     private AuditingHandler auditingHandler;
@@ -177,8 +171,8 @@ class UserServiceIT {
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
         assertThat(users).isEmpty();
 
-        // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, times(1)).delete(user);
+        // Verify the user is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.USER)).contains(dbUser.getId());
     }
 
     @Test
@@ -197,7 +191,7 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
 
-        // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, never()).delete(user);
+        // Verify the user is not queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.USER)).doesNotContain(dbUser.getId());
     }
 }
@@ -0,0 +1,54 @@
+package com.gobr.pragrisk.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link RowWriter}s.
+ */
+class RowWriterTest {
+
+    private static final List<ExportColumn<Object[]>> COLUMNS = List.of(
+        ExportColumn.of("title", row -> row[0]),
+        ExportColumn.of("probability", row -> row[1]),
+        ExportColumn.of("statuses", row -> row[2])
+    );
+
+    private static final Object[][] ROWS = {
+        { "a, \"b\"\nc", new BigDecimal("1E+1"), List.of(MitigationStatus.AD_HOC, MitigationStatus.WELL_DEFINED) },
+        { null, null, List.of() },
+    };
+
+    @Test
+    void writesCsvRows() throws IOException {
+        assertThat(writeAll(ExportFormat.CSV))
+            .isEqualTo("title,probability,statuses\r\n" + "\"a, \"\"b\"\"\nc\",10,AD_HOC;WELL_DEFINED\r\n" + ",,\r\n");
+    }
+
+    @Test
+    void writesNdjsonRows() throws IOException {
+        assertThat(writeAll(ExportFormat.NDJSON))
+            .isEqualTo(
+                "{\"title\":\"a, \\\"b\\\"\\nc\",\"probability\":10,\"statuses\":[\"AD_HOC\",\"WELL_DEFINED\"]}\n" +
+                "{\"title\":null,\"probability\":null,\"statuses\":[]}\n"
+            );
+    }
+
+    private static String writeAll(ExportFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RowWriter<Object[]> writer = RowWriter.open(format, output, new ObjectMapper(), COLUMNS);
+        for (Object[] row : ROWS) {
+            writer.write(row);
+        }
+        writer.flush();
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
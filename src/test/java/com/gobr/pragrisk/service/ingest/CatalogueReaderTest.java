@@ -0,0 +1,95 @@
+package com.gobr.pragrisk.service.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gobr.pragrisk.repository.VulnerabilityCatalogueRow;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link CatalogueReader}s.
+ */
+class CatalogueReaderTest {
+
+    @Test
+    void readsCweWeaknesses() throws IOException {
+        String catalogue =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<Weakness_Catalog xmlns=\"http://cwe.mitre.org/cwe-6\" Name=\"CWE\" Version=\"4.8\">" +
+            "<Weaknesses>" +
+            "<Weakness ID=\"79\" Name=\"Improper Neutralization of Input During Web Page Generation\" Status=\"Stable\">" +
+            "<Description>XSS</Description></Weakness>" +
+            "<Weakness ID=\"89\" Name=\"" +
+            "x".repeat(300) +
+            "\"/>" +
+            "</Weaknesses>" +
+            "<Categories><Category ID=\"1\" Name=\"Not a weakness\"/></Categories>" +
+            "</Weakness_Catalog>";
+
+        List<VulnerabilityCatalogueRow> rows = readAll(CatalogueFormat.CWE_XML, catalogue);
+
+        assertThat(rows).extracting(VulnerabilityCatalogueRow::getSourceKey).containsExactly("CWE-79", "CWE-89");
+        assertThat(rows.get(0).getName()).isEqualTo("Improper Neutralization of Input During Web Page Generation");
+        assertThat(rows.get(0).getCweReference()).isEqualTo("CWE-79");
+        assertThat(rows.get(0).getCvss()).isNull();
+        assertThat(rows.get(1).getName()).hasSize(CatalogueReader.MAX_LENGTH);
+    }
+
+    @Test
+    void readsNvdFeedItems() throws IOException {
+        String feed =
+            "{\"CVE_data_type\":\"CVE\",\"CVE_data_numberOfCVEs\":\"2\",\"CVE_Items\":[" +
+            "{\"cve\":{\"CVE_data_meta\":{\"ID\":\"CVE-2021-44228\"}," +
+            "\"problemtype\":{\"problemtype_data\":[{\"description\":[{\"value\":\"CWE-502\"},{\"value\":\"CWE-400\"}]}]}}," +
+            "\"impact\":{\"baseMetricV3\":{\"cvssV3\":{\"version\":\"3.1\",\"vectorString\":\"CVSS:3.1/AV:N/AC:L\",\"baseScore\":10.0}}," +
+            "\"baseMetricV2\":{\"cvssV2\":{\"version\":\"2.0\",\"vectorString\":\"AV:N/AC:M\",\"baseScore\":9.3}}}}," +
+            "{\"cve\":{\"CVE_data_meta\":{\"ID\":\"CVE-1999-0001\"},\"problemtype\":{\"problemtype_data\":[]}}," +
+            "\"impact\":{\"baseMetricV2\":{\"cvssV2\":{\"version\":\"2.0\",\"vectorString\":\"AV:N/AC:L/Au:N\",\"baseScore\":5}}}}" +
+            "],\"CVE_data_timestamp\":\"2022-02-07T00:00Z\"}";
+
+        List<VulnerabilityCatalogueRow> rows = readAll(CatalogueFormat.NVD_JSON, feed);
+
+        assertThat(rows).extracting(VulnerabilityCatalogueRow::getSourceKey).containsExactly("CVE-2021-44228", "CVE-1999-0001");
+        assertThat(rows.get(0).getName()).isEqualTo("CVE-2021-44228");
+        assertThat(rows.get(0).getCweReference()).isEqualTo("CWE-502");
+        assertThat(rows.get(0).getCvss()).isEqualTo("10.0 CVSS:3.1/AV:N/AC:L");
+        assertThat(rows.get(1).getCweReference()).isNull();
+        assertThat(rows.get(1).getCvss()).isEqualTo("5 CVSS:2.0/AV:N/AC:L/Au:N");
+    }
+
+    @Test
+    void readsNvdApiItems() throws IOException {
+        String response =
+            "{\"resultsPerPage\":1,\"vulnerabilities\":[{\"cve\":{\"id\":\"CVE-2023-0001\"," +
+            "\"weaknesses\":[{\"source\":\"nvd@nist.gov\",\"description\":[{\"lang\":\"en\",\"value\":\"CWE-79\"}]}]," +
+            "\"metrics\":{\"cvssMetricV31\":[{\"cvssData\":" +
+            "{\"version\":\"3.1\",\"vectorString\":\"CVSS:3.1/AV:L\",\"baseScore\":6.7}}]}}}]," +
+            "\"timestamp\":\"2023-01-01T00:00:00.000\"}";
+
+        List<VulnerabilityCatalogueRow> rows = readAll(CatalogueFormat.NVD_JSON, response);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getSourceKey()).isEqualTo("CVE-2023-0001");
+        assertThat(rows.get(0).getCweReference()).isEqualTo("CWE-79");
+        assertThat(rows.get(0).getCvss()).isEqualTo("6.7 CVSS:3.1/AV:L");
+    }
+
+    private static List<VulnerabilityCatalogueRow> readAll(CatalogueFormat format, String catalogue) throws IOException {
+        CatalogueReader reader = CatalogueReader.open(
+            format,
+            new ByteArrayInputStream(catalogue.getBytes(StandardCharsets.UTF_8)),
+            new ObjectMapper()
+        );
+        List<VulnerabilityCatalogueRow> rows = new ArrayList<>();
+        VulnerabilityCatalogueRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
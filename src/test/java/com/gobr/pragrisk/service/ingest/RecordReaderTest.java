@@ -0,0 +1,68 @@
+package com.gobr.pragrisk.service.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link RecordReader}s.
+ */
+class RecordReaderTest {
+
+    @Test
+    void readsCsvRecords() throws IOException {
+        List<ImportRecord> records = readAll(
+            ImportFormat.CSV,
+            "\uFEFF title , description\r\n" + "a,\"b, \"\"c\"\"\r\nd\"\r\n" + "\r\n" + "e,\n" + "f,\"" + "x".repeat(40) + "\"\n" + "g,\"h",
+            32
+        );
+
+        assertThat(records).extracting(ImportRecord::getLine).containsExactly(2L, 5L, 6L, 7L);
+        assertThat(records.get(0).get("title")).isEqualTo("a");
+        assertThat(records.get(0).get("description")).isEqualTo("b, \"c\"\r\nd");
+        assertThat(records.get(1).get("title")).isEqualTo("e");
+        assertThat(records.get(1).get("description")).isNull();
+        assertThat(records.get(2).getError()).isEqualTo("record is longer than 32 characters");
+        assertThat(records.get(3).getError()).isEqualTo("unterminated quoted field");
+    }
+
+    @Test
+    void readsNdjsonRecords() throws IOException {
+        List<ImportRecord> records = readAll(
+            ImportFormat.NDJSON,
+            "{\"title\":\"a\",\"probability\":1.5,\"description\":null}\r\n" +
+            "  \n" +
+            "[1]\n" +
+            "{\"title\":{\"nested\":true}}\n" +
+            "{\"title\":\n" +
+            "{\"title\":\"" +
+            "x".repeat(80) +
+            "\"}",
+            64
+        );
+
+        assertThat(records).extracting(ImportRecord::getLine).containsExactly(1L, 3L, 4L, 5L, 6L);
+        assertThat(records.get(0).getError()).isNull();
+        assertThat(records.get(0).get("probability")).isEqualTo("1.5");
+        assertThat(records.get(0).get("description")).isNull();
+        assertThat(records.get(1).getError()).isEqualTo("not a JSON object");
+        assertThat(records.get(2).getError()).isEqualTo("title is not a scalar");
+        assertThat(records.get(3).getError()).startsWith("malformed JSON");
+        assertThat(records.get(4).getError()).isEqualTo("record is longer than 64 characters");
+    }
+
+    private static List<ImportRecord> readAll(ImportFormat format, String input, int maxRecordLength) throws IOException {
+        RecordReader reader = RecordReader.open(format, new StringReader(input), new ObjectMapper(), maxRecordLength);
+        List<ImportRecord> records = new ArrayList<>();
+        ImportRecord record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,134 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.VulnerabilityRepository.VulnerabilityMitigation;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AttackGraph}.
+ */
+class AttackGraphTest {
+
+    private static final long NO_ID = ScenarioRiskSnapshot.NO_ID;
+
+    private final ResidualRiskModel model = new ResidualRiskModel(
+        Map.of(MitigationStatus.WELL_DEFINED, new BigDecimal("0.6")),
+        Map.of(MitigationType.PREVENTIVE, BigDecimal.ONE)
+    );
+
+    private final AttackGraph graph = new AttackGraph();
+
+    @BeforeEach
+    void buildGraph() {
+        graph.addScenario(scenario(1L, 1L, 10L, 100L, 500));
+        graph.addScenario(scenario(2L, 1L, 11L, 100L, 200));
+        graph.addScenario(scenario(3L, 2L, 11L, 101L, 900));
+        graph.addScenario(scenario(4L, 1L, NO_ID, 102L, 50));
+    }
+
+    @Test
+    void enumeratesRiskiestPathsFirst() {
+        List<AttackGraph.Path> paths = graph.riskiestPaths(node(AttackNodeType.ACTOR, 1L), 10);
+
+        assertThat(paths).extracting(path -> path.riskValue).containsExactly(500L, 200L, 200L, 50L);
+        assertThat(ids(paths.get(0))).containsExactly(1L, 10L, 100L);
+        assertThat(ids(paths.get(3))).containsExactly(1L, 102L);
+        assertThat(graph.riskiestPaths(node(AttackNodeType.ACTOR, 1L), 2)).extracting(path -> path.riskValue).containsExactly(500L, 200L);
+    }
+
+    @Test
+    void findsShortestAndRiskiestPaths() {
+        int actor = node(AttackNodeType.ACTOR, 1L);
+
+        assertThat(ids(graph.shortestPath(actor, node(AttackNodeType.VULNERABILITY, 101L)))).containsExactly(1L, 11L, 101L);
+        AttackGraph.Path riskiest = graph.riskiestPath(actor, node(AttackNodeType.VULNERABILITY, 100L));
+        assertThat(ids(riskiest)).containsExactly(1L, 10L, 100L);
+        assertThat(riskiest.riskValue).isEqualTo(500L);
+        assertThat(graph.shortestPath(node(AttackNodeType.ACTOR, 2L), node(AttackNodeType.TECHNOLOGY, 10L))).isNull();
+    }
+
+    @Test
+    void appliesScenarioChangesIncrementally() {
+        int actor = node(AttackNodeType.ACTOR, 1L);
+        ScenarioRiskSnapshot riskier = scenario(5L, 1L, 11L, 101L, 1000);
+        graph.addScenario(riskier);
+        assertThat(graph.riskiestPath(actor, node(AttackNodeType.VULNERABILITY, 101L)).riskValue).isEqualTo(1000L);
+
+        graph.removeScenario(riskier);
+        graph.removeScenario(scenario(1L, 1L, 10L, 100L, 500));
+
+        AttackGraph.Path riskiest = graph.riskiestPath(actor, node(AttackNodeType.VULNERABILITY, 100L));
+        assertThat(ids(riskiest)).containsExactly(1L, 11L, 100L);
+        assertThat(riskiest.riskValue).isEqualTo(200L);
+        assertThat(graph.riskiestPath(actor, node(AttackNodeType.VULNERABILITY, 101L)).riskValue).isEqualTo(200L);
+        assertThat(graph.shortestPath(actor, node(AttackNodeType.TECHNOLOGY, 10L))).isNull();
+        assertThat(graph.edgeCount()).isEqualTo(5);
+    }
+
+    @Test
+    void linksMitigationsAndFiltersExposedActors() {
+        graph.replaceMitigationLinks(MitigationLinks.of(List.of(link(100L, 7L)), model));
+        int vulnerability = node(AttackNodeType.VULNERABILITY, 100L);
+
+        assertThat(graph.successorIds(vulnerability, AttackNodeType.MITIGATION)).containsExactly(7L);
+        assertThat(ids(graph.shortestPath(node(AttackNodeType.ACTOR, 1L), node(AttackNodeType.MITIGATION, 7L))))
+            .containsExactly(1L, 10L, 100L, 7L);
+        assertThat(graph.riskiestPaths(node(AttackNodeType.ACTOR, 1L), 1)).extracting(path -> ids(path).size()).containsExactly(3);
+
+        int technology = node(AttackNodeType.TECHNOLOGY, 11L);
+        assertThat(graph.actorsExposing(technology, vulnerabilityId -> true)).containsExactly(1L, 2L);
+        assertThat(graph.actorsExposing(technology, vulnerabilityId -> vulnerabilityId != 100L)).containsExactly(2L);
+
+        graph.replaceMitigationLinks(MitigationLinks.of(List.of(), model));
+        assertThat(graph.successorIds(vulnerability, AttackNodeType.MITIGATION)).isEmpty();
+    }
+
+    private int node(AttackNodeType type, long id) {
+        int node = graph.find(type, id);
+        assertThat(node).isNotEqualTo(AttackGraph.NONE);
+        return node;
+    }
+
+    private List<Long> ids(AttackGraph.Path path) {
+        List<Long> ids = new ArrayList<>();
+        Arrays.stream(path.nodes).forEach(node -> ids.add(graph.idOf(node)));
+        return ids;
+    }
+
+    private static ScenarioRiskSnapshot scenario(long id, long actorId, long technologyId, long vulnerabilityId, long riskValue) {
+        return new ScenarioRiskSnapshot(id, 100, riskValue, riskValue, actorId, technologyId, vulnerabilityId, NO_ID, null);
+    }
+
+    private static VulnerabilityMitigation link(long vulnerabilityId, long mitigationId) {
+        return new VulnerabilityMitigation() {
+            @Override
+            public Long getVulnerabilityId() {
+                return vulnerabilityId;
+            }
+
+            @Override
+            public Long getMitigationId() {
+                return mitigationId;
+            }
+
+            @Override
+            public MitigationStatus getStatus() {
+                return MitigationStatus.WELL_DEFINED;
+            }
+
+            @Override
+            public MitigationType getType() {
+                return MitigationType.PREVENTIVE;
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CompressedBitmap}.
+ */
+class CompressedBitmapTest {
+
+    @Test
+    void matchesBitSetAcrossSparseAndDenseChunks() {
+        SplittableRandom random = new SplittableRandom(11);
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        // chunk 0 dense in a, chunk 1 sparse in both, chunk 3 only in b
+        for (int i = 0; i < 20_000; i++) {
+            int dense = random.nextInt(1 << 16);
+            a.add(dense);
+            expectedA.set(dense);
+            int sparse = (1 << 16) + random.nextInt(1 << 16);
+            if (i % 10 == 0) {
+                a.add(sparse);
+                expectedA.set(sparse);
+            }
+            if (i % 7 == 0) {
+                b.add(sparse);
+                expectedB.set(sparse);
+                b.add(dense);
+                expectedB.set(dense);
+                int other = (3 << 16) + random.nextInt(1 << 16);
+                b.add(other);
+                expectedB.set(other);
+            }
+        }
+
+        assertThat(a.cardinality()).isEqualTo(expectedA.cardinality());
+        assertThat(a.contains(expectedA.nextSetBit(0))).isTrue();
+        assertThat(a.contains(expectedA.nextClearBit(0))).isFalse();
+        BitSet intersection = (BitSet) expectedA.clone();
+        intersection.and(expectedB);
+        assertThat(a.andCardinality(b)).isEqualTo(intersection.cardinality());
+
+        CompressedBitmap union = a.copy();
+        union.or(b);
+        BitSet expectedUnion = (BitSet) expectedA.clone();
+        expectedUnion.or(expectedB);
+        assertThat(toList(union)).isEqualTo(toList(expectedUnion));
+
+        union.andNot(a);
+        BitSet expectedDifference = (BitSet) expectedUnion.clone();
+        expectedDifference.andNot(expectedA);
+        assertThat(toList(union)).isEqualTo(toList(expectedDifference));
+        assertThat(a.cardinality()).isEqualTo(expectedA.cardinality());
+    }
+
+    @Test
+    void emptiesChunksOnAndNot() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(5);
+        bitmap.add(70_000);
+        CompressedBitmap removed = new CompressedBitmap();
+        removed.add(5);
+        removed.add(70_000);
+
+        bitmap.andNot(removed);
+
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.cardinality()).isZero();
+    }
+
+    private static List<Integer> toList(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    private static List<Integer> toList(BitSet bitSet) {
+        List<Integer> values = new ArrayList<>();
+        bitSet.stream().forEach(values::add);
+        return values;
+    }
+}
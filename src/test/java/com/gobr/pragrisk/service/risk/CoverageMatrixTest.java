@@ -0,0 +1,99 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.VulnerabilityRepository.VulnerabilityMitigation;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CoverageMatrix}.
+ */
+class CoverageMatrixTest {
+
+    private final ResidualRiskModel model = new ResidualRiskModel(
+        Map.of(MitigationStatus.WELL_DEFINED, new BigDecimal("0.6")),
+        Map.of(MitigationType.PREVENTIVE, BigDecimal.ONE)
+    );
+
+    // vulnerabilities 1 to 5; mitigation 10 covers 1, 2 and 3, 11 covers 3 and 4, 12 covers 4 only, 5 is uncovered
+    private final CoverageMatrix matrix = CoverageMatrix.of(
+        new long[] { 1L, 2L, 3L, 4L, 5L },
+        MitigationLinks.of(
+            List.of(
+                link(1L, 10L, MitigationStatus.AD_HOC, MitigationType.PREVENTIVE),
+                link(2L, 10L, MitigationStatus.AD_HOC, MitigationType.PREVENTIVE),
+                link(3L, 10L, MitigationStatus.AD_HOC, MitigationType.PREVENTIVE),
+                link(3L, 11L, MitigationStatus.WELL_DEFINED, MitigationType.DETECTIVE),
+                link(4L, 11L, MitigationStatus.WELL_DEFINED, MitigationType.DETECTIVE),
+                link(4L, 12L, MitigationStatus.PLANNED_AND_TRACKED, MitigationType.PREVENTIVE)
+            ),
+            model
+        )
+    );
+
+    @Test
+    void findsVulnerabilitiesWithoutMatureMitigation() {
+        CompressedBitmap uncovered = matrix.all();
+        uncovered.andNot(matrix.covered(MitigationStatus.PLANNED_AND_TRACKED));
+        assertThat(ids(uncovered)).containsExactly(1L, 2L, 5L);
+
+        uncovered = matrix.all();
+        uncovered.andNot(matrix.covered((MitigationStatus) null));
+        assertThat(ids(uncovered)).containsExactly(5L);
+    }
+
+    @Test
+    void countsCoverageByType() {
+        assertThat(matrix.covered(MitigationType.PREVENTIVE, null).cardinality()).isEqualTo(4);
+        assertThat(matrix.mitigationCount(MitigationType.PREVENTIVE, null)).isEqualTo(2);
+        assertThat(matrix.covered(MitigationType.PREVENTIVE, MitigationStatus.PLANNED_AND_TRACKED).cardinality()).isEqualTo(1);
+        assertThat(matrix.covered(MitigationType.CORRECTIVE, null).isEmpty()).isTrue();
+    }
+
+    @Test
+    void coversGreedily() {
+        CompressedBitmap target = matrix.all();
+        assertThat(matrix.greedyCover(target, null)).containsExactly(10L, 11L);
+        assertThat(ids(target)).containsExactly(5L);
+
+        target = matrix.all();
+        assertThat(matrix.greedyCover(target, MitigationStatus.PLANNED_AND_TRACKED)).containsExactly(11L);
+        assertThat(ids(target)).containsExactly(1L, 2L, 5L);
+    }
+
+    private List<Long> ids(CompressedBitmap positions) {
+        List<Long> ids = new ArrayList<>();
+        positions.forEach(position -> ids.add(matrix.vulnerabilityIdAt(position)));
+        return ids;
+    }
+
+    private static VulnerabilityMitigation link(long vulnerabilityId, long mitigationId, MitigationStatus status, MitigationType type) {
+        return new VulnerabilityMitigation() {
+            @Override
+            public Long getVulnerabilityId() {
+                return vulnerabilityId;
+            }
+
+            @Override
+            public Long getMitigationId() {
+                return mitigationId;
+            }
+
+            @Override
+            public MitigationStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public MitigationType getType() {
+                return type;
+            }
+        };
+    }
+}
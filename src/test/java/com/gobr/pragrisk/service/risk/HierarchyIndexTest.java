@@ -0,0 +1,70 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link HierarchyIndex}.
+ */
+class HierarchyIndexTest {
+
+    @Test
+    void numbersSubtreesAsContiguousRanges() {
+        // 1 -> (2 -> (4, 5), 3), 6
+        Map<Long, Long> parentIds = new HashMap<>();
+        parentIds.put(1L, null);
+        parentIds.put(2L, 1L);
+        parentIds.put(3L, 1L);
+        parentIds.put(4L, 2L);
+        parentIds.put(5L, 2L);
+        parentIds.put(6L, null);
+
+        HierarchyIndex index = HierarchyIndex.of(parentIds);
+
+        assertThat(index.size()).isEqualTo(6);
+        int one = index.nodeOf(1L);
+        int two = index.nodeOf(2L);
+        assertThat(index.subtreeEnd(one) - index.position(one)).isEqualTo(5);
+        assertThat(index.subtreeEnd(two) - index.position(two)).isEqualTo(3);
+        assertThat(index.descendantIds(one)).containsExactly(2L, 4L, 5L, 3L);
+        assertThat(index.descendantIds(index.nodeOf(6L))).isEmpty();
+        assertThat(index.ancestorIds(index.nodeOf(5L))).containsExactly(1L, 2L);
+        assertThat(index.contains(one, index.nodeOf(4L))).isTrue();
+        assertThat(index.contains(two, index.nodeOf(3L))).isFalse();
+        assertThat(index.nodeOf(7L)).isEqualTo(-1);
+    }
+
+    @Test
+    void turnsUnknownParentsAndCyclesIntoRoots() {
+        Map<Long, Long> parentIds = new HashMap<>();
+        parentIds.put(1L, 99L);
+        parentIds.put(2L, 3L);
+        parentIds.put(3L, 2L);
+        parentIds.put(4L, 3L);
+
+        HierarchyIndex index = HierarchyIndex.of(parentIds);
+
+        assertThat(index.ancestorIds(index.nodeOf(1L))).isEmpty();
+        assertThat(index.ancestorIds(index.nodeOf(2L))).isEmpty();
+        assertThat(index.descendantIds(index.nodeOf(2L))).containsExactly(3L, 4L);
+        assertThat(index.ancestorIds(index.nodeOf(4L))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void listsClosureRows() {
+        Map<Long, Long> parentIds = new HashMap<>();
+        parentIds.put(1L, null);
+        parentIds.put(2L, 1L);
+        parentIds.put(3L, 2L);
+
+        List<String> rows = new ArrayList<>();
+        HierarchyIndex.of(parentIds).forEachClosureRow(row -> rows.add(row[0] + ">" + row[1] + "@" + row[2]));
+
+        assertThat(rows).containsExactlyInAnyOrder("1>1@0", "2>2@0", "1>2@1", "3>3@0", "2>3@1", "1>3@2");
+    }
+}
@@ -0,0 +1,92 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MonteCarloSimulation}.
+ */
+class MonteCarloSimulationTest {
+
+    private ForkJoinPool singleThreadPool;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void init() {
+        singleThreadPool = new ForkJoinPool(1);
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        singleThreadPool.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void certainScenariosWithoutSpreadLoseTheirMedian() {
+        MonteCarloSimulation simulation = new MonteCarloSimulation(
+            new double[] { 1, 1 },
+            new double[] { Math.log(10), Math.log(30) },
+            0,
+            new int[][] { { 0, 1 } },
+            new int[] { 2 }
+        );
+
+        MonteCarloSimulation.Result result = simulation.run(100, 42L, pool);
+
+        for (double loss : result.registerLosses) {
+            assertThat(loss).isCloseTo(40, within(1e-9));
+        }
+        assertThat(result.mean(0, 0)).isCloseTo(10, within(1e-9));
+        assertThat(result.histogram(0, 1)[MonteCarloSimulation.bin(30)]).isEqualTo(100);
+        assertThat(result.histogram(0, 1)[0]).isZero();
+    }
+
+    @Test
+    void resultsOnlyDependOnTheSeed() {
+        MonteCarloSimulation simulation = new MonteCarloSimulation(
+            new double[] { 0.3, 0.7, 0.05 },
+            new double[] { Math.log(100), Math.log(5), Math.log(1000) },
+            0.8,
+            new int[][] { { 0, 0, 1 } },
+            new int[] { 2 }
+        );
+
+        MonteCarloSimulation.Result sequential = simulation.run(1000, 7L, singleThreadPool);
+        MonteCarloSimulation.Result parallel = simulation.run(1000, 7L, pool);
+
+        assertThat(parallel.registerLosses).containsExactly(sequential.registerLosses);
+        assertThat(parallel.histogram(0, 1)).containsExactly(sequential.histogram(0, 1));
+    }
+
+    @Test
+    void occurrenceFrequencyFollowsProbability() {
+        MonteCarloSimulation simulation = new MonteCarloSimulation(
+            new double[] { 0.25 },
+            new double[] { 0 },
+            0,
+            new int[][] { { 0 } },
+            new int[] { 1 }
+        );
+
+        MonteCarloSimulation.Result result = simulation.run(20_000, 1L, pool);
+
+        assertThat(result.histogram(0, 0)[0] / 20_000.0).isCloseTo(0.75, within(0.02));
+    }
+
+    @Test
+    void binsAreLogScaled() {
+        assertThat(MonteCarloSimulation.bin(0)).isZero();
+        assertThat(MonteCarloSimulation.bin(1e-9)).isEqualTo(1);
+        assertThat(MonteCarloSimulation.bin(1e30)).isEqualTo(MonteCarloSimulation.BINS - 1);
+        int bin = MonteCarloSimulation.bin(250);
+        assertThat(MonteCarloSimulation.binLowerBound(bin)).isLessThanOrEqualTo(250);
+        assertThat(MonteCarloSimulation.binUpperBound(bin)).isGreaterThan(250);
+    }
+}
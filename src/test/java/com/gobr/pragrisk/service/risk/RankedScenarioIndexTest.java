@@ -0,0 +1,64 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RankedScenarioIndex}.
+ */
+class RankedScenarioIndexTest {
+
+    @Test
+    void ranksByDecreasingRiskThenIncreasingId() {
+        RankedScenarioIndex index = new RankedScenarioIndex();
+        index.insert(3L, 100L);
+        index.insert(1L, 500L);
+        index.insert(2L, 100L);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.rankOf(1L, 500L)).isEqualTo(1);
+        assertThat(index.rankOf(2L, 100L)).isEqualTo(2);
+        assertThat(index.rankOf(3L, 100L)).isEqualTo(3);
+        assertThat(index.rankOf(3L, 200L)).isZero();
+        assertThat(index.idAt(2)).isEqualTo(2L);
+        assertThat(index.riskValueAt(1)).isEqualTo(500L);
+
+        List<Long> top = new ArrayList<>();
+        index.forEachTop(2, (id, riskValue) -> top.add(id));
+        assertThat(top).containsExactly(1L, 2L);
+
+        assertThat(index.remove(1L, 500L)).isTrue();
+        assertThat(index.remove(1L, 500L)).isFalse();
+        assertThat(index.rankOf(3L, 100L)).isEqualTo(2);
+    }
+
+    @Test
+    void matchesSortedListUnderRandomUpdates() {
+        SplittableRandom random = new SplittableRandom(7);
+        RankedScenarioIndex index = new RankedScenarioIndex();
+        List<long[]> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                long[] removed = expected.remove(random.nextInt(expected.size()));
+                assertThat(index.remove(removed[0], removed[1])).isTrue();
+            } else {
+                long[] inserted = { i, random.nextInt(50) };
+                expected.add(inserted);
+                index.insert(inserted[0], inserted[1]);
+            }
+        }
+        expected.sort(Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]));
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            long[] entry = expected.get(rank - 1);
+            assertThat(index.idAt(rank)).isEqualTo(entry[0]);
+            assertThat(index.rankOf(entry[0], entry[1])).isEqualTo(rank);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ResidualRiskModel} and {@link MitigationCoverage}.
+ */
+class ResidualRiskModelTest {
+
+    private final ResidualRiskModel model = new ResidualRiskModel(
+        Map.of(MitigationStatus.WELL_DEFINED, new BigDecimal("0.6"), MitigationStatus.CONTINUOUSLY_IMPROVED, new BigDecimal("0.9")),
+        Map.of(MitigationType.PREVENTIVE, BigDecimal.ONE, MitigationType.DETECTIVE, new BigDecimal("0.5"))
+    );
+
+    @Test
+    void effectivenessIsStatusTimesType() {
+        assertThat(model.effectiveness(MitigationStatus.WELL_DEFINED, MitigationType.PREVENTIVE)).isEqualTo(6000);
+        assertThat(model.effectiveness(MitigationStatus.CONTINUOUSLY_IMPROVED, MitigationType.DETECTIVE)).isEqualTo(4500);
+        assertThat(model.effectiveness(MitigationStatus.AD_HOC, MitigationType.PREVENTIVE)).isZero();
+        assertThat(model.effectiveness(null, MitigationType.PREVENTIVE)).isZero();
+    }
+
+    @Test
+    void mitigationsOfAVulnerabilityActIndependently() {
+        MitigationCoverage.Builder builder = new MitigationCoverage.Builder();
+        builder.add(1L, model.effectiveness(MitigationStatus.WELL_DEFINED, MitigationType.PREVENTIVE));
+        builder.add(1L, model.effectiveness(MitigationStatus.CONTINUOUSLY_IMPROVED, MitigationType.DETECTIVE));
+        builder.add(3L, model.effectiveness(MitigationStatus.WELL_DEFINED, MitigationType.DETECTIVE));
+        MitigationCoverage coverage = builder.build();
+
+        assertThat(coverage.size()).isEqualTo(2);
+        // (1 - 0.6) * (1 - 0.45)
+        assertThat(coverage.remaining(1L)).isEqualTo(2200);
+        assertThat(coverage.remaining(2L)).isEqualTo(ResidualRiskModel.FULL);
+        assertThat(coverage.remaining(3L)).isEqualTo(7000);
+        assertThatThrownBy(() -> builder.add(2L, 0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void residualRoundsHalfAwayFromZero() {
+        assertThat(ResidualRiskModel.residual(1000L, 2200)).isEqualTo(220L);
+        assertThat(ResidualRiskModel.residual(5L, 5000)).isEqualTo(3L);
+        assertThat(ResidualRiskModel.residual(-5L, 5000)).isEqualTo(-3L);
+        assertThat(ResidualRiskModel.residual(FixedPoint.NULL, 5000)).isEqualTo(FixedPoint.NULL);
+    }
+
+    @Test
+    void rejectsEffectivenessOutOfRange() {
+        assertThatThrownBy(() -> new ResidualRiskModel(Map.of(MitigationStatus.AD_HOC, new BigDecimal("1.5")), Map.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,112 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.service.dto.RiskHeatmapDTO;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RiskHeatmapService} fed by a {@link ScenarioRiskRegister}.
+ */
+class RiskHeatmapServiceTest {
+
+    private static final long ACTOR_ID = 1L;
+
+    private static final long TECHNOLOGY_ID = 2L;
+
+    private static final long ENVIRONMENT_ID = 10L;
+
+    private ScenarioRiskRegister register;
+
+    private RiskHeatmapService heatmapService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getRisk().getHeatmap().setProbabilityThresholds(List.of(new BigDecimal("0.5")));
+        applicationProperties.getRisk().getHeatmap().setConsequenceThresholds(List.of(new BigDecimal(100), new BigDecimal(10)));
+        register = new ScenarioRiskRegister(null, null, null, null, applicationProperties);
+        heatmapService = new RiskHeatmapService(register, applicationProperties);
+        heatmapService.subscribe();
+    }
+
+    @Test
+    void binsScenariosByProbabilityAndQonsequence() {
+        save(1L, 20L, 500L, ScenarioRiskSnapshot.NO_ID);
+        save(2L, 50L, 1000L, ScenarioRiskSnapshot.NO_ID);
+        save(3L, 90L, 20000L, ScenarioRiskSnapshot.NO_ID);
+        save(4L, 90L, 50000L, ScenarioRiskSnapshot.NO_ID);
+
+        RiskHeatmapDTO heatmap = heatmapService.getHeatmap(null, null);
+
+        assertThat(heatmap.getProbabilityThresholds()).containsExactly(new BigDecimal("0.50"));
+        assertThat(heatmap.getConsequenceThresholds()).containsExactly(new BigDecimal("10.00"), new BigDecimal("100.00"));
+        assertThat(heatmap.getCounts()).isDeepEqualTo(new long[][] { { 1, 0, 0 }, { 0, 1, 2 } });
+        assertThat(heatmap.getRiskSums()[1][2]).isEqualByComparingTo("630");
+
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(4L));
+        save(1L, 90L, 500L, ScenarioRiskSnapshot.NO_ID);
+
+        heatmap = heatmapService.getHeatmap(null, null);
+        assertThat(heatmap.getCounts()).isDeepEqualTo(new long[][] { { 0, 0, 0 }, { 1, 1, 1 } });
+    }
+
+    @Test
+    void filtersByEnvironmentAndTechStack() {
+        register.onActorChanged(ActorChangedEvent.saved(ACTOR_ID, ENVIRONMENT_ID, null));
+        register.onTechnologyChanged(TechnologyChangedEvent.saved(TECHNOLOGY_ID, TechStack.JAVA, null));
+        save(1L, 90L, 500L, TECHNOLOGY_ID);
+        save(2L, 90L, 500L, ScenarioRiskSnapshot.NO_ID);
+
+        assertThat(heatmapService.getHeatmap(null, null).getCounts()[1][0]).isEqualTo(2);
+        assertThat(heatmapService.getHeatmap(ENVIRONMENT_ID, null).getCounts()[1][0]).isEqualTo(2);
+        assertThat(heatmapService.getHeatmap(null, TechStack.JAVA).getCounts()[1][0]).isEqualTo(1);
+        assertThat(heatmapService.getHeatmap(ENVIRONMENT_ID, TechStack.JAVA).getCounts()[1][0]).isEqualTo(1);
+        assertThat(heatmapService.getHeatmap(ENVIRONMENT_ID, TechStack.PHP).getCounts()[1][0]).isZero();
+
+        register.onTechnologyChanged(TechnologyChangedEvent.saved(TECHNOLOGY_ID, TechStack.PHP, null));
+
+        assertThat(heatmapService.getHeatmap(null, TechStack.JAVA).getCounts()[1][0]).isZero();
+        assertThat(heatmapService.getHeatmap(ENVIRONMENT_ID, TechStack.PHP).getCounts()[1][0]).isEqualTo(1);
+    }
+
+    @Test
+    void keepsExactRiskSumsPastTheFixedPointRange() {
+        save(1L, 90L, 50000L, Long.MAX_VALUE - 1, ScenarioRiskSnapshot.NO_ID);
+        save(2L, 90L, 50000L, Long.MAX_VALUE - 1, ScenarioRiskSnapshot.NO_ID);
+        save(3L, 90L, 50000L, 300L, ScenarioRiskSnapshot.NO_ID);
+
+        BigDecimal largest = FixedPoint.toBigDecimal(Long.MAX_VALUE - 1);
+        BigDecimal sum = largest.add(largest).add(new BigDecimal(3));
+        assertThat(heatmapService.getHeatmap(null, null).getRiskSums()[1][2]).isEqualByComparingTo(sum);
+
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(1L));
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(2L));
+
+        assertThat(heatmapService.getHeatmap(null, null).getRiskSums()[1][2]).isEqualByComparingTo("3");
+    }
+
+    private void save(long id, long probability, long qonsequence, long technologyId) {
+        save(id, probability, qonsequence, FixedPoint.multiply(probability, qonsequence), technologyId);
+    }
+
+    private void save(long id, long probability, long qonsequence, long riskValue, long technologyId) {
+        ScenarioRiskSnapshot snapshot = new ScenarioRiskSnapshot(
+            id,
+            probability,
+            qonsequence,
+            riskValue,
+            ACTOR_ID,
+            technologyId,
+            ScenarioRiskSnapshot.NO_ID,
+            ScenarioRiskSnapshot.NO_ID,
+            null
+        );
+        register.onScenarioChanged(ScenarioChangedEvent.saved(snapshot));
+    }
+}
@@ -0,0 +1,122 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.service.dto.RiskSubtreeDTO;
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the subtree risk of {@link RiskHierarchyService} fed by a {@link ScenarioRiskRegister}.
+ */
+class RiskHierarchyServiceTest {
+
+    private static final long PARENT_ID = 1L;
+
+    private static final long CHILD_ID = 2L;
+
+    private static final long OTHER_ID = 3L;
+
+    private ScenarioRiskRegister register;
+
+    // run once after the next register read, like a change committed while an index is rebuilt outside the lock
+    private Runnable afterNextRead;
+
+    private RiskHierarchyService hierarchyService;
+
+    @BeforeEach
+    void setUp() {
+        register =
+            new ScenarioRiskRegister(null, null, null, null, new ApplicationProperties()) {
+                @Override
+                public synchronized <T> T read(Supplier<T> reader) {
+                    T result = super.read(reader);
+                    Runnable change = afterNextRead;
+                    afterNextRead = null;
+                    if (change != null) {
+                        change.run();
+                    }
+                    return result;
+                }
+            };
+        hierarchyService = new RiskHierarchyService(register, null, null, null, mock(PlatformTransactionManager.class));
+        hierarchyService.subscribe();
+        hierarchyService.onActorChanged(ActorChangedEvent.saved(PARENT_ID, null, null));
+        hierarchyService.onActorChanged(ActorChangedEvent.saved(CHILD_ID, null, PARENT_ID));
+    }
+
+    @Test
+    void sumsTheRiskOfSubtrees() {
+        save(1L, PARENT_ID, 300L);
+        save(2L, CHILD_ID, 500L);
+
+        RiskSubtreeDTO parent = hierarchyService.findSubtree(RiskDimension.ACTOR, PARENT_ID).orElseThrow();
+        assertThat(parent.getDescendantIds()).containsExactly(CHILD_ID);
+        assertThat(parent.getScenarios()).isEqualTo(2);
+        assertThat(parent.getRiskSum()).isEqualByComparingTo("8");
+        assertThat(hierarchyService.findSubtree(RiskDimension.ACTOR, CHILD_ID).orElseThrow().getRiskSum()).isEqualByComparingTo("5");
+    }
+
+    @Test
+    void keepsExactSumsPastTheFixedPointRange() {
+        save(1L, CHILD_ID, Long.MAX_VALUE - 1);
+        save(2L, CHILD_ID, Long.MAX_VALUE - 1);
+        save(3L, PARENT_ID, 300L);
+
+        BigDecimal largest = FixedPoint.toBigDecimal(Long.MAX_VALUE - 1);
+        BigDecimal sum = largest.add(largest).add(new BigDecimal(3));
+        assertThat(hierarchyService.findSubtree(RiskDimension.ACTOR, PARENT_ID).orElseThrow().getRiskSum()).isEqualByComparingTo(sum);
+
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(1L));
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(2L));
+
+        assertThat(hierarchyService.findSubtree(RiskDimension.ACTOR, PARENT_ID).orElseThrow().getRiskSum()).isEqualByComparingTo("3");
+    }
+
+    @Test
+    void replaysTheScenarioDeltasOfARebuild() {
+        save(1L, CHILD_ID, 300L);
+        save(2L, CHILD_ID, 100L);
+
+        afterNextRead =
+            () -> {
+                save(3L, CHILD_ID, 500L);
+                register.onScenarioChanged(ScenarioChangedEvent.deleted(2L));
+            };
+        RiskSubtreeDTO parent = hierarchyService.findSubtree(RiskDimension.ACTOR, PARENT_ID).orElseThrow();
+
+        assertThat(parent.getScenarios()).isEqualTo(2);
+        assertThat(parent.getRiskSum()).isEqualByComparingTo("8");
+    }
+
+    @Test
+    void discardsTheRebuildsOfAChangedHierarchy() {
+        save(1L, OTHER_ID, 300L);
+
+        afterNextRead = () -> hierarchyService.onActorChanged(ActorChangedEvent.saved(OTHER_ID, null, CHILD_ID));
+        RiskSubtreeDTO parent = hierarchyService.findSubtree(RiskDimension.ACTOR, PARENT_ID).orElseThrow();
+
+        assertThat(parent.getDescendantIds()).containsExactlyInAnyOrder(CHILD_ID, OTHER_ID);
+        assertThat(parent.getRiskSum()).isEqualByComparingTo("3");
+    }
+
+    private void save(long id, long actorId, long riskValue) {
+        ScenarioRiskSnapshot snapshot = new ScenarioRiskSnapshot(
+            id,
+            100L,
+            riskValue,
+            riskValue,
+            actorId,
+            ScenarioRiskSnapshot.NO_ID,
+            ScenarioRiskSnapshot.NO_ID,
+            ScenarioRiskSnapshot.NO_ID,
+            null
+        );
+        register.onScenarioChanged(ScenarioChangedEvent.saved(snapshot));
+    }
+}
@@ -0,0 +1,70 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RiskHistoryPoints}.
+ */
+class RiskHistoryPointsTest {
+
+    @Test
+    void sortsByKeyThenTimestamp() {
+        RiskHistoryPoints points = new RiskHistoryPoints();
+        points.add(7L, 2000L, 1, 2, 3);
+        points.add(3L, 3000L, 4, 5, 6);
+        points.add(7L, 1000L, 7, 8, 9);
+        points.add(3L, 1000L, 10, 11, 12);
+
+        RiskHistoryPoints sorted = points.sortedByKey();
+
+        assertThat(sorted.size()).isEqualTo(4);
+        assertThat(new long[] { sorted.key(0), sorted.key(1), sorted.key(2), sorted.key(3) }).containsExactly(3, 3, 7, 7);
+        assertThat(new long[] { sorted.timestamp(0), sorted.timestamp(1), sorted.timestamp(2), sorted.timestamp(3) })
+            .containsExactly(1000, 3000, 1000, 2000);
+        assertThat(sorted.value(2, 0)).isEqualTo(12);
+        assertThat(points.sortedByTimestamp().value(0, 0)).isEqualTo(7);
+    }
+
+    @Test
+    void encodesAndDecodesEveryColumn() {
+        RiskHistoryPoints points = new RiskHistoryPoints();
+        points.add(1L, 1_700_000_000_000L, 100, 250_000, 250_000);
+        points.add(1L, 1_700_000_000_005L, FixedPoint.NULL, FixedPoint.NULL, FixedPoint.NULL);
+        points.add(2L, 1_700_000_000_001L, -5, Long.MAX_VALUE, 0);
+        points.add(9L, 1_699_999_999_999L, 1, 2, 3);
+
+        RiskHistoryPoints decoded = RiskHistoryPoints.decode(points.encode(1, 4));
+
+        assertThat(decoded.size()).isEqualTo(3);
+        for (int point = 0; point < 3; point++) {
+            assertThat(decoded.key(point)).isEqualTo(points.key(point + 1));
+            assertThat(decoded.timestamp(point)).isEqualTo(points.timestamp(point + 1));
+            for (int column = 0; column < RiskHistoryPoints.VALUES; column++) {
+                assertThat(decoded.value(column, point)).isEqualTo(points.value(column, point + 1));
+            }
+        }
+    }
+
+    @Test
+    void slowlyChangingSeriesAreCompact() {
+        RiskHistoryPoints points = new RiskHistoryPoints();
+        for (long scenario = 1; scenario <= 1000; scenario++) {
+            points.add(scenario, 1_700_000_000_000L + scenario, 50, 1_000_000, 500_000 + scenario);
+        }
+
+        byte[] payload = points.encode(0, points.size());
+
+        // 5 raw long columns would take 40 bytes per point
+        assertThat(payload.length).isLessThan(10 * 1000);
+        assertThat(RiskHistoryPoints.decode(payload).value(2, 999)).isEqualTo(501_000);
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        assertThatThrownBy(() -> RiskHistoryPoints.decode(new byte[] { 2, 0 })).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RiskHistoryPoints.decode(new byte[] { 1, 5 })).isInstanceOf(IllegalArgumentException.class);
+    }
+}
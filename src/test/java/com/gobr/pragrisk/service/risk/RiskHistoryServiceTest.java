@@ -0,0 +1,156 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.repository.RiskHistoryRepository;
+import com.gobr.pragrisk.repository.RiskHistorySegment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the flushes of {@link RiskHistoryService}.
+ */
+class RiskHistoryServiceTest {
+
+    private ScenarioRiskRegister register;
+
+    private RiskHistoryRepository riskHistoryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RiskHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getRisk().getHistory().setMaxFlushAttempts(3);
+        register = new ScenarioRiskRegister(null, null, null, null, applicationProperties);
+        RiskRollupService rollupService = new RiskRollupService(register);
+        rollupService.subscribe();
+        riskHistoryRepository = mock(RiskHistoryRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        historyService =
+            new RiskHistoryService(
+                register,
+                rollupService,
+                riskHistoryRepository,
+                mock(PlatformTransactionManager.class),
+                meterRegistry,
+                applicationProperties
+            );
+        historyService.subscribe();
+    }
+
+    @Test
+    void retriesFailedFlushes() {
+        List<List<RiskHistorySegment>> inserted = new ArrayList<>();
+        doThrow(new DataAccessResourceFailureException("down"))
+            .doAnswer(invocation -> inserted.add(new ArrayList<>(invocation.<List<RiskHistorySegment>>getArgument(0))))
+            .when(riskHistoryRepository)
+            .insertAll(anyList());
+
+        save(1L, 100L);
+        historyService.flush();
+        assertThat(historyService.getUnflushedSegments()).isPositive();
+
+        save(2000L, 300L);
+        historyService.flush();
+
+        assertThat(historyService.getUnflushedSegments()).isZero();
+        assertThat(inserted).hasSize(1);
+        assertThat(inserted.get(0)).extracting(RiskHistorySegment::getMinKey).contains(1L, 2000L);
+        assertThat(droppedPoints()).isZero();
+    }
+
+    @Test
+    void dropsSegmentsAfterRepeatedFailures() {
+        doThrow(new DataAccessResourceFailureException("down")).when(riskHistoryRepository).insertAll(anyList());
+
+        save(1L, 100L);
+        historyService.flush();
+        historyService.flush();
+        assertThat(historyService.getUnflushedSegments()).isPositive();
+        historyService.flush();
+
+        assertThat(historyService.getUnflushedSegments()).isZero();
+        double dropped = droppedPoints();
+        assertThat(dropped).isPositive();
+
+        doNothing().when(riskHistoryRepository).insertAll(anyList());
+        save(1L, 200L);
+        historyService.flush();
+
+        verify(riskHistoryRepository, times(4)).insertAll(anyList());
+        assertThat(historyService.getUnflushedSegments()).isZero();
+        assertThat(droppedPoints()).isEqualTo(dropped);
+    }
+
+    @Test
+    void recordsABaselineOnlyIfTheHistoryWasEmptyAtStartup() {
+        List<List<RiskHistorySegment>> inserted = new ArrayList<>();
+        doAnswer(invocation -> inserted.add(new ArrayList<>(invocation.<List<RiskHistorySegment>>getArgument(0))))
+            .when(riskHistoryRepository)
+            .insertAll(anyList());
+        when(riskHistoryRepository.isEmpty()).thenReturn(true);
+
+        historyService.onApplicationReady();
+        historyService.registerRebuilt(List.of(snapshot(1L, 100L)));
+        historyService.flush();
+
+        verify(riskHistoryRepository, times(1)).isEmpty();
+        assertThat(inserted).hasSize(1);
+        assertThat(inserted.get(0)).extracting(RiskHistorySegment::getMinKey).contains(1L);
+    }
+
+    @Test
+    void recordsNoBaselineOverAnExistingHistory() {
+        historyService.onApplicationReady();
+        historyService.registerRebuilt(List.of(snapshot(1L, 100L)));
+        historyService.flush();
+
+        verify(riskHistoryRepository, never()).insertAll(anyList());
+
+        historyService.registerRebuilt(List.of(snapshot(1L, 200L)));
+        historyService.flush();
+
+        verify(riskHistoryRepository, times(1)).isEmpty();
+        verify(riskHistoryRepository).insertAll(anyList());
+    }
+
+    private double droppedPoints() {
+        return meterRegistry.get("pragrisk.risk.history.dropped").counter().count();
+    }
+
+    private void save(long id, long riskValue) {
+        register.onScenarioChanged(ScenarioChangedEvent.saved(snapshot(id, riskValue)));
+    }
+
+    private static ScenarioRiskSnapshot snapshot(long id, long riskValue) {
+        return new ScenarioRiskSnapshot(
+            id,
+            100L,
+            riskValue,
+            riskValue,
+            1L,
+            ScenarioRiskSnapshot.NO_ID,
+            ScenarioRiskSnapshot.NO_ID,
+            ScenarioRiskSnapshot.NO_ID,
+            null
+        );
+    }
+}
@@ -0,0 +1,75 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RiskModel} and {@link FixedPoint}.
+ */
+class RiskModelTest {
+
+    @Test
+    void fixedPointRoundTrip() {
+        assertThat(FixedPoint.of(new BigDecimal("1.235"))).isEqualTo(124L);
+        assertThat(FixedPoint.of(null)).isEqualTo(FixedPoint.NULL);
+        assertThat(FixedPoint.toBigDecimal(124L)).isEqualByComparingTo("1.24");
+        assertThat(FixedPoint.toBigDecimal(FixedPoint.NULL)).isNull();
+    }
+
+    @Test
+    void fixedPointFitsLongHundredths() {
+        assertThat(FixedPoint.fits(null)).isTrue();
+        assertThat(FixedPoint.fits(FixedPoint.toBigDecimal(Long.MAX_VALUE))).isTrue();
+        assertThat(FixedPoint.fits(FixedPoint.toBigDecimal(Long.MAX_VALUE).add(new BigDecimal("0.01")))).isFalse();
+        assertThat(FixedPoint.fits(FixedPoint.toBigDecimal(Long.MIN_VALUE + 1))).isTrue();
+        assertThat(FixedPoint.fits(BigDecimal.valueOf(Long.MIN_VALUE, FixedPoint.SCALE))).isFalse();
+        assertThat(FixedPoint.fits(new BigDecimal("1E+19"))).isFalse();
+    }
+
+    @Test
+    void fixedPointMultiplyRoundsHalfAwayFromZero() {
+        // 0.05 * 0.10 = 0.005
+        assertThat(FixedPoint.multiply(5L, 10L)).isEqualTo(1L);
+        assertThat(FixedPoint.multiply(-5L, 10L)).isEqualTo(-1L);
+        // 0.04 * 0.10 = 0.004
+        assertThat(FixedPoint.multiply(4L, 10L)).isZero();
+        assertThatThrownBy(() -> FixedPoint.multiply(Long.MAX_VALUE, 2L)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void productModelIgnoresWeights() {
+        RiskModel model = new RiskModel(RiskWeightingModel.PRODUCT, new BigDecimal(3), new BigDecimal(3));
+
+        assertThat(model.compute(FixedPoint.of(new BigDecimal("0.5")), FixedPoint.of(new BigDecimal(4)))).isEqualTo(200L);
+    }
+
+    @Test
+    void weightedModels() {
+        RiskModel product = new RiskModel(RiskWeightingModel.WEIGHTED_PRODUCT, new BigDecimal(2), new BigDecimal("1.5"));
+        RiskModel sum = new RiskModel(RiskWeightingModel.WEIGHTED_SUM, new BigDecimal(2), new BigDecimal("1.5"));
+
+        assertThat(product.compute(300L, 400L)).isEqualTo(3600L);
+        assertThat(sum.compute(300L, 400L)).isEqualTo(1200L);
+    }
+
+    @Test
+    void missingInputGivesMissingRisk() {
+        RiskModel model = new RiskModel(RiskWeightingModel.PRODUCT, null, null);
+
+        assertThat(model.compute(FixedPoint.NULL, 100L)).isEqualTo(FixedPoint.NULL);
+        assertThat(model.compute(null, BigDecimal.ONE)).isNull();
+    }
+
+    @Test
+    void bigDecimalFallbackMatchesFixedPoint() {
+        RiskModel model = new RiskModel(RiskWeightingModel.WEIGHTED_SUM, new BigDecimal("0.25"), new BigDecimal("0.75"));
+        BigDecimal probability = new BigDecimal("3.10");
+        BigDecimal qonsequence = new BigDecimal("4.20");
+
+        assertThat(model.compute(probability, qonsequence))
+            .isEqualByComparingTo(FixedPoint.toBigDecimal(model.compute(FixedPoint.of(probability), FixedPoint.of(qonsequence))));
+    }
+}
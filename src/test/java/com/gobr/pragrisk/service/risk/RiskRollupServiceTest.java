@@ -0,0 +1,140 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.service.dto.RiskRollupDTO;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RiskRollupService} fed by a {@link ScenarioRiskRegister}.
+ */
+class RiskRollupServiceTest {
+
+    private static final long ACTOR_ID = 1L;
+
+    private static final long OTHER_ACTOR_ID = 2L;
+
+    private static final long ENVIRONMENT_ID = 10L;
+
+    private ScenarioRiskRegister register;
+
+    private RiskRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        register = new ScenarioRiskRegister(null, null, null, null, new ApplicationProperties());
+        rollupService = new RiskRollupService(register);
+        rollupService.subscribe();
+    }
+
+    @Test
+    void aggregatesDeltas() {
+        save(1L, ACTOR_ID, 300L);
+        save(2L, ACTOR_ID, 500L);
+        save(3L, OTHER_ACTOR_ID, 700L);
+
+        RiskRollupDTO rollup = rollupService.findOne(RiskDimension.ACTOR, ACTOR_ID).orElseThrow();
+        assertThat(rollup.getCount()).isEqualTo(2);
+        assertThat(rollup.getSum()).isEqualByComparingTo("8");
+        assertThat(rollup.getMax()).isEqualByComparingTo("5");
+        assertThat(rollup.getMean()).isEqualByComparingTo("4");
+        assertThat(rollup.getHistogram()).extracting(RiskRollupDTO.Bucket::getCount).containsExactly(2L);
+        assertThat(rollupService.findAll(RiskDimension.ACTOR)).extracting(RiskRollupDTO::getId).containsExactly(ACTOR_ID, OTHER_ACTOR_ID);
+
+        save(2L, OTHER_ACTOR_ID, 500L);
+
+        rollup = rollupService.findOne(RiskDimension.ACTOR, ACTOR_ID).orElseThrow();
+        assertThat(rollup.getCount()).isEqualTo(1);
+        assertThat(rollup.getSum()).isEqualByComparingTo("3");
+        assertThat(rollup.getMax()).isEqualByComparingTo("3");
+        assertThat(rollupService.findOne(RiskDimension.ACTOR, OTHER_ACTOR_ID).orElseThrow().getMax()).isEqualByComparingTo("7");
+
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(1L));
+
+        assertThat(rollupService.findOne(RiskDimension.ACTOR, ACTOR_ID)).isEmpty();
+    }
+
+    @Test
+    void keepsMaxWhileTiedValuesRemain() {
+        save(1L, ACTOR_ID, 500L);
+        save(2L, ACTOR_ID, 500L);
+        save(3L, ACTOR_ID, 100L);
+
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(1L));
+        assertThat(rollupService.findOne(RiskDimension.ACTOR, ACTOR_ID).orElseThrow().getMax()).isEqualByComparingTo("5");
+
+        register.onScenarioChanged(ScenarioChangedEvent.deleted(2L));
+        assertThat(rollupService.findOne(RiskDimension.ACTOR, ACTOR_ID).orElseThrow().getMax()).isEqualByComparingTo("1");
+    }
+
+    @Test
+    void keepsExactSumsPastTheFixedPointRange() {
+        RiskRollup rollup = new RiskRollup();
+        rollup.add(Long.MAX_VALUE - 1);
+        rollup.add(300L);
+        rollup.add(Long.MAX_VALUE - 1);
+
+        BigDecimal largest = FixedPoint.toBigDecimal(Long.MAX_VALUE - 1);
+        assertThat(rollup.getSum()).isEqualByComparingTo(largest.add(largest).add(new BigDecimal(3)));
+        assertThat(rollup.getFixedPointSum()).isEqualTo(Long.MAX_VALUE);
+        assertThat(rollup.getMax()).isEqualTo(Long.MAX_VALUE - 1);
+
+        rollup.remove(Long.MAX_VALUE - 1);
+        rollup.remove(Long.MAX_VALUE - 1);
+
+        assertThat(rollup.getSum()).isEqualByComparingTo("3");
+        assertThat(rollup.getFixedPointSum()).isEqualTo(300L);
+        assertThat(rollup.getMax()).isEqualTo(300L);
+    }
+
+    @Test
+    void followsActorEnvironment() {
+        register.onActorChanged(ActorChangedEvent.saved(ACTOR_ID, ENVIRONMENT_ID, null));
+        save(1L, ACTOR_ID, 300L);
+
+        assertThat(rollupService.findOne(RiskDimension.ENVIRONMENT, ENVIRONMENT_ID).orElseThrow().getCount()).isEqualTo(1);
+
+        register.onActorChanged(ActorChangedEvent.saved(ACTOR_ID, null, null));
+
+        assertThat(rollupService.findOne(RiskDimension.ENVIRONMENT, ENVIRONMENT_ID)).isEmpty();
+        assertThat(rollupService.findOne(RiskDimension.ACTOR, ACTOR_ID)).isPresent();
+    }
+
+    @Test
+    void ignoresScenariosWithoutRiskValue() {
+        save(1L, ACTOR_ID, FixedPoint.NULL);
+
+        assertThat(rollupService.findOne(RiskDimension.ACTOR, ACTOR_ID)).isEmpty();
+    }
+
+    @Test
+    void bucketsArePowersOfTwo() {
+        assertThat(RiskRollup.bucket(0L)).isZero();
+        assertThat(RiskRollup.bucket(-5L)).isZero();
+        assertThat(RiskRollup.bucket(1L)).isEqualTo(1);
+        assertThat(RiskRollup.bucket(2L)).isEqualTo(2);
+        assertThat(RiskRollup.bucket(3L)).isEqualTo(2);
+        assertThat(RiskRollup.bucket(Long.MAX_VALUE)).isEqualTo(RiskRollup.BUCKETS - 1);
+        for (int bucket = 1; bucket < RiskRollup.BUCKETS; bucket++) {
+            assertThat(RiskRollup.bucket(RiskRollup.bucketLowerBound(bucket))).isEqualTo(bucket);
+        }
+    }
+
+    private void save(long id, long actorId, long riskValue) {
+        ScenarioRiskSnapshot snapshot = new ScenarioRiskSnapshot(
+            id,
+            100L,
+            riskValue,
+            riskValue,
+            actorId,
+            ScenarioRiskSnapshot.NO_ID,
+            ScenarioRiskSnapshot.NO_ID,
+            ScenarioRiskSnapshot.NO_ID,
+            null
+        );
+        register.onScenarioChanged(ScenarioChangedEvent.saved(snapshot));
+    }
+}
@@ -0,0 +1,130 @@
+package com.gobr.pragrisk.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.VulnerabilityRepository.VulnerabilityMitigation;
+import com.gobr.pragrisk.service.dto.WhatIfRequestDTO;
+import com.gobr.pragrisk.service.dto.WhatIfResultDTO;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link WhatIfSweep}.
+ */
+class WhatIfSweepTest {
+
+    private static final long NO_ID = ScenarioRiskSnapshot.NO_ID;
+
+    private final ResidualRiskModel model = new ResidualRiskModel(
+        Map.of(MitigationStatus.WELL_DEFINED, new BigDecimal("0.6"), MitigationStatus.CONTINUOUSLY_IMPROVED, new BigDecimal("0.9")),
+        Map.of(MitigationType.PREVENTIVE, BigDecimal.ONE, MitigationType.DETECTIVE, new BigDecimal("0.5"))
+    );
+
+    // mitigation 10 covers vulnerabilities 1 and 2, mitigation 11 covers vulnerability 1
+    private final MitigationLinks links = MitigationLinks.of(
+        List.of(
+            link(1L, 10L, MitigationStatus.WELL_DEFINED, MitigationType.PREVENTIVE),
+            link(1L, 11L, MitigationStatus.CONTINUOUSLY_IMPROVED, MitigationType.DETECTIVE),
+            link(2L, 10L, MitigationStatus.WELL_DEFINED, MitigationType.PREVENTIVE)
+        ),
+        model
+    );
+
+    private final WhatIfSweep sweep = WhatIfSweep.of(
+        List.of(
+            new ScenarioRiskSnapshot(1L, 100, 10000, 10000, NO_ID, NO_ID, 1L, 100L, null),
+            new ScenarioRiskSnapshot(2L, 100, 5000, 5000, NO_ID, NO_ID, 2L, 200L, null),
+            new ScenarioRiskSnapshot(3L, 100, 1000, 1000, NO_ID, NO_ID, NO_ID, 100L, null),
+            new ScenarioRiskSnapshot(4L, FixedPoint.NULL, FixedPoint.NULL, FixedPoint.NULL, NO_ID, NO_ID, 1L, 100L, null)
+        ),
+        links,
+        model
+    );
+
+    @Test
+    void snapshotHoldsCurrentResidualRisk() {
+        assertThat(sweep.getInherentRisk()).isEqualByComparingTo("160");
+        // 100 * 0.4 * 0.55 + 50 * 0.4 + 10
+        assertThat(sweep.getResidualRisk()).isEqualByComparingTo("52");
+    }
+
+    @Test
+    void removingAMitigationRaisesTheRiskOfEveryVulnerabilityItCovers() {
+        WhatIfResultDTO.OptionResult result = sweep.evaluate(option(change(10L, null, true)));
+
+        assertThat(result.getAffectedVulnerabilities()).isEqualTo(2);
+        assertThat(result.getAffectedScenarios()).isEqualTo(2);
+        // 100 * 0.55 - 22 + 50 - 20
+        assertThat(result.getResidualRiskDelta()).isEqualByComparingTo("63");
+        assertThat(result.getResidualRisk()).isEqualByComparingTo("115");
+        assertThat(result.getEnvironments()).hasSize(2);
+        assertThat(result.getEnvironments().get(0).getEnvironmentId()).isEqualTo(100L);
+        assertThat(result.getEnvironments().get(0).getResidualRiskDelta()).isEqualByComparingTo("33");
+        assertThat(result.getEnvironments().get(0).getResidualRisk()).isEqualByComparingTo("65");
+        assertThat(result.getEnvironments().get(1).getEnvironmentId()).isEqualTo(200L);
+        assertThat(result.getEnvironments().get(1).getResidualRisk()).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void raisingAStatusLowersTheRisk() {
+        WhatIfResultDTO.OptionResult result = sweep.evaluate(option(change(10L, MitigationStatus.CONTINUOUSLY_IMPROVED, false)));
+
+        // 100 * 0.1 * 0.55 - 22 + 50 * 0.1 - 20
+        assertThat(result.getResidualRiskDelta()).isEqualByComparingTo("-31.5");
+        assertThat(result.getResidualRisk()).isEqualByComparingTo("20.5");
+    }
+
+    @Test
+    void unknownOrUnchangedMitigationsHaveNoEffect() {
+        WhatIfResultDTO.OptionResult unknown = sweep.evaluate(option(change(99L, MitigationStatus.CONTINUOUSLY_IMPROVED, false)));
+        WhatIfResultDTO.OptionResult unchanged = sweep.evaluate(option(change(11L, MitigationStatus.CONTINUOUSLY_IMPROVED, false)));
+
+        assertThat(unknown.getAffectedVulnerabilities()).isZero();
+        assertThat(unknown.getResidualRiskDelta()).isEqualByComparingTo("0");
+        assertThat(unchanged.getAffectedScenarios()).isZero();
+        assertThat(unchanged.getResidualRisk()).isEqualByComparingTo("52");
+        assertThat(unchanged.getEnvironments()).isEmpty();
+    }
+
+    private static WhatIfRequestDTO.Option option(WhatIfRequestDTO.Change... changes) {
+        WhatIfRequestDTO.Option option = new WhatIfRequestDTO.Option();
+        option.setChanges(List.of(changes));
+        return option;
+    }
+
+    private static WhatIfRequestDTO.Change change(long mitigationId, MitigationStatus status, boolean removed) {
+        WhatIfRequestDTO.Change change = new WhatIfRequestDTO.Change();
+        change.setMitigationId(mitigationId);
+        change.setStatus(status);
+        change.setRemoved(removed);
+        return change;
+    }
+
+    private static VulnerabilityMitigation link(long vulnerabilityId, long mitigationId, MitigationStatus status, MitigationType type) {
+        return new VulnerabilityMitigation() {
+            @Override
+            public Long getVulnerabilityId() {
+                return vulnerabilityId;
+            }
+
+            @Override
+            public Long getMitigationId() {
+                return mitigationId;
+            }
+
+            @Override
+            public MitigationStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public MitigationType getType() {
+                return type;
+            }
+        };
+    }
+}
@@ -0,0 +1,197 @@
+package com.gobr.pragrisk.service.search;
+
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import com.gobr.pragrisk.IntegrationTest;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.SearchOutboxEntry;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
+import com.gobr.pragrisk.repository.search.ScenarioSearchRepository;
+import com.gobr.pragrisk.service.ScenarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link SearchIndexer} service, draining the search outbox into the mocked
+ * {@link ScenarioSearchRepository}.
+ */
+@IntegrationTest
+class SearchIndexerIT {
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private ScenarioService scenarioService;
+
+    @Autowired
+    private ScenarioRepository scenarioRepository;
+
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    /**
+     * This repository is mocked in the com.gobr.pragrisk.repository.search test package.
+     *
+     * @see com.gobr.pragrisk.repository.search.ScenarioSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private ScenarioSearchRepository mockScenarioSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // ship what other tests left in the outbox
+        searchIndexer.drain();
+        reset(mockScenarioSearchRepository);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        reset(mockScenarioSearchRepository);
+        transactionTemplate.executeWithoutResult(status ->
+            created.stream().filter(scenarioRepository::existsById).forEach(scenarioService::delete)
+        );
+        searchIndexer.drain();
+    }
+
+    @Test
+    void updatesOfADocumentAreShippedOnce() {
+        Long id = createScenario("INDEXED");
+        transactionTemplate.executeWithoutResult(status -> {
+            scenarioService.partialUpdate(partial(id).probability(BigDecimal.ONE));
+            scenarioService.partialUpdate(partial(id).title("INDEXED AGAIN"));
+        });
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).containsExactly(id, id, id);
+
+        searchIndexer.drain();
+
+        verify(mockScenarioSearchRepository)
+            .saveAll(argThat((Iterable<Scenario> scenarios) -> countOf(scenarios, id, "INDEXED AGAIN") == 1));
+        verify(mockScenarioSearchRepository, never()).deleteAllById(any());
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).isEmpty();
+    }
+
+    @Test
+    void deletedEntitiesAreDeletedFromTheIndex() {
+        Long id = createScenario("DELETED");
+        transactionTemplate.executeWithoutResult(status -> scenarioService.delete(id));
+
+        searchIndexer.drain();
+
+        verify(mockScenarioSearchRepository).deleteAllById(argThat((Iterable<Long> ids) -> ids.iterator().next().equals(id)));
+        verify(mockScenarioSearchRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void rolledBackWritesAreNotQueued() {
+        Long id = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return scenarioService.save(newScenario("ROLLED BACK")).getId();
+        });
+
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).doesNotContain(id);
+    }
+
+    @Test
+    void failedBulkRequestsAreRetried() {
+        doThrow(new DataAccessResourceFailureException("Elasticsearch is down")).when(mockScenarioSearchRepository).saveAll(any());
+        Long id = createScenario("RETRIED");
+
+        searchIndexer.drain();
+
+        List<SearchOutboxEntry> pending = searchOutboxRepository.findPending(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertThat(pending).hasSize(1);
+        assertThat(pending.get(0).getDocumentId()).isEqualTo(id);
+        assertThat(pending.get(0).getAttempts()).isEqualTo(1);
+
+        reset(mockScenarioSearchRepository);
+        searchIndexer.drain();
+
+        verify(mockScenarioSearchRepository).saveAll(argThat((Iterable<Scenario> scenarios) -> countOf(scenarios, id, "RETRIED") == 1));
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).isEmpty();
+    }
+
+    @Test
+    void entriesFailingTheirLastAttemptAreDeadLettered() {
+        doThrow(new DataAccessResourceFailureException("Elasticsearch is down")).when(mockScenarioSearchRepository).saveAll(any());
+        Long id = createScenario("DEAD");
+        String lastAttempt = "update search_outbox set attempts = 9 where document_type = 'SCENARIO' and document_id = ?";
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(lastAttempt, id));
+        double dead = meterRegistry.get("pragrisk.search.outbox.dead").counter().count();
+
+        searchIndexer.drain();
+
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).doesNotContain(id);
+        String deadLetters = "select attempts from search_outbox_dead_letter where document_type = 'SCENARIO' and document_id = ?";
+        assertThat(jdbcTemplate.queryForList(deadLetters, Integer.class, id)).containsExactly(10);
+        assertThat(meterRegistry.get("pragrisk.search.outbox.dead").counter().count()).isEqualTo(dead + 1);
+        assertThat(meterRegistry.get("pragrisk.search.outbox.dead-letters").gauge().value()).isPositive();
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update("delete from search_outbox_dead_letter where document_id = ?", id)
+        );
+    }
+
+    @Test
+    void documentsAreOnlyQueuedInATransaction() {
+        assertThatThrownBy(() -> searchIndexer.enqueue(SearchDocumentType.SCENARIO, 1L))
+            .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private Long createScenario(String title) {
+        Long id = transactionTemplate.execute(status -> scenarioService.save(newScenario(title)).getId());
+        created.add(id);
+        return id;
+    }
+
+    private static Scenario newScenario(String title) {
+        return new Scenario().title(title).probability(new BigDecimal("0.5")).qonsequence(new BigDecimal(1000));
+    }
+
+    private static Scenario partial(Long id) {
+        Scenario scenario = new Scenario();
+        scenario.setId(id);
+        return scenario;
+    }
+
+    private static long countOf(Iterable<Scenario> scenarios, Long id, String title) {
+        return StreamSupport
+            .stream(scenarios.spliterator(), false)
+            .filter(scenario -> scenario.getId().equals(id) && scenario.getTitle().equals(title))
+            .count();
+    }
+}
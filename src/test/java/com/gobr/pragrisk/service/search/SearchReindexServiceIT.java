@@ -0,0 +1,231 @@
+package com.gobr.pragrisk.service.search;
+
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.gobr.pragrisk.IntegrationTest;
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.repository.KeysetRepository;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
+import com.gobr.pragrisk.service.ScenarioService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link SearchReindexService} service, rebuilding the scenario index into a mocked
+ * Elasticsearch cluster.
+ */
+@IntegrationTest
+class SearchReindexServiceIT {
+
+    private static final int SCENARIOS = 7;
+
+    @Autowired
+    private KeysetRepository keysetRepository;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private ScenarioService scenarioService;
+
+    @Autowired
+    private ScenarioRepository scenarioRepository;
+
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ElasticsearchRestTemplate elasticsearchTemplate;
+
+    private IndexOperations aliasOperations;
+
+    private IndexOperations indexOperations;
+
+    private SearchReindexService searchReindexService;
+
+    private final Queue<Long> indexedIds = new ConcurrentLinkedQueue<>();
+
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        elasticsearchTemplate = mock(ElasticsearchRestTemplate.class);
+        aliasOperations = mock(IndexOperations.class);
+        indexOperations = mock(IndexOperations.class);
+        IndexOperations entityOperations = mock(IndexOperations.class);
+        Settings settings = new Settings();
+        settings.put("index.number_of_shards", 1);
+        settings.put("index.number_of_replicas", 1);
+        settings.put("index.refresh_interval", "1s");
+        when(entityOperations.createSettings()).thenReturn(settings);
+        when(entityOperations.createMapping()).thenReturn(Document.create());
+        when(elasticsearchTemplate.getIndexCoordinatesFor(Scenario.class)).thenReturn(IndexCoordinates.of("scenario"));
+        when(elasticsearchTemplate.indexOps(Scenario.class)).thenReturn(entityOperations);
+        when(elasticsearchTemplate.indexOps(any(IndexCoordinates.class)))
+            .thenAnswer(invocation ->
+                invocation.<IndexCoordinates>getArgument(0).getIndexName().equals("scenario") ? aliasOperations : indexOperations
+            );
+        when(aliasOperations.getAliases("scenario")).thenReturn(Map.of("scenario-1", Set.of()));
+        when(elasticsearchTemplate.save(ArgumentMatchers.<Iterable<Object>>any(), any(IndexCoordinates.class)))
+            .thenAnswer(invocation -> {
+                invocation.<Iterable<Scenario>>getArgument(0).forEach(scenario -> indexedIds.add(scenario.getId()));
+                return invocation.getArgument(0);
+            });
+        // two threads reading pages of two scenarios, jobs running in the calling thread
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().getReindex().setParallelism(2);
+        applicationProperties.getSearch().getReindex().setBatchSize(2);
+        searchReindexService =
+            new SearchReindexService(
+                elasticsearchTemplate,
+                keysetRepository,
+                searchIndexer,
+                transactionManager,
+                Runnable::run,
+                applicationProperties
+            );
+
+        for (int i = 0; i < SCENARIOS; i++) {
+            String title = "REINDEX-" + i;
+            created.add(transactionTemplate.execute(status -> scenarioService.save(newScenario(title)).getId()));
+        }
+        searchIndexer.drain();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(status ->
+            created.stream().filter(scenarioRepository::existsById).forEach(scenarioService::delete)
+        );
+        searchIndexer.drain();
+    }
+
+    @Test
+    void rebuildsTheIndexThenMovesTheAlias() {
+        ReindexProgress progress = searchReindexService.start(List.of(SearchDocumentType.SCENARIO));
+
+        assertThat(progress.getStatus()).isEqualTo(ReindexProgress.Status.COMPLETED);
+        ReindexProgress.IndexProgress scenarioProgress = progress.getIndices().get(0);
+        IndexCoordinates scenarioIndex = IndexCoordinates.of(scenarioProgress.getIndex());
+        assertThat(scenarioProgress.getStatus()).isEqualTo(ReindexProgress.Status.COMPLETED);
+        assertThat(scenarioProgress.getIndex()).startsWith("scenario-");
+        assertThat(scenarioProgress.getDocuments()).isEqualTo(scenarioRepository.count()).isEqualTo(scenarioProgress.getTotal());
+        assertThat(scenarioProgress.getCompletedSlices()).isEqualTo(scenarioProgress.getSlices()).isGreaterThan(1);
+        assertThat(indexedIds).containsAll(created).doesNotHaveDuplicates();
+        assertThat(searchReindexService.getProgress()).containsSame(progress);
+
+        verify(indexOperations)
+            .create(
+                argThat(settings ->
+                    settings.get("index.number_of_replicas").equals(0) && settings.get("index.refresh_interval").equals("-1")
+                ),
+                any(Document.class)
+            );
+        verify(elasticsearchTemplate, never())
+            .save(ArgumentMatchers.<Iterable<Object>>any(), argThat((IndexCoordinates index) -> !index.equals(scenarioIndex)));
+        verify(indexOperations).refresh();
+        verify(aliasOperations).alias(argThat(actions -> movesAlias(actions, scenarioProgress.getIndex(), "scenario-1")));
+        verify(indexOperations, never()).delete();
+    }
+
+    @Test
+    void documentsShippedDuringTheRebuildAreQueuedAgain() {
+        Long id = created.get(0);
+        when(indexOperations.create(any(), any()))
+            .thenAnswer(invocation -> {
+                transactionTemplate.executeWithoutResult(status -> scenarioService.partialUpdate(partial(id).title("REINDEXED")));
+                searchIndexer.drain();
+                return true;
+            });
+
+        searchReindexService.start(List.of(SearchDocumentType.SCENARIO));
+
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).containsExactly(id);
+    }
+
+    @Test
+    void failedRebuildsDeleteTheirIndex() {
+        when(elasticsearchTemplate.save(ArgumentMatchers.<Iterable<Object>>any(), any(IndexCoordinates.class)))
+            .thenThrow(new DataAccessResourceFailureException("Elasticsearch is down"));
+
+        ReindexProgress progress = searchReindexService.start(List.of(SearchDocumentType.SCENARIO, SearchDocumentType.ACTOR));
+
+        assertThat(progress.getStatus()).isEqualTo(ReindexProgress.Status.FAILED);
+        assertThat(progress.getError()).isEqualTo("Elasticsearch is down");
+        assertThat(progress.getIndices().get(0).getStatus()).isEqualTo(ReindexProgress.Status.FAILED);
+        assertThat(progress.getIndices().get(1).getStatus()).isEqualTo(ReindexProgress.Status.PENDING);
+        verify(indexOperations).delete();
+        verify(aliasOperations, never()).alias(any());
+    }
+
+    @Test
+    void onlyOneReindexRunsAtATime() {
+        when(indexOperations.create(any(), any()))
+            .thenAnswer(invocation -> {
+                assertThatThrownBy(() -> searchReindexService.start(List.of(SearchDocumentType.USER)))
+                    .isInstanceOf(IllegalStateException.class);
+                return true;
+            });
+
+        assertThat(searchReindexService.start(List.of(SearchDocumentType.SCENARIO)).getStatus())
+            .isEqualTo(ReindexProgress.Status.COMPLETED);
+        verify(indexOperations).create(any(), any());
+    }
+
+    private static boolean movesAlias(AliasActions actions, String index, String previousIndex) {
+        List<AliasAction> list = actions.getActions();
+        return (
+            list.size() == 2 &&
+            list.get(0) instanceof AliasAction.Add &&
+            list.get(0).getParameters().getIndices()[0].equals(index) &&
+            list.get(0).getParameters().getAliases()[0].equals("scenario") &&
+            list.get(1) instanceof AliasAction.RemoveIndex &&
+            list.get(1).getParameters().getIndices()[0].equals(previousIndex)
+        );
+    }
+
+    private static Scenario newScenario(String title) {
+        return new Scenario().title(title).probability(new BigDecimal("0.5")).qonsequence(new BigDecimal(1000));
+    }
+
+    private static Scenario partial(Long id) {
+        Scenario scenario = new Scenario();
+        scenario.setId(id);
+        return scenario;
+    }
+}
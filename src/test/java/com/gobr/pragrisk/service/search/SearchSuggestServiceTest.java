@@ -0,0 +1,179 @@
+package com.gobr.pragrisk.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.elasticsearch.index.query.QueryBuilders.multiMatchQuery;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.gobr.pragrisk.config.ApplicationProperties;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.service.dto.SuggestionDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitsImpl;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+/**
+ * Unit tests for {@link SearchSuggestService}.
+ */
+class SearchSuggestServiceTest {
+
+    private ElasticsearchRestTemplate elasticsearchTemplate;
+
+    private SearchIndexer searchIndexer;
+
+    private SimpleMeterRegistry registry;
+
+    private final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+    @BeforeEach
+    public void setup() {
+        elasticsearchTemplate = mock(ElasticsearchRestTemplate.class);
+        searchIndexer = mock(SearchIndexer.class);
+        registry = new SimpleMeterRegistry();
+        Vulnerability injection = new Vulnerability().name("SQL Injection").cweReference("CWE-89");
+        injection.setId(1L);
+        Vulnerability truncation = new Vulnerability().name("SQL Truncation");
+        truncation.setId(2L);
+        when(elasticsearchTemplate.search(any(Query.class), eq(Vulnerability.class)))
+            .thenReturn(
+                new SearchHitsImpl<>(
+                    2,
+                    TotalHitsRelation.OFF,
+                    1,
+                    null,
+                    List.of(
+                        new SearchHit<>("vulnerability", "1", null, 2, null, Map.of(), injection),
+                        new SearchHit<>("vulnerability", "2", null, 1, null, Map.of(), truncation)
+                    ),
+                    null,
+                    null
+                )
+            );
+    }
+
+    @Test
+    void suggestsByPrefixOnTheSuggestFields() {
+        SearchSuggestService service = newService(10, 60_000);
+
+        List<SuggestionDTO> suggestions = service.suggest(SuggestionType.VULNERABILITIES, "sql in", 5);
+
+        assertThat(suggestions)
+            .extracting(SuggestionDTO::getId, SuggestionDTO::getLabel)
+            .containsExactly(tuple(1L, "SQL Injection (CWE-89)"), tuple(2L, "SQL Truncation"));
+        verify(elasticsearchTemplate).search(query.capture(), eq(Vulnerability.class));
+        NativeSearchQuery nativeSearchQuery = (NativeSearchQuery) query.getValue();
+        assertThat(nativeSearchQuery.getQuery())
+            .isEqualTo(
+                multiMatchQuery("sql in")
+                    .type(MultiMatchQueryBuilder.Type.BOOL_PREFIX)
+                    .field("name.suggest")
+                    .field("name.suggest._2gram")
+                    .field("name.suggest._3gram")
+                    .field("cweReference.suggest")
+                    .field("cweReference.suggest._2gram")
+                    .field("cweReference.suggest._3gram")
+            );
+        assertThat(nativeSearchQuery.getPageable()).isEqualTo(PageRequest.of(0, 5));
+        assertThat(nativeSearchQuery.getTrackTotalHits()).isFalse();
+        assertThat(nativeSearchQuery.getSourceFilter().getIncludes()).containsExactly("id", "name", "cweReference");
+    }
+
+    @Test
+    void blankPrefixesSuggestNothing() {
+        SearchSuggestService service = newService(10, 60_000);
+
+        assertThat(service.suggest(SuggestionType.VULNERABILITIES, " \t", 5)).isEmpty();
+        assertThat(service.suggest(SuggestionType.VULNERABILITIES, null, 5)).isEmpty();
+        verifyNoInteractions(elasticsearchTemplate);
+    }
+
+    @Test
+    void cachesTheSuggestionsOfNormalizedPrefixes() {
+        SearchSuggestService service = newService(10, 60_000);
+
+        List<SuggestionDTO> suggestions = service.suggest(SuggestionType.VULNERABILITIES, "sql in", 5);
+
+        assertThat(service.suggest(SuggestionType.VULNERABILITIES, "  SQL   In ", 5)).isSameAs(suggestions);
+        verify(elasticsearchTemplate, times(1)).search(any(Query.class), eq(Vulnerability.class));
+        assertThat(cacheCount("hit")).isEqualTo(1);
+        assertThat(cacheCount("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void forgetsTheSuggestionsOfShippedTypes() {
+        SearchSuggestService service = newService(10, 60_000);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<SearchDocumentType>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(searchIndexer).addShipListener(listener.capture());
+        service.suggest(SuggestionType.VULNERABILITIES, "sql", 5);
+
+        listener.getValue().accept(SearchDocumentType.ACTOR);
+        service.suggest(SuggestionType.VULNERABILITIES, "sql", 5);
+        verify(elasticsearchTemplate, times(1)).search(any(Query.class), eq(Vulnerability.class));
+
+        listener.getValue().accept(SearchDocumentType.VULNERABILITY);
+        service.suggest(SuggestionType.VULNERABILITIES, "sql", 5);
+        verify(elasticsearchTemplate, times(2)).search(any(Query.class), eq(Vulnerability.class));
+
+        // read before the shipped documents are searchable, so not kept
+        service.suggest(SuggestionType.VULNERABILITIES, "sql", 5);
+        verify(elasticsearchTemplate, times(3)).search(any(Query.class), eq(Vulnerability.class));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedPrefixes() {
+        SearchSuggestService service = newService(2, 60_000);
+
+        service.suggest(SuggestionType.VULNERABILITIES, "s", 5);
+        service.suggest(SuggestionType.VULNERABILITIES, "sq", 5);
+        service.suggest(SuggestionType.VULNERABILITIES, "s", 5);
+        service.suggest(SuggestionType.VULNERABILITIES, "sql", 5);
+        verify(elasticsearchTemplate, times(3)).search(any(Query.class), eq(Vulnerability.class));
+
+        service.suggest(SuggestionType.VULNERABILITIES, "s", 5);
+        verify(elasticsearchTemplate, times(3)).search(any(Query.class), eq(Vulnerability.class));
+        service.suggest(SuggestionType.VULNERABILITIES, "sq", 5);
+        verify(elasticsearchTemplate, times(4)).search(any(Query.class), eq(Vulnerability.class));
+    }
+
+    @Test
+    void expiresCachedSuggestions() {
+        SearchSuggestService service = newService(10, 0);
+
+        service.suggest(SuggestionType.VULNERABILITIES, "sql", 5);
+        service.suggest(SuggestionType.VULNERABILITIES, "sql", 5);
+
+        verify(elasticsearchTemplate, times(2)).search(any(Query.class), eq(Vulnerability.class));
+    }
+
+    private SearchSuggestService newService(int cacheSize, long cacheTtlMs) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().getSuggest().setCacheSize(cacheSize);
+        applicationProperties.getSearch().getSuggest().setCacheTtlMs(cacheTtlMs);
+        SearchSuggestService service = new SearchSuggestService(elasticsearchTemplate, searchIndexer, registry, applicationProperties);
+        service.subscribe();
+        return service;
+    }
+
+    private double cacheCount(String result) {
+        return registry.get("pragrisk.search.suggest.cache").tag("result", result).counter().count();
+    }
+}
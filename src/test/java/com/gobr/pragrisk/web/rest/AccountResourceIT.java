@@ -224,6 +224,8 @@ class AccountResourceIT {
 
     @Test
     @Transactional
+    // the second registration replaces the non-activated first user
+    @QueryBudget(8)
     void testRegisterDuplicateLogin() throws Exception {
         // First registration
         ManagedUserVM firstUser = new ManagedUserVM();
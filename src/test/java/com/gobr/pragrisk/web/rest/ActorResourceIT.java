@@ -1,5 +1,6 @@
 package com.gobr.pragrisk.web.rest;
 
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -8,8 +9,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.gobr.pragrisk.IntegrationTest;
 import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Environment;
 import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
 import com.gobr.pragrisk.repository.search.ActorSearchRepository;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -68,6 +72,9 @@ class ActorResourceIT {
     @Autowired
     private ActorSearchRepository mockActorSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -129,8 +136,8 @@ class ActorResourceIT {
         assertThat(testActor.getNickName()).isEqualTo(DEFAULT_NICK_NAME);
         assertThat(testActor.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
 
-        // Validate the Actor in Elasticsearch
-        verify(mockActorSearchRepository, times(1)).save(testActor);
+        // Validate the Actor is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.ACTOR)).contains(testActor.getId());
     }
 
     @Test
@@ -223,6 +230,30 @@ class ActorResourceIT {
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)));
     }
 
+    @Test
+    @Transactional
+    void getAllActorSummaries() throws Exception {
+        // Initialize the database
+        Environment environment = EnvironmentResourceIT.createEntity(em);
+        em.persist(environment);
+        Actor parent = createEntity(em);
+        em.persist(parent);
+        actorRepository.saveAndFlush(actor.parentActor(parent).group(environment));
+
+        // Get the summaries
+        restActorMockMvc
+            .perform(get(ENTITY_API_URL + "?view=summary&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].id").value(actor.getId().intValue()))
+            .andExpect(jsonPath("$.[0].nickName").value(DEFAULT_NICK_NAME))
+            .andExpect(jsonPath("$.[0].parentActorId").value(parent.getId().intValue()))
+            .andExpect(jsonPath("$.[0].parentActorNickName").value(DEFAULT_NICK_NAME))
+            .andExpect(jsonPath("$.[0].groupId").value(environment.getId().intValue()))
+            .andExpect(jsonPath("$.[0].groupName").value(environment.getName()))
+            .andExpect(jsonPath("$.[0].firstName").doesNotExist());
+    }
+
     @Test
     @Transactional
     void getActor() throws Exception {
@@ -279,8 +310,36 @@ class ActorResourceIT {
         assertThat(testActor.getNickName()).isEqualTo(UPDATED_NICK_NAME);
         assertThat(testActor.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
 
-        // Validate the Actor in Elasticsearch
-        verify(mockActorSearchRepository).save(testActor);
+        // Validate the Actor is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.ACTOR)).contains(testActor.getId());
+    }
+
+    @Test
+    @Transactional
+    void putActorWithCyclicParent() throws Exception {
+        // Initialize the database
+        actorRepository.saveAndFlush(actor);
+        Actor child = actorRepository.saveAndFlush(createEntity(em));
+        em.detach(child);
+
+        restActorMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, child.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(child.parentActor(actor)))
+            )
+            .andExpect(status().isOk());
+
+        // The parent of the actor cannot be its own child
+        Actor updatedActor = actorRepository.findById(actor.getId()).get();
+        em.detach(updatedActor);
+        restActorMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedActor.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedActor.parentActor(new Actor().id(child.getId()))))
+            )
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -498,8 +557,8 @@ class ActorResourceIT {
         List<Actor> actorList = actorRepository.findAll();
         assertThat(actorList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Actor in Elasticsearch
-        verify(mockActorSearchRepository, times(1)).deleteById(actor.getId());
+        // Validate the Actor is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.ACTOR)).contains(actor.getId());
     }
 
     @Test
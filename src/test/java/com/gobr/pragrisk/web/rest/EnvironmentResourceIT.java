@@ -1,5 +1,6 @@
 package com.gobr.pragrisk.web.rest;
 
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.gobr.pragrisk.IntegrationTest;
 import com.gobr.pragrisk.domain.Environment;
 import com.gobr.pragrisk.repository.EnvironmentRepository;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
 import com.gobr.pragrisk.repository.search.EnvironmentSearchRepository;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -61,6 +64,9 @@ class EnvironmentResourceIT {
     @Autowired
     private EnvironmentSearchRepository mockEnvironmentSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -112,8 +118,8 @@ class EnvironmentResourceIT {
         assertThat(testEnvironment.getName()).isEqualTo(DEFAULT_NAME);
         assertThat(testEnvironment.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
 
-        // Validate the Environment in Elasticsearch
-        verify(mockEnvironmentSearchRepository, times(1)).save(testEnvironment);
+        // Validate the Environment is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.ENVIRONMENT)).contains(testEnvironment.getId());
     }
 
     @Test
@@ -222,8 +228,8 @@ class EnvironmentResourceIT {
         assertThat(testEnvironment.getName()).isEqualTo(UPDATED_NAME);
         assertThat(testEnvironment.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
 
-        // Validate the Environment in Elasticsearch
-        verify(mockEnvironmentSearchRepository).save(testEnvironment);
+        // Validate the Environment is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.ENVIRONMENT)).contains(testEnvironment.getId());
     }
 
     @Test
@@ -435,8 +441,8 @@ class EnvironmentResourceIT {
         List<Environment> environmentList = environmentRepository.findAll();
         assertThat(environmentList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Environment in Elasticsearch
-        verify(mockEnvironmentSearchRepository, times(1)).deleteById(environment.getId());
+        // Validate the Environment is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.ENVIRONMENT)).contains(environment.getId());
     }
 
     @Test
@@ -0,0 +1,139 @@
+package com.gobr.pragrisk.web.rest;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.gobr.pragrisk.IntegrationTest;
+import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Environment;
+import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.repository.ActorRepository;
+import com.gobr.pragrisk.repository.EnvironmentRepository;
+import com.gobr.pragrisk.repository.MitigationRepository;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.TechnologyRepository;
+import com.gobr.pragrisk.repository.VulnerabilityRepository;
+import java.math.BigDecimal;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link ExportResource} REST controller.
+ * <p>
+ * Exports are written on another thread, in their own transaction, so the test data is committed and deleted
+ * afterwards rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ExportResourceIT {
+
+    private static final String SCENARIO_CSV_HEADER =
+        "id,title,description,probability,qonsequence,riskValue,actorId,technologyId,vulnerabilityId\r\n";
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private EnvironmentRepository environmentRepository;
+
+    @Autowired
+    private MitigationRepository mitigationRepository;
+
+    @Autowired
+    private ScenarioRepository scenarioRepository;
+
+    @Autowired
+    private TechnologyRepository technologyRepository;
+
+    @Autowired
+    private VulnerabilityRepository vulnerabilityRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restExportMockMvc;
+
+    @Test
+    void exportRiskRegisterAndScenarios() throws Exception {
+        Mitigation mitigation = mitigationRepository.saveAndFlush(MitigationResourceIT.createEntity(em).controlID("RRRRRRRR8"));
+        Vulnerability vulnerability = vulnerabilityRepository.saveAndFlush(
+            VulnerabilityResourceIT.createEntity(em).addMitigation(mitigation)
+        );
+        Environment environment = environmentRepository.saveAndFlush(EnvironmentResourceIT.createEntity(em).name("export-environment"));
+        Actor actor = actorRepository.saveAndFlush(ActorResourceIT.createEntity(em).group(environment));
+        Technology technology = technologyRepository.saveAndFlush(TechnologyResourceIT.createEntity(em));
+        Scenario scenario = scenarioRepository.saveAndFlush(
+            ScenarioResourceIT
+                .createEntity(em)
+                .title("export-1")
+                .description("Spans, \"quoted\"\nlines")
+                .probability(new BigDecimal("0.5"))
+                .actorFK(actor)
+                .technologyFK(technology)
+                .vulnerabilityFK(vulnerability)
+        );
+        try {
+            MvcResult register = restExportMockMvc
+                .perform(get("/api/export/risk-register"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restExportMockMvc
+                .perform(asyncDispatch(register))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"risk-register.ndjson\""))
+                .andExpect(content().string(containsString("{\"id\":" + scenario.getId() + ",\"title\":\"export-1\",\"probability\":0.50,")))
+                .andExpect(content().string(containsString("\"environmentName\":\"export-environment\"")))
+                .andExpect(content().string(containsString("\"mitigationControlIDs\":[\"RRRRRRRR8\"],")));
+
+            MvcResult scenarios = restExportMockMvc
+                .perform(get("/api/export/scenarios?format=CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restExportMockMvc
+                .perform(asyncDispatch(scenarios))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string(startsWith(SCENARIO_CSV_HEADER)))
+                .andExpect(
+                    content()
+                        .string(
+                            containsString(
+                                scenario.getId() +
+                                ",export-1,\"Spans, \"\"quoted\"\"\nlines\",0.50,1.00,1.00," +
+                                actor.getId() +
+                                "," +
+                                technology.getId() +
+                                "," +
+                                vulnerability.getId() +
+                                "\r\n"
+                            )
+                        )
+                );
+        } finally {
+            scenarioRepository.deleteById(scenario.getId());
+            technologyRepository.deleteById(technology.getId());
+            actorRepository.deleteById(actor.getId());
+            environmentRepository.deleteById(environment.getId());
+            vulnerabilityRepository.deleteById(vulnerability.getId());
+            mitigationRepository.deleteById(mitigation.getId());
+        }
+    }
+
+    @Test
+    void exportUnknownView() throws Exception {
+        restExportMockMvc.perform(get("/api/export/unknown")).andExpect(status().isBadRequest());
+    }
+}
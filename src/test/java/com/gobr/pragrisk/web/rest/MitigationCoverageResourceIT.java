@@ -0,0 +1,93 @@
+package com.gobr.pragrisk.web.rest;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.gobr.pragrisk.IntegrationTest;
+import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Environment;
+import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.service.risk.MitigationCoverageChangedEvent;
+import com.gobr.pragrisk.service.risk.ResidualRiskService;
+import com.gobr.pragrisk.service.risk.ScenarioRiskRegister;
+import java.math.BigDecimal;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link MitigationCoverageResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class MitigationCoverageResourceIT {
+
+    @Autowired
+    private ScenarioRepository scenarioRepository;
+
+    @Autowired
+    private ResidualRiskService residualRiskService;
+
+    @Autowired
+    private ScenarioRiskRegister scenarioRiskRegister;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restMitigationCoverageMockMvc;
+
+    @Test
+    @Transactional
+    void getCoverageGapsAndSetCover() throws Exception {
+        Mitigation mitigation = MitigationResourceIT.createEntity(em).status(MitigationStatus.WELL_DEFINED);
+        em.persist(mitigation.type(MitigationType.CORRECTIVE));
+        Vulnerability covered = VulnerabilityResourceIT.createEntity(em).addMitigation(mitigation);
+        em.persist(covered);
+        Vulnerability uncovered = VulnerabilityResourceIT.createEntity(em);
+        em.persist(uncovered);
+        Environment environment = EnvironmentResourceIT.createEntity(em);
+        em.persist(environment);
+        Actor actor = ActorResourceIT.createEntity(em).group(environment);
+        em.persist(actor);
+        Scenario scenario = ScenarioResourceIT.createEntity(em).actorFK(actor).vulnerabilityFK(covered);
+        scenarioRepository.saveAndFlush(scenario.probability(BigDecimal.ONE).qonsequence(BigDecimal.TEN).riskValue(BigDecimal.TEN));
+        residualRiskService.onMitigationCoverageChanged(new MitigationCoverageChangedEvent("test"));
+        scenarioRiskRegister.rebuild();
+
+        restMitigationCoverageMockMvc
+            .perform(get("/api/mitigation-coverage/gaps?minimumStatus=PLANNED_AND_TRACKED"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.uncoveredVulnerabilityIds").value(hasItem(uncovered.getId().intValue())))
+            .andExpect(jsonPath("$.uncoveredVulnerabilityIds").value(not(hasItem(covered.getId().intValue()))));
+        restMitigationCoverageMockMvc
+            .perform(get("/api/mitigation-coverage/set-cover?environmentId={id}", environment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.vulnerabilities").value(1))
+            .andExpect(jsonPath("$.mitigationIds[0]").value(mitigation.getId().intValue()))
+            .andExpect(jsonPath("$.uncoverableVulnerabilityIds").isEmpty());
+        restMitigationCoverageMockMvc
+            .perform(get("/api/mitigation-coverage/types"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(MitigationType.values().length));
+    }
+
+    @Test
+    void getCoverageGapsOfUnknownStatus() throws Exception {
+        restMitigationCoverageMockMvc
+            .perform(get("/api/mitigation-coverage/gaps?minimumStatus=UNKNOWN"))
+            .andExpect(status().isBadRequest());
+    }
+}
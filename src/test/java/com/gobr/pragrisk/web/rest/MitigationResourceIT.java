@@ -1,5 +1,6 @@
 package com.gobr.pragrisk.web.rest;
 
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -11,9 +12,15 @@ import com.gobr.pragrisk.domain.Mitigation;
 import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
 import com.gobr.pragrisk.domain.enumeration.MitigationType;
 import com.gobr.pragrisk.repository.MitigationRepository;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.FacetedSearch;
 import com.gobr.pragrisk.repository.search.MitigationSearchRepository;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
@@ -76,6 +83,9 @@ class MitigationResourceIT {
     @Autowired
     private MitigationSearchRepository mockMitigationSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -143,8 +153,8 @@ class MitigationResourceIT {
         assertThat(testMitigation.getType()).isEqualTo(DEFAULT_TYPE);
         assertThat(testMitigation.getStatus()).isEqualTo(DEFAULT_STATUS);
 
-        // Validate the Mitigation in Elasticsearch
-        verify(mockMitigationSearchRepository, times(1)).save(testMitigation);
+        // Validate the Mitigation is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.MITIGATION)).contains(testMitigation.getId());
     }
 
     @Test
@@ -322,8 +332,8 @@ class MitigationResourceIT {
         assertThat(testMitigation.getType()).isEqualTo(UPDATED_TYPE);
         assertThat(testMitigation.getStatus()).isEqualTo(UPDATED_STATUS);
 
-        // Validate the Mitigation in Elasticsearch
-        verify(mockMitigationSearchRepository).save(testMitigation);
+        // Validate the Mitigation is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.MITIGATION)).contains(testMitigation.getId());
     }
 
     @Test
@@ -549,8 +559,8 @@ class MitigationResourceIT {
         List<Mitigation> mitigationList = mitigationRepository.findAll();
         assertThat(mitigationList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Mitigation in Elasticsearch
-        verify(mockMitigationSearchRepository, times(1)).deleteById(mitigation.getId());
+        // Validate the Mitigation is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.MITIGATION)).contains(mitigation.getId());
     }
 
     @Test
@@ -575,4 +585,28 @@ class MitigationResourceIT {
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE.toString())))
             .andExpect(jsonPath("$.[*].status").value(hasItem(DEFAULT_STATUS.toString())));
     }
+
+    @Test
+    @Transactional
+    void searchFacetedMitigations() throws Exception {
+        mitigationRepository.saveAndFlush(mitigation);
+        Map<String, List<FacetedPage.Bucket>> facets = new LinkedHashMap<>();
+        facets.put("type", List.of(new FacetedPage.Bucket(DEFAULT_TYPE.name(), null, null, 1)));
+        facets.put("status", List.of(new FacetedPage.Bucket(DEFAULT_STATUS.name(), null, null, 1)));
+        when(
+            mockMitigationSearchRepository.search(
+                argThat((FacetedSearch search) -> search.toString().contains("filters=[type]")),
+                eq(PageRequest.of(0, 20))
+            )
+        )
+            .thenReturn(new FacetedPage<>(new PageImpl<>(List.of(mitigation), PageRequest.of(0, 20), 1), facets));
+
+        restMitigationMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "/faceted?type.equals=" + DEFAULT_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.content.[*].id").value(hasItem(mitigation.getId().intValue())))
+            .andExpect(jsonPath("$.facets.type[0].key").value(DEFAULT_TYPE.name()))
+            .andExpect(jsonPath("$.facets.status[0].count").value(1));
+    }
 }
@@ -0,0 +1,22 @@
+package com.gobr.pragrisk.web.rest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The number of SQL statements a single request of a test may run, on a test method or class.
+ * <p>
+ * Requests of the {@code *ResourceIT} tests of this package have a budget of {@link #DEFAULT} statements unless they
+ * declare another; other integration tests have none.
+ *
+ * @see QueryBudgetExtension
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int DEFAULT = 4;
+
+    int value();
+}
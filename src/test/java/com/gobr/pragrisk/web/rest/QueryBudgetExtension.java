@@ -0,0 +1,33 @@
+package com.gobr.pragrisk.web.rest;
+
+import com.gobr.pragrisk.config.QueryCounter;
+import java.util.Optional;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * Sets the {@link QueryBudget} of each test, enforced on its requests by the
+ * {@link com.gobr.pragrisk.config.QueryBudgetConfiguration}.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        Class<?> testClass = context.getRequiredTestClass();
+        Optional<QueryBudget> budget = AnnotationSupport
+            .findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+            .or(() -> AnnotationSupport.findAnnotation(testClass, QueryBudget.class));
+        if (budget.isPresent()) {
+            QueryCounter.setBudget(budget.get().value());
+        } else if (testClass.getPackage().equals(QueryBudget.class.getPackage()) && testClass.getSimpleName().endsWith("ResourceIT")) {
+            QueryCounter.setBudget(QueryBudget.DEFAULT);
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryCounter.clearBudget();
+    }
+}
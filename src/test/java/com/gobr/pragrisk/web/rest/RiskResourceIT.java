@@ -0,0 +1,471 @@
+package com.gobr.pragrisk.web.rest;
+
+import static com.gobr.pragrisk.web.rest.TestUtil.sameNumber;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.gobr.pragrisk.IntegrationTest;
+import com.gobr.pragrisk.domain.Actor;
+import com.gobr.pragrisk.domain.Environment;
+import com.gobr.pragrisk.domain.Mitigation;
+import com.gobr.pragrisk.domain.Scenario;
+import com.gobr.pragrisk.domain.Technology;
+import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.domain.enumeration.MitigationStatus;
+import com.gobr.pragrisk.domain.enumeration.MitigationType;
+import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.security.AuthoritiesConstants;
+import com.gobr.pragrisk.service.dto.RiskModelDTO;
+import com.gobr.pragrisk.service.dto.RiskSimulationRequestDTO;
+import com.gobr.pragrisk.service.dto.WhatIfRequestDTO;
+import com.gobr.pragrisk.service.risk.MitigationCoverageChangedEvent;
+import com.gobr.pragrisk.service.risk.ResidualRiskService;
+import com.gobr.pragrisk.service.risk.RiskComputationEngine;
+import com.gobr.pragrisk.service.risk.RiskHistoryService;
+import com.gobr.pragrisk.service.risk.RiskModel;
+import com.gobr.pragrisk.service.risk.RiskWeightingModel;
+import java.math.BigDecimal;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link RiskResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class RiskResourceIT {
+
+    @Autowired
+    private ScenarioRepository scenarioRepository;
+
+    @Autowired
+    private RiskComputationEngine riskComputationEngine;
+
+    @Autowired
+    private ResidualRiskService residualRiskService;
+
+    @Autowired
+    private RiskHistoryService riskHistoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restRiskMockMvc;
+
+    private RiskModel initialModel;
+
+    @BeforeEach
+    public void initTest() {
+        initialModel = riskComputationEngine.getModel();
+    }
+
+    @AfterEach
+    public void restoreModel() {
+        riskComputationEngine.setModel(initialModel);
+    }
+
+    @Test
+    void getRiskModel() throws Exception {
+        restRiskMockMvc
+            .perform(get("/api/risk/model"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.model").value(initialModel.getType().toString()));
+    }
+
+    @Test
+    @Transactional
+    void updateModelAndRecompute() throws Exception {
+        Scenario scenario = scenarioRepository.saveAndFlush(
+            ScenarioResourceIT.createEntity(em).probability(new BigDecimal(2)).qonsequence(new BigDecimal(3)).riskValue(BigDecimal.ZERO)
+        );
+
+        RiskModelDTO model = new RiskModelDTO();
+        model.setModel(RiskWeightingModel.WEIGHTED_SUM);
+        model.setProbabilityWeight(new BigDecimal("0.5"));
+        model.setConsequenceWeight(BigDecimal.ONE);
+        restRiskMockMvc
+            .perform(put("/api/admin/risk/model").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(model)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.model").value("WEIGHTED_SUM"))
+            .andExpect(jsonPath("$.probabilityWeight").value(sameNumber(new BigDecimal("0.5"))));
+
+        restRiskMockMvc.perform(post("/api/admin/risk/recompute")).andExpect(status().isOk()).andExpect(jsonPath("$.updated").value(1));
+
+        em.clear();
+        assertThat(scenarioRepository.findById(scenario.getId()).orElseThrow().getRiskValue()).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    @Transactional
+    void recomputeChangesTheEntityTagOfUpdatedScenarios() throws Exception {
+        Scenario scenario = scenarioRepository.saveAndFlush(
+            ScenarioResourceIT.createEntity(em).probability(new BigDecimal(2)).qonsequence(new BigDecimal(3)).riskValue(BigDecimal.ZERO)
+        );
+        restRiskMockMvc
+            .perform(get("/api/scenarios/{id}", scenario.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        riskComputationEngine.recomputeAll();
+        em.clear();
+
+        restRiskMockMvc
+            .perform(get("/api/scenarios/{id}", scenario.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @Transactional
+    void simulate() throws Exception {
+        scenarioRepository.saveAndFlush(
+            ScenarioResourceIT.createEntity(em).probability(BigDecimal.ONE).qonsequence(new BigDecimal(100)).riskValue(BigDecimal.ZERO)
+        );
+
+        RiskSimulationRequestDTO request = new RiskSimulationRequestDTO();
+        request.setIterations(500);
+        request.setSeed(42L);
+        restRiskMockMvc
+            .perform(
+                post("/api/risk/simulations").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(request))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.iterations").value(500))
+            .andExpect(jsonPath("$.seed").value(42))
+            .andExpect(jsonPath("$.scenarios").value(1))
+            .andExpect(jsonPath("$.register.p50").isNumber())
+            .andExpect(jsonPath("$.register.lossExceedanceCurve[0].probability").value(1.0));
+    }
+
+    @Test
+    void simulateTooManyIterations() throws Exception {
+        RiskSimulationRequestDTO request = new RiskSimulationRequestDTO();
+        request.setIterations(Integer.MAX_VALUE);
+        restRiskMockMvc
+            .perform(
+                post("/api/risk/simulations").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(request))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getRiskRollupsAfterRebuild() throws Exception {
+        Environment environment = EnvironmentResourceIT.createEntity(em);
+        em.persist(environment);
+        Actor actor = ActorResourceIT.createEntity(em).group(environment);
+        em.persist(actor);
+        saveScenario(actor, new BigDecimal(3));
+        saveScenario(actor, new BigDecimal(5));
+
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        restRiskMockMvc
+            .perform(get("/api/risk/rollups/actors/{id}", actor.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(2))
+            .andExpect(jsonPath("$.sum").value(sameNumber(new BigDecimal(8))))
+            .andExpect(jsonPath("$.max").value(sameNumber(new BigDecimal(5))))
+            .andExpect(jsonPath("$.mean").value(sameNumber(new BigDecimal(4))));
+        restRiskMockMvc
+            .perform(get("/api/risk/rollups/environments/{id}", environment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(2));
+        restRiskMockMvc
+            .perform(get("/api/risk/rollups/actors"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(actor.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getRiskHeatmapAfterRebuild() throws Exception {
+        Environment environment = EnvironmentResourceIT.createEntity(em);
+        em.persist(environment);
+        Actor actor = ActorResourceIT.createEntity(em).group(environment);
+        em.persist(actor);
+        saveScenario(actor, new BigDecimal(3));
+
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        restRiskMockMvc
+            .perform(get("/api/risk/heatmap?environmentId={id}", environment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.environmentId").value(environment.getId().intValue()))
+            .andExpect(jsonPath("$.counts.length()").value(5))
+            .andExpect(jsonPath("$.counts[4][0]").value(1))
+            .andExpect(jsonPath("$.riskSums[4][0]").value(sameNumber(new BigDecimal(3))));
+        restRiskMockMvc
+            .perform(get("/api/risk/heatmap?environmentId={id}&techStack=JAVA", environment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.counts[4][0]").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getTopRisksAndRanksAfterRebuild() throws Exception {
+        Environment environment = EnvironmentResourceIT.createEntity(em);
+        em.persist(environment);
+        Actor actor = ActorResourceIT.createEntity(em).group(environment);
+        em.persist(actor);
+        Scenario low = saveScenario(actor, new BigDecimal(3));
+        Scenario high = saveScenario(actor, new BigDecimal(5));
+
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        restRiskMockMvc
+            .perform(get("/api/risk/top?limit=2&environmentId={id}", environment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].scenarioId").value(high.getId().intValue()))
+            .andExpect(jsonPath("$[0].rank").value(1))
+            .andExpect(jsonPath("$[1].scenarioId").value(low.getId().intValue()));
+        restRiskMockMvc
+            .perform(get("/api/risk/ranks/{id}?environmentId={environmentId}", low.getId(), environment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rank").value(2))
+            .andExpect(jsonPath("$.percentile").value(50.0));
+        restRiskMockMvc
+            .perform(get("/api/risk/percentile?quantile=1&environmentId={id}", environment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.scenarioId").value(high.getId().intValue()));
+        restRiskMockMvc.perform(get("/api/risk/percentile?quantile=2")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getResidualRisk() throws Exception {
+        Mitigation mitigation = MitigationResourceIT.createEntity(em).status(MitigationStatus.WELL_DEFINED);
+        em.persist(mitigation.type(MitigationType.PREVENTIVE));
+        Vulnerability vulnerability = VulnerabilityResourceIT.createEntity(em).addMitigation(mitigation);
+        em.persist(vulnerability);
+        Scenario scenario = ScenarioResourceIT.createEntity(em).vulnerabilityFK(vulnerability);
+        scenario = scenarioRepository.saveAndFlush(scenario.probability(BigDecimal.ONE).qonsequence(BigDecimal.TEN).riskValue(BigDecimal.TEN));
+        residualRiskService.onMitigationCoverageChanged(new MitigationCoverageChangedEvent("test"));
+
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        restRiskMockMvc
+            .perform(get("/api/risk/residual/{id}", scenario.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.vulnerabilityId").value(vulnerability.getId().intValue()))
+            .andExpect(jsonPath("$.inherentRisk").value(sameNumber(BigDecimal.TEN)))
+            .andExpect(jsonPath("$.mitigationEffectiveness").value(sameNumber(new BigDecimal("0.6"))))
+            .andExpect(jsonPath("$.residualRisk").value(sameNumber(new BigDecimal(4))));
+        restRiskMockMvc
+            .perform(get("/api/risk/residual"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.mitigatedScenarios").value(1))
+            .andExpect(jsonPath("$.residualRisk").value(sameNumber(new BigDecimal(4))));
+    }
+
+    @Test
+    @Transactional
+    void evaluateWhatIf() throws Exception {
+        Mitigation mitigation = MitigationResourceIT.createEntity(em).status(MitigationStatus.WELL_DEFINED);
+        em.persist(mitigation.type(MitigationType.PREVENTIVE));
+        Vulnerability vulnerability = VulnerabilityResourceIT.createEntity(em).addMitigation(mitigation);
+        em.persist(vulnerability);
+        Scenario scenario = ScenarioResourceIT.createEntity(em).vulnerabilityFK(vulnerability);
+        scenarioRepository.saveAndFlush(scenario.probability(BigDecimal.ONE).qonsequence(BigDecimal.TEN).riskValue(BigDecimal.TEN));
+        residualRiskService.onMitigationCoverageChanged(new MitigationCoverageChangedEvent("test"));
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        WhatIfRequestDTO request = new WhatIfRequestDTO();
+        request.setOptions(
+            List.of(
+                whatIfOption("remove", mitigation.getId(), null, true),
+                whatIfOption("raise", mitigation.getId(), MitigationStatus.CONTINUOUSLY_IMPROVED, false)
+            )
+        );
+
+        restRiskMockMvc
+            .perform(post("/api/risk/what-if").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.options[0].label").value("remove"))
+            .andExpect(jsonPath("$.options[0].affectedScenarios").value(1))
+            .andExpect(jsonPath("$.options[0].residualRiskDelta").value(sameNumber(new BigDecimal(6))))
+            .andExpect(jsonPath("$.options[1].label").value("raise"))
+            .andExpect(jsonPath("$.options[1].residualRiskDelta").value(sameNumber(new BigDecimal(-3))));
+        // nothing is persisted
+        assertThat(em.find(Mitigation.class, mitigation.getId()).getStatus()).isEqualTo(MitigationStatus.WELL_DEFINED);
+    }
+
+    @Test
+    void evaluateWhatIfWithoutOptions() throws Exception {
+        restRiskMockMvc
+            .perform(
+                post("/api/risk/what-if")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new WhatIfRequestDTO()))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getRiskTrendAfterFlush() throws Exception {
+        Scenario scenario = saveScenario(null, BigDecimal.TEN);
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+        riskHistoryService.flush();
+
+        restRiskMockMvc
+            .perform(get("/api/risk/history/scenarios/{id}", scenario.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].samples").value(1))
+            .andExpect(jsonPath("$[0].last").value(sameNumber(BigDecimal.TEN)));
+        restRiskMockMvc
+            .perform(get("/api/risk/history/scenarios/{id}?step=P1D", scenario.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].max").value(sameNumber(BigDecimal.TEN)));
+        String crossingBuckets = "select count(*) from risk_history_segment where min_key / 64 <> max_key / 64";
+        assertThat(jdbcTemplate.queryForObject(crossingBuckets, Long.class)).isZero();
+    }
+
+    @Test
+    @Transactional
+    void getRiskSubtreeAfterRebuild() throws Exception {
+        Actor parent = ActorResourceIT.createEntity(em);
+        em.persist(parent);
+        Actor child = ActorResourceIT.createEntity(em).parentActor(parent);
+        em.persist(child);
+        saveScenario(parent, new BigDecimal(3));
+        saveScenario(child, new BigDecimal(5));
+
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        restRiskMockMvc
+            .perform(get("/api/risk/hierarchies/actors/{id}", parent.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ancestorIds").isEmpty())
+            .andExpect(jsonPath("$.descendantIds").value(hasItem(child.getId().intValue())))
+            .andExpect(jsonPath("$.scenarios").value(2))
+            .andExpect(jsonPath("$.riskSum").value(sameNumber(new BigDecimal(8))));
+        restRiskMockMvc
+            .perform(get("/api/risk/hierarchies/actors/{id}", child.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ancestorIds").value(hasItem(parent.getId().intValue())))
+            .andExpect(jsonPath("$.scenarios").value(1));
+        restRiskMockMvc.perform(get("/api/risk/hierarchies/environments/1")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void rebuildRepairsClosureRowsOfTheSameCount() throws Exception {
+        Actor parent = ActorResourceIT.createEntity(em);
+        em.persist(parent);
+        Actor child = ActorResourceIT.createEntity(em).parentActor(parent);
+        em.persist(child);
+        em.flush();
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+        String depth = "select depth from actor_closure where ancestor_id = ? and descendant_id = ?";
+        assertThat(jdbcTemplate.queryForObject(depth, Integer.class, parent.getId(), child.getId())).isEqualTo(1);
+
+        String corrupt = "update actor_closure set depth = 2 where ancestor_id = ? and descendant_id = ?";
+        jdbcTemplate.update(corrupt, parent.getId(), child.getId());
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        assertThat(jdbcTemplate.queryForObject(depth, Integer.class, parent.getId(), child.getId())).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void getAttackPathsAfterRebuild() throws Exception {
+        Actor actor = ActorResourceIT.createEntity(em);
+        em.persist(actor);
+        Technology technology = TechnologyResourceIT.createEntity(em);
+        em.persist(technology);
+        Vulnerability vulnerability = VulnerabilityResourceIT.createEntity(em);
+        em.persist(vulnerability);
+        Scenario scenario = ScenarioResourceIT.createEntity(em).title("Attack").actorFK(actor).technologyFK(technology);
+        scenarioRepository.saveAndFlush(
+            scenario.vulnerabilityFK(vulnerability).probability(BigDecimal.ONE).qonsequence(BigDecimal.TEN).riskValue(BigDecimal.TEN)
+        );
+
+        restRiskMockMvc.perform(post("/api/admin/risk/rollups/rebuild")).andExpect(status().isNoContent());
+
+        restRiskMockMvc
+            .perform(get("/api/risk/attack-paths?actorId={id}", actor.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].steps[1].type").value("technologies"))
+            .andExpect(jsonPath("$[0].steps[2].id").value(vulnerability.getId().intValue()))
+            .andExpect(jsonPath("$[0].riskValue").value(sameNumber(BigDecimal.TEN)))
+            .andExpect(jsonPath("$[0].mitigated").value(false));
+        restRiskMockMvc
+            .perform(
+                get(
+                    "/api/risk/attack-paths/riskiest?actorId={id}&targetType=vulnerabilities&targetId={target}",
+                    actor.getId(),
+                    vulnerability.getId()
+                )
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.steps.length()").value(3));
+        restRiskMockMvc
+            .perform(get("/api/risk/attack-paths/technologies/{id}/actors?unmitigated=true", technology.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasItem(actor.getId().intValue())));
+        restRiskMockMvc
+            .perform(get("/api/risk/attack-paths/shortest?actorId={id}&targetType=actors&targetId=1", actor.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRiskTrendOfUnknownSeries() throws Exception {
+        restRiskMockMvc.perform(get("/api/risk/history/unknown/1")).andExpect(status().isBadRequest());
+        restRiskMockMvc.perform(get("/api/risk/history/scenarios/1?step=yesterday")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRiskRollupOfUnknownDimension() throws Exception {
+        restRiskMockMvc.perform(get("/api/risk/rollups/unknown/1")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getNonExistingRiskRollup() throws Exception {
+        restRiskMockMvc.perform(get("/api/risk/rollups/technologies/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void recomputeRequiresAdmin() throws Exception {
+        restRiskMockMvc.perform(post("/api/admin/risk/recompute")).andExpect(status().isForbidden());
+    }
+
+    private static WhatIfRequestDTO.Option whatIfOption(String label, Long mitigationId, MitigationStatus status, boolean removed) {
+        WhatIfRequestDTO.Change change = new WhatIfRequestDTO.Change();
+        change.setMitigationId(mitigationId);
+        change.setStatus(status);
+        change.setRemoved(removed);
+        WhatIfRequestDTO.Option option = new WhatIfRequestDTO.Option();
+        option.setLabel(label);
+        option.setChanges(List.of(change));
+        return option;
+    }
+
+    private Scenario saveScenario(Actor actor, BigDecimal riskValue) {
+        Scenario scenario = ScenarioResourceIT.createEntity(em).title("Scenario " + riskValue).actorFK(actor);
+        return scenarioRepository.saveAndFlush(scenario.probability(BigDecimal.ONE).qonsequence(riskValue).riskValue(riskValue));
+    }
+}
@@ -1,21 +1,39 @@
 package com.gobr.pragrisk.web.rest;
 
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
 import static com.gobr.pragrisk.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.stringContainsInOrder;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.gobr.pragrisk.IntegrationTest;
+import com.gobr.pragrisk.domain.Actor;
 import com.gobr.pragrisk.domain.Scenario;
 import com.gobr.pragrisk.repository.ScenarioRepository;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
+import com.gobr.pragrisk.repository.search.FacetedPage;
+import com.gobr.pragrisk.repository.search.FacetedSearch;
 import com.gobr.pragrisk.repository.search.ScenarioSearchRepository;
+import com.gobr.pragrisk.repository.search.SearchCursor;
+import com.gobr.pragrisk.repository.search.SearchCursorPage;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
+import com.jayway.jsonpath.JsonPath;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,9 +44,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -52,12 +74,16 @@ class ScenarioResourceIT {
     private static final BigDecimal DEFAULT_QONSEQUENCE = new BigDecimal(1);
     private static final BigDecimal UPDATED_QONSEQUENCE = new BigDecimal(2);
 
+    // The risk value is derived server-side: probability * qonsequence with the default model
     private static final BigDecimal DEFAULT_RISK_VALUE = new BigDecimal(1);
-    private static final BigDecimal UPDATED_RISK_VALUE = new BigDecimal(2);
+    private static final BigDecimal UPDATED_RISK_VALUE = new BigDecimal(4);
 
     private static final String ENTITY_API_URL = "/api/scenarios";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/scenarios";
+    private static final String ENTITY_IMPORT_API_URL = ENTITY_API_URL + "/import";
+
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]*)>; rel=\"next\"");
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -73,6 +99,9 @@ class ScenarioResourceIT {
     @Autowired
     private ScenarioSearchRepository mockScenarioSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -137,8 +166,34 @@ class ScenarioResourceIT {
         assertThat(testScenario.getQonsequence()).isEqualByComparingTo(DEFAULT_QONSEQUENCE);
         assertThat(testScenario.getRiskValue()).isEqualByComparingTo(DEFAULT_RISK_VALUE);
 
-        // Validate the Scenario in Elasticsearch
-        verify(mockScenarioSearchRepository, times(1)).save(testScenario);
+        // Validate the Scenario is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).contains(testScenario.getId());
+    }
+
+    @Test
+    @Transactional
+    void createScenarioWithRiskValueOutOfRange() throws Exception {
+        int databaseSizeBeforeCreate = scenarioRepository.findAll().size();
+        // Both inputs fit decimal(21,2), their product overflows the fixed-point risk values
+        scenario.probability(new BigDecimal("1000000000")).qonsequence(new BigDecimal("1000000000"));
+
+        restScenarioMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(scenario)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.riskvalueoutofrange"));
+
+        assertThat(scenarioRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createScenarioIgnoresClientRiskValue() throws Exception {
+        scenario.setRiskValue(new BigDecimal(99));
+
+        restScenarioMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(scenario)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.riskValue").value(sameNumber(DEFAULT_RISK_VALUE)));
     }
 
     @Test
@@ -198,6 +253,89 @@ class ScenarioResourceIT {
             .andExpect(jsonPath("$.[*].riskValue").value(hasItem(sameNumber(DEFAULT_RISK_VALUE))));
     }
 
+    @Test
+    @Transactional
+    void getAllScenarioSummaries() throws Exception {
+        // Initialize the database
+        Actor actor = ActorResourceIT.createEntity(em);
+        em.persist(actor);
+        scenarioRepository.saveAndFlush(scenario.actorFK(actor).riskValue(new BigDecimal(1000)));
+
+        // Get the summaries, riskiest first
+        restScenarioMockMvc
+            .perform(get(ENTITY_API_URL + "?view=summary&sort=riskValue,desc&count=false"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].id").value(scenario.getId().intValue()))
+            .andExpect(jsonPath("$.[0].title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.[0].riskValue").value(sameNumber(new BigDecimal(1000))))
+            .andExpect(jsonPath("$.[0].actorId").value(actor.getId().intValue()))
+            .andExpect(jsonPath("$.[0].actorNickName").value(actor.getNickName()))
+            .andExpect(jsonPath("$.[0].technologyId").isEmpty())
+            .andExpect(jsonPath("$.[0].description").doesNotExist())
+            .andExpect(jsonPath("$.[0].actorFK").doesNotExist());
+        restScenarioMockMvc
+            .perform(get(ENTITY_API_URL + "?view=summary&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(scenario.getId().intValue())));
+        restScenarioMockMvc.perform(get(ENTITY_API_URL + "?view=summary&after=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllScenariosByKeyset() throws Exception {
+        // Initialize the database
+        Scenario highest = scenarioRepository.saveAndFlush(createEntity(em).title("keyset-1").riskValue(new BigDecimal(3)));
+        Scenario tiedFirst = scenarioRepository.saveAndFlush(createEntity(em).title("keyset-2").riskValue(new BigDecimal(2)));
+        Scenario tiedSecond = scenarioRepository.saveAndFlush(createEntity(em).title("keyset-3").riskValue(new BigDecimal(2)));
+        Scenario unscored = scenarioRepository.saveAndFlush(createEntity(em).title("keyset-4").riskValue(null));
+        Scenario unscoredLater = scenarioRepository.saveAndFlush(createEntity(em).title("keyset-5").riskValue(null));
+        List<Long> created = List.of(highest.getId(), tiedFirst.getId(), tiedSecond.getId(), unscored.getId(), unscoredLater.getId());
+
+        // Walk every page through the next links
+        List<Long> ids = new ArrayList<>();
+        URI next = URI.create(ENTITY_API_URL + "?sort=riskValue,desc&size=2&after=");
+        while (next != null) {
+            MvcResult result = restScenarioMockMvc
+                .perform(get(next))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"first\"")))
+                .andReturn();
+            for (Object id : JsonPath.<List<Object>>read(result.getResponse().getContentAsString(), "$.[*].id")) {
+                ids.add(((Number) id).longValue());
+            }
+            Matcher link = NEXT_LINK.matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+            next = link.find() ? URI.create(link.group(1)) : null;
+        }
+
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids.stream().filter(created::contains))
+            .containsExactly(highest.getId(), tiedSecond.getId(), tiedFirst.getId(), unscoredLater.getId(), unscored.getId());
+    }
+
+    @Test
+    @Transactional
+    void getAllScenariosWithoutCount() throws Exception {
+        // Initialize the database
+        scenarioRepository.saveAndFlush(scenario);
+        scenarioRepository.saveAndFlush(createEntity(em).title("uncounted"));
+
+        restScenarioMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&page=0&size=1&count=false"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("count=false&page=1&size=1>; rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getAllScenariosAfterInvalidKeyset() throws Exception {
+        restScenarioMockMvc.perform(get(ENTITY_API_URL + "?after=invalid")).andExpect(status().isBadRequest());
+        restScenarioMockMvc.perform(get(ENTITY_API_URL + "?sort=title&sort=riskValue&after=")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getScenario() throws Exception {
@@ -261,8 +399,8 @@ class ScenarioResourceIT {
         assertThat(testScenario.getQonsequence()).isEqualByComparingTo(UPDATED_QONSEQUENCE);
         assertThat(testScenario.getRiskValue()).isEqualByComparingTo(UPDATED_RISK_VALUE);
 
-        // Validate the Scenario in Elasticsearch
-        verify(mockScenarioSearchRepository).save(testScenario);
+        // Validate the Scenario is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).contains(testScenario.getId());
     }
 
     @Test
@@ -466,6 +604,108 @@ class ScenarioResourceIT {
         verify(mockScenarioSearchRepository, times(0)).save(scenario);
     }
 
+    @Test
+    @Transactional
+    void getScenarioIsTaggedWithItsVersion() throws Exception {
+        // Initialize the database
+        scenarioRepository.saveAndFlush(scenario);
+
+        restScenarioMockMvc
+            .perform(get(ENTITY_API_URL_ID, scenario.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    @Transactional
+    void patchScenarioIfMatch() throws Exception {
+        // Initialize the database
+        scenarioRepository.saveAndFlush(scenario);
+
+        Scenario partialUpdatedScenario = new Scenario();
+        partialUpdatedScenario.setId(scenario.getId());
+        partialUpdatedScenario.title(UPDATED_TITLE);
+
+        restScenarioMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, scenario.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedScenario))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+    }
+
+    @Test
+    @Transactional
+    void patchScenarioIfMatchStaleVersion() throws Exception {
+        // Initialize the database
+        scenarioRepository.saveAndFlush(scenario);
+
+        Scenario partialUpdatedScenario = new Scenario();
+        partialUpdatedScenario.setId(scenario.getId());
+        partialUpdatedScenario.title(UPDATED_TITLE);
+
+        // The scenario changed since it was read, so the update is refused with the current scenario
+        restScenarioMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, scenario.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"7\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedScenario))
+            )
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE));
+
+        // Validate the Scenario in the database
+        assertThat(scenarioRepository.findById(scenario.getId()).get().getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void putScenarioIfMatchStaleVersion() throws Exception {
+        // Initialize the database
+        scenarioRepository.saveAndFlush(scenario);
+
+        Scenario updatedScenario = new Scenario();
+        updatedScenario.setId(scenario.getId());
+        updatedScenario.title(UPDATED_TITLE).probability(UPDATED_PROBABILITY).qonsequence(UPDATED_QONSEQUENCE);
+
+        restScenarioMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, scenario.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"7\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedScenario))
+            )
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE));
+
+        // Validate the Scenario in Elasticsearch
+        verify(mockScenarioSearchRepository, times(0)).save(any(Scenario.class));
+    }
+
+    @Test
+    @Transactional
+    void putScenarioWithInvalidIfMatch() throws Exception {
+        // Initialize the database
+        scenarioRepository.saveAndFlush(scenario);
+
+        restScenarioMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, scenario.getId())
+                    .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(scenario))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void deleteScenario() throws Exception {
@@ -483,8 +723,8 @@ class ScenarioResourceIT {
         List<Scenario> scenarioList = scenarioRepository.findAll();
         assertThat(scenarioList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Scenario in Elasticsearch
-        verify(mockScenarioSearchRepository, times(1)).deleteById(scenario.getId());
+        // Validate the Scenario is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.SCENARIO)).contains(scenario.getId());
     }
 
     @Test
@@ -508,4 +748,198 @@ class ScenarioResourceIT {
             .andExpect(jsonPath("$.[*].qonsequence").value(hasItem(sameNumber(DEFAULT_QONSEQUENCE))))
             .andExpect(jsonPath("$.[*].riskValue").value(hasItem(sameNumber(DEFAULT_RISK_VALUE))));
     }
+
+    @Test
+    @Transactional
+    void searchScenarioCountsAllHits() throws Exception {
+        scenarioRepository.saveAndFlush(scenario);
+        when(mockScenarioSearchRepository.search("title:*", PageRequest.of(0, 1)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(scenario), PageRequest.of(0, 1), 12_345));
+
+        restScenarioMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=title:*&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "12345"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(scenario.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void searchScenarioAfterACursor() throws Exception {
+        scenarioRepository.saveAndFlush(scenario);
+        SearchCursor first = SearchCursor.first(Sort.by(Sort.Order.desc("riskValue")));
+        SearchCursor next = first.after(List.of(DEFAULT_RISK_VALUE.doubleValue(), scenario.getId()));
+        when(mockScenarioSearchRepository.search("title:*", first, 1))
+            .thenReturn(new SearchCursorPage<>(Collections.singletonList(scenario), next, 12_345));
+        when(mockScenarioSearchRepository.search("title:*", next, 1)).thenReturn(new SearchCursorPage<>(List.of(), null, 12_345));
+
+        restScenarioMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=title:*&size=1&sort=riskValue,desc&after="))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "12345"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + next.encode() + ">; rel=\"next\"")))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(scenario.getId().intValue())));
+        restScenarioMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=title:*&size=1&after=" + next.encode()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))))
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void searchScenarioWithInvalidCursor() throws Exception {
+        restScenarioMockMvc.perform(get(ENTITY_SEARCH_API_URL + "?query=title:*&after=invalid")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchScenarioPastTheResultWindow() throws Exception {
+        restScenarioMockMvc.perform(get(ENTITY_SEARCH_API_URL + "?query=title:*&page=500&size=20")).andExpect(status().isBadRequest());
+
+        verify(mockScenarioSearchRepository, never()).search(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    @Transactional
+    void searchFacetedScenarios() throws Exception {
+        scenarioRepository.saveAndFlush(scenario);
+        Map<String, List<FacetedPage.Bucket>> facets = new LinkedHashMap<>();
+        facets.put(
+            "riskValue",
+            List.of(new FacetedPage.Bucket("*-1000.0", null, 1000.0, 1), new FacetedPage.Bucket("1000.0-*", 1000.0, null, 0))
+        );
+        facets.put("technologyCategory", List.of(new FacetedPage.Bucket("SERVICE", null, null, 1)));
+        when(
+            mockScenarioSearchRepository.search(
+                argThat((FacetedSearch search) -> search.toString().contains("filters=[riskValue, technologyCategory]")),
+                eq(PageRequest.of(0, 20))
+            )
+        )
+            .thenReturn(new FacetedPage<>(new PageImpl<>(List.of(scenario), PageRequest.of(0, 20), 1), facets));
+
+        restScenarioMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "/faceted?query=title&riskValue.lessThan=1000&technologyCategory.in=SERVICE,COMPONENT"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.content.[*].id").value(hasItem(scenario.getId().intValue())))
+            .andExpect(jsonPath("$.facets.riskValue[0].key").value("*-1000.0"))
+            .andExpect(jsonPath("$.facets.riskValue[0].from").doesNotExist())
+            .andExpect(jsonPath("$.facets.riskValue[0].to").value(1000.0))
+            .andExpect(jsonPath("$.facets.riskValue[1].count").value(0))
+            .andExpect(jsonPath("$.facets.technologyCategory[0].key").value("SERVICE"))
+            .andExpect(jsonPath("$.facets.technologyCategory[0].count").value(1));
+    }
+
+    @Test
+    @Transactional
+    void searchFacetedScenariosPastTheResultWindow() throws Exception {
+        restScenarioMockMvc.perform(get(ENTITY_SEARCH_API_URL + "/faceted?page=500&size=20")).andExpect(status().isBadRequest());
+
+        verify(mockScenarioSearchRepository, never()).search(any(FacetedSearch.class), any(Pageable.class));
+    }
+
+    @Test
+    @Transactional
+    void importScenariosFromNdjson() throws Exception {
+        scenarioRepository.saveAndFlush(scenario);
+        Actor actor = ActorResourceIT.createEntity(em);
+        em.persist(actor);
+        em.flush();
+        int databaseSizeBeforeImport = scenarioRepository.findAll().size();
+
+        String rows =
+            "{\"title\":\"imported-1\",\"probability\":2,\"qonsequence\":\"3.5\",\"actorId\":" +
+            actor.getId() +
+            "}\n" +
+            "\n" +
+            "{\"title\":\"imported-2\",\"actorId\":" +
+            Long.MAX_VALUE +
+            "}\n" +
+            "{\"title\":\"" +
+            DEFAULT_TITLE +
+            "\"}\n" +
+            "{\"title\":\"imported-3\",\"probability\":\"high\"}\n" +
+            "{\"title\":\"imported-4\"\n" +
+            "{\"title\":\"imported-1\"}\n";
+        restScenarioMockMvc
+            .perform(post(ENTITY_IMPORT_API_URL).contentType(MediaType.APPLICATION_NDJSON).content(rows))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(
+                content()
+                    .string(
+                        stringContainsInOrder(
+                            "{\"line\":3,\"title\":\"imported-2\",\"message\":\"actorId " + Long.MAX_VALUE + " does not exist\"}",
+                            "{\"line\":4,\"title\":\"" + DEFAULT_TITLE + "\",\"message\":\"title is already used\"}",
+                            "{\"line\":5,\"title\":\"imported-3\",\"message\":\"probability is not a number: high\"}",
+                            "{\"line\":6,\"title\":null,\"message\":\"malformed JSON",
+                            "{\"line\":7,\"title\":\"imported-1\",\"message\":\"title is used by an earlier row\"}",
+                            "\"read\":6,\"imported\":1,\"rejected\":5"
+                        )
+                    )
+            );
+
+        List<Scenario> scenarioList = scenarioRepository.findAll();
+        assertThat(scenarioList).hasSize(databaseSizeBeforeImport + 1);
+        Scenario imported = scenarioList.stream().filter(s -> "imported-1".equals(s.getTitle())).findFirst().orElseThrow();
+        assertThat(imported.getRiskValue()).isEqualByComparingTo(new BigDecimal("7.00"));
+        assertThat(imported.getActorFK().getId()).isEqualTo(actor.getId());
+    }
+
+    @Test
+    @Transactional
+    void importScenariosWithRiskValuesOutOfRange() throws Exception {
+        int databaseSizeBeforeImport = scenarioRepository.findAll().size();
+
+        String rows =
+            "title,probability,qonsequence\r\n" +
+            "imported-1,2,2\r\n" +
+            "imported-2,1000000000,1000000000\r\n" +
+            "imported-3,1000000000000000000,1\r\n" +
+            "imported-4,3,3\r\n";
+        restScenarioMockMvc
+            .perform(post(ENTITY_IMPORT_API_URL).contentType("text/csv;charset=UTF-8").content(rows))
+            .andExpect(status().isOk())
+            .andExpect(
+                content()
+                    .string(
+                        stringContainsInOrder(
+                            "{\"line\":3,\"title\":\"imported-2\",\"message\":\"riskValue is out of range\"}",
+                            "{\"line\":4,\"title\":\"imported-3\",\"message\":\"probability is out of range: 1000000000000000000\"}",
+                            "\"read\":4,\"imported\":2,\"rejected\":2"
+                        )
+                    )
+            );
+
+        assertThat(scenarioRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
+    @Test
+    @Transactional
+    void importScenariosFromCsv() throws Exception {
+        int databaseSizeBeforeImport = scenarioRepository.findAll().size();
+
+        String rows =
+            "title,description,probability,qonsequence\r\n" +
+            "imported-1,\"Spans, \"\"quoted\"\"\nlines\",2,2\r\n" +
+            "imported-2,,,\r\n" +
+            "imported-3,too few\r\n";
+        restScenarioMockMvc
+            .perform(post(ENTITY_IMPORT_API_URL).contentType("text/csv;charset=UTF-8").content(rows))
+            .andExpect(status().isOk())
+            .andExpect(
+                content()
+                    .string(
+                        stringContainsInOrder(
+                            "{\"line\":5,\"title\":null,\"message\":\"expected 4 fields, found 2\"}",
+                            "\"read\":3,\"imported\":2,\"rejected\":1"
+                        )
+                    )
+            );
+
+        List<Scenario> scenarioList = scenarioRepository.findAll();
+        assertThat(scenarioList).hasSize(databaseSizeBeforeImport + 2);
+        Scenario imported = scenarioList.stream().filter(s -> "imported-1".equals(s.getTitle())).findFirst().orElseThrow();
+        assertThat(imported.getDescription()).isEqualTo("Spans, \"quoted\"\nlines");
+        assertThat(imported.getRiskValue()).isEqualByComparingTo(new BigDecimal("4.00"));
+    }
 }
@@ -0,0 +1,55 @@
+package com.gobr.pragrisk.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.gobr.pragrisk.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link SearchSuggestResource} REST controller.
+ * <p>
+ * No request of these tests reaches Elasticsearch: the suggestions themselves are tested by the
+ * {@link com.gobr.pragrisk.service.search.SearchSuggestServiceTest}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SearchSuggestResourceIT {
+
+    private static final String SUGGEST_API_URL = "/api/_suggest/{type}";
+
+    @Autowired
+    private MockMvc restSuggestMockMvc;
+
+    @Test
+    void blankPrefixesSuggestNothing() throws Exception {
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "actors").param("prefix", "  "))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void suggestUnknownType() throws Exception {
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "environments").param("prefix", "prod"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.unknowntype"));
+    }
+
+    @Test
+    void suggestTooManyEntities() throws Exception {
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "vulnerabilities").param("prefix", "cwe").param("size", "51"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidsize"));
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "vulnerabilities").param("prefix", "cwe").param("size", "0"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -1,5 +1,6 @@
 package com.gobr.pragrisk.web.rest;
 
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -10,8 +11,10 @@ import com.gobr.pragrisk.IntegrationTest;
 import com.gobr.pragrisk.domain.Technology;
 import com.gobr.pragrisk.domain.enumeration.TechCategory;
 import com.gobr.pragrisk.domain.enumeration.TechStack;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
 import com.gobr.pragrisk.repository.TechnologyRepository;
 import com.gobr.pragrisk.repository.search.TechnologySearchRepository;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -70,6 +73,9 @@ class TechnologyResourceIT {
     @Autowired
     private TechnologySearchRepository mockTechnologySearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -131,8 +137,8 @@ class TechnologyResourceIT {
         assertThat(testTechnology.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
         assertThat(testTechnology.getTechStackType()).isEqualTo(DEFAULT_TECH_STACK_TYPE);
 
-        // Validate the Technology in Elasticsearch
-        verify(mockTechnologySearchRepository, times(1)).save(testTechnology);
+        // Validate the Technology is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.TECHNOLOGY)).contains(testTechnology.getId());
     }
 
     @Test
@@ -285,8 +291,8 @@ class TechnologyResourceIT {
         assertThat(testTechnology.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
         assertThat(testTechnology.getTechStackType()).isEqualTo(UPDATED_TECH_STACK_TYPE);
 
-        // Validate the Technology in Elasticsearch
-        verify(mockTechnologySearchRepository).save(testTechnology);
+        // Validate the Technology is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.TECHNOLOGY)).contains(testTechnology.getId());
     }
 
     @Test
@@ -506,8 +512,8 @@ class TechnologyResourceIT {
         List<Technology> technologyList = technologyRepository.findAll();
         assertThat(technologyList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Technology in Elasticsearch
-        verify(mockTechnologySearchRepository, times(1)).deleteById(technology.getId());
+        // Validate the Technology is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.TECHNOLOGY)).contains(technology.getId());
     }
 
     @Test
@@ -6,11 +6,15 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gobr.pragrisk.repository.SearchOutboxEntry;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -202,5 +206,21 @@ public final class TestUtil {
         return allQuery.getResultList();
     }
 
+    /**
+     * Get the ids of the documents of a type waiting in the search outbox.
+     *
+     * @param searchOutboxRepository the search outbox.
+     * @param type the type of the documents.
+     * @return the ids, in the order they were queued.
+     */
+    public static List<Long> findQueuedDocumentIds(SearchOutboxRepository searchOutboxRepository, SearchDocumentType type) {
+        return searchOutboxRepository
+            .findPending(Integer.MAX_VALUE, Integer.MAX_VALUE)
+            .stream()
+            .filter(entry -> entry.getDocumentType().equals(type.name()))
+            .map(SearchOutboxEntry::getDocumentId)
+            .collect(Collectors.toList());
+    }
+
     private TestUtil() {}
 }
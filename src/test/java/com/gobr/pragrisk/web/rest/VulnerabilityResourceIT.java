@@ -1,5 +1,6 @@
 package com.gobr.pragrisk.web.rest;
 
+import static com.gobr.pragrisk.web.rest.TestUtil.findQueuedDocumentIds;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -8,9 +9,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.gobr.pragrisk.IntegrationTest;
 import com.gobr.pragrisk.domain.Vulnerability;
+import com.gobr.pragrisk.repository.SearchOutboxRepository;
 import com.gobr.pragrisk.repository.VulnerabilityRepository;
 import com.gobr.pragrisk.repository.search.VulnerabilitySearchRepository;
+import com.gobr.pragrisk.security.AuthoritiesConstants;
 import com.gobr.pragrisk.service.VulnerabilityService;
+import com.gobr.pragrisk.service.search.SearchDocumentType;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -52,6 +56,7 @@ class VulnerabilityResourceIT {
     private static final String ENTITY_API_URL = "/api/vulnerabilities";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/vulnerabilities";
+    private static final String CATALOGUE_API_URL = "/api/admin/vulnerabilities/catalogue";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -73,6 +78,9 @@ class VulnerabilityResourceIT {
     @Autowired
     private VulnerabilitySearchRepository mockVulnerabilitySearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -125,8 +133,8 @@ class VulnerabilityResourceIT {
         assertThat(testVulnerability.getCweReference()).isEqualTo(DEFAULT_CWE_REFERENCE);
         assertThat(testVulnerability.getCvss()).isEqualTo(DEFAULT_CVSS);
 
-        // Validate the Vulnerability in Elasticsearch
-        verify(mockVulnerabilitySearchRepository, times(1)).save(testVulnerability);
+        // Validate the Vulnerability is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.VULNERABILITY)).contains(testVulnerability.getId());
     }
 
     @Test
@@ -256,8 +264,8 @@ class VulnerabilityResourceIT {
         assertThat(testVulnerability.getCweReference()).isEqualTo(UPDATED_CWE_REFERENCE);
         assertThat(testVulnerability.getCvss()).isEqualTo(UPDATED_CVSS);
 
-        // Validate the Vulnerability in Elasticsearch
-        verify(mockVulnerabilitySearchRepository).save(testVulnerability);
+        // Validate the Vulnerability is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.VULNERABILITY)).contains(testVulnerability.getId());
     }
 
     @Test
@@ -471,8 +479,8 @@ class VulnerabilityResourceIT {
         List<Vulnerability> vulnerabilityList = vulnerabilityRepository.findAll();
         assertThat(vulnerabilityList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Vulnerability in Elasticsearch
-        verify(mockVulnerabilitySearchRepository, times(1)).deleteById(vulnerability.getId());
+        // Validate the Vulnerability is queued for Elasticsearch
+        assertThat(findQueuedDocumentIds(searchOutboxRepository, SearchDocumentType.VULNERABILITY)).contains(vulnerability.getId());
     }
 
     @Test
@@ -494,4 +502,52 @@ class VulnerabilityResourceIT {
             .andExpect(jsonPath("$.[*].cweReference").value(hasItem(DEFAULT_CWE_REFERENCE)))
             .andExpect(jsonPath("$.[*].cvss").value(hasItem(DEFAULT_CVSS)));
     }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importVulnerabilityCatalogueTwice() throws Exception {
+        int databaseSizeBeforeImport = vulnerabilityRepository.findAll().size();
+
+        restVulnerabilityMockMvc
+            .perform(post(CATALOGUE_API_URL).param("format", "CWE_XML").content(cweCatalogue("Cross-site Scripting")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.read").value(2))
+            .andExpect(jsonPath("$.inserted").value(2))
+            .andExpect(jsonPath("$.updated").value(0));
+
+        restVulnerabilityMockMvc
+            .perform(post(CATALOGUE_API_URL).param("format", "CWE_XML").content(cweCatalogue("Improper Neutralization")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inserted").value(0))
+            .andExpect(jsonPath("$.updated").value(1))
+            .andExpect(jsonPath("$.unchanged").value(1));
+
+        em.clear();
+        List<Vulnerability> vulnerabilityList = vulnerabilityRepository.findAll();
+        assertThat(vulnerabilityList).hasSize(databaseSizeBeforeImport + 2);
+        assertThat(vulnerabilityList)
+            .filteredOn(vulnerability -> "CWE-79".equals(vulnerability.getCweReference()))
+            .extracting(Vulnerability::getName)
+            .containsExactly("Improper Neutralization");
+    }
+
+    @Test
+    @Transactional
+    void importVulnerabilityCatalogueRequiresAdmin() throws Exception {
+        restVulnerabilityMockMvc
+            .perform(post(CATALOGUE_API_URL).param("format", "CWE_XML").content(cweCatalogue("Cross-site Scripting")))
+            .andExpect(status().isForbidden());
+    }
+
+    private static String cweCatalogue(String xssName) {
+        return (
+            "<Weakness_Catalog><Weaknesses>" +
+            "<Weakness ID=\"79\" Name=\"" +
+            xssName +
+            "\"/>" +
+            "<Weakness ID=\"89\" Name=\"SQL Injection\"/>" +
+            "</Weaknesses></Weakness_Catalog>"
+        );
+    }
 }